@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.benchmark;
+
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.Translator;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.ExecuteSession;
+import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
+import com.cloudera.utils.hms.mirror.domain.support.TableType;
+import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
+import com.cloudera.utils.hms.mirror.utils.ConfigTest;
+import com.cloudera.utils.hms.util.TableDefinitionLines;
+import com.cloudera.utils.hms.util.TableUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static com.cloudera.utils.hms.mirror.MirrorConf.DB_LOCATION;
+import static com.cloudera.utils.hms.mirror.MirrorConf.DB_MANAGED_LOCATION;
+import static java.util.Objects.isNull;
+
+/*
+The data the benchmarks run over.  The tables of the test data sets (src/test/resources/test_data) are used as
+templates and copied (renamed and relocated) until there are 'tables' tables spread over 'databases'
+databases.  The 'partitions' are spread evenly over the copies of the partitioned templates.
+
+The defaults (100k tables, 1M partitions) need a few GB of heap, see the '@Fork' of the benchmarks.
+ */
+public final class BenchmarkData {
+
+    public static final String LEFT_NAMESPACE = "hdfs://LEFT";
+    public static final String RIGHT_NAMESPACE = "hdfs://RIGHT";
+    public static final String EXTERNAL_DIR = "/warehouse/tablespace/external/hive";
+    public static final String MANAGED_DIR = "/warehouse/tablespace/managed/hive";
+
+    static final String DEFAULT_CONFIG = "/config/default_01.yaml";
+
+    static final String[] TEST_DATA = {
+            "/test_data/acid_w_parts_01.yaml",
+            "/test_data/acid_w_parts_02.yaml",
+            "/test_data/assorted_tbls_01.yaml",
+            "/test_data/assorted_tbls_02.yaml",
+            "/test_data/assorted_tbls_03.yaml",
+            "/test_data/exists_01.yaml",
+            "/test_data/exists_parts_02.yaml",
+            "/test_data/ext_purge_odd_parts.yaml",
+            "/test_data/ext_purge_odd_parts_01.yaml",
+            "/test_data/ext_purge_odd_parts_02.yaml",
+            "/test_data/ext_purge_parts_01.yaml",
+            "/test_data/legacy_mngd_no_parts.yaml",
+            "/test_data/legacy_mngd_no_parts_ip.yaml",
+            "/test_data/legacy_mngd_parts_01.yaml",
+            "/test_data/legacy_mngd_parts_02.yaml"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /*
+    The LEFT table definitions of the test data sets that have a location, by table name.
+     */
+    public static List<EnvironmentTable> templates() throws IOException {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        Map<String, EnvironmentTable> rtn = new TreeMap<>();
+        for (String resource : TEST_DATA) {
+            String yaml;
+            try (InputStream in = BenchmarkData.class.getResourceAsStream(resource)) {
+                if (isNull(in)) {
+                    throw new IOException("Couldn't locate test data: " + resource);
+                }
+                yaml = IOUtils.toString(in, StandardCharsets.UTF_8);
+            }
+            Conversion conversion = mapper.readerFor(Conversion.class).readValue(yaml);
+            for (DBMirror dbMirror : conversion.getDatabases().values()) {
+                for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+                    EnvironmentTable left = tableMirror.getEnvironmentTable(Environment.LEFT);
+                    if (left.isDefined() && !TableUtils.isView(left)
+                            && TableUtils.getLocation(left.getName(), left.getDefinition()) != null) {
+                        rtn.putIfAbsent(tableMirror.getName(), left);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(rtn.values());
+    }
+
+    public static String databaseName(int db) {
+        return String.format("bench_db_%04d", db);
+    }
+
+    public static String databaseLocation(String database, boolean external) {
+        return LEFT_NAMESPACE + (external ? EXTERNAL_DIR : MANAGED_DIR) + "/" + database + ".db";
+    }
+
+    /*
+    A conversion with 'tables' tables over 'databases' databases and 'partitions' partitions (in total).
+     */
+    public static Conversion conversion(int databases, int tables, int partitions) throws IOException {
+        List<EnvironmentTable> templates = templates();
+        int partitionedTables = 0;
+        for (int t = 0; t < tables; t++) {
+            if (TableUtils.isPartitioned(templates.get(t % templates.size()))) {
+                partitionedTables++;
+            }
+        }
+        int partitionsPerTable = partitionedTables == 0 ? 0 : partitions / partitionedTables;
+
+        Conversion conversion = new Conversion();
+        for (int db = 0; db < databases; db++) {
+            String database = databaseName(db);
+            DBMirror dbMirror = conversion.addDatabase(database);
+            dbMirror.setProperty(Environment.LEFT, DB_LOCATION, databaseLocation(database, true));
+            dbMirror.setProperty(Environment.LEFT, DB_MANAGED_LOCATION, databaseLocation(database, false));
+        }
+        for (int t = 0; t < tables; t++) {
+            EnvironmentTable template = templates.get(t % templates.size());
+            DBMirror dbMirror = conversion.getDatabase(databaseName(t % databases));
+            String name = template.getName() + "_" + t;
+
+            TableMirror tableMirror = new TableMirror();
+            tableMirror.setName(name);
+            tableMirror.setParent(dbMirror);
+            dbMirror.getTableMirrors().put(name, tableMirror);
+
+            EnvironmentTable left = tableMirror.getEnvironmentTable(Environment.LEFT);
+            List<String> definition = new TableDefinitionLines(template.getDefinition());
+            TableUtils.changeTableName(template.getName(), name, definition);
+            String location = databaseLocation(dbMirror.getName(), TableUtils.isExternal(template)) + "/" + name;
+            TableUtils.updateTableLocation(name, definition, location);
+            left.setName(name);
+            left.setExists(Boolean.TRUE);
+            left.setDefinition(definition);
+
+            if (TableUtils.isPartitioned(template)) {
+                Map<String, String> parts = new LinkedHashMap<>();
+                for (int p = 0; p < partitionsPerTable; p++) {
+                    String spec = "dt=" + partitionDate(p);
+                    parts.put(spec, location + "/" + spec);
+                }
+                left.setPartitions(parts);
+            }
+
+            EnvironmentTable right = tableMirror.getEnvironmentTable(Environment.RIGHT);
+            right.setName(name);
+            right.setDefinition(new TableDefinitionLines(definition));
+        }
+        return conversion;
+    }
+
+    private static String partitionDate(int p) {
+        return String.format("%04d-%02d-%02d", 2000 + p / 336, 1 + (p / 28) % 12, 1 + p % 28);
+    }
+
+    /*
+    The default test config, with a 'glm' entry for each database of the conversion.
+     */
+    public static HmsMirrorConfig config(Conversion conversion) throws IOException {
+        HmsMirrorConfig config = ConfigTest.deserializeResource(DEFAULT_CONFIG);
+        config.getTransfer().setTargetNamespace(RIGHT_NAMESPACE);
+        Translator translator = new Translator();
+        for (String database : conversion.getDatabases().keySet()) {
+            translator.addUserGlobalLocationMap(TableType.EXTERNAL_TABLE, EXTERNAL_DIR + "/" + database + ".db",
+                    "/data/external/" + database + ".db");
+            translator.addUserGlobalLocationMap(TableType.MANAGED_TABLE, MANAGED_DIR + "/" + database + ".db",
+                    "/data/managed/" + database + ".db");
+        }
+        translator.rebuildOrderedGlobalLocationMap();
+        config.setTranslator(translator);
+        config.setDatabases(new TreeSet<>(conversion.getDatabases().keySet()));
+        return config;
+    }
+
+    /*
+    A session service with the conversion and config loaded, without any of the connections.
+     */
+    public static ExecuteSessionService sessionService(HmsMirrorConfig config, Conversion conversion) {
+        ExecuteSessionService executeSessionService = new ExecuteSessionService(null, null, null);
+        ExecuteSession session = executeSessionService.createSession("benchmark", config);
+        session.setConversion(conversion);
+        session.setRunStatus(new RunStatus());
+        executeSessionService.setSession(session);
+        return executeSessionService;
+    }
+
+    /*
+    Every table and partition location of the conversion.
+     */
+    public static String[] locations(Conversion conversion) {
+        List<String> rtn = new ArrayList<>();
+        for (DBMirror dbMirror : conversion.getDatabases().values()) {
+            for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+                EnvironmentTable left = tableMirror.getEnvironmentTable(Environment.LEFT);
+                rtn.add(TableUtils.getLocation(left.getName(), left.getDefinition()));
+                rtn.addAll(left.getPartitions().values());
+            }
+        }
+        return rtn.toArray(new String[0]);
+    }
+
+    public static List<TableMirror> tables(Conversion conversion) {
+        List<TableMirror> rtn = new ArrayList<>();
+        for (DBMirror dbMirror : conversion.getDatabases().values()) {
+            rtn.addAll(dbMirror.getTableMirrors().values());
+        }
+        return rtn;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.benchmark;
+
+import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+/*
+The scaled conversion (see BenchmarkData) and a session over it, shared by the benchmarks of a fork.
+ */
+@State(Scope.Benchmark)
+public class ConversionState {
+
+    @Param("100")
+    public int databases;
+
+    @Param("100000")
+    public int tables;
+
+    @Param("1000000")
+    public int partitions;
+
+    public Conversion conversion;
+    public HmsMirrorConfig config;
+    public ExecuteSessionService executeSessionService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        conversion = BenchmarkData.conversion(databases, tables, partitions);
+        config = BenchmarkData.config(conversion);
+        executeSessionService = BenchmarkData.sessionService(config, conversion);
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.benchmark;
+
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.service.DistCpService;
+import com.cloudera.utils.hms.util.NamespaceUtils;
+import com.cloudera.utils.hms.util.TableUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+The distcp source lists of a database, with a translation for each table and partition location.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Thread)
+public class DistCpBenchmark {
+
+    @Param({"0", "1"})
+    public int consolidationLevel;
+
+    private ConversionState state;
+    private DistCpService distCpService;
+    private String[] databases;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup(ConversionState state) {
+        this.state = state;
+        distCpService = new DistCpService(new ObjectMapper(new YAMLFactory()));
+        databases = state.conversion.getDatabases().keySet().toArray(new String[0]);
+        for (DBMirror dbMirror : state.conversion.getDatabases().values()) {
+            for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+                EnvironmentTable left = tableMirror.getEnvironmentTable(Environment.LEFT);
+                addTranslation(dbMirror.getName(), TableUtils.getLocation(left.getName(), left.getDefinition()), 1);
+                for (String location : left.getPartitions().values()) {
+                    addTranslation(dbMirror.getName(), location, 2);
+                }
+            }
+        }
+    }
+
+    private void addTranslation(String database, String location, int level) {
+        String target = BenchmarkData.RIGHT_NAMESPACE + NamespaceUtils.stripNamespace(location)
+                .replace("/warehouse/tablespace/", "/data/");
+        state.config.getTranslator().addTranslation(database, Environment.LEFT, location, target, level, false);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Set<String>>> buildDistcpListForDatabase() {
+        if (next == databases.length) {
+            next = 0;
+        }
+        return distCpService.buildDistcpListForDatabase(state.config, databases[next++], Environment.LEFT,
+                consolidationLevel, false);
+    }
+
+}
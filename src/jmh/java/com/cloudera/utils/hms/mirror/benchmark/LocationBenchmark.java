@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.benchmark;
+
+import com.cloudera.utils.hms.util.NamespaceUtils;
+import com.cloudera.utils.hms.util.UrlUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+The regex based location helpers, over every table and partition location of the scaled conversion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class LocationBenchmark {
+
+    private String[] locations;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup(ConversionState state) {
+        locations = BenchmarkData.locations(state.conversion);
+    }
+
+    private String nextLocation() {
+        if (next == locations.length) {
+            next = 0;
+        }
+        return locations[next++];
+    }
+
+    @Benchmark
+    public String getNamespace() {
+        return NamespaceUtils.getNamespace(nextLocation());
+    }
+
+    @Benchmark
+    public String stripNamespace() {
+        return NamespaceUtils.stripNamespace(nextLocation());
+    }
+
+    @Benchmark
+    public String getLastDirectory() {
+        return NamespaceUtils.getLastDirectory(nextLocation());
+    }
+
+    @Benchmark
+    public String getParentDirectory() {
+        return NamespaceUtils.getParentDirectory(nextLocation());
+    }
+
+    @Benchmark
+    public String reduceUrlBy() {
+        return UrlUtils.reduceUrlBy(nextLocation(), 1);
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+The markdown report of a database, built as a String ('toReport') and streamed to a sink that only counts
+the characters ('writeReport').
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Thread)
+public class ReportBenchmark {
+
+    private ConversionState state;
+    private String[] databases;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup(ConversionState state) {
+        this.state = state;
+        databases = state.conversion.getDatabases().keySet().toArray(new String[0]);
+    }
+
+    private String nextDatabase() {
+        if (next == databases.length) {
+            next = 0;
+        }
+        return databases[next++];
+    }
+
+    @Benchmark
+    public String toReport() throws JsonProcessingException {
+        return state.conversion.toReport(nextDatabase(), state.executeSessionService);
+    }
+
+    @Benchmark
+    public long writeReport() throws IOException {
+        long[] length = new long[1];
+        state.conversion.writeReport(nextDatabase(), state.executeSessionService,
+                markdown -> length[0] += markdown.length());
+        return length[0];
+    }
+
+}
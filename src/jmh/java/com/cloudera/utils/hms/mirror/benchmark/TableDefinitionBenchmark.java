@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.benchmark;
+
+import com.cloudera.utils.hms.mirror.TablePropertyVars;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.util.TableDefinitionLines;
+import com.cloudera.utils.hms.util.TableUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+The TableUtils predicates and the definition mutators, over the table definitions of the test data sets.  Each
+mutator works on a fresh copy of a definition; 'copy' is the cost of that copy on its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TableDefinitionBenchmark {
+
+    private EnvironmentTable[] templates;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        templates = BenchmarkData.templates().toArray(new EnvironmentTable[0]);
+    }
+
+    private EnvironmentTable nextCopy() {
+        if (next == templates.length) {
+            next = 0;
+        }
+        EnvironmentTable template = templates[next++];
+        EnvironmentTable rtn = new EnvironmentTable(null);
+        rtn.setName(template.getName());
+        rtn.setDefinition(new TableDefinitionLines(template.getDefinition()));
+        return rtn;
+    }
+
+    @Benchmark
+    public List<String> copy() {
+        return nextCopy().getDefinition();
+    }
+
+    @Benchmark
+    public void predicates(Blackhole bh) {
+        EnvironmentTable table = nextCopy();
+        bh.consume(TableUtils.isManaged(table));
+        bh.consume(TableUtils.isExternal(table));
+        bh.consume(TableUtils.isACID(table));
+        bh.consume(TableUtils.isExternalPurge(table));
+        bh.consume(TableUtils.isPartitioned(table));
+        bh.consume(TableUtils.isHiveNative(table));
+        bh.consume(TableUtils.isAVROSchemaBased(table));
+        bh.consume(TableUtils.getLocation(table.getName(), table.getDefinition()));
+        bh.consume(TableUtils.getTblProperty(TablePropertyVars.TRANSLATED_TO_EXTERNAL, table));
+    }
+
+    @Benchmark
+    public List<String> changeTableName() {
+        EnvironmentTable table = nextCopy();
+        TableUtils.changeTableName(table, TableUtils.getTableNameFromDefinition(table.getDefinition()) + "_v2");
+        return table.getDefinition();
+    }
+
+    @Benchmark
+    public List<String> updateTableLocation() {
+        EnvironmentTable table = nextCopy();
+        TableUtils.updateTableLocation(table, BenchmarkData.RIGHT_NAMESPACE + "/data/" + table.getName());
+        return table.getDefinition();
+    }
+
+    @Benchmark
+    public List<String> upsertAndRemoveTblProperty() {
+        EnvironmentTable table = nextCopy();
+        TableUtils.upsertTblProperty(TablePropertyVars.HMS_MIRROR_CONVERTED_FLAG, "true", table);
+        TableUtils.removeTblProperty(TablePropertyVars.HMS_MIRROR_CONVERTED_FLAG, table);
+        return table.getDefinition();
+    }
+
+    @Benchmark
+    public List<String> makeExternal() {
+        EnvironmentTable table = nextCopy();
+        TableUtils.makeExternal(table);
+        return table.getDefinition();
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.benchmark;
+
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.exceptions.MismatchException;
+import com.cloudera.utils.hms.mirror.exceptions.MissingDataPointException;
+import com.cloudera.utils.hms.mirror.exceptions.RequiredConfigurationException;
+import com.cloudera.utils.hms.mirror.service.TranslatorService;
+import com.cloudera.utils.hms.mirror.service.WarehouseService;
+import com.cloudera.utils.hms.util.NamespaceUtils;
+import com.cloudera.utils.hms.util.TableUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Table location translation with a 'glm' entry per database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Thread)
+public class TranslatorBenchmark {
+
+    private TranslatorService translatorService;
+    private TableMirror[] tables;
+    private String[] tableLocations;
+    private String[] relativeLocations;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup(ConversionState state) {
+        translatorService = new TranslatorService(state.executeSessionService,
+                new WarehouseService(state.executeSessionService));
+        List<TableMirror> tableList = BenchmarkData.tables(state.conversion);
+        tables = tableList.toArray(new TableMirror[0]);
+        tableLocations = new String[tables.length];
+        relativeLocations = new String[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            EnvironmentTable left = tables[i].getEnvironmentTable(Environment.LEFT);
+            tableLocations[i] = TableUtils.getLocation(left.getName(), left.getDefinition());
+            relativeLocations[i] = NamespaceUtils.stripNamespace(tableLocations[i]);
+        }
+    }
+
+    /*
+    The translation adds issues to the tables, don't let them pile up over the iterations.
+     */
+    @Setup(Level.Iteration)
+    public void resetIssues() {
+        for (TableMirror table : tables) {
+            table.getEnvironmentTable(Environment.LEFT).getIssues().clear();
+            table.getEnvironmentTable(Environment.RIGHT).getIssues().clear();
+        }
+    }
+
+    private int nextIndex() {
+        if (next == tables.length) {
+            next = 0;
+        }
+        return next++;
+    }
+
+    @Benchmark
+    public TranslatorService.GLMResult processGlobalLocationMap() {
+        return translatorService.processGlobalLocationMap(relativeLocations[nextIndex()], Boolean.TRUE);
+    }
+
+    @Benchmark
+    public String translateTableLocation()
+            throws MismatchException, MissingDataPointException, RequiredConfigurationException {
+        int i = nextIndex();
+        return translatorService.translateTableLocation(tables[i], tableLocations[i], 1, null);
+    }
+
+}
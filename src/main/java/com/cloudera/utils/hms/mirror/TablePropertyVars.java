@@ -70,5 +70,6 @@ METADATA Transfer Flag
     String AVRO_SCHEMA_URL_KEY = "avro.schema.url";
     String CONVERTED_TO_ICEBERG = "hms-mirror-CONVERTED_TO_ICEBERG";
     String ICEBERG_FORMAT_VERSION = "format-version";
+    String TRANSIENT_LAST_DDL_TIME = "transient_lastDdlTime";
 
 }
@@ -17,10 +17,12 @@
 
 package com.cloudera.utils.hms.mirror.cli;
 
+import com.cloudera.utils.hms.mirror.PhaseState;
 import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
 import com.cloudera.utils.hms.mirror.domain.TableMirror;
 import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.ConversionSnapshot;
 import com.cloudera.utils.hms.mirror.domain.support.ExecuteSession;
 import com.cloudera.utils.hms.mirror.domain.support.HmsMirrorConfigUtil;
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
@@ -208,47 +210,22 @@ public class CliReporter {
         varMap.put("right.execute.file", outputDir + FileSystems.getDefault().getSeparator() + "<db>_RIGHT_execute.sql");
         varMap.put("right.cleanup.file", outputDir + FileSystems.getDefault().getSeparator() + "<db>_RIGHT_CleanUp_execute.sql");
 
-        varMap.put("total.dbs", Integer.toString(conversion.getDatabases().size()));
-        // Count
-        int tblCount = 0;
-        for (String database : conversion.getDatabases().keySet()) {
-            tblCount += conversion.getDatabase(database).getTableMirrors().size();
-        }
-        varMap.put("total.tbls", Integer.toString(tblCount));
+        // Read the counters the databases keep instead of going through all the tables.
+        ConversionSnapshot snapshot = conversion.snapshot();
+        varMap.put("total.dbs", Integer.toString(snapshot.getDatabaseCount()));
+        varMap.put("total.tbls", Integer.toString(snapshot.getTableCount()));
 
         // Table Counters
-        int started = 0;
-        int completed = 0;
-        int errors = 0;
-        int skipped = 0;
-        for (String database : conversion.getDatabases().keySet()) {
-            DBMirror dbMirror = conversion.getDatabase(database);
-            for (String tbl : dbMirror.getTableMirrors().keySet()) {
-                switch (dbMirror.getTable(tbl).getPhaseState()) {
-                    case INIT:
-                        break;
-                    case APPLYING_SQL:
-                    case CALCULATING_SQL:
-                        started++;
-                        startedTables.add(dbMirror.getTable(tbl));
-                        break;
-                    case CALCULATED_SQL:
-                        if (config.isExecute())
-                            started++;
-                        else
-                            completed++;
-                        break;
-                    case PROCESSED:
-                        completed++;
-                        break;
-                    case ERROR:
-                    case CALCULATED_SQL_WARNING:
-                        errors++;
-                        break;
-                    case RETRY_SKIPPED_PAST_SUCCESS:
-                        skipped++;
-                }
-            }
+        int started = snapshot.getCount(PhaseState.APPLYING_SQL) + snapshot.getCount(PhaseState.CALCULATING_SQL);
+        int completed = snapshot.getCount(PhaseState.PROCESSED);
+        int errors = snapshot.getCount(PhaseState.ERROR) + snapshot.getCount(PhaseState.CALCULATED_SQL_WARNING);
+        int skipped = snapshot.getCount(PhaseState.RETRY_SKIPPED_PAST_SUCCESS);
+        if (config.isExecute())
+            started += snapshot.getCount(PhaseState.CALCULATED_SQL);
+        else
+            completed += snapshot.getCount(PhaseState.CALCULATED_SQL);
+        for (DBMirror dbMirror : conversion.getDatabases().values()) {
+            startedTables.addAll(dbMirror.getActiveTables());
         }
         varMap.put("started.tbls", Integer.toString(started));
         varMap.put("completed.tbls", Integer.toString(completed));
@@ -24,6 +24,7 @@ import com.cloudera.utils.hms.mirror.domain.support.ExecuteSession;
 import com.cloudera.utils.hms.mirror.domain.support.HiveDriverEnum;
 import com.cloudera.utils.hms.mirror.exceptions.SessionException;
 import com.cloudera.utils.hms.mirror.service.ConfigService;
+import com.cloudera.utils.hms.mirror.service.ConversionLoaderService;
 import com.cloudera.utils.hms.mirror.service.DomainService;
 import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
 import com.cloudera.utils.hms.util.TableUtils;
@@ -47,9 +48,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -60,23 +62,23 @@ public class CliInit {
 
     private final DomainService domainService;
     private final ExecuteSessionService executeSessionService;
-    private final ObjectMapper yamlMapper;
+    private final ConversionLoaderService conversionLoaderService;
 
     /**
      * Initializes the CliInit class with required services and utilities.
      *
      * @param domainService the service responsible for managing domain-specific logic.
      * @param executeSessionService the service responsible for managing execution sessions.
-     * @param yamlMapper the object mapper for parsing and generating YAML files.
+     * @param conversionLoaderService the service that streams test data and replay files into a Conversion.
      */
     public CliInit(
             DomainService domainService,
             ExecuteSessionService executeSessionService,
-            ObjectMapper yamlMapper
+            ConversionLoaderService conversionLoaderService
     ) {
         this.domainService = domainService;
         this.executeSessionService = executeSessionService;
-        this.yamlMapper = yamlMapper;
+        this.conversionLoaderService = conversionLoaderService;
     }
 
     /**
@@ -181,89 +183,84 @@ public class CliInit {
     private void loadTestData(ExecuteSession session) {
         log.info("Loading Test Data");
         HmsMirrorConfig config = session.getConfig();
-        String yamlCfgFile = null;
         String filename = config.getLoadTestDataFile();
         try {
-            log.info("Reconstituting Conversion from test data file: {}", filename);
-            log.info("Checking 'classpath' for test data file");
-            URL configURL = this.getClass().getResource(filename);
-            if (isNull(configURL)) {
-                log.info("Checking filesystem for test data file: {}", filename);
-                File conversionFile = new File(filename);
-                if (!conversionFile.exists()) {
-                    log.error("Couldn't locate test data file: {}", filename);
-                    throw new RuntimeException("Couldn't locate test data file: " + filename);
-                }
-                configURL = conversionFile.toURI().toURL();
-            }
-
-            yamlCfgFile = IOUtils.toString(configURL, StandardCharsets.UTF_8);
-            Conversion conversion = yamlMapper.readerFor(Conversion.class).readValue(yamlCfgFile);
+            // Read a database at a time and drop the tables that won't be processed before reading the next.
+            Conversion conversion = conversionLoaderService.load(filename, dbMirror -> {
+                markTestDataTables(config, dbMirror);
+                removeMarkedTables(dbMirror);
+            });
             // Set Config Databases;
             Set<String> databases = new TreeSet<>(conversion.getDatabases().keySet());
             config.setDatabases(databases);
             // Replace the conversion in the session.
             executeSessionService.getSession().setConversion(conversion);
         } catch (UnrecognizedPropertyException upe) {
-            // Appears that the file isn't a Conversion file, so try to load it as a DBMirror file.
-            try {
-                DBMirror dbMirror = loadDBMirrorFromFile(config.getLoadTestDataFile());
-                // Reset the work for debug session.
-                dbMirror.stripWork();
-                Conversion conversion = new Conversion();
-                conversion.getDatabases().put(dbMirror.getName(), dbMirror);
-                // Set Config Databases;
-                Set<String> databases = new TreeSet<>(conversion.getDatabases().keySet());
-                config.setDatabases(databases);
-                // Replace the conversion in the session.
-                executeSessionService.getSession().setConversion(conversion);
-            } catch (Throwable t2) {
-                log.error(t2.getMessage(), t2);
-                throw t2;
-            }
+            log.error("There may have been a breaking change in the configuration since the previous " +
+                    "release. Review the note below and remove the 'Unrecognized field' from the test data and try " +
+                    "again.", upe);
+            throw new RuntimeException("\nThere may have been a breaking change in the configuration since the previous " +
+                    "release. Review the note below and remove the 'Unrecognized field' from the test data and try " +
+                    "again.\n\n", upe);
         } catch (Throwable t) {
             log.error("Issue loading test data", t);
             throw new RuntimeException(t);
         }
     }
 
-    private DBMirror loadDBMirrorFromFile(String filename) {
-        DBMirror dbMirror = null;
-        try {
-            log.info("Reconstituting DBMirror from file: {}", filename);
-            log.info("Checking 'classpath' for DBMirror file");
-            URL configURL = this.getClass().getResource(filename);
-            if (isNull(configURL)) {
-                log.info("Checking filesystem for DBMirror file: {}", filename);
-                File conversionFile = new File(filename);
-                if (!conversionFile.exists()) {
-                    log.error("Couldn't locate DBMirror file: {}", filename);
-                    throw new RuntimeException("Couldn't locate DBMirror file: " + filename);
+    /*
+    Mark the tables of the test data that wouldn't have been collected with this configuration.
+     */
+    private void markTestDataTables(HmsMirrorConfig config, DBMirror dbMirror) {
+        String database = dbMirror.getName();
+        for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+            EnvironmentTable et = tableMirror.getEnvironmentTable(Environment.LEFT);
+            String tableName = tableMirror.getName();
+            if (config.isDatabaseOnly()) {
+                // Only work with the database.
+                tableMirror.setRemove(true);
+                tableMirror.setRemoveReason("Database only processing selected.");
+            } else if (TableUtils.isACID(et)
+                    && !config.getMigrateACID().isOn()) {
+                tableMirror.setRemove(true);
+                tableMirror.setRemoveReason("ACID table and ACID processing not selected (-ma|-mao).");
+            } else if (!TableUtils.isACID(et)
+                    && config.getMigrateACID().isOnly()) {
+                tableMirror.setRemove(true);
+                tableMirror.setRemoveReason("Non-ACID table and ACID only processing selected `-mao`");
+            } else {
+                // Same logic as in TableService.getTables to filter out tables that are not to be processed.
+                if (tableName.startsWith(config.getTransfer().getTransferPrefix())) {
+                    log.info("Database: {} Table: {} was NOT added to list.  The name matches the transfer prefix and is most likely a remnant of a previous event. If this is a mistake, change the 'transferPrefix' to something more unique.", database, tableName);
+                    tableMirror.setRemove(true);
+                    tableMirror.setRemoveReason("Table name starts with transfer prefix.");
+                } else if (tableName.endsWith(config.getTransfer().getStorageMigrationPostfix())) {
+                    log.info("Database: {} Table: {} was NOT added to list.  The name is the result of a previous STORAGE_MIGRATION attempt that has not been cleaned up.", database, tableName);
+                    tableMirror.setRemove(true);
+                    tableMirror.setRemoveReason("Table name ends with storage migration postfix.");
+                } else {
+                    if (!config.getFilter().getCompiled().isTableIncluded(tableName)) {
+                        log.info("{}:{} didn't make it through the table filters and will NOT be added to processing list.", database, tableName);
+                        tableMirror.setRemove(true);
+                        tableMirror.setRemoveReason("Table name didn't make it through the table filters.");
+                    }
                 }
-                configURL = conversionFile.toURI().toURL();
             }
-            String yamlCfgFile = IOUtils.toString(configURL, StandardCharsets.UTF_8);
-            dbMirror = yamlMapper.readerFor(DBMirror.class).readValue(yamlCfgFile);
-        } catch (UnrecognizedPropertyException upe) {
-            log.error("There may have been a breaking change in the configuration since the previous " +
-                    "release. Review the note below and remove the 'Unrecognized field' from the configuration and try " +
-                    "again.", upe);
-            throw new RuntimeException("\nThere may have been a breaking change in the configuration since the previous " +
-                    "release. Review the note below and remove the 'Unrecognized field' from the configuration and try " +
-                    "again.\n\n", upe);
-        } catch (Throwable t) {
-            // Look for yaml update errors.
-            if (t.toString().contains("MismatchedInputException")) {
-                log.error("The format of the 'config' yaml file MAY HAVE CHANGED from the last release.  Please make a copy and run " +
-                        "'-su|--setup' again to recreate in the new format", t);
-                throw new RuntimeException("The format of the 'config' yaml file MAY HAVE CHANGED from the last release.  Please make a copy and run " +
-                        "'-su|--setup' again to recreate in the new format", t);
-            } else {
-                log.error(t.getMessage(), t);
-                throw new RuntimeException("A configuration element is no longer valid, progress.  Please remove the element from the configuration yaml and try again.", t);
+        }
+    }
+
+    /*
+    Drop the tables marked for removal, keeping the reason in the database's 'filteredOut' so they're still
+    reported.
+     */
+    private void removeMarkedTables(DBMirror dbMirror) {
+        for (Map.Entry<String, TableMirror> entry : dbMirror.getTableMirrors().entrySet()) {
+            TableMirror tableMirror = entry.getValue();
+            if (tableMirror.isRemove()) {
+                dbMirror.getFilteredOut().put(entry.getKey(), Objects.toString(tableMirror.getRemoveReason(), ""));
             }
         }
-        return dbMirror;
+        dbMirror.removeTables(TableMirror::isRemove);
     }
 
     @Bean
@@ -290,63 +287,15 @@ public class CliInit {
             Conversion conversion = null;
             log.info("Post Processing Conversion");
             if (config.isLoadingTestData()) {
-                // Load Test Data.
+                // Load Test Data, trimmed to match the configuration.
                 loadTestData(session);
-
                 conversion = executeSessionService.getSession().getConversion();
-
-                // Clean up the test data to match the configuration.
-                for (DBMirror dbMirror : conversion.getDatabases().values()) {
-                    String database = dbMirror.getName();
-                    for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
-                        EnvironmentTable et = tableMirror.getEnvironmentTable(Environment.LEFT);
-                        String tableName = tableMirror.getName();
-                        if (config.isDatabaseOnly()) {
-                            // Only work with the database.
-                            tableMirror.setRemove(true);
-                        } else if (TableUtils.isACID(et)
-                                && !config.getMigrateACID().isOn()) {
-                            tableMirror.setRemove(true);
-                        } else if (!TableUtils.isACID(et)
-                                && config.getMigrateACID().isOnly()) {
-                            tableMirror.setRemove(true);
-                        } else {
-                            // Same logic as in TableService.getTables to filter out tables that are not to be processed.
-                            if (tableName.startsWith(config.getTransfer().getTransferPrefix())) {
-                                log.info("Database: {} Table: {} was NOT added to list.  The name matches the transfer prefix and is most likely a remnant of a previous event. If this is a mistake, change the 'transferPrefix' to something more unique.", database, tableName);
-                                tableMirror.setRemove(true);
-                                tableMirror.setRemoveReason("Table name starts with transfer prefix.");
-                            } else if (tableName.endsWith(config.getTransfer().getStorageMigrationPostfix())) {
-                                log.info("Database: {} Table: {} was NOT added to list.  The name is the result of a previous STORAGE_MIGRATION attempt that has not been cleaned up.", database, tableName);
-                                tableMirror.setRemove(true);
-                                tableMirror.setRemoveReason("Table name ends with storage migration postfix.");
-                            } else {
-                                if (config.getFilter().getTblRegEx() != null) {
-                                    // Filter Tables
-                                    assert (config.getFilter().getTblFilterPattern() != null);
-                                    Matcher matcher = config.getFilter().getTblFilterPattern().matcher(tableName);
-                                    if (!matcher.matches()) {
-                                        log.info("{}:{} didn't match table regex filter and will NOT be added to processing list.", database, tableName);
-                                        tableMirror.setRemove(true);
-                                    }
-                                } else if (config.getFilter().getTblExcludeRegEx() != null) {
-                                    assert (config.getFilter().getTblExcludeFilterPattern() != null);
-                                    Matcher matcher = config.getFilter().getTblExcludeFilterPattern().matcher(tableName);
-                                    if (matcher.matches()) { // ANTI-MATCH
-                                        log.info("{}:{} matched exclude table regex filter and will NOT be added to processing list.", database, tableName);
-                                        tableMirror.setRemove(true);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
             } else {
                 conversion = executeSessionService.getSession().getConversion();
             }
             // Remove Tables from Map.
             for (DBMirror dbMirror : conversion.getDatabases().values()) {
-                dbMirror.getTableMirrors().entrySet().removeIf(entry -> entry.getValue().isRemove());
+                removeMarkedTables(dbMirror);
             }
         };
     }
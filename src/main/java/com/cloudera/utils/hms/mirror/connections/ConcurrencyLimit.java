@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Caps the number of connections to an environment that are in use at once.  The limit is fixed, or with
+'adaptive' it moves between 1 and the maximum based on how long the statements run on the connections take
+(see 'recordLatency'), not how long the connections are held:
+
+- The average statement time is compared to the best average seen so far (the baseline), for each type of
+  statement (its first keyword).  A quick DDL and a long INSERT OVERWRITE aren't measured against each other.
+- When the average of any type grows past its baseline times the tolerance (and by more than 10ms), the
+  endpoint is treated as overloaded and the limit is cut by a quarter.
+- Otherwise, when callers had to wait for a permit, the limit grows by one.
+
+The limit is changed at most once for every 'limit' statements, so each change is measured before the next
+one.  Only the types seen since the last change, with enough samples of their own, count.  The baselines drift
+up slowly, so an early run of quick calls doesn't pin the limit down for the rest of the run.
+
+A thread that already holds a permit gets another connection without waiting, so nested use of the same
+environment can't block on itself.  The permits are counted against the thread that took them, whichever
+thread returns them, and the thread's slot is freed when the last of its permits is returned.
+ */
+@Slf4j
+@Getter
+public class ConcurrencyLimit {
+    private static final double AVERAGE_WEIGHT = 0.2;
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final double BASELINE_DRIFT = 1.01;
+    private static final int WARMUP_SAMPLES = 10;
+    // Growth in the hold time smaller than this is noise, not load.
+    private static final long MIN_LATENCY_INCREASE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final String name;
+    private final int maxLimit;
+    private final boolean adaptive;
+    private final double tolerance;
+
+    private int limit;
+    private int inUse = 0;
+
+    // Statement type -> its latency.
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Latency> latencies = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private int samplesSinceChange = 0;
+    @Getter(AccessLevel.NONE)
+    private boolean waited = false;
+    // The permits each thread holding a slot has out.
+    @Getter(AccessLevel.NONE)
+    private final Map<Thread, Integer> holders = new HashMap<>();
+
+    public ConcurrencyLimit(String name, int maxLimit, boolean adaptive, double tolerance) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("The limit for " + name + " must be at least 1");
+        }
+        this.name = name;
+        this.maxLimit = maxLimit;
+        this.adaptive = adaptive;
+        this.tolerance = tolerance > 1.0 ? tolerance : 2.0;
+        this.limit = maxLimit;
+    }
+
+    /*
+    Wait for a permit.  Release the permit when the connection is returned.
+     */
+    public synchronized Permit acquire() throws InterruptedException {
+        Thread owner = Thread.currentThread();
+        Integer held = holders.get(owner);
+        if (held != null) {
+            holders.put(owner, held + 1);
+            return new Permit(owner);
+        }
+        while (inUse >= limit) {
+            waited = true;
+            wait();
+        }
+        inUse++;
+        holders.put(owner, 1);
+        return new Permit(owner);
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInUse() {
+        return inUse;
+    }
+
+    private synchronized void release(Thread owner) {
+        int held = holders.get(owner) - 1;
+        if (held > 0) {
+            holders.put(owner, held);
+            return;
+        }
+        holders.remove(owner);
+        inUse--;
+        notifyAll();
+    }
+
+    /*
+    The time a statement of the given type (see 'ConnectionMetrics.queryType') on one of the connections took.
+    Only used in adaptive mode.
+     */
+    public synchronized void recordLatency(String type, long nanos) {
+        if (!adaptive) {
+            return;
+        }
+        Latency latency = latencies.computeIfAbsent(type, Latency::new);
+        latency.record(nanos);
+        if (++samplesSinceChange < limit) {
+            return;
+        }
+        Latency overloaded = null;
+        Latency measured = null;
+        for (Latency candidate : latencies.values()) {
+            if (!candidate.isReady()) {
+                continue;
+            }
+            measured = candidate;
+            candidate.updateBaseline();
+            if (candidate.isOverloaded(tolerance) && (overloaded == null
+                    || candidate.averageNanos / candidate.baselineNanos > overloaded.averageNanos / overloaded.baselineNanos)) {
+                overloaded = candidate;
+            }
+        }
+        if (measured == null) {
+            // Still warming up.
+            return;
+        }
+        samplesSinceChange = 0;
+        int newLimit = limit;
+        if (overloaded != null) {
+            newLimit = Math.max(1, (int) (limit * DECREASE_FACTOR));
+        } else if (waited) {
+            newLimit = Math.min(maxLimit, limit + 1);
+        }
+        waited = false;
+        if (newLimit != limit) {
+            Latency reported = overloaded != null ? overloaded : measured;
+            log.info("{} - Concurrency limit changed from {} to {} ({} average: {}ms, baseline: {}ms)", name, limit,
+                    newLimit, reported.type, TimeUnit.NANOSECONDS.toMillis((long) reported.averageNanos),
+                    TimeUnit.NANOSECONDS.toMillis((long) reported.baselineNanos));
+            limit = newLimit;
+            // More room for the waiting threads.
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "limit=" + limit + "/" + maxLimit + ", inUse=" + inUse + (adaptive ? ", adaptive" : "");
+    }
+
+    /*
+    The average time of one type of statement and the best average seen for it.  Guarded by the limit.
+     */
+    private static class Latency {
+        private final String type;
+        private long samples = 0;
+        private double averageNanos = 0;
+        private double baselineNanos = Double.MAX_VALUE;
+        // Sampled since the last decision.
+        private boolean fresh = false;
+
+        private Latency(String type) {
+            this.type = type;
+        }
+
+        private void record(long nanos) {
+            averageNanos = samples == 0 ? nanos : averageNanos + AVERAGE_WEIGHT * (nanos - averageNanos);
+            samples++;
+            fresh = true;
+        }
+
+        private boolean isReady() {
+            return fresh && samples >= WARMUP_SAMPLES;
+        }
+
+        private void updateBaseline() {
+            fresh = false;
+            baselineNanos = Math.min(averageNanos, baselineNanos * BASELINE_DRIFT);
+        }
+
+        private boolean isOverloaded(double tolerance) {
+            return averageNanos > baselineNanos * tolerance && averageNanos - baselineNanos > MIN_LATENCY_INCREASE_NANOS;
+        }
+    }
+
+    /*
+    Returned once, by any thread.  It counts against the thread that took it.
+     */
+    public class Permit {
+        private final Thread owner;
+        private boolean released = false;
+
+        private Permit(Thread owner) {
+            this.owner = owner;
+        }
+
+        public void release() {
+            synchronized (ConcurrencyLimit.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                ConcurrencyLimit.this.release(owner);
+            }
+        }
+    }
+
+}
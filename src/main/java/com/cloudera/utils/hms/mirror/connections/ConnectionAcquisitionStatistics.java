@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Tracks how long callers wait to get a connection from a pool.  Updated from many threads at once, so
+no locking is used.
+ */
+@Getter
+public class ConnectionAcquisitionStatistics {
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong(0);
+
+    public void record(long waitNanos, boolean success) {
+        if (success) {
+            acquired.increment();
+        } else {
+            failed.increment();
+        }
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public long getAverageWaitMillis() {
+        long count = acquired.sum() + failed.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / count);
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "acquired=" + acquired.sum() + ", failed=" + failed.sum()
+                + ", avgWait=" + getAverageWaitMillis() + "ms, maxWait=" + getMaxWaitMillis() + "ms";
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.sql.Connection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static java.util.Objects.isNull;
+
+/*
+The metrics of the HS2 and Metastore Direct connections, by environment:
+
+- hms.mirror.pool.connections.(active|idle|max|waiting): the usage of each pool.
+- hms.mirror.pool.acquire: the time spent waiting for a connection (and hms.mirror.pool.acquire.max).
+- hms.mirror.query: the time each statement took, by the type of statement (its first keyword) and outcome.
+
+The pools are replaced from one run to the next, so the meters read them through 'pools' each time.
+ */
+public class ConnectionMetrics {
+    public static final String HS2 = "hs2";
+    public static final String METASTORE_DIRECT = "metastore-direct";
+    public static final String OTHER = "OTHER";
+    // Long enough for any Hive keyword, so the type can't be made up of table names.
+    private static final int MAX_TYPE_LENGTH = 16;
+
+    private final MeterRegistry meterRegistry;
+    private final Supplier<ConnectionPools> pools;
+    private final Map<String, Timer> queryTimers = new ConcurrentHashMap<>();
+
+    public ConnectionMetrics(MeterRegistry meterRegistry, Supplier<ConnectionPools> pools) {
+        this.meterRegistry = meterRegistry;
+        this.pools = pools;
+        for (Environment environment : new Environment[]{Environment.LEFT, Environment.RIGHT}) {
+            bindPool(environment, HS2, ConnectionPools::getHs2PoolUsage, ConnectionPools::getHs2AcquisitionStatistics);
+            bindPool(environment, METASTORE_DIRECT, ConnectionPools::getMetastoreDirectPoolUsage,
+                    ConnectionPools::getMetastoreDirectAcquisitionStatistics);
+        }
+    }
+
+    private void bindPool(Environment environment, String pool,
+                          Function<ConnectionPools, Map<Environment, ConnectionPoolUsage>> usage,
+                          Function<ConnectionPools, Map<Environment, ConnectionAcquisitionStatistics>> acquisition) {
+        Tags tags = Tags.of("environment", environment.name(), "pool", pool);
+        bindUsage("hms.mirror.pool.connections.active", tags, environment, usage, ConnectionPoolUsage::getActive);
+        bindUsage("hms.mirror.pool.connections.idle", tags, environment, usage, ConnectionPoolUsage::getIdle);
+        bindUsage("hms.mirror.pool.connections.max", tags, environment, usage, ConnectionPoolUsage::getMax);
+        bindUsage("hms.mirror.pool.connections.waiting", tags, environment, usage, ConnectionPoolUsage::getWaiting);
+        FunctionTimer.builder("hms.mirror.pool.acquire", this,
+                        m -> {
+                            ConnectionAcquisitionStatistics statistics = m.statistics(environment, acquisition);
+                            return isNull(statistics) ? 0 : statistics.getAcquired().sum() + statistics.getFailed().sum();
+                        },
+                        m -> {
+                            ConnectionAcquisitionStatistics statistics = m.statistics(environment, acquisition);
+                            return isNull(statistics) ? 0 : statistics.getTotalWaitNanos().sum();
+                        },
+                        TimeUnit.NANOSECONDS)
+                .description("Time spent waiting for a connection from the pool")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("hms.mirror.pool.acquire.max", this, m -> {
+                    ConnectionAcquisitionStatistics statistics = m.statistics(environment, acquisition);
+                    return isNull(statistics) ? 0 : statistics.getMaxWaitNanos().get() / 1_000_000.0;
+                })
+                .baseUnit("milliseconds")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private void bindUsage(String name, Tags tags, Environment environment,
+                           Function<ConnectionPools, Map<Environment, ConnectionPoolUsage>> usage,
+                           ToIntFunction<ConnectionPoolUsage> value) {
+        Gauge.builder(name, this, m -> {
+                    ConnectionPools lclPools = m.pools.get();
+                    ConnectionPoolUsage poolUsage = isNull(lclPools) ? null : usage.apply(lclPools).get(environment);
+                    return isNull(poolUsage) ? 0 : value.applyAsInt(poolUsage);
+                })
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private ConnectionAcquisitionStatistics statistics(Environment environment,
+                                                       Function<ConnectionPools, Map<Environment, ConnectionAcquisitionStatistics>> acquisition) {
+        ConnectionPools lclPools = pools.get();
+        return isNull(lclPools) ? null : acquisition.apply(lclPools).get(environment);
+    }
+
+    /*
+    The connection, with its statements timed.
+     */
+    public Connection wrap(Connection connection, Environment environment, String pool) {
+        if (isNull(connection)) {
+            return null;
+        }
+        return TimedConnection.wrap(connection, (sql, nanos, success) -> recordQuery(environment, pool, sql, nanos, success));
+    }
+
+    public void recordQuery(Environment environment, String pool, String sql, long nanos, boolean success) {
+        String type = queryType(sql);
+        String outcome = success ? "success" : "failure";
+        String key = pool + '|' + environment + '|' + type + '|' + outcome;
+        Timer timer = queryTimers.get(key);
+        if (isNull(timer)) {
+            timer = queryTimers.computeIfAbsent(key, k -> Timer.builder("hms.mirror.query")
+                    .description("Time taken by the statements, by the type of statement")
+                    .tags("environment", environment.name(), "pool", pool, "type", type, "outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+    The first keyword of the statement, upper case.  Anything that doesn't start with a keyword is 'OTHER'.
+     */
+    public static String queryType(String sql) {
+        if (isNull(sql)) {
+            return OTHER;
+        }
+        int start = 0;
+        int length = sql.length();
+        while (start < length && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        int end = start;
+        while (end < length && end - start <= MAX_TYPE_LENGTH && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        if (end == start || end - start > MAX_TYPE_LENGTH) {
+            return OTHER;
+        }
+        return sql.substring(start, end).toUpperCase(Locale.ROOT);
+    }
+
+}
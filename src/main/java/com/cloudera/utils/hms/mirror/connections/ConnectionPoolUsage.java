@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+import static java.util.Objects.isNull;
+
+/*
+How a connection pool is used right now: the connections handed out, the idle ones, the most it will open and
+the callers waiting for a connection.
+ */
+@Getter
+public class ConnectionPoolUsage {
+    private final int active;
+    private final int idle;
+    private final int max;
+    private final int waiting;
+
+    public ConnectionPoolUsage(int active, int idle, int max, int waiting) {
+        this.active = active;
+        this.idle = idle;
+        this.max = max;
+        this.waiting = waiting;
+    }
+
+    /*
+    The usage of a Hikari DataSource or a DBCP2 pool, or null for anything else (or a Hikari pool that hasn't
+    started yet).
+     */
+    public static ConnectionPoolUsage of(Object pool) {
+        if (pool instanceof HikariDataSource) {
+            HikariDataSource dataSource = (HikariDataSource) pool;
+            HikariPoolMXBean bean = dataSource.getHikariPoolMXBean();
+            if (isNull(bean)) {
+                return null;
+            }
+            return new ConnectionPoolUsage(bean.getActiveConnections(), bean.getIdleConnections(),
+                    dataSource.getMaximumPoolSize(), bean.getThreadsAwaitingConnection());
+        } else if (pool instanceof GenericObjectPool) {
+            GenericObjectPool<?> objectPool = (GenericObjectPool<?>) pool;
+            return new ConnectionPoolUsage(objectPool.getNumActive(), objectPool.getNumIdle(),
+                    objectPool.getMaxTotal(), objectPool.getNumWaiters());
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + active + ", idle=" + idle + ", max=" + max + ", waiting=" + waiting;
+    }
+
+}
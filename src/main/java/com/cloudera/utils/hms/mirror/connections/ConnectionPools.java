@@ -26,6 +26,7 @@ import com.cloudera.utils.hms.mirror.exceptions.SessionException;
 import java.net.URISyntaxException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
 
 public interface ConnectionPools {
 
@@ -39,6 +40,14 @@ public interface ConnectionPools {
 
     Connection getMetastoreDirectEnvironmentConnection(Environment environment) throws SQLException;
 
+    Map<Environment, ConnectionAcquisitionStatistics> getHs2AcquisitionStatistics();
+
+    Map<Environment, ConnectionAcquisitionStatistics> getMetastoreDirectAcquisitionStatistics();
+
+    Map<Environment, ConnectionPoolUsage> getHs2PoolUsage();
+
+    Map<Environment, ConnectionPoolUsage> getMetastoreDirectPoolUsage();
+
     void init() throws SQLException, SessionException, EncryptionException, URISyntaxException;
 
 }
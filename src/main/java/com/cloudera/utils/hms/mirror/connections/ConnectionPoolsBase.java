@@ -32,6 +32,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.dbcp2.PoolingDataSource;
+import org.apache.commons.pool2.ObjectPool;
 
 import javax.sql.DataSource;
 import java.net.URISyntaxException;
@@ -40,6 +41,7 @@ import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -54,13 +56,26 @@ public abstract class ConnectionPoolsBase implements ConnectionPools {
     protected PasswordService passwordService;
     protected ConnectionPoolService connectionPoolService;
 
-    protected final Map<Environment, DataSource> hs2DataSources = new TreeMap<>();
-    protected final Map<Environment, Driver> hs2Drivers = new TreeMap<>();
+    /*
+    Read by every worker thread on each connection request, so these are concurrent maps and the
+    connection getters don't need to synchronize.
+     */
+    protected final Map<Environment, DataSource> hs2DataSources = new ConcurrentHashMap<>();
+    protected final Map<Environment, Driver> hs2Drivers = new ConcurrentHashMap<>();
     protected final Map<Environment, HiveServer2Config> hiveServerConfigs = new TreeMap<>();
     protected final Map<Environment, DBStore> metastoreDirectConfigs = new TreeMap<>();
-    protected final Map<Environment, DataSource> metastoreDirectDataSources = new TreeMap<>();
+    protected final Map<Environment, DataSource> metastoreDirectDataSources = new ConcurrentHashMap<>();
+
+    protected final Map<Environment, ConnectionAcquisitionStatistics> hs2AcquisitionStatistics = new ConcurrentHashMap<>();
+    protected final Map<Environment, ConnectionAcquisitionStatistics> metastoreDirectAcquisitionStatistics = new ConcurrentHashMap<>();
+    // The DBCP2 pools behind the PoolingDataSources, which don't expose them, for the pool usage.
+    protected final Map<DataSource, ObjectPool<?>> dbcp2Pools = new ConcurrentHashMap<>();
 
     public void close() {
+        hs2AcquisitionStatistics.forEach((environment, stats) ->
+                log.info("{} - HS2 Connection Acquisition: {}", environment, stats));
+        metastoreDirectAcquisitionStatistics.forEach((environment, stats) ->
+                log.info("{} - Metastore Direct Connection Acquisition: {}", environment, stats));
         try {
             if (hs2DataSources.get(Environment.LEFT) != null) {
                 if (hs2DataSources.get(Environment.LEFT) instanceof PoolingDataSource) {
@@ -111,6 +126,27 @@ public abstract class ConnectionPoolsBase implements ConnectionPools {
                 ((HikariDataSource)metastoreDirectDataSources.get(Environment.RIGHT)).close();
         // Clear the DataSources.
         metastoreDirectDataSources.clear();
+        dbcp2Pools.clear();
+    }
+
+    public Map<Environment, ConnectionPoolUsage> getHs2PoolUsage() {
+        return poolUsage(hs2DataSources);
+    }
+
+    public Map<Environment, ConnectionPoolUsage> getMetastoreDirectPoolUsage() {
+        return poolUsage(metastoreDirectDataSources);
+    }
+
+    private Map<Environment, ConnectionPoolUsage> poolUsage(Map<Environment, DataSource> dataSources) {
+        Map<Environment, ConnectionPoolUsage> rtn = new EnumMap<>(Environment.class);
+        dataSources.forEach((environment, dataSource) -> {
+            ObjectPool<?> objectPool = dbcp2Pools.get(dataSource);
+            ConnectionPoolUsage usage = ConnectionPoolUsage.of(nonNull(objectPool) ? objectPool : dataSource);
+            if (nonNull(usage)) {
+                rtn.put(environment, usage);
+            }
+        });
+        return rtn;
     }
 
 
@@ -122,21 +158,25 @@ public abstract class ConnectionPoolsBase implements ConnectionPools {
         metastoreDirectConfigs.put(environment, dbStore);
     }
 
-    public synchronized Connection getHS2EnvironmentConnection(Environment environment) throws SQLException {
-        Driver lclDriver = getHS2EnvironmentDriver(environment);
+    /*
+    The shimmed driver is bound to the pool when the pool is built (see initHS2PooledDataSources), so
+    there's no need to register it with the DriverManager here.  Connections are handed out by the
+    pool without any lock of our own.
+     */
+    public Connection getHS2EnvironmentConnection(Environment environment) throws SQLException {
         Connection conn = null;
-        if (lclDriver != null) {
-            DriverManager.registerDriver(lclDriver);
-            try {
-                DataSource ds = getHS2EnvironmentDataSource(environment);
-                if (ds != null) {
+        if (getHS2EnvironmentDriver(environment) != null) {
+            DataSource ds = getHS2EnvironmentDataSource(environment);
+            if (ds != null) {
+                long start = System.nanoTime();
+                try {
                     conn = ds.getConnection();
+                } catch (Throwable se) {
+                    recordAcquisition(hs2AcquisitionStatistics, environment, start, false);
+                    log.error(se.getMessage(), se);
+                    throw new RuntimeException(se);
                 }
-            } catch (Throwable se) {
-                log.error(se.getMessage(), se);
-                throw new RuntimeException(se);
-            } finally {
-                DriverManager.deregisterDriver(lclDriver);
+                recordAcquisition(hs2AcquisitionStatistics, environment, start, true);
             }
         }
         return conn;
@@ -146,18 +186,32 @@ public abstract class ConnectionPoolsBase implements ConnectionPools {
         return hs2DataSources.get(environment);
     }
 
-    protected synchronized Driver getHS2EnvironmentDriver(Environment environment) {
+    protected Driver getHS2EnvironmentDriver(Environment environment) {
         return hs2Drivers.get(environment);
     }
 
-    public synchronized Connection getMetastoreDirectEnvironmentConnection(Environment environment) throws SQLException {
+    public Connection getMetastoreDirectEnvironmentConnection(Environment environment) throws SQLException {
         Connection conn = null;
         DataSource ds = getMetastoreDirectEnvironmentDataSource(environment);
-        if (ds != null)
-            conn = ds.getConnection();
+        if (ds != null) {
+            long start = System.nanoTime();
+            try {
+                conn = ds.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                recordAcquisition(metastoreDirectAcquisitionStatistics, environment, start, false);
+                throw e;
+            }
+            recordAcquisition(metastoreDirectAcquisitionStatistics, environment, start, true);
+        }
         return conn;
     }
 
+    private void recordAcquisition(Map<Environment, ConnectionAcquisitionStatistics> statistics,
+                                   Environment environment, long start, boolean success) {
+        statistics.computeIfAbsent(environment, k -> new ConnectionAcquisitionStatistics())
+                .record(System.nanoTime() - start, success);
+    }
+
     protected DataSource getMetastoreDirectEnvironmentDataSource(Environment environment) {
         return metastoreDirectDataSources.get(environment);
     }
@@ -178,7 +232,9 @@ public abstract class ConnectionPoolsBase implements ConnectionPools {
                     log.error(throwables.getMessage(), throwables);
                     throw throwables;
                 }
-                hs2Drivers.put(environment, driver);
+                if (driver != null) {
+                    hs2Drivers.put(environment, driver);
+                }
             }
         }
     }
@@ -36,6 +36,7 @@ import org.apache.commons.pool2.impl.GenericObjectPool;
 import javax.sql.DataSource;
 import java.net.URISyntaxException;
 import java.sql.Connection;
+import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -80,7 +81,11 @@ public class ConnectionPoolsDBCP2Impl extends ConnectionPoolsBase implements Con
                     }
                 }
                 log.info("{} - HS2 DBCP2 Connection Properties: {}", environment, connProperties);
-                ConnectionFactory connectionFactory =
+                // Bind the (shimmed) driver to the factory so new physical connections don't go through
+                //   the DriverManager, which would require the driver to be registered on every request.
+                Driver lclDriver = getHS2EnvironmentDriver(environment);
+                ConnectionFactory connectionFactory = nonNull(lclDriver) ?
+                        new DriverConnectionFactory(lclDriver, hs2Config.getUri(), connProperties) :
                         new DriverManagerConnectionFactory(hs2Config.getUri(), connProperties);
 
                 PoolableConnectionFactory poolableConnectionFactory =
@@ -99,9 +104,12 @@ public class ConnectionPoolsDBCP2Impl extends ConnectionPoolsBase implements Con
                 }
 
                 PoolingDataSource<PoolableConnection> poolingDatasource = new PoolingDataSource<>(connectionPool);
+                // So the session settings can tell the HS2 sessions apart (see SessionSettings).
+                poolingDatasource.setAccessToUnderlyingConnectionAllowed(true);
 //            poolingDatasource.setLoginTimeout(10);
 
                 hs2DataSources.put(environment, poolingDatasource);
+                dbcp2Pools.put(poolingDatasource, connectionPool);
                 Connection conn = null;
                 try {
                     conn = getHS2EnvironmentConnection(environment);
@@ -156,7 +164,9 @@ public class ConnectionPoolsDBCP2Impl extends ConnectionPoolsBase implements Con
                         new GenericObjectPool<>(mspoolableConnectionFactory);
 
                 mspoolableConnectionFactory.setPool(msconnectionPool);
-                metastoreDirectDataSources.put(environment, new PoolingDataSource<>(msconnectionPool));
+                PoolingDataSource<PoolableConnection> msPoolingDatasource = new PoolingDataSource<>(msconnectionPool);
+                metastoreDirectDataSources.put(environment, msPoolingDatasource);
+                dbcp2Pools.put(msPoolingDatasource, msconnectionPool);
 
                 // Attempt to get the Driver Version for the Metastore Direct Connection.
                 try {
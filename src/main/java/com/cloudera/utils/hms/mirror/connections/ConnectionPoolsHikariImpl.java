@@ -63,6 +63,8 @@ public class ConnectionPoolsHikariImpl extends ConnectionPoolsBase implements Co
                 Driver lclDriver = getHS2EnvironmentDriver(environment);
                 if (lclDriver != null) {
                     try {
+                        // Only registered while the pool is built.  Hikari resolves and holds on to the driver
+                        //   at construction, so connection requests don't depend on the DriverManager.
                         DriverManager.registerDriver(lclDriver);
                         try {
                             Properties props = new Properties();
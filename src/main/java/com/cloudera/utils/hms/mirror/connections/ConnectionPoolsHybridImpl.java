@@ -82,7 +82,11 @@ public class ConnectionPoolsHybridImpl extends ConnectionPoolsBase implements Co
                     }
 
                     log.info("{} - HS2 DBCP2 Connection Properties: {}", environment, connProperties);
-                    ConnectionFactory connectionFactory =
+                    // Bind the (shimmed) driver to the factory so new physical connections don't go through
+                    //   the DriverManager, which would require the driver to be registered on every request.
+                    Driver lclDriver = getHS2EnvironmentDriver(environment);
+                    ConnectionFactory connectionFactory = nonNull(lclDriver) ?
+                            new DriverConnectionFactory(lclDriver, hs2Config.getUri(), connProperties) :
                             new DriverManagerConnectionFactory(hs2Config.getUri(), connProperties);
 
                     PoolableConnectionFactory poolableConnectionFactory =
@@ -102,6 +106,9 @@ public class ConnectionPoolsHybridImpl extends ConnectionPoolsBase implements Co
                     poolableConnectionFactory.setPool(connectionPool);
 
                     PoolingDataSource<PoolableConnection> poolingDatasource = new PoolingDataSource<>(connectionPool);
+                    // So the session settings can tell the HS2 sessions apart (see SessionSettings).
+                    poolingDatasource.setAccessToUnderlyingConnectionAllowed(true);
+                    dbcp2Pools.put(poolingDatasource, connectionPool);
 
                     hs2DataSources.put(environment, poolingDatasource);
                     Connection conn = null;
@@ -124,6 +131,8 @@ public class ConnectionPoolsHybridImpl extends ConnectionPoolsBase implements Co
                     Driver lclDriver = getHS2EnvironmentDriver(environment);
                     if (lclDriver != null) {
                         try {
+                            // Only registered while the pool is built.  Hikari resolves and holds on to the driver
+                            //   at construction, so connection requests don't depend on the DriverManager.
                             DriverManager.registerDriver(lclDriver);
                             try {
                                 Properties props = new Properties();
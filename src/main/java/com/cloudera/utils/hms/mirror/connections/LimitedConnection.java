@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/*
+A pooled connection that returns its ConcurrencyLimit permit when it's closed (the permit is returned once,
+however often it's closed).  Everything else goes to the pooled connection, including 'unwrap'.
+ */
+public final class LimitedConnection implements InvocationHandler {
+    private final Connection connection;
+    private final ConcurrencyLimit.Permit permit;
+
+    private LimitedConnection(Connection connection, ConcurrencyLimit.Permit permit) {
+        this.connection = connection;
+        this.permit = permit;
+    }
+
+    public static Connection wrap(Connection connection, ConcurrencyLimit.Permit permit) {
+        if (connection == null) {
+            // Nothing will close it, so the permit goes back now.
+            permit.release();
+            return null;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new LimitedConnection(connection, permit));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Limited:" + connection;
+            case "close":
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    permit.release();
+                }
+            default:
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.dbcp2.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Tracks the 'set' statements that have been applied to the HS2 sessions behind the pooled connections.  A
+pooled connection keeps its session between borrows, so a 'set' that has already been applied (with the
+same value) to the session doesn't need another round trip.
+
+Every HS2 connection handed out goes through 'track', so each 'set' and 'reset' run on it is recorded, whoever
+runs it.  A batch could hold anything, so the session is forgotten after one.
+
+Sessions are identified by the physical connection behind the pool's proxy (the innermost delegate for DBCP2,
+the unwrapped connection for HikariCP).  When the pool doesn't expose it, every borrow looks like a new session
+and nothing is tracked or skipped.  The physical connections are held weakly, so sessions closed by the pool drop
+out on their own, and everything is cleared when the pools are closed.
+ */
+@Slf4j
+public class SessionSettings {
+    private static final Pattern SET_PATTERN = Pattern.compile("^\\s*set\\s+([^=\\s]+)\\s*=(.*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern RESET_PATTERN = Pattern.compile("^\\s*reset(\\s.*)?$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern USE_PATTERN = Pattern.compile("^\\s*use\\s+\\S.*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final Map<Connection, Map<String, String>> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static boolean isSet(String sql) {
+        return sql.trim().toLowerCase().startsWith("set");
+    }
+
+    public static boolean isReset(String sql) {
+        return RESET_PATTERN.matcher(sql).matches();
+    }
+
+    public static boolean isUse(String sql) {
+        return USE_PATTERN.matcher(sql).matches();
+    }
+
+    /*
+    Statements that only change the state of the session ('set', 'reset' and 'use').  They have to be run on
+    every session the SQL that follows them runs on, so they're never taken as done by a previous run.
+     */
+    public static boolean isSessionStatement(String sql) {
+        return isSet(sql) || isReset(sql) || isUse(sql);
+    }
+
+    /*
+    The setting and value of a 'set <setting>=<value>' statement, or null for anything else.
+     */
+    public static Map.Entry<String, String> parseSet(String sql) {
+        Matcher matcher = SET_PATTERN.matcher(sql);
+        if (matcher.matches()) {
+            String value = matcher.group(2).trim();
+            if (value.endsWith(";")) {
+                value = value.substring(0, value.length() - 1).trim();
+            }
+            return new AbstractMap.SimpleImmutableEntry<>(matcher.group(1), value);
+        }
+        return null;
+    }
+
+    /*
+    True when the session behind the connection already has the setting with the same value.
+     */
+    public boolean isApplied(Connection connection, String sql) {
+        Map.Entry<String, String> setting = parseSet(sql);
+        if (setting == null) {
+            return false;
+        }
+        Map<String, String> applied = sessions.get(physical(connection));
+        return applied != null && setting.getValue().equals(applied.get(setting.getKey()));
+    }
+
+    /*
+    Wrap a borrowed connection so the session statements run through it are recorded against its session.
+     */
+    public Connection track(Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+        Connection physical = physical(connection);
+        if (physical == connection) {
+            // Can't tell one session from another.
+            return connection;
+        }
+        return TimedConnection.wrap(connection, (sql, nanos, success) -> executed(physical, sql, success));
+    }
+
+    private void executed(Connection physical, String sql, boolean success) {
+        if (sql == null || TimedConnection.BATCH.equals(sql)) {
+            // Don't know what ran.
+            sessions.remove(physical);
+        } else if (isReset(sql)) {
+            sessions.remove(physical);
+        } else if (isSet(sql)) {
+            Map.Entry<String, String> setting = parseSet(sql);
+            if (success && setting != null) {
+                sessions.computeIfAbsent(physical, k -> new HashMap<>()).put(setting.getKey(), setting.getValue());
+            } else {
+                // A failed 'set' may have left the setting anywhere.
+                sessions.remove(physical);
+            }
+        }
+    }
+
+    /*
+    The sessions are gone with the pools.
+     */
+    public void clear() {
+        sessions.clear();
+    }
+
+    private static Connection physical(Connection connection) {
+        try {
+            Connection physical = connection.unwrap(Connection.class);
+            if (physical instanceof DelegatingConnection) {
+                // The DBCP2 guard unwraps to itself, the connection behind it stays with the pooled connection.
+                physical = ((DelegatingConnection<?>) physical).getInnermostDelegate();
+            }
+            return physical != null ? physical : connection;
+        } catch (SQLException | RuntimeException e) {
+            log.trace("Unable to unwrap connection", e);
+            return connection;
+        }
+    }
+
+}
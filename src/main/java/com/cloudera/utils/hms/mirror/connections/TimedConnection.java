@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/*
+A connection whose statements report how long each 'execute' took, with the SQL it ran, to a Recorder.
+Everything else goes to the connection (and its statements), including 'unwrap'.
+ */
+public final class TimedConnection implements InvocationHandler {
+    public static final String BATCH = "BATCH";
+
+    /*
+    Called once for each 'execute', on the thread that ran it.
+     */
+    public interface Recorder {
+        void record(String sql, long nanos, boolean success);
+    }
+
+    private final Connection connection;
+    private final Recorder recorder;
+
+    private TimedConnection(Connection connection, Recorder recorder) {
+        this.connection = connection;
+        this.recorder = recorder;
+    }
+
+    public static Connection wrap(Connection connection, Recorder recorder) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new TimedConnection(connection, recorder));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Timed:" + connection;
+            default:
+                Object rtn = delegate(connection, method, args);
+                if (rtn instanceof Statement) {
+                    // 'prepareStatement' and 'prepareCall' take the SQL up front.
+                    String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                    return TimedStatement.wrap((Statement) rtn, sql, recorder);
+                }
+                return rtn;
+        }
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class TimedStatement implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private final Recorder recorder;
+
+        private TimedStatement(Statement statement, String preparedSql, Recorder recorder) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.recorder = recorder;
+        }
+
+        static Statement wrap(Statement statement, String preparedSql, Recorder recorder) {
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class :
+                    statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[]{type}, new TimedStatement(statement, preparedSql, recorder));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Timed:" + statement;
+                default:
+                    if (!name.startsWith("execute")) {
+                        return delegate(statement, method, args);
+                    }
+                    String sql;
+                    if (name.endsWith("Batch")) {
+                        sql = BATCH;
+                    } else if (args != null && args.length > 0 && args[0] instanceof String) {
+                        sql = (String) args[0];
+                    } else {
+                        sql = preparedSql;
+                    }
+                    long start = System.nanoTime();
+                    boolean success = false;
+                    try {
+                        Object rtn = delegate(statement, method, args);
+                        success = true;
+                        return rtn;
+                    } finally {
+                        recorder.record(sql, System.nanoTime() - start, success);
+                    }
+            }
+        }
+    }
+
+}
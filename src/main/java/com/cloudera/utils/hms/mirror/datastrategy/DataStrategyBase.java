@@ -148,7 +148,7 @@ public abstract class DataStrategyBase implements DataStrategy {
                 } else {
                     log.info("{}: did NOT attempt to copy AVRO schema file to target cluster.", let.getName());
                 }
-                tableMirror.addStep("AVRO", "Checked");
+                tableMirror.recordStep(StepEnum.AVRO, null, null);
             } catch (RequiredConfigurationException e) {
                 log.error("Required Configuration Exception", e);
                 ret.addError(e.getMessage());
@@ -450,7 +450,7 @@ public abstract class DataStrategyBase implements DataStrategy {
                             source.getPartitioned()) {
                         if (!TableUtils.isACID(source)) {
                             // New Map.  So we can modify it..
-                            Map<String, String> targetPartitions = new HashMap<>(source.getPartitions());
+                            Map<String, String> targetPartitions = new PartitionLocationMap(source.getPartitions());
                             target.setPartitions(targetPartitions);
                             if (!getTranslatorService().translatePartitionLocations(tableMirror)) {
                                 rtn = Boolean.FALSE;
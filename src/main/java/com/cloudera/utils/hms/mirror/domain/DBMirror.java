@@ -20,14 +20,22 @@ package com.cloudera.utils.hms.mirror.domain;
 import com.cloudera.utils.hms.mirror.Pair;
 import com.cloudera.utils.hms.mirror.PhaseState;
 import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.LatencyHistogram;
+import com.cloudera.utils.hms.mirror.domain.support.MetastoreTableDefinition;
+import com.cloudera.utils.hms.mirror.domain.support.PhaseCounters;
+import com.cloudera.utils.hms.mirror.domain.support.StepEnum;
 import com.cloudera.utils.hms.util.NamespaceUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
 
 import static com.cloudera.utils.hms.mirror.MirrorConf.DB_LOCATION;
 import static com.cloudera.utils.hms.mirror.MirrorConf.DB_MANAGED_LOCATION;
@@ -40,11 +48,11 @@ import static java.util.Objects.nonNull;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class DBMirror {
 
-    private final Map<Environment, List<String>> issues = new TreeMap<>();
+    private final Map<Environment, List<String>> issues = new ConcurrentSkipListMap<>();
     /*
     table - reason
      */
-    private final Map<String, String> filteredOut = new TreeMap<>();
+    private final Map<String, String> filteredOut = new ConcurrentSkipListMap<>();
     //    @JsonIgnore
     private final Map<Environment, List<Pair>> sql = new TreeMap<>();
 
@@ -56,19 +64,66 @@ public class DBMirror {
     private String resolvedName;
     private Map<Environment, Map<String, String>> properties = new TreeMap<>();
 //    private List<String> definition = new ArrayList<>();
-    private Map<String, TableMirror> tableMirrors = null;
+    // Tables are added and worked on from many threads while the reporters read them.
+    private Map<String, TableMirror> tableMirrors = new ConcurrentSkipListMap<>();
+
+    /*
+    The number of tables in each phase and the tables that are being worked on right now (CALCULATING_SQL or
+    APPLYING_SQL), kept up to date by the tables as they move along.
+     */
+    @JsonIgnore
+    private final PhaseCounters phaseCounters = new PhaseCounters();
+    @JsonIgnore
+    private final Map<String, TableMirror> activeTables = new ConcurrentHashMap<>();
+    // Handed to the tables as they're added, see setStepsVerbose.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private volatile boolean stepsVerbose = false;
+
+    /*
+    How long the timed steps of the tables took, by kind of step.
+     */
+    @JsonIgnore
+    private final Map<StepEnum, LatencyHistogram> stepTimings = createStepTimings();
 
     private Map<Environment, Map<String, Number>> environmentStatistics = new TreeMap<>();
 
+    /*
+    Table definitions loaded in bulk through the Metastore Direct connection, by environment and table name.
+    Only held while the table metadata is being collected.
+     */
     @JsonIgnore
-    public List<PhaseState> getPhasesFromAvailableTables() {
-        List<PhaseState> rtn = new ArrayList<>();
-        for (TableMirror tableMirror : getTableMirrors().values()) {
-            if (!rtn.contains(tableMirror.getPhaseState())) {
-                rtn.add(tableMirror.getPhaseState());
+    private final Map<Environment, Map<String, MetastoreTableDefinition>> metastoreTableDefinitions = new ConcurrentHashMap<>();
+
+    /*
+    Partition counts by environment and table name, when the partitions were loaded in bulk through the Metastore
+    Direct connection.  Tables without partitions aren't listed.  Only held while the table metadata is being
+    collected.
+     */
+    @JsonIgnore
+    private final Map<Environment, Map<String, Integer>> metastorePartitionCounts = new ConcurrentHashMap<>();
+
+    private static Map<StepEnum, LatencyHistogram> createStepTimings() {
+        // Filled up front, so the tables never have to add to the map.
+        Map<StepEnum, LatencyHistogram> rtn = new EnumMap<>(StepEnum.class);
+        for (StepEnum kind : StepEnum.values()) {
+            if (kind.isTimed()) {
+                rtn.put(kind, new LatencyHistogram());
             }
         }
-        return rtn;
+        return Collections.unmodifiableMap(rtn);
+    }
+
+    protected void recordTiming(StepEnum kind, long durationNanos) {
+        LatencyHistogram histogram = stepTimings.get(kind);
+        if (nonNull(histogram)) {
+            histogram.record(durationNanos);
+        }
+    }
+
+    @JsonIgnore
+    public List<PhaseState> getPhasesFromAvailableTables() {
+        return new ArrayList<>(phaseCounters.toMap().keySet());
     }
 
     @JsonIgnore
@@ -84,12 +139,7 @@ public class DBMirror {
 
     public void addIssue(Environment environment, String issue) {
         String scrubbedIssue = issue.replace("\n", "<br/>");
-        List<String> issuesList = issues.get(environment);
-        if (isNull(issuesList)) {
-            issuesList = new ArrayList<>();
-            issues.put(environment, issuesList);
-        }
-        issuesList.add(scrubbedIssue);
+        issues.computeIfAbsent(environment, k -> Collections.synchronizedList(new ArrayList<>())).add(scrubbedIssue);
     }
 
     public void addProblemSQL(Environment environment, String sql, String reason) {
@@ -102,17 +152,85 @@ public class DBMirror {
     }
 
     public TableMirror addTable(String table) {
-        if (getTableMirrors().containsKey(table)) {
+        TableMirror tableMirror = getTableMirrors().get(table);
+        if (nonNull(tableMirror)) {
             log.debug("Table object found in map {}.{}", this.getName(), table);
-            return getTableMirrors().get(table);
-        } else {
-            log.info("Adding table object to map {}.{}", this.getName(), table);
-            TableMirror tableMirror = new TableMirror();
-            tableMirror.setName(table);
-            tableMirror.setParent(this);
-            getTableMirrors().put(table, tableMirror);
             return tableMirror;
         }
+        tableMirror = new TableMirror();
+        tableMirror.setName(table);
+        tableMirror.setParent(this);
+        tableMirror.setStepsVerbose(stepsVerbose);
+        // Count the phase it went in with, it can move on as soon as it's in the map.
+        PhaseState initial = tableMirror.getPhaseState();
+        TableMirror existing = getTableMirrors().putIfAbsent(table, tableMirror);
+        if (nonNull(existing)) {
+            // Another thread got there first.
+            log.debug("Table object found in map {}.{}", this.getName(), table);
+            return existing;
+        }
+        log.info("Adding table object to map {}.{}", this.getName(), table);
+        phaseCounters.add(initial);
+        refreshActive(tableMirror);
+        return tableMirror;
+    }
+
+    /*
+    Remove the tables that match and take them off the counters.  Tables removed straight from the map aren't
+    taken off until 'recountPhases'.
+     */
+    public void removeTables(Predicate<TableMirror> predicate) {
+        for (Map.Entry<String, TableMirror> entry : getTableMirrors().entrySet()) {
+            TableMirror tableMirror = entry.getValue();
+            if (predicate.test(tableMirror) && getTableMirrors().remove(entry.getKey(), tableMirror)) {
+                phaseCounters.remove(tableMirror.getPhaseState());
+                activeTables.remove(tableMirror.getName(), tableMirror);
+            }
+        }
+    }
+
+    /*
+    Called by a table of this database when it moves to another phase.
+     */
+    protected void phaseChanged(TableMirror tableMirror, PhaseState from, PhaseState to) {
+        // Only the tables that are in the map are counted.
+        if (getTableMirrors().get(tableMirror.getName()) == tableMirror) {
+            phaseCounters.transition(from, to);
+            refreshActive(tableMirror);
+        }
+    }
+
+    /*
+    Each change of phase is followed by one of these, and the phase is read inside the (atomic) compute, so the
+    last one to run sees the last phase whatever order the threads get here in.
+     */
+    private void refreshActive(TableMirror tableMirror) {
+        activeTables.compute(tableMirror.getName(),
+                (name, current) -> isActive(tableMirror.getPhaseState()) ? tableMirror : null);
+    }
+
+    private static boolean isActive(PhaseState phaseState) {
+        return phaseState == PhaseState.CALCULATING_SQL || phaseState == PhaseState.APPLYING_SQL;
+    }
+
+    /*
+    Count the tables again.  Only needed after tables were removed from the map directly.
+     */
+    public void recountPhases() {
+        phaseCounters.clear();
+        activeTables.clear();
+        for (TableMirror tableMirror : getTableMirrors().values()) {
+            phaseCounters.add(tableMirror.getPhaseState());
+            refreshActive(tableMirror);
+        }
+    }
+
+    /*
+    The tables being worked on right now.
+     */
+    @JsonIgnore
+    public Collection<TableMirror> getActiveTables() {
+        return Collections.unmodifiableCollection(activeTables.values());
     }
 
     public void setProperty(Environment environment, String dbProperty, String value) {
@@ -175,16 +293,7 @@ public class DBMirror {
     }
 
     public Map<PhaseState, Integer> getPhaseSummary() {
-        Map<PhaseState, Integer> rtn = new HashMap<>();
-        for (String tableName : getTableMirrors().keySet()) {
-            TableMirror tableMirror = getTableMirrors().get(tableName);
-            Integer count = rtn.get(tableMirror.getPhaseState());
-            if (nonNull(count))
-                rtn.put(tableMirror.getPhaseState(), count + 1);
-            else
-                rtn.put(tableMirror.getPhaseState(), 1);
-        }
-        return rtn;
+        return phaseCounters.toMap();
     }
 
     @JsonIgnore
@@ -213,16 +322,29 @@ public class DBMirror {
     }
 
     public Map<String, TableMirror> getTableMirrors() {
-        if (isNull(tableMirrors)) {
-            tableMirrors = new TreeMap<>();
-        }
         return tableMirrors;
     }
 
     public void setTableMirrors(Map<String, TableMirror> tableMirrors) {
-        this.tableMirrors = tableMirrors;
-        for (TableMirror tableMirror : tableMirrors.values()) {
+        Map<String, TableMirror> lclTableMirrors = new ConcurrentSkipListMap<>();
+        if (nonNull(tableMirrors)) {
+            lclTableMirrors.putAll(tableMirrors);
+        }
+        for (TableMirror tableMirror : lclTableMirrors.values()) {
             tableMirror.setParent(this);
+            tableMirror.setStepsVerbose(stepsVerbose);
+        }
+        this.tableMirrors = lclTableMirrors;
+        recountPhases();
+    }
+
+    /*
+    Keep every step of the tables (hms-mirror.steps.verbose), for the tables already here and those added later.
+     */
+    public void setStepsVerbose(boolean stepsVerbose) {
+        this.stepsVerbose = stepsVerbose;
+        for (TableMirror tableMirror : getTableMirrors().values()) {
+            tableMirror.setStepsVerbose(stepsVerbose);
         }
     }
 
@@ -298,7 +420,7 @@ public class DBMirror {
 //            tableMirror.getIssues().clear();
 //            tableMirror.getSql().clear();
 //            tableMirror.getStatistics().clear();
-            tableMirror.getSteps().clear();
+            tableMirror.clearSteps();
         }
     }
 
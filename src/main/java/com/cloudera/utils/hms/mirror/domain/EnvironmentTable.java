@@ -19,6 +19,9 @@ package com.cloudera.utils.hms.mirror.domain;
 
 import com.cloudera.utils.hms.mirror.CreateStrategy;
 import com.cloudera.utils.hms.mirror.Pair;
+import com.cloudera.utils.hms.mirror.domain.support.PartitionLocationMap;
+import com.cloudera.utils.hms.util.TableDefinitionIndex;
+import com.cloudera.utils.hms.util.TableDefinitionLines;
 import com.cloudera.utils.hms.util.TableUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -41,9 +44,11 @@ public class EnvironmentTable implements Cloneable {
     private String name = null;
     private boolean exists = Boolean.FALSE;
     private CreateStrategy createStrategy = CreateStrategy.NOTHING;
-    private List<String> definition = new ArrayList<>();
+    // Keeps the parsed index of the lines, see TableDefinitionLines.
+    private List<String> definition = new TableDefinitionLines();
     private String owner = null;
-    private Map<String, String> partitions = new HashMap<>();
+    // Compact store, see PartitionLocationMap.
+    private Map<String, String> partitions = new PartitionLocationMap();
 //    private List<String> actions = new ArrayList<>();
     private Map<String, String> addProperties = new TreeMap<>();
     private Map<String, Object> statistics = new HashMap<>();
@@ -96,6 +101,27 @@ public class EnvironmentTable implements Cloneable {
         }
     }
 
+    public void setPartitions(Map<String, String> partitions) {
+        if (partitions instanceof PartitionLocationMap) {
+            this.partitions = partitions;
+        } else {
+            this.partitions = new PartitionLocationMap(partitions);
+        }
+    }
+
+    public void setDefinition(List<String> definition) {
+        if (definition == null || definition instanceof TableDefinitionLines) {
+            this.definition = definition;
+        } else {
+            this.definition = new TableDefinitionLines(definition);
+        }
+    }
+
+    @JsonIgnore
+    public TableDefinitionIndex getDefinitionIndex() {
+        return TableDefinitionIndex.of(definition);
+    }
+
     @JsonIgnore
     public Boolean getPartitioned() {
         Boolean rtn = Boolean.FALSE;
@@ -128,7 +154,7 @@ public class EnvironmentTable implements Cloneable {
         clone.setIssues(new ArrayList<>());
         // detach the definition with new objects.
         clone.setDefinition(new ArrayList<>(definition));
-        clone.setPartitions(new HashMap<>(partitions));
+        clone.setPartitions(new PartitionLocationMap(partitions));
 
         return clone;
     }
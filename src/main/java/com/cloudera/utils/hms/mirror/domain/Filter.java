@@ -17,6 +17,7 @@
 
 package com.cloudera.utils.hms.mirror.domain;
 
+import com.cloudera.utils.hms.mirror.domain.support.CompiledFilter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
@@ -57,6 +58,13 @@ public class Filter implements Cloneable {
     @Schema(description = "Maximum number of partitions in a table (-1 for no limit)")
     private Integer tblPartitionLimit = -1;
 
+    @JsonIgnore
+    // The regexes compiled for matching, rebuilt when one of them changes.
+    private CompiledFilter compiled = null;
+    @JsonIgnore
+    // The dbPropertySkipList the dbPropertySkipListPattern was built from.
+    private List<String> dbPropertySkipListCompiled = null;
+
     @Override
     public Filter clone() {
         try {
@@ -69,26 +77,27 @@ public class Filter implements Cloneable {
     }
 
     public Set<Pattern> getDbPropertySkipListPattern() {
-        // Whenever this is retrieved this way, we need to ensure that the dbPropertySkipListPattern is in sync
-        dbPropertySkipListPattern.clear();
-        for (String dbPropertySkip : dbPropertySkipList) {
-            dbPropertySkipListPattern.add(Pattern.compile(dbPropertySkip));
+        // Whenever this is retrieved this way, we need to ensure that the dbPropertySkipListPattern is in sync.
+        // The list can be changed in place, so compare it with what the patterns were built from.
+        if (!dbPropertySkipList.equals(dbPropertySkipListCompiled)) {
+            Set<Pattern> patterns = new HashSet<>();
+            for (String dbPropertySkip : dbPropertySkipList) {
+                patterns.add(Pattern.compile(dbPropertySkip));
+            }
+            dbPropertySkipListPattern = patterns;
+            dbPropertySkipListCompiled = new ArrayList<>(dbPropertySkipList);
         }
         return dbPropertySkipListPattern;
     }
 
     public void setDbPropertySkipList(List<String> dbPropertySkipList) {
         this.dbPropertySkipList = dbPropertySkipList;
-        dbPropertySkipListPattern.clear();
-        for (String dbPropertySkip : dbPropertySkipList) {
-            dbPropertySkipListPattern.add(Pattern.compile(dbPropertySkip));
-        }
+        dbPropertySkipListCompiled = null;
     }
 
     public void addDbPropertySkipItem(String dbPropertySkipItem) {
         if (!isBlank(dbPropertySkipItem)) {
             this.dbPropertySkipList.add(dbPropertySkipItem);
-            dbPropertySkipListPattern.add(Pattern.compile(dbPropertySkipItem));
         }
     }
 
@@ -109,8 +118,39 @@ public class Filter implements Cloneable {
         } catch (IndexOutOfBoundsException e) {
             // Nothing to do.
         } finally {
-            this.dbPropertySkipListPattern.clear();
+            this.dbPropertySkipListCompiled = null;
+        }
+    }
+
+    public void setDbRegEx(String dbRegEx) {
+        this.dbRegEx = dbRegEx;
+        this.dbFilterPattern = null;
+        this.compiled = null;
+    }
+
+    public void setTblRegEx(String tblRegEx) {
+        this.tblRegEx = tblRegEx;
+        this.tblFilterPattern = null;
+        this.compiled = null;
+    }
+
+    public void setTblExcludeRegEx(String tblExcludeRegEx) {
+        this.tblExcludeRegEx = tblExcludeRegEx;
+        this.tblExcludeFilterPattern = null;
+        this.compiled = null;
+    }
+
+    /*
+    The filters, compiled once for all the names they're checked against.
+     */
+    @JsonIgnore
+    public CompiledFilter getCompiled() {
+        CompiledFilter rtn = compiled;
+        if (isNull(rtn)) {
+            rtn = CompiledFilter.compile(this);
+            compiled = rtn;
         }
+        return rtn;
     }
 
     public Pattern getDbFilterPattern() {
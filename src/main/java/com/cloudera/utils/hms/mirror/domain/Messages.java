@@ -91,11 +91,12 @@ public class Messages implements Cloneable {
         return rtn * -1;
     }
 
-    public void set(MessageCode messageCode) {
+    // Databases and tables report their messages from several threads.
+    public synchronized void set(MessageCode messageCode) {
         bitSet.set(messageCode.ordinal());
     }
 
-    public void set(MessageCode messageCode, Object... args) {
+    public synchronized void set(MessageCode messageCode, Object... args) {
         bitSet.set(messageCode.ordinal());
         if (args != null) {
             argMap.put(messageCode.ordinal(), args);
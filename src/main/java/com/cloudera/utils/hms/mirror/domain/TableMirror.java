@@ -20,18 +20,20 @@ package com.cloudera.utils.hms.mirror.domain;
 import com.cloudera.utils.hms.mirror.*;
 import com.cloudera.utils.hms.mirror.domain.support.DataStrategyEnum;
 import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.StepEnum;
+import com.cloudera.utils.hms.mirror.domain.support.TableSteps;
 import com.cloudera.utils.hms.util.TableUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
-import java.math.BigDecimal;
-import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -42,8 +44,15 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 @Setter
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class TableMirror {
-//    @JsonIgnore
-    private final List<Marker> steps = new ArrayList<Marker>();
+    // Formatted into Markers only when the steps are asked for, see getSteps.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final TableSteps stepRecorder = new TableSteps();
+    // The steps of a table read back from a report, see setSteps.
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private List<Marker> loadedSteps = null;
     /*
     Use to indicate the tblMirror should be removed from processing, post setup.
      */
@@ -70,14 +79,17 @@ public class TableMirror {
     @JsonIgnore
     private String migrationStageMessage = null;
 
-    private PhaseState phaseState = PhaseState.INIT;
+    // Changed by many threads and counted by the parent, see setPhaseState.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicReference<PhaseState> phaseStateRef = new AtomicReference<>(PhaseState.INIT);
 
     private Long stageDuration = 0L;
 
     private Map<Environment, EnvironmentTable> environments = null;
 
     public TableMirror() {
-        addStep("init", null);
+        recordStep(StepEnum.INIT, null, null);
     }
 
     @JsonIgnore
@@ -95,6 +107,21 @@ public class TableMirror {
     }
 
 
+    public PhaseState getPhaseState() {
+        return phaseStateRef.get();
+    }
+
+    /*
+    Swap the phase and let the parent count the move, so the progress doesn't have to go through the tables.
+     */
+    public void setPhaseState(PhaseState phaseState) {
+        PhaseState previous = phaseStateRef.getAndSet(phaseState);
+        DBMirror lclParent = parent;
+        if (nonNull(lclParent)) {
+            lclParent.phaseChanged(this, previous, phaseState);
+        }
+    }
+
     public void addIssue(Environment environment, String issue) {
         if (!isBlank(issue)) {
             String scrubbedIssue = issue.replace("\n", "<br/>");
@@ -109,14 +136,45 @@ public class TableMirror {
         }
     }
 
-    public void addStep(String key, Object value) {
-        Date now = new Date();
-        Long elapsed = now.getTime() - start.getTime();
-        start = now; // reset
-        BigDecimal secs = new BigDecimal(elapsed).divide(new BigDecimal(1000));///1000
-        DecimalFormat decf = new DecimalFormat("#,###.00");
-        String secStr = decf.format(secs);
-        steps.add(new Marker(secStr, key, value));
+    public void recordStep(StepEnum kind, Environment environment, String detail) {
+        stepRecorder.record(kind, environment, detail);
+    }
+
+    /*
+    A step that took 'durationNanos' (from System.nanoTime).  The time also goes to the latency histogram of the
+    parent for the kind of step.
+     */
+    public void recordTimed(StepEnum kind, Environment environment, String detail, long durationNanos) {
+        stepRecorder.record(kind, environment, detail, durationNanos);
+        DBMirror lclParent = parent;
+        if (nonNull(lclParent)) {
+            lclParent.recordTiming(kind, durationNanos);
+        }
+    }
+
+    /*
+    Keep every step of the table, not just the last few.
+     */
+    @JsonIgnore
+    public void setStepsVerbose(boolean verbose) {
+        stepRecorder.setVerbose(verbose);
+    }
+
+    public List<Marker> getSteps() {
+        List<Marker> lclLoadedSteps = loadedSteps;
+        return nonNull(lclLoadedSteps) ? lclLoadedSteps : stepRecorder.toMarkers();
+    }
+
+    /*
+    Only used when the table is read back from a report (yaml), the steps of a run go through recordStep.
+     */
+    public void setSteps(List<Marker> steps) {
+        this.loadedSteps = steps;
+    }
+
+    public void clearSteps() {
+        stepRecorder.clear();
+        loadedSteps = null;
     }
 
 //    public void addTableAction(Environment environment, String action) {
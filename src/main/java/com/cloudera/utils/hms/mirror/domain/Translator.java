@@ -19,10 +19,12 @@ package com.cloudera.utils.hms.mirror.domain;
 
 import com.cloudera.utils.hms.mirror.EnvironmentMap;
 import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.GlobalLocationMapIndex;
 import com.cloudera.utils.hms.mirror.domain.support.StringLengthComparator;
 import com.cloudera.utils.hms.mirror.domain.support.TableType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -80,6 +82,14 @@ public class Translator implements Cloneable {
     @JsonIgnore
     private Map<String, Map<TableType, String>> orderedGlobalLocationMap = null;
 
+    /**
+     * Prefix index over the ordered global location map, used for the location lookups.
+     * Built from the ordered map on first use and dropped whenever that map is rebuilt or changed.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private volatile GlobalLocationMapIndex globalLocationMapIndex = null;
+
     /**
      * Builder and state tracker for warehouse mapping.
      */
@@ -92,6 +102,7 @@ public class Translator implements Cloneable {
         if (nonNull(translationMap)) translationMap.clear();
         if (nonNull(autoGlobalLocationMap)) autoGlobalLocationMap.clear();
         if (nonNull(orderedGlobalLocationMap)) orderedGlobalLocationMap.clear();
+        globalLocationMapIndex = null;
         if (nonNull(warehouseMapBuilder)) warehouseMapBuilder.reset();
     }
 
@@ -108,6 +119,7 @@ public class Translator implements Cloneable {
         target.put(tableType, to);
         userGlobalLocationMap.put(from, target);
         getOrderedGlobalLocationMap().put(from, target);
+        globalLocationMapIndex = null;
     }
 
     /**
@@ -118,6 +130,7 @@ public class Translator implements Cloneable {
     public Translator clone() {
         try {
             Translator clone = (Translator) super.clone();
+            clone.globalLocationMapIndex = null;
             if (nonNull(userGlobalLocationMap))
                 clone.userGlobalLocationMap = new HashMap<>(userGlobalLocationMap);
             if (nonNull(autoGlobalLocationMap))
@@ -153,6 +166,7 @@ public class Translator implements Cloneable {
         orderedGlobalLocationMap = new TreeMap<>(new StringLengthComparator());
         if (nonNull(autoGlobalLocationMap)) orderedGlobalLocationMap.putAll(autoGlobalLocationMap);
         if (nonNull(userGlobalLocationMap)) orderedGlobalLocationMap.putAll(userGlobalLocationMap);
+        globalLocationMapIndex = new GlobalLocationMapIndex(orderedGlobalLocationMap);
     }
 
     /**
@@ -253,6 +267,23 @@ public class Translator implements Cloneable {
         return orderedGlobalLocationMap;
     }
 
+    /**
+     * Get the prefix index for the ordered global location map, (re)building it when the ordered
+     * map has been rebuilt or changed since the index was built.
+     *
+     * @return Prefix index over the ordered global location map.
+     */
+    @JsonIgnore
+    public GlobalLocationMapIndex getGlobalLocationMapIndex() {
+        Map<String, Map<TableType, String>> ordered = getOrderedGlobalLocationMap();
+        GlobalLocationMapIndex index = globalLocationMapIndex;
+        if (isNull(index) || !index.isIndexOf(ordered)) {
+            index = new GlobalLocationMapIndex(ordered);
+            globalLocationMapIndex = index;
+        }
+        return index;
+    }
+
     /**
      * Validation hook. Currently always returns true.
      * @return true if the Translator is valid.
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hive.config.DBStore;
+import com.cloudera.utils.hms.mirror.domain.Filter;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/*
+The database and table filters of a Filter, compiled once and held by the Filter until one of its regexes
+changes.  The 'tblRegEx' wins over the 'tblExcludeRegEx' when both are set, as it always has.
+
+When the table filter is only names and prefixes, it can also be pushed down into the per database Metastore
+Direct queries (as 'IN' and 'LIKE'), so the rows of the filtered out tables never leave the metastore.
+ */
+@Getter
+public class CompiledFilter {
+    // What can safely go into the SQL as a literal.  The metastore holds table names in lower case and the
+    // collation of the column may not be case sensitive, so nothing else is pushed down.
+    private static final Pattern SQL_SAFE = Pattern.compile("[a-z0-9_]+");
+    private static final String LIKE_ESCAPE = "!";
+
+    // Null when there's nothing to filter on.
+    private final NameMatcher database;
+    private final NameMatcher tableInclude;
+    private final NameMatcher tableExclude;
+
+    private CompiledFilter(NameMatcher database, NameMatcher tableInclude, NameMatcher tableExclude) {
+        this.database = database;
+        this.tableInclude = tableInclude;
+        this.tableExclude = tableExclude;
+    }
+
+    public static CompiledFilter compile(Filter filter) {
+        if (isNull(filter)) {
+            return new CompiledFilter(null, null, null);
+        }
+        NameMatcher database = isBlank(filter.getDbRegEx()) ? null : NameMatcher.compile(filter.getDbRegEx(), false);
+        NameMatcher tableInclude = null;
+        NameMatcher tableExclude = null;
+        if (!isBlank(filter.getTblRegEx())) {
+            tableInclude = NameMatcher.compile(filter.getTblRegEx(), true);
+        } else if (!isBlank(filter.getTblExcludeRegEx())) {
+            tableExclude = NameMatcher.compile(filter.getTblExcludeRegEx(), true);
+        }
+        return new CompiledFilter(database, tableInclude, tableExclude);
+    }
+
+    public boolean isDatabaseIncluded(String database) {
+        return isNull(this.database) || this.database.matches(database);
+    }
+
+    public boolean isTableFiltering() {
+        return nonNull(tableInclude) || nonNull(tableExclude);
+    }
+
+    public boolean isTableIncluded(String table) {
+        if (nonNull(tableInclude)) {
+            return tableInclude.matches(table);
+        } else if (nonNull(tableExclude)) {
+            return !tableExclude.matches(table);
+        }
+        return true;
+    }
+
+    /*
+    The condition on the table name column that does what the table filter does, or null when there's no table
+    filter or it can't be expressed in SQL.
+     */
+    public String tableNameCondition(String column) {
+        NameMatcher matcher = nonNull(tableInclude) ? tableInclude : tableExclude;
+        if (isNull(matcher) || !matcher.isDecomposed()) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        if (!matcher.getNames().isEmpty()) {
+            StringBuilder in = new StringBuilder(column).append(" IN (");
+            boolean first = true;
+            // Sorted, so the statement is the same from run to run.
+            for (String name : new TreeSet<>(matcher.getNames())) {
+                if (!SQL_SAFE.matcher(name).matches()) {
+                    return null;
+                }
+                in.append(first ? "" : ", ").append('\'').append(name).append('\'');
+                first = false;
+            }
+            terms.add(in.append(')').toString());
+        }
+        for (String prefix : matcher.getPrefixes()) {
+            if (!SQL_SAFE.matcher(prefix).matches()) {
+                // Includes the empty prefix (everything).
+                return null;
+            }
+            terms.add(column + " LIKE '" + prefix.replace("_", LIKE_ESCAPE + "_") + "%' ESCAPE '" + LIKE_ESCAPE + "'");
+        }
+        String condition = terms.size() == 1 ? terms.get(0) : "(" + String.join(" OR ", terms) + ")";
+        return nonNull(tableInclude) ? condition : "NOT " + (terms.size() == 1 ? "(" + condition + ")" : condition);
+    }
+
+    /*
+    Add the table filter to a per database Metastore Direct statement, right after the database condition
+    ('D.NAME = ?').  The statement comes back as is when the filter can't be pushed down or the statement isn't
+    shaped that way, the rows are still filtered as they're read.
+     */
+    public String pushDown(String statement, DBStore.DB_TYPE dbType) {
+        if (isNull(statement)) {
+            return statement;
+        }
+        boolean quoted = dbType == DBStore.DB_TYPE.POSTGRES;
+        String condition = tableNameCondition(quoted ? "\"T\".\"TBL_NAME\"" : "T.TBL_NAME");
+        if (isNull(condition)) {
+            return statement;
+        }
+        String databaseCondition = quoted ? "\"D\".\"NAME\" = ?" : "D.NAME = ?";
+        int at = statement.indexOf(databaseCondition);
+        if (at < 0) {
+            return statement;
+        }
+        int end = at + databaseCondition.length();
+        return statement.substring(0, end) + " AND " + condition + statement.substring(end);
+    }
+
+}
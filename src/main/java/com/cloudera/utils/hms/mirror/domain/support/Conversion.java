@@ -20,6 +20,7 @@ package com.cloudera.utils.hms.mirror.domain.support;
 import com.cloudera.utils.hms.mirror.Marker;
 import com.cloudera.utils.hms.mirror.MirrorConf;
 import com.cloudera.utils.hms.mirror.Pair;
+import com.cloudera.utils.hms.mirror.PhaseState;
 import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
@@ -27,20 +28,25 @@ import com.cloudera.utils.hms.mirror.domain.TableMirror;
 import com.cloudera.utils.hms.mirror.reporting.ReportingConf;
 import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
 import com.cloudera.utils.hms.util.TableUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Getter
 @Setter
@@ -51,23 +57,58 @@ public class Conversion {
 //    private Date start = new Date();
 //    private Date end = null;
 
-    private Map<String, DBMirror> databases = new TreeMap<>();
+    // Databases are added and read from many threads.
+    private Map<String, DBMirror> databases = new ConcurrentSkipListMap<>();
+    // Handed to the databases as they're added, see setStepsVerbose.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private volatile boolean stepsVerbose = false;
+
+    public void setDatabases(Map<String, DBMirror> databases) {
+        Map<String, DBMirror> lclDatabases = new ConcurrentSkipListMap<>();
+        if (databases != null) {
+            lclDatabases.putAll(databases);
+        }
+        for (DBMirror dbMirror : lclDatabases.values()) {
+            dbMirror.setStepsVerbose(stepsVerbose);
+        }
+        this.databases = lclDatabases;
+    }
+
+    /*
+    Keep every step of the tables for the run (hms-mirror.steps.verbose), not just the last few.
+     */
+    public void setStepsVerbose(boolean stepsVerbose) {
+        this.stepsVerbose = stepsVerbose;
+        for (DBMirror dbMirror : databases.values()) {
+            dbMirror.setStepsVerbose(stepsVerbose);
+        }
+    }
 
     public int getUnsuccessfullTableCount() {
-        int count = 0;
+        ConversionSnapshot snapshot = snapshot();
+        // Don't count successful conversions or the tables PROCESSED in a previous run.
+        return snapshot.getTableCount() - snapshot.getCount(PhaseState.CALCULATED_SQL)
+                - snapshot.getCount(PhaseState.PROCESSED) - snapshot.getCount(PhaseState.RETRY_SKIPPED_PAST_SUCCESS);
+    }
+
+    /*
+    The progress as of now, read from the counters the databases keep.
+     */
+    public ConversionSnapshot snapshot() {
+        return new ConversionSnapshot(databases.values());
+    }
+
+    /*
+    The step timings of all the databases, by kind of step.
+     */
+    public Map<StepEnum, LatencyHistogram> stepTimings() {
+        Map<StepEnum, LatencyHistogram> rtn = new EnumMap<>(StepEnum.class);
         for (DBMirror dbMirror : databases.values()) {
-            for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
-                switch (tableMirror.getPhaseState()) {
-                    // Don't count successful conversions.
-                    case CALCULATED_SQL:
-                    case PROCESSED:
-                        break;
-                    default:
-                        count++;
-                }
-            }
+            dbMirror.getStepTimings().forEach((kind, histogram) ->
+                    rtn.computeIfAbsent(kind, k -> new LatencyHistogram()).merge(histogram));
         }
-        return count;
+        return rtn;
     }
 
 //    public String actionsSql(Environment env, String database) {
@@ -92,14 +133,17 @@ public class Conversion {
 //    }
 
     public DBMirror addDatabase(String database) {
-        if (databases.containsKey(database)) {
-            return databases.get(database);
-        } else {
-            DBMirror dbs = new DBMirror();
+        DBMirror dbs = databases.get(database);
+        if (dbs == null) {
+            dbs = new DBMirror();
             dbs.setName(database);
-            databases.put(database, dbs);
-            return dbs;
+            dbs.setStepsVerbose(stepsVerbose);
+            DBMirror existing = databases.putIfAbsent(database, dbs);
+            if (existing != null) {
+                dbs = existing;
+            }
         }
+        return dbs;
     }
 
     public String executeCleanUpSql(Environment environment, String database) {
@@ -177,6 +221,25 @@ public class Conversion {
     }
 
     public String toReport(String database, ExecuteSessionService executeSessionService) throws JsonProcessingException {
+        StringBuilder rtn = new StringBuilder();
+        try {
+            writeReport(database, executeSessionService, rtn::append);
+        } catch (JsonProcessingException jpe) {
+            throw jpe;
+        } catch (IOException ioe) {
+            // Appending to a StringBuilder doesn't do any IO.
+            throw new UncheckedIOException(ioe);
+        }
+        return rtn.toString();
+    }
+
+    /*
+    Write the markdown report for the database to the sink, one piece at a time: the header (config, database sql
+    and issues), then one piece for each table and finally the skipped tables.  Nothing larger than a table's
+    worth of the report is held in memory.
+     */
+    public void writeReport(String database, ExecuteSessionService executeSessionService,
+                            MarkdownSink sink) throws IOException {
         HmsMirrorConfig hmsMirrorConfig = executeSessionService.getSession().getConfig();
         RunStatus runStatus = executeSessionService.getSession().getRunStatus();
 
@@ -314,6 +377,7 @@ public class Conversion {
         }
         sb.append("<th style=\"test-align:left\">SQL</th>").append("\n");
         sb.append("</tr>").append("\n");
+        flush(sink, sb);
 
         Set<String> tables = dbMirror.getTableMirrors().keySet();
         for (String table : tables) {
@@ -551,6 +615,7 @@ public class Conversion {
             sb.append("</table>");
             sb.append("</td>").append("\n");
             sb.append("</tr>").append("\n");
+            flush(sink, sb);
         }
         sb.append("</table>").append("\n");
 
@@ -563,7 +628,36 @@ public class Conversion {
                 sb.append("| ").append(entry.getKey()).append(" | ").append(entry.getValue()).append(" |\n");
             }
         }
-        return sb.toString();
+
+        appendStepTimings(sb, dbMirror.getStepTimings());
+        flush(sink, sb);
+    }
+
+    private static void appendStepTimings(StringBuilder sb, Map<StepEnum, LatencyHistogram> stepTimings) {
+        boolean header = false;
+        for (Map.Entry<StepEnum, LatencyHistogram> entry : stepTimings.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            if (!header) {
+                sb.append("\n## Step Timings\n\n");
+                sb.append("| Step | Count | p50 (ms) | p95 (ms) | p99 (ms) | Max (ms) |\n");
+                sb.append("|:---|---:|---:|---:|---:|---:|\n");
+                header = true;
+            }
+            sb.append(String.format("| %s | %d | %.1f | %.1f | %.1f | %.1f |\n", entry.getKey().getStep(),
+                    histogram.getCount(), LatencyHistogram.millis(histogram.getPercentile(50)),
+                    LatencyHistogram.millis(histogram.getPercentile(95)),
+                    LatencyHistogram.millis(histogram.getPercentile(99)), LatencyHistogram.millis(histogram.getMax())));
+        }
+    }
+
+    private static void flush(MarkdownSink sink, StringBuilder sb) throws IOException {
+        if (sb.length() > 0) {
+            sink.write(sb);
+            sb.setLength(0);
+        }
     }
 
     @Override
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import lombok.Getter;
+
+import java.util.*;
+
+/*
+The progress of a Conversion at one point in time: the number of tables in each phase, by database and in
+total, and the tables being worked on.  Built from the counters the databases keep, so it doesn't go through
+the tables, and never changes once built, so the reporters and the REST layer can hold on to it.
+ */
+@Getter
+public class ConversionSnapshot {
+    private final Date taken = new Date();
+    private final int databaseCount;
+    private final int tableCount;
+    private final Map<PhaseState, Integer> phases;
+    private final Map<String, Map<PhaseState, Integer>> databasePhases;
+    // 'db.table' of the tables being worked on (CALCULATING_SQL or APPLYING_SQL), with their phase.
+    private final Map<String, PhaseState> activeTables;
+
+    public ConversionSnapshot(Collection<DBMirror> databases) {
+        Map<PhaseState, Integer> lclPhases = new EnumMap<>(PhaseState.class);
+        Map<String, Map<PhaseState, Integer>> lclDatabasePhases = new TreeMap<>();
+        Map<String, PhaseState> lclActiveTables = new TreeMap<>();
+        int lclDatabaseCount = 0;
+        for (DBMirror dbMirror : databases) {
+            lclDatabaseCount++;
+            Map<PhaseState, Integer> dbPhases = dbMirror.getPhaseSummary();
+            lclDatabasePhases.put(dbMirror.getName(), Collections.unmodifiableMap(dbPhases));
+            dbPhases.forEach((phase, count) -> lclPhases.merge(phase, count, Integer::sum));
+            for (TableMirror tableMirror : dbMirror.getActiveTables()) {
+                lclActiveTables.put(dbMirror.getName() + "." + tableMirror.getName(), tableMirror.getPhaseState());
+            }
+        }
+        this.databaseCount = lclDatabaseCount;
+        this.tableCount = lclPhases.values().stream().mapToInt(Integer::intValue).sum();
+        this.phases = Collections.unmodifiableMap(lclPhases);
+        this.databasePhases = Collections.unmodifiableMap(lclDatabasePhases);
+        this.activeTables = Collections.unmodifiableMap(lclActiveTables);
+    }
+
+    public int getCount(PhaseState phaseState) {
+        return phases.getOrDefault(phaseState, 0);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.util.NamespaceUtils;
+
+import java.util.*;
+
+/*
+A path segment trie over the keys of the global location map.  Finds the longest key that the location
+starts with, which is the same answer as walking the map ordered by key length (StringLengthComparator)
+and taking the first 'startsWith' match, without looking at every key.
+
+The first level of the trie is the namespace (when there is one), the rest are the '/' separated
+directories.  A key can end part way through a directory name (eg: '/data/db_' matches '/data/db_01'), so
+each node also remembers the lengths of the keys that end on one of its children to check those cheaply.
+
+The index is a snapshot of the map it was built from.  Rebuild it when the map changes.
+ */
+public class GlobalLocationMapIndex {
+    private static final String PROTOCOL_SEPARATOR = "://";
+
+    private final Map<String, Map<TableType, String>> source;
+    private final Node root = new Node(null);
+    private final int size;
+
+    public GlobalLocationMapIndex(Map<String, Map<TableType, String>> source) {
+        this.source = source;
+        int count = 0;
+        if (source != null) {
+            for (Map.Entry<String, Map<TableType, String>> entry : source.entrySet()) {
+                if (entry.getKey() == null) {
+                    continue;
+                }
+                Node node = root;
+                for (String segment : segments(entry.getKey())) {
+                    node = node.child(segment);
+                }
+                node.key = entry.getKey();
+                node.targets = entry.getValue();
+                count++;
+            }
+            root.seal();
+        }
+        this.size = count;
+    }
+
+    /*
+    True when the index was built from this exact map instance.
+     */
+    public boolean isIndexOf(Map<String, Map<TableType, String>> map) {
+        return source == map;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /*
+    The entry with the longest key that the location starts with, or null when no key matches.
+     */
+    public Map.Entry<String, Map<TableType, String>> longestPrefix(String location) {
+        if (location == null || size == 0) {
+            return null;
+        }
+        Node node = root;
+        Node best = null;
+        for (String segment : segments(location)) {
+            Node child = node.children.get(segment);
+            if (child != null && child.key != null) {
+                best = child;
+            } else {
+                Node partial = node.partialMatch(segment);
+                if (partial != null) {
+                    best = partial;
+                }
+            }
+            if (child == null) {
+                break;
+            }
+            node = child;
+        }
+        return best == null ? null : new AbstractMap.SimpleImmutableEntry<>(best.key, best.targets);
+    }
+
+    /*
+    The namespace (or an empty string) followed by the directories of the path.  The namespace is only
+    looked up when the location has a protocol, which keeps the common (relative) case cheap.
+     */
+    private static List<String> segments(String location) {
+        String namespace = "";
+        String path = location;
+        if (location.contains(PROTOCOL_SEPARATOR)) {
+            String ns = NamespaceUtils.getNamespace(location);
+            if (ns != null && location.startsWith(ns)) {
+                namespace = ns;
+                path = location.substring(ns.length());
+            }
+        }
+        List<String> rtn = new ArrayList<>();
+        rtn.add(namespace);
+        if (!path.isEmpty()) {
+            int start = 0;
+            int idx;
+            while ((idx = path.indexOf('/', start)) >= 0) {
+                rtn.add(path.substring(start, idx));
+                start = idx + 1;
+            }
+            rtn.add(path.substring(start));
+        }
+        return rtn;
+    }
+
+    private static class Node {
+        private static final int[] NO_LENGTHS = new int[0];
+
+        private final String segment;
+        private Map<String, Node> children = Collections.emptyMap();
+        // Distinct lengths (longest first) of the children that end a key.
+        private int[] keyLengths = NO_LENGTHS;
+        private String key;
+        private Map<TableType, String> targets;
+
+        Node(String segment) {
+            this.segment = segment;
+        }
+
+        Node child(String segment) {
+            if (children.isEmpty()) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(segment, Node::new);
+        }
+
+        /*
+        The child with the longest key ending that is a strict prefix of the segment.
+         */
+        Node partialMatch(String segment) {
+            for (int length : keyLengths) {
+                if (length < segment.length()) {
+                    Node candidate = children.get(segment.substring(0, length));
+                    if (candidate != null && candidate.key != null) {
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+
+        void seal() {
+            SortedSet<Integer> lengths = new TreeSet<>(Comparator.reverseOrder());
+            for (Node child : children.values()) {
+                if (child.key != null) {
+                    lengths.add(child.segment.length());
+                }
+                child.seal();
+            }
+            if (!lengths.isEmpty()) {
+                keyLengths = lengths.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+}
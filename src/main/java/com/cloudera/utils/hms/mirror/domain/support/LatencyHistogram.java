@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+A latency histogram in nanoseconds.  Each power of 2 is split into 8 buckets, so a percentile is never off by
+more than 12.5% and the whole range of a long fits in 512 counters.  Recording is a few atomic increments, so
+all the threads working on a database can share one.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(index(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = other.buckets.get(i);
+            if (bucket > 0) {
+                buckets.addAndGet(i, bucket);
+            }
+        }
+        count.addAndGet(other.count.get());
+        total.addAndGet(other.total.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long lclCount = count.get();
+        return lclCount == 0 ? 0 : total.get() / lclCount;
+    }
+
+    /*
+    The value (the top of its bucket) that 'percentile' percent of the recorded values are at or below.
+     */
+    public long getPercentile(double percentile) {
+        long lclCount = count.get();
+        if (lclCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(lclCount * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(upper(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upper(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (1L << exponent) + (index % SUB_BUCKETS) * width;
+        return lower + width - 1;
+    }
+
+    /*
+    count, p50, p95, p99 and max, in milliseconds.
+     */
+    public String toSummary() {
+        return String.format("count=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms", getCount(),
+                millis(getPercentile(50)), millis(getPercentile(95)), millis(getPercentile(99)), millis(getMax()));
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import java.io.IOException;
+
+/*
+Receives a report as a sequence of markdown pieces.  Each piece ends on a line boundary and the caller
+reuses the buffer once 'write' returns, so the sink must not hold on to it.
+ */
+@FunctionalInterface
+public interface MarkdownSink {
+
+    void write(CharSequence markdown) throws IOException;
+
+}
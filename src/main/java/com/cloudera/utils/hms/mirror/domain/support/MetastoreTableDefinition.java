@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/*
+The parts of a table definition as they are stored in the metastore (TBLS, SDS, SERDES, COLUMNS_V2,
+PARTITION_KEYS, BUCKETING_COLS, SORT_COLS, SERDE_PARAMS and TABLE_PARAMS).  Loaded in bulk for a database
+through the Metastore Direct connection and rendered into the same lines that 'SHOW CREATE TABLE' returns,
+so the rest of the application can't tell where the definition came from.
+
+Tables that can't be reproduced faithfully (views, storage handler and skewed tables) are flagged so the
+caller falls back to 'SHOW CREATE TABLE'.
+ */
+@Getter
+@Setter
+public class MetastoreTableDefinition {
+    public static final String EXTERNAL_TABLE = "EXTERNAL_TABLE";
+    public static final String MANAGED_TABLE = "MANAGED_TABLE";
+
+    // Table parameters that 'SHOW CREATE TABLE' leaves out of the TBLPROPERTIES.
+    private static final Set<String> EXCLUDED_TBL_PROPERTIES = new HashSet<>(Arrays.asList(
+            "EXTERNAL", "comment", "COLUMN_STATS_ACCURATE", "numFiles", "numFilesErasureCoded",
+            "numPartitions", "numRows", "rawDataSize", "totalSize"));
+    // The metastore default for 'serialization.format', which is left out of the SERDEPROPERTIES.
+    private static final String DEFAULT_SERIALIZATION_FORMAT = "1";
+    private static final String SERIALIZATION_FORMAT = "serialization.format";
+    private static final String STORAGE_HANDLER = "storage_handler";
+
+    private String name;
+    private String tableType;
+    private String owner;
+    private String location;
+    private String inputFormat;
+    private String outputFormat;
+    private String serdeLib;
+    private int numBuckets = -1;
+    private boolean skewed = false;
+
+    private final List<Column> columns = new ArrayList<>();
+    private final List<Column> partitionKeys = new ArrayList<>();
+    private final List<String> bucketColumns = new ArrayList<>();
+    private final List<String> sortColumns = new ArrayList<>();
+    private final Map<String, String> serdeParameters = new TreeMap<>();
+    private final Map<String, String> tableParameters = new TreeMap<>();
+
+    public MetastoreTableDefinition() {
+    }
+
+    public MetastoreTableDefinition(String name) {
+        this.name = name;
+    }
+
+    public void addColumn(String name, String type, String comment) {
+        columns.add(new Column(name, type, comment));
+    }
+
+    public void addPartitionKey(String name, String type, String comment) {
+        partitionKeys.add(new Column(name, type, comment));
+    }
+
+    public void addBucketColumn(String name) {
+        bucketColumns.add(name);
+    }
+
+    public void addSortColumn(String name, int order) {
+        sortColumns.add(name + (order == 1 ? " ASC" : " DESC"));
+    }
+
+    /*
+    True when the definition can be rendered locally.  Anything else needs 'SHOW CREATE TABLE'.
+     */
+    public boolean isReproducible() {
+        return (EXTERNAL_TABLE.equals(tableType) || MANAGED_TABLE.equals(tableType))
+                && !skewed
+                && !tableParameters.containsKey(STORAGE_HANDLER)
+                && !isBlank(serdeLib) && !isBlank(inputFormat) && !isBlank(outputFormat)
+                && !columns.isEmpty();
+    }
+
+    /*
+    Render the definition in the layout of 'SHOW CREATE TABLE', one (trimmed) line per element.
+     */
+    public List<String> toDefinition() {
+        List<String> rtn = new ArrayList<>();
+        rtn.add((EXTERNAL_TABLE.equals(tableType) ? "CREATE EXTERNAL TABLE `" : "CREATE TABLE `") + name + "`(");
+        addColumnLines(rtn, columns);
+        String comment = tableParameters.get("comment");
+        if (comment != null) {
+            rtn.add("COMMENT '" + escapeHiveCommand(comment) + "'");
+        }
+        if (!partitionKeys.isEmpty()) {
+            rtn.add("PARTITIONED BY (");
+            addColumnLines(rtn, partitionKeys);
+        }
+        if (!bucketColumns.isEmpty() && numBuckets > 0) {
+            rtn.add("CLUSTERED BY (");
+            addListLines(rtn, bucketColumns);
+            if (!sortColumns.isEmpty()) {
+                rtn.add("SORTED BY (");
+                addListLines(rtn, sortColumns);
+            }
+            rtn.add("INTO " + numBuckets + " BUCKETS");
+        }
+        rtn.add("ROW FORMAT SERDE");
+        rtn.add("'" + escapeHiveCommand(serdeLib) + "'");
+        Map<String, String> serdeProps = new TreeMap<>(serdeParameters);
+        if (DEFAULT_SERIALIZATION_FORMAT.equals(serdeProps.get(SERIALIZATION_FORMAT))) {
+            serdeProps.remove(SERIALIZATION_FORMAT);
+        }
+        if (!serdeProps.isEmpty()) {
+            rtn.add("WITH SERDEPROPERTIES (");
+            addPropertyLines(rtn, serdeProps);
+        }
+        rtn.add("STORED AS INPUTFORMAT");
+        rtn.add("'" + escapeHiveCommand(inputFormat) + "'");
+        rtn.add("OUTPUTFORMAT");
+        rtn.add("'" + escapeHiveCommand(outputFormat) + "'");
+        if (!isBlank(location)) {
+            rtn.add("LOCATION");
+            rtn.add("'" + escapeHiveCommand(location) + "'");
+        }
+        Map<String, String> tblProps = new TreeMap<>();
+        tableParameters.forEach((k, v) -> {
+            if (v != null && !EXCLUDED_TBL_PROPERTIES.contains(k)) {
+                tblProps.put(k, v);
+            }
+        });
+        if (!tblProps.isEmpty()) {
+            rtn.add("TBLPROPERTIES (");
+            addPropertyLines(rtn, tblProps);
+        }
+        return rtn;
+    }
+
+    private static void addColumnLines(List<String> lines, List<Column> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            StringBuilder sb = new StringBuilder("`").append(column.getName()).append("` ").append(column.getType());
+            if (column.getComment() != null) {
+                sb.append(" COMMENT '").append(escapeHiveCommand(column.getComment())).append("'");
+            }
+            sb.append(i < columns.size() - 1 ? "," : ")");
+            lines.add(sb.toString());
+        }
+    }
+
+    private static void addListLines(List<String> lines, List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            lines.add(values.get(i) + (i < values.size() - 1 ? "," : ")"));
+        }
+    }
+
+    /*
+    Hive Java-escapes the property values (serde and table) before quoting them, so a tab delimiter shows up
+    as '\t'.
+     */
+    private static void addPropertyLines(List<String> lines, Map<String, String> properties) {
+        Iterator<Map.Entry<String, String>> iter = properties.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, String> entry = iter.next();
+            lines.add("'" + entry.getKey() + "'='" + escapeHiveCommand(escapeJava(entry.getValue())) + "'" + (iter.hasNext() ? "," : ")"));
+        }
+    }
+
+    /*
+    Same escaping Hive applies to the quoted values in 'SHOW CREATE TABLE'.
+     */
+    protected static String escapeHiveCommand(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '\'' || c == ';') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    protected static String escapeJava(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\b':
+                    sb.append("\\b");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7f) {
+                        sb.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Getter
+    public static class Column {
+        private final String name;
+        private final String type;
+        private final String comment;
+
+        public Column(String name, String type, String comment) {
+            this.name = name;
+            this.type = type;
+            this.comment = comment;
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.nonNull;
+
+/*
+A name filter regex, compiled once.  Most filters are a list of names ('orders|customers') or of prefixes
+('sales_.*|fin_.*'), so when the regex is nothing more than that, it's held as a set of exact names and a list
+of prefixes and no regex is evaluated at all.  Anything else falls back to the compiled Pattern.
+
+'fullMatch' follows the callers: the table filters have to match the whole name (Matcher.matches()) and the
+database filter only has to be found in it (Matcher.find()).  With find, only an anchored ('^...') regex can
+be broken down, and when it has alternatives they all have to sit in the one anchored group ('^(foo|bar)').
+ */
+@Getter
+public class NameMatcher {
+    private final String regex;
+    private final boolean fullMatch;
+    private final Set<String> names;
+    private final List<String> prefixes;
+    // Null when the regex was broken down into names and prefixes.
+    private final Pattern pattern;
+
+    private NameMatcher(String regex, boolean fullMatch, Set<String> names, List<String> prefixes, Pattern pattern) {
+        this.regex = regex;
+        this.fullMatch = fullMatch;
+        this.names = names;
+        this.prefixes = prefixes;
+        this.pattern = pattern;
+    }
+
+    /*
+    Throws a PatternSyntaxException when the regex isn't valid, like Pattern.compile.
+     */
+    public static NameMatcher compile(String regex, boolean fullMatch) {
+        Pattern pattern = Pattern.compile(regex);
+        Set<String> names = new HashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        if (decompose(regex, fullMatch, names, prefixes)) {
+            return new NameMatcher(regex, fullMatch, Collections.unmodifiableSet(names),
+                    Collections.unmodifiableList(prefixes), null);
+        }
+        return new NameMatcher(regex, fullMatch, Collections.emptySet(), Collections.emptyList(), pattern);
+    }
+
+    public boolean matches(String name) {
+        if (nonNull(pattern)) {
+            return fullMatch ? pattern.matcher(name).matches() : pattern.matcher(name).find();
+        }
+        if (names.contains(name)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+    True when the regex is only names and prefixes.
+     */
+    public boolean isDecomposed() {
+        return pattern == null;
+    }
+
+    private static boolean decompose(String regex, boolean fullMatch, Set<String> names, List<String> prefixes) {
+        String body = regex;
+        boolean anchoredStart = fullMatch;
+        boolean anchoredEnd = fullMatch;
+        if (body.startsWith("^")) {
+            body = body.substring(1);
+            anchoredStart = true;
+        }
+        if (body.endsWith("$") && !body.endsWith("\\$")) {
+            body = body.substring(0, body.length() - 1);
+            anchoredEnd = true;
+        }
+        if (!anchoredStart) {
+            // Could be anywhere in the name.
+            return false;
+        }
+        boolean grouped = false;
+        if (body.startsWith("(?:") && isGroup(body)) {
+            body = body.substring(3, body.length() - 1);
+            grouped = true;
+        } else if (body.startsWith("(") && isGroup(body)) {
+            body = body.substring(1, body.length() - 1);
+            grouped = true;
+        }
+        String[] alternatives = body.split("\\|", -1);
+        if (!fullMatch && !grouped && alternatives.length > 1) {
+            // The anchors only hold for the first and last alternatives ('^foo|bar' finds 'bar' anywhere).
+            return false;
+        }
+        for (String alternative : alternatives) {
+            boolean prefix = !anchoredEnd;
+            if (alternative.endsWith(".*") && !alternative.endsWith("\\.*")) {
+                alternative = alternative.substring(0, alternative.length() - 2);
+                prefix = true;
+            }
+            String literal = literal(alternative);
+            if (literal == null || (literal.isEmpty() && !prefix)) {
+                return false;
+            }
+            if (prefix) {
+                prefixes.add(literal);
+            } else {
+                names.add(literal);
+            }
+        }
+        return true;
+    }
+
+    /*
+    True when the group opened at the start of the regex is only closed at its end, so '(a)|(b)' isn't one.
+     */
+    private static boolean isGroup(String regex) {
+        if (!regex.endsWith(")")) {
+            return false;
+        }
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0 && i < regex.length() - 1) {
+                return false;
+            }
+        }
+        return depth == 0;
+    }
+
+    /*
+    The text the regex matches when it's a plain literal, or null.  Escaped punctuation ('\.', '\$') is literal.
+     */
+    private static String literal(String regex) {
+        StringBuilder sb = new StringBuilder(regex.length());
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    // A class (\d, \w, ..) or a back reference.
+                    return null;
+                }
+                sb.append(regex.charAt(++i));
+            } else if (".[]{}()*+?^$|".indexOf(c) >= 0) {
+                return null;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+}
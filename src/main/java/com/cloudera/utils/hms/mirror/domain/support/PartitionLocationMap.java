@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import java.util.*;
+
+/*
+A compact Map of partition spec to partition location, used to hold the partitions of a table.
+
+Tables can have hundreds of thousands of partitions, and as a HashMap each one costs a node, a spec String and a
+location String that repeats the namespace and table directory.  Here nothing is allocated per partition:
+
+- the segments of the partition spec ('year=2024', 'month=01') are interned and the spec is held as segment ids
+  in one packed int array.
+- the location is split into a prefix (interned, usually the table directory) and a leaf.  When the location ends
+  with the partition spec (the common case) the leaf isn't stored at all.
+- lookups go through an open addressing index of int positions.
+
+The keys and values are rebuilt as Strings when they're read.  Iteration follows the insertion order.  A removed
+entry is left in place as a tombstone until enough of them pile up, then the live entries are compacted (in order).
+Like a HashMap, this isn't thread safe.
+ */
+public class PartitionLocationMap extends AbstractMap<String, String> {
+    private static final int[] EMPTY = new int[0];
+    private static final char SEPARATOR = '/';
+    // Location prefix markers.
+    private static final int NO_LOCATION = -1;
+    private static final int NO_PREFIX = -2;
+    // Location leaf marker for locations that end with the partition spec.
+    private static final int SPEC_LEAF = -1;
+    // Spec length marker for removed entries.
+    private static final int REMOVED = -1;
+
+    // Dictionaries, created on the first put.
+    private List<String> segments;
+    private Map<String, Integer> segmentIds;
+    private List<String> prefixes;
+    private Map<String, Integer> prefixIds;
+
+    // Live entries.
+    private int size = 0;
+    // Positions taken, live entries and tombstones.
+    private int used = 0;
+    private int[] hashes = EMPTY;
+    private int[] specOffsets = EMPTY;
+    private int[] specLengths = EMPTY;
+    private int[] locationPrefixes = EMPTY;
+    private int[] locationLeaves = EMPTY;
+    private int[] specSegments = EMPTY;
+    private int specSegmentsSize = 0;
+    // Entry position + 1 for each slot, 0 when the slot is empty.
+    private int[] index = EMPTY;
+
+    private transient Set<Map.Entry<String, String>> entrySet;
+
+    public PartitionLocationMap() {
+    }
+
+    public PartitionLocationMap(Map<String, String> source) {
+        if (source instanceof PartitionLocationMap) {
+            copyFrom((PartitionLocationMap) source);
+        } else if (source != null) {
+            putAll(source);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int idx = indexOf(key);
+        return idx >= 0 ? location(idx) : null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        Objects.requireNonNull(key, "Partition spec can't be null");
+        int idx = indexOf(key);
+        if (idx >= 0) {
+            String previous = location(idx);
+            setLocation(idx, key, value);
+            return previous;
+        }
+        ensureCapacity(used + 1);
+        int start = specSegmentsSize;
+        int count = 0;
+        int from = 0;
+        while (true) {
+            int sep = key.indexOf(SEPARATOR, from);
+            appendSpecSegment(segmentId(sep < 0 ? key.substring(from) : key.substring(from, sep)));
+            count++;
+            if (sep < 0) {
+                break;
+            }
+            from = sep + 1;
+        }
+        specOffsets[used] = start;
+        specLengths[used] = count;
+        hashes[used] = key.hashCode();
+        setLocation(used, key, value);
+        used++;
+        size++;
+        if (used * 2 > index.length) {
+            rebuildIndex(Math.max(16, Integer.highestOneBit(used) << 2));
+        } else {
+            addToIndex(used - 1);
+        }
+        return null;
+    }
+
+    @Override
+    public String remove(Object key) {
+        int idx = indexOf(key);
+        if (idx < 0) {
+            return null;
+        }
+        String previous = location(idx);
+        removeAt(idx);
+        // Not while iterating, the positions of the entries would move.
+        if (size > 0 && (used - size) * 2 > used) {
+            compact();
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        segments = null;
+        segmentIds = null;
+        prefixes = null;
+        prefixIds = null;
+        size = 0;
+        used = 0;
+        hashes = EMPTY;
+        specOffsets = EMPTY;
+        specLengths = EMPTY;
+        locationPrefixes = EMPTY;
+        locationLeaves = EMPTY;
+        specSegments = EMPTY;
+        specSegmentsSize = 0;
+        index = EMPTY;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    PartitionLocationMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private void copyFrom(PartitionLocationMap source) {
+        if (source.size == 0) {
+            return;
+        }
+        segments = new ArrayList<>(source.segments);
+        segmentIds = new HashMap<>(source.segmentIds);
+        prefixes = new ArrayList<>(source.prefixes);
+        prefixIds = new HashMap<>(source.prefixIds);
+        size = source.size;
+        used = source.used;
+        hashes = Arrays.copyOf(source.hashes, used);
+        specOffsets = Arrays.copyOf(source.specOffsets, used);
+        specLengths = Arrays.copyOf(source.specLengths, used);
+        locationPrefixes = Arrays.copyOf(source.locationPrefixes, used);
+        locationLeaves = Arrays.copyOf(source.locationLeaves, used);
+        specSegments = Arrays.copyOf(source.specSegments, source.specSegmentsSize);
+        specSegmentsSize = source.specSegmentsSize;
+        index = Arrays.copyOf(source.index, source.index.length);
+    }
+
+    private int indexOf(Object key) {
+        if (size == 0 || !(key instanceof String)) {
+            return -1;
+        }
+        String spec = (String) key;
+        int hash = spec.hashCode();
+        int mask = index.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = index[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int idx = entry - 1;
+            if (hashes[idx] == hash && specLengths[idx] != REMOVED && specEquals(idx, spec)) {
+                return idx;
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void addToIndex(int idx) {
+        int mask = index.length - 1;
+        int slot = mix(hashes[idx]) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = idx + 1;
+    }
+
+    private void rebuildIndex(int capacity) {
+        index = new int[capacity];
+        for (int i = 0; i < used; i++) {
+            if (specLengths[i] != REMOVED) {
+                addToIndex(i);
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        // Reuse the room taken by the tombstones before growing.
+        if (required > hashes.length && used > size) {
+            compact();
+            required = used + 1;
+        }
+        if (required > hashes.length) {
+            int capacity = Math.max(8, hashes.length + (hashes.length >> 1));
+            while (capacity < required) {
+                capacity = capacity + (capacity >> 1);
+            }
+            hashes = Arrays.copyOf(hashes, capacity);
+            specOffsets = Arrays.copyOf(specOffsets, capacity);
+            specLengths = Arrays.copyOf(specLengths, capacity);
+            locationPrefixes = Arrays.copyOf(locationPrefixes, capacity);
+            locationLeaves = Arrays.copyOf(locationLeaves, capacity);
+        }
+        if (segments == null) {
+            segments = new ArrayList<>();
+            segmentIds = new HashMap<>();
+            prefixes = new ArrayList<>();
+            prefixIds = new HashMap<>();
+        }
+    }
+
+    private void appendSpecSegment(int segmentId) {
+        if (specSegmentsSize == specSegments.length) {
+            specSegments = Arrays.copyOf(specSegments, Math.max(16, specSegments.length << 1));
+        }
+        specSegments[specSegmentsSize++] = segmentId;
+    }
+
+    private int segmentId(String segment) {
+        Integer id = segmentIds.get(segment);
+        if (id == null) {
+            id = segments.size();
+            segments.add(segment);
+            segmentIds.put(segment, id);
+        }
+        return id;
+    }
+
+    private int prefixId(String prefix) {
+        Integer id = prefixIds.get(prefix);
+        if (id == null) {
+            id = prefixes.size();
+            prefixes.add(prefix);
+            prefixIds.put(prefix, id);
+        }
+        return id;
+    }
+
+    private boolean specEquals(int idx, String spec) {
+        int pos = 0;
+        int offset = specOffsets[idx];
+        int count = specLengths[idx];
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                if (pos >= spec.length() || spec.charAt(pos) != SEPARATOR) {
+                    return false;
+                }
+                pos++;
+            }
+            String segment = segments.get(specSegments[offset + i]);
+            if (!spec.startsWith(segment, pos)) {
+                return false;
+            }
+            pos += segment.length();
+        }
+        return pos == spec.length();
+    }
+
+    private String spec(int idx) {
+        int offset = specOffsets[idx];
+        int count = specLengths[idx];
+        if (count == 1) {
+            return segments.get(specSegments[offset]);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(segments.get(specSegments[offset + i]));
+        }
+        return sb.toString();
+    }
+
+    private String location(int idx) {
+        int prefix = locationPrefixes[idx];
+        if (prefix == NO_LOCATION) {
+            return null;
+        }
+        int leaf = locationLeaves[idx];
+        if (prefix == NO_PREFIX) {
+            return segments.get(leaf);
+        }
+        String leafValue = leaf == SPEC_LEAF ? spec(idx) : segments.get(leaf);
+        return prefixes.get(prefix) + SEPARATOR + leafValue;
+    }
+
+    private void setLocation(int idx, String spec, String location) {
+        if (location == null) {
+            locationPrefixes[idx] = NO_LOCATION;
+            locationLeaves[idx] = SPEC_LEAF;
+            return;
+        }
+        int specStart = location.length() - spec.length() - 1;
+        if (specStart > 0 && location.charAt(specStart) == SEPARATOR && location.endsWith(spec)) {
+            locationPrefixes[idx] = prefixId(location.substring(0, specStart));
+            locationLeaves[idx] = SPEC_LEAF;
+        } else {
+            int sep = location.lastIndexOf(SEPARATOR);
+            if (sep < 0) {
+                locationPrefixes[idx] = NO_PREFIX;
+                locationLeaves[idx] = segmentId(location);
+            } else {
+                locationPrefixes[idx] = prefixId(location.substring(0, sep));
+                locationLeaves[idx] = segmentId(location.substring(sep + 1));
+            }
+        }
+    }
+
+    /*
+    Leave a tombstone in the removed position, so the positions of the other entries (and the order) hold.  The
+    index still points at it until the next compaction, lookups step over it.
+     */
+    private void removeAt(int idx) {
+        specLengths[idx] = REMOVED;
+        locationPrefixes[idx] = NO_LOCATION;
+        size--;
+        if (size == 0) {
+            clear();
+        }
+    }
+
+    /*
+    Slide the live entries (and their spec segments) down over the tombstones, keeping their order, and rebuild
+    the index.
+     */
+    private void compact() {
+        int to = 0;
+        int segmentsTo = 0;
+        for (int from = 0; from < used; from++) {
+            int count = specLengths[from];
+            if (count == REMOVED) {
+                continue;
+            }
+            System.arraycopy(specSegments, specOffsets[from], specSegments, segmentsTo, count);
+            hashes[to] = hashes[from];
+            specOffsets[to] = segmentsTo;
+            specLengths[to] = count;
+            locationPrefixes[to] = locationPrefixes[from];
+            locationLeaves[to] = locationLeaves[from];
+            segmentsTo += count;
+            to++;
+        }
+        used = to;
+        specSegmentsSize = segmentsTo;
+        rebuildIndex(Math.max(16, Integer.highestOneBit(Math.max(1, used)) << 2));
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+        private int next = 0;
+        private int current = -1;
+
+        @Override
+        public boolean hasNext() {
+            while (next < used && specLengths[next] == REMOVED) {
+                next++;
+            }
+            return next < used;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next++;
+            return new PartitionEntry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (specLengths[current] == REMOVED) {
+                throw new IllegalStateException();
+            }
+            // The entries don't move, the tombstones are compacted on the next put.
+            removeAt(current);
+            current = -1;
+        }
+    }
+
+    private class PartitionEntry implements Map.Entry<String, String> {
+        private final int idx;
+
+        PartitionEntry(int idx) {
+            this.idx = idx;
+        }
+
+        @Override
+        public String getKey() {
+            return spec(idx);
+        }
+
+        @Override
+        public String getValue() {
+            return location(idx);
+        }
+
+        @Override
+        public String setValue(String value) {
+            String previous = location(idx);
+            setLocation(idx, spec(idx), value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static java.util.Objects.nonNull;
+
+/*
+The number of tables in each PhaseState, kept up to date as the tables are added, removed and move from one
+phase to the next, so the progress can be read without going through the tables.
+ */
+public class PhaseCounters {
+    private static final PhaseState[] PHASES = PhaseState.values();
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(PHASES.length);
+
+    public void add(PhaseState phaseState) {
+        if (nonNull(phaseState)) {
+            counts.incrementAndGet(phaseState.ordinal());
+        }
+    }
+
+    public void remove(PhaseState phaseState) {
+        if (nonNull(phaseState)) {
+            counts.decrementAndGet(phaseState.ordinal());
+        }
+    }
+
+    public void transition(PhaseState from, PhaseState to) {
+        if (from != to) {
+            remove(from);
+            add(to);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < PHASES.length; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public int get(PhaseState phaseState) {
+        return counts.get(phaseState.ordinal());
+    }
+
+    public int getTotal() {
+        int rtn = 0;
+        for (int i = 0; i < PHASES.length; i++) {
+            rtn += counts.get(i);
+        }
+        return rtn;
+    }
+
+    /*
+    The phases with at least one table.
+     */
+    public Map<PhaseState, Integer> toMap() {
+        Map<PhaseState, Integer> rtn = new EnumMap<>(PhaseState.class);
+        for (PhaseState phaseState : PHASES) {
+            int count = counts.get(phaseState.ordinal());
+            if (count > 0) {
+                rtn.put(phaseState, count);
+            }
+        }
+        return rtn;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.Map;
+
+/*
+A change in the progress of a run, as sent to the progress stream subscribers.  The 'id' goes up by one with each
+event, so a subscriber that reconnects can ask for the events after the last one it saw.
+
+Types:
+- snapshot: the whole progress (sent first, and when the events a subscriber missed are no longer kept).
+- progress: the run progress (ProgressEnum) changed.
+- stage: a stage changed status.
+- phases: the table counts by phase changed.
+- tables: tables started (with their phase) or finished being worked on.
+- errors / warnings: messages were added.
+ */
+@Getter
+public class ProgressEvent {
+    public static final String SNAPSHOT = "snapshot";
+    public static final String PROGRESS = "progress";
+    public static final String STAGE = "stage";
+    public static final String PHASES = "phases";
+    public static final String TABLES = "tables";
+    public static final String ERRORS = "errors";
+    public static final String WARNINGS = "warnings";
+
+    private final long id;
+    private final String type;
+    private final Date time = new Date();
+    private final Map<String, Object> data;
+
+    public ProgressEvent(long id, String type, Map<String, Object> data) {
+        this.id = id;
+        this.type = type;
+        this.data = data;
+    }
+
+}
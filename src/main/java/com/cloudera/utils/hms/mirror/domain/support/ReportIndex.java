@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/*
+Where each table is in the '<db>_hms-mirror.yaml' of a report, with a summary of the table (phase, strategy,
+issues and errors), so the reports can be paged through and filtered, and a single table read, without parsing
+the whole database file.  Written next to the database yaml as '<db>_hms-mirror.index.json' when the report is
+written, or built the first time it's asked for on an older report.
+
+The offsets come from a scan of the yaml as written: the 'tableMirrors:' key at the top level and, under it, one
+key per table at an indentation of 2.  The index is only used while the yaml has the length and modified time it
+had when it was indexed (see 'isCurrent'), and anything read at an offset is still checked to be the table asked
+for.  When it isn't, a MismatchException is thrown and the index has to be rebuilt.
+ */
+@Getter
+@Setter
+public class ReportIndex {
+    public static final String SUFFIX = "_hms-mirror.index.json";
+    public static final String TABLES_KEY = "tableMirrors:";
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    // Longer lines can't be table keys, only the start of them is kept while scanning.
+    private static final int MAX_KEY_LINE = 1024;
+
+    private String database;
+    // The length and modified time of the yaml when it was indexed.
+    private long fileLength;
+    private long fileModified;
+    // Where the 'tableMirrors' block starts (the key line) and ends, the rest of the file is the database.
+    private long tablesStart = -1;
+    private long tablesEnd = -1;
+    private Map<PhaseState, Integer> phases = new EnumMap<>(PhaseState.class);
+    private List<Entry> tables = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Entry {
+        private String name;
+        private PhaseState phaseState;
+        private DataStrategyEnum strategy;
+        private int issues;
+        private int errors;
+        // The key line of the table and everything under it.
+        private long offset;
+        private int length;
+
+        public Entry() {
+        }
+
+        Entry(String name, long offset, int length) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public void summarize(TableMirror tableMirror) {
+            if (isNull(tableMirror)) {
+                return;
+            }
+            phaseState = tableMirror.getPhaseState();
+            strategy = tableMirror.getStrategy();
+            issues = 0;
+            errors = 0;
+            for (EnvironmentTable environmentTable : tableMirror.getEnvironments().values()) {
+                issues += environmentTable.getIssues().size();
+                errors += environmentTable.getErrors().size();
+            }
+        }
+    }
+
+    /*
+    What was read at the offset of a table isn't that table, the yaml changed since it was indexed.
+     */
+    public static class MismatchException extends IOException {
+        public MismatchException(String message) {
+            super(message);
+        }
+    }
+
+    @Getter
+    public static class Page {
+        private final int page;
+        private final int size;
+        // The number of tables that match the filter.
+        private final int total;
+        private final List<Entry> tables;
+
+        Page(int page, int size, int total, List<Entry> tables) {
+            this.page = page;
+            this.size = size;
+            this.total = total;
+            this.tables = tables;
+        }
+
+        public int getPages() {
+            return size == 0 ? 0 : (total + size - 1) / size;
+        }
+    }
+
+    /*
+    Find the tables in a database yaml.  The entries come back with their offsets only, see Entry.summarize.
+     */
+    public static ReportIndex scan(String database, File yamlFile) throws IOException {
+        ReportIndex rtn = new ReportIndex();
+        rtn.database = database;
+        rtn.fileLength = yamlFile.length();
+        rtn.fileModified = yamlFile.lastModified();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(yamlFile), 1 << 16)) {
+            byte[] line = new byte[MAX_KEY_LINE];
+            long offset = 0;
+            String current = null;
+            long currentStart = 0;
+            while (true) {
+                // Read a line, keeping the start of it.
+                long lineStart = offset;
+                int kept = 0;
+                int length = 0;
+                int b;
+                while ((b = in.read()) >= 0) {
+                    offset++;
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (kept < MAX_KEY_LINE) {
+                        line[kept++] = (byte) b;
+                    }
+                    length++;
+                }
+                if (b < 0 && length == 0) {
+                    break;
+                }
+                if (kept > 0 && line[kept - 1] == '\r') {
+                    kept--;
+                    length--;
+                }
+                if (rtn.tablesStart < 0) {
+                    if (length == TABLES_KEY.length() && TABLES_KEY.equals(new String(line, 0, kept, StandardCharsets.UTF_8))) {
+                        rtn.tablesStart = lineStart;
+                    }
+                } else {
+                    if (length > 0 && line[0] != ' ') {
+                        // Back at the top level, the rest is the database.
+                        rtn.tablesEnd = lineStart;
+                        break;
+                    } else if (length == kept && length > 3 && line[0] == ' ' && line[1] == ' '
+                            && line[2] != ' ' && line[2] != '-' && line[kept - 1] == ':') {
+                        if (nonNull(current)) {
+                            rtn.tables.add(new Entry(current, currentStart, (int) (lineStart - currentStart)));
+                        }
+                        current = unquote(new String(line, 2, kept - 3, StandardCharsets.UTF_8));
+                        currentStart = lineStart;
+                    }
+                }
+                if (b < 0) {
+                    break;
+                }
+            }
+            if (rtn.tablesStart >= 0 && rtn.tablesEnd < 0) {
+                rtn.tablesEnd = offset;
+            }
+            if (nonNull(current)) {
+                rtn.tables.add(new Entry(current, currentStart, (int) (rtn.tablesEnd - currentStart)));
+            }
+        }
+        return rtn;
+    }
+
+    private static String unquote(String key) {
+        if (key.length() >= 2 && (key.startsWith("\"") && key.endsWith("\"") || key.startsWith("'") && key.endsWith("'"))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+
+    /*
+    The yaml of a table, as a single entry map ('<table>: ...') at the top level.
+     */
+    public static String readTable(File yamlFile, Entry entry) throws IOException {
+        byte[] bytes = new byte[entry.getLength()];
+        try (RandomAccessFile raf = new RandomAccessFile(yamlFile, "r")) {
+            raf.seek(entry.getOffset());
+            raf.readFully(bytes);
+        }
+        return dedent(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /*
+    The yaml of the database without its tables.
+     */
+    public String readDatabase(File yamlFile) throws IOException {
+        if (tablesStart < 0) {
+            return new String(readRange(yamlFile, 0, yamlFile.length()), StandardCharsets.UTF_8);
+        }
+        String head = new String(readRange(yamlFile, 0, tablesStart), StandardCharsets.UTF_8);
+        String tail = new String(readRange(yamlFile, tablesEnd, yamlFile.length()), StandardCharsets.UTF_8);
+        return head + tail;
+    }
+
+    private static byte[] readRange(File file, long from, long to) throws IOException {
+        byte[] bytes = new byte[(int) (to - from)];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(from);
+            raf.readFully(bytes);
+        }
+        return bytes;
+    }
+
+    private static String dedent(String yaml) {
+        StringBuilder sb = new StringBuilder(yaml.length());
+        for (String line : yaml.split("\n", -1)) {
+            int strip = 0;
+            while (strip < 2 && strip < line.length() && line.charAt(strip) == ' ') {
+                strip++;
+            }
+            sb.append(line, strip, line.length()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static File indexFile(File yamlFile) {
+        String name = yamlFile.getName();
+        String database = name.endsWith("_hms-mirror.yaml") ? name.substring(0, name.length() - "_hms-mirror.yaml".length()) : name;
+        return new File(yamlFile.getParentFile(), database + SUFFIX);
+    }
+
+    public static ReportIndex read(File indexFile) throws IOException {
+        return JSON.readValue(indexFile, ReportIndex.class);
+    }
+
+    /*
+    Written to a temporary file and moved in place, so a reader never sees half an index when two requests build
+    it at the same time.
+     */
+    public void write(File indexFile) throws IOException {
+        File tmpFile = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getAbsoluteFile().getParentFile());
+        try {
+            JSON.writeValue(tmpFile, this);
+            try {
+                Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /*
+    Still lines up with the yaml: the same length and modified time as when it was indexed.
+     */
+    public boolean isCurrent(File yamlFile) {
+        return yamlFile.length() == fileLength && yamlFile.lastModified() == fileModified;
+    }
+
+    /*
+    Count the phases from the entries, once they're summarized.
+     */
+    public void summarize() {
+        phases.clear();
+        for (Entry entry : tables) {
+            if (nonNull(entry.getPhaseState())) {
+                phases.merge(entry.getPhaseState(), 1, Integer::sum);
+            }
+        }
+    }
+
+    @JsonIgnore
+    public String getPhaseSummaryString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<PhaseState, Integer> phase : phases.entrySet()) {
+            sb.append(phase.getKey()).append("(").append(phase.getValue()).append(") ");
+        }
+        return sb.toString();
+    }
+
+    public Entry getEntry(String table) {
+        for (Entry entry : tables) {
+            if (entry.getName().equals(table)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /*
+    A page (from 0) of the tables in the phase (all when null), only those with errors when 'errorsOnly'.
+     */
+    public Page find(PhaseState phaseState, boolean errorsOnly, int page, int size) {
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : tables) {
+            if ((isNull(phaseState) || entry.getPhaseState() == phaseState) && (!errorsOnly || entry.getErrors() > 0)) {
+                matches.add(entry);
+            }
+        }
+        int lclSize = Math.max(1, size);
+        int from = Math.min(Math.max(0, page) * lclSize, matches.size());
+        int to = Math.min(from + lclSize, matches.size());
+        return new Page(Math.max(0, page), lclSize, matches.size(), new ArrayList<>(matches.subList(from, to)));
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.Pair;
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.connections.SessionSettings;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/*
+An append only record of a run: the phase transitions of each table and the SQL that was executed for it.
+When a run is started again with the same journal, the journal is replayed first so tables that were
+PROCESSED are skipped and tables that were part way through their SQL don't repeat what was already done.
+
+One record per line, tab separated:
+  PHASE <time> <database> <table> <phase state>
+  SQL   <time> <database> <table> <environment> <description> <action>
+
+Only the DDL and DML are journaled, per table and environment.  Session statements ('use', 'set' and 'reset')
+are run again on every resume, the session they applied to is gone.
+
+Each record is flushed as it's written, so the journal survives the JVM going away.  A partial last
+line (the JVM died while writing it) is ignored on replay.
+ */
+@Slf4j
+public class RunJournal implements Closeable {
+    public static final String PHASE_RECORD = "PHASE";
+    public static final String SQL_RECORD = "SQL";
+
+    @Getter
+    private final Path file;
+    // Replayed state.  Only read once the journal has been opened.
+    private final Set<String> processedTables = new HashSet<>();
+    private final Map<String, Set<String>> executedSql = new HashMap<>();
+    @Getter
+    private int replayedRecords = 0;
+
+    private final Writer writer;
+
+    private RunJournal(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            replay();
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (!endsWithNewLine(file)) {
+            // Finish off a partial last line, so it doesn't swallow the next record.
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    private static boolean endsWithNewLine(Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1);
+            channel.read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /*
+    Open the journal, replaying it when it already exists.
+     */
+    public static RunJournal open(Path file) throws IOException {
+        return new RunJournal(file);
+    }
+
+    public int getProcessedTableCount() {
+        return processedTables.size();
+    }
+
+    public boolean isProcessed(String database, String table) {
+        return processedTables.contains(tableKey(database, table));
+    }
+
+    public boolean isExecuted(String database, String table, Environment environment, String action) {
+        if (SessionSettings.isSessionStatement(action)) {
+            // Journals from before session statements were left out can still have them.
+            return false;
+        }
+        Set<String> actions = executedSql.get(tableKey(database, table));
+        return actions != null && actions.contains(environment + "\t" + action);
+    }
+
+    public synchronized void phase(String database, String table, PhaseState phaseState) throws IOException {
+        append(PHASE_RECORD, database, table, phaseState.toString());
+    }
+
+    public synchronized void sql(String database, String table, Environment environment, Pair pair) throws IOException {
+        if (SessionSettings.isSessionStatement(pair.getAction())) {
+            return;
+        }
+        append(SQL_RECORD, database, table, environment.toString(), pair.getDescription(), pair.getAction());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private void append(String... fields) throws IOException {
+        StringBuilder sb = new StringBuilder(fields[0]).append('\t').append(System.currentTimeMillis());
+        for (int i = 1; i < fields.length; i++) {
+            sb.append('\t').append(escape(fields[i]));
+        }
+        sb.append('\n');
+        writer.write(sb.toString());
+        writer.flush();
+    }
+
+    private void replay() throws IOException {
+        Map<String, PhaseState> lastPhase = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                try {
+                    if (PHASE_RECORD.equals(fields[0]) && fields.length == 5) {
+                        lastPhase.put(tableKey(unescape(fields[2]), unescape(fields[3])), PhaseState.valueOf(fields[4]));
+                    } else if (SQL_RECORD.equals(fields[0]) && fields.length == 7) {
+                        executedSql.computeIfAbsent(tableKey(unescape(fields[2]), unescape(fields[3])), k -> new HashSet<>())
+                                .add(fields[4] + "\t" + unescape(fields[6]));
+                    } else {
+                        log.warn("Skipping unreadable run journal record: {}", line);
+                        continue;
+                    }
+                    replayedRecords++;
+                } catch (IllegalArgumentException iae) {
+                    log.warn("Skipping unreadable run journal record: {}", line);
+                }
+            }
+        }
+        lastPhase.forEach((table, phaseState) -> {
+            if (phaseState == PhaseState.PROCESSED || phaseState == PhaseState.RETRY_SKIPPED_PAST_SUCCESS) {
+                processedTables.add(table);
+            }
+        });
+        // Processed tables are skipped, so their SQL isn't needed.
+        executedSql.keySet().removeAll(processedTables);
+        log.info("Replayed {} records from run journal: {}. {} table(s) already PROCESSED, {} table(s) part way through.",
+                replayedRecords, file, processedTables.size(), executedSql.size());
+    }
+
+    private static String tableKey(String database, String table) {
+        return database + "." + table;
+    }
+
+    protected static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    protected static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+}
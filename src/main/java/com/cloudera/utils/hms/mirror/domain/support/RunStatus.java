@@ -70,6 +70,12 @@ public class RunStatus implements Comparable<RunStatus>, Cloneable {
     */
     private Map<StageEnum, CollectionEnum> stages = new LinkedHashMap<>();
 
+    /*
+    Per table counters for the table stages.  Used to derive the stage status when tables are streamed through
+    the stages.
+     */
+    private Map<StageEnum, StageProgress> stageProgress = new LinkedHashMap<>();
+
     private List<TableMirror> inProgressTables = new ArrayList<>();
 
     /*
@@ -188,6 +194,7 @@ public class RunStatus implements Comparable<RunStatus>, Cloneable {
     public RunStatus() {
         for (StageEnum stage : StageEnum.values()) {
             stages.put(stage, CollectionEnum.WAITING);
+            stageProgress.put(stage, new StageProgress());
         }
     }
 
@@ -207,6 +214,7 @@ public class RunStatus implements Comparable<RunStatus>, Cloneable {
             warningMessages.clear();
             // Loop through the stages map and reset the values to WAITING.
             stages.keySet().forEach(k -> stages.put(k, CollectionEnum.WAITING));
+            stageProgress.values().forEach(StageProgress::reset);
             operationStatistics.reset();
             reportName = null;
             start = null;
@@ -243,6 +251,17 @@ public class RunStatus implements Comparable<RunStatus>, Cloneable {
         return stages.get(stage);
     }
 
+    public StageProgress getStageProgress(StageEnum stage) {
+        return stageProgress.computeIfAbsent(stage, k -> new StageProgress());
+    }
+
+    /*
+    Set the stage status from the per table counters of the stage.
+     */
+    public void setStageFromProgress(StageEnum stage) {
+        setStage(stage, getStageProgress(stage).getResult());
+    }
+
     public void addError(MessageCode code) {
         if (getErrors() == null) {
             errors = new Messages();
@@ -383,6 +402,7 @@ public class RunStatus implements Comparable<RunStatus>, Cloneable {
         clone.warningMessages = new ArrayList<>(warningMessages);
         clone.configMessages = new TreeSet<>(configMessages);
         clone.stages = new LinkedHashMap<>(stages);
+        clone.stageProgress = new LinkedHashMap<>(stageProgress);
         clone.inProgressTables = new ArrayList<>(inProgressTables);
         clone.operationStatistics = operationStatistics.clone();
         return clone;
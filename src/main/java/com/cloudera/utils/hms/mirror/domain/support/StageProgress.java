@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Per table counters for a stage.  When tables flow through the stages independently (streaming), the
+stage status is derived from these counters instead of being set once for the whole run.
+ */
+@Getter
+public class StageProgress {
+    // Tables submitted to the stage.
+    private final AtomicInteger total = new AtomicInteger(0);
+    // Tables that have finished the stage, regardless of the outcome.
+    private final AtomicInteger completed = new AtomicInteger(0);
+    // Tables that finished the stage with a FATAL result.
+    private final AtomicInteger failed = new AtomicInteger(0);
+
+    public int submit() {
+        return total.incrementAndGet();
+    }
+
+    public int complete(boolean fatal) {
+        if (fatal) {
+            failed.incrementAndGet();
+        }
+        return completed.incrementAndGet();
+    }
+
+    @JsonIgnore
+    public boolean isStarted() {
+        return total.get() > 0;
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return completed.get() >= total.get();
+    }
+
+    /*
+    The final stage status, once all the tables have been submitted and completed.
+     */
+    @JsonIgnore
+    public CollectionEnum getResult() {
+        if (!isStarted()) {
+            return CollectionEnum.SKIPPED;
+        } else if (!isDone()) {
+            return CollectionEnum.IN_PROGRESS;
+        } else if (failed.get() > 0) {
+            return CollectionEnum.ERRORED;
+        } else {
+            return CollectionEnum.COMPLETED;
+        }
+    }
+
+    @JsonIgnore
+    public String getSummary() {
+        if (!isStarted()) {
+            return "";
+        }
+        return completed.get() + "/" + total.get();
+    }
+
+    public void reset() {
+        total.set(0);
+        completed.set(0);
+        failed.set(0);
+    }
+
+}
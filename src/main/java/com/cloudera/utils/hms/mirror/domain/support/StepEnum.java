@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+/*
+The kinds of steps recorded for a table.  The 'timed' steps also carry how long they took, which is added to
+the latency histograms of the database.
+ */
+public enum StepEnum {
+
+    INIT("init", "", false),
+    TRANSACTIONAL("TRANSACTIONAL", "true", false),
+    AVRO("AVRO", "Checked", false),
+    SCHEMA("Fetched Schema", "Fetched Schema", true),
+    SCHEMA_DIRECT("Fetched Schema (Metastore Direct)", "Fetched Schema (Metastore Direct)", false),
+    NO_SCHEMA("No Schema", "No Schema", false),
+    PARTITIONS("Loaded Partitions", "Loaded Partitions", true),
+    BUILD_TRANSFER("Build TRANSFER", "", false),
+    PROCESS_TRANSFER("Processing TRANSFER", "", false),
+    SQL("Sql Run", "Sql Run Complete for: ", true),
+    SQL_SKIPPED_SESSION("Sql Run SKIPPED", "Sql Run SKIPPED (already set for session) for: ", false),
+    SQL_SKIPPED_JOURNAL("Sql Run SKIPPED", "Sql Run SKIPPED (in run journal) for: ", false),
+    SQL_DRY_RUN("Sql Run SKIPPED", "Sql Run SKIPPED (DRY-RUN) for: ", false),
+    DELTA_SKIPPED("Delta", "Unchanged since the previous run, skipped", false),
+    JOURNAL_SKIPPED("Run Journal", "PROCESSED in a previous run, skipped", false);
+
+    // Used as the description of the step when it isn't tied to an environment.
+    private final String step;
+    // What the step did, followed by the detail recorded with it.
+    private final String action;
+    private final boolean timed;
+
+    StepEnum(String step, String action, boolean timed) {
+        this.step = step;
+        this.action = action;
+        this.timed = timed;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public boolean isTimed() {
+        return timed;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Objects;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/*
+What identifies the state of a LEFT table for the delta mode.  Some of the parts come from the table definition
+(the fingerprint of the fields, the location and 'transient_lastDdlTime') and the rest from the Metastore Direct
+change markers (TBLS and PARTITIONS create and DDL times and the partition count).  A part that wasn't collected
+is null.
+
+A table is unchanged when every part collected in this run matches the part recorded in the previous run.
+ */
+@Getter
+@Setter
+public class TableFingerprint {
+
+    private final String database;
+    private final String table;
+    private String fieldsFingerprint;
+    private String location;
+    private String lastDdlTime;
+    private String createTime;
+    private String partitionCount;
+    private String partitionCreateTime;
+    private String partitionDdlTime;
+
+    public TableFingerprint(String database, String table) {
+        this.database = database;
+        this.table = table;
+    }
+
+    public String getKey() {
+        return key(database, table);
+    }
+
+    public static String key(String database, String table) {
+        return database + "." + table;
+    }
+
+    /*
+    True when every part of 'current' that was collected matches this (previous) fingerprint.  A part this one
+    doesn't have counts as a change, and so does a 'current' with nothing collected.
+     */
+    public boolean matches(TableFingerprint current) {
+        if (isNull(current)) {
+            return false;
+        }
+        String[] previousParts = parts();
+        String[] currentParts = current.parts();
+        boolean compared = false;
+        for (int i = 0; i < currentParts.length; i++) {
+            if (nonNull(currentParts[i])) {
+                if (!Objects.equals(previousParts[i], currentParts[i])) {
+                    return false;
+                }
+                compared = true;
+            }
+        }
+        return compared;
+    }
+
+    /*
+    Take the parts of 'other' that were collected.
+     */
+    public void merge(TableFingerprint other) {
+        if (nonNull(other.fieldsFingerprint)) fieldsFingerprint = other.fieldsFingerprint;
+        if (nonNull(other.location)) location = other.location;
+        if (nonNull(other.lastDdlTime)) lastDdlTime = other.lastDdlTime;
+        if (nonNull(other.createTime)) createTime = other.createTime;
+        if (nonNull(other.partitionCount)) partitionCount = other.partitionCount;
+        if (nonNull(other.partitionCreateTime)) partitionCreateTime = other.partitionCreateTime;
+        if (nonNull(other.partitionDdlTime)) partitionDdlTime = other.partitionDdlTime;
+    }
+
+    private String[] parts() {
+        return new String[]{fieldsFingerprint, location, lastDdlTime, createTime, partitionCount,
+                partitionCreateTime, partitionDdlTime};
+    }
+
+    /*
+    One tab separated line: database, table and the parts, with '-' for the parts that weren't collected.
+     */
+    public String toLine() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(RunJournal.escape(database)).append('\t').append(RunJournal.escape(table));
+        for (String part : parts()) {
+            sb.append('\t').append(isNull(part) ? "-" : RunJournal.escape(part));
+        }
+        return sb.toString();
+    }
+
+    /*
+    Returns null when the line can't be read.
+     */
+    public static TableFingerprint fromLine(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 9) {
+            return null;
+        }
+        TableFingerprint rtn = new TableFingerprint(RunJournal.unescape(fields[0]), RunJournal.unescape(fields[1]));
+        rtn.fieldsFingerprint = part(fields[2]);
+        rtn.location = part(fields[3]);
+        rtn.lastDdlTime = part(fields[4]);
+        rtn.createTime = part(fields[5]);
+        rtn.partitionCount = part(fields[6]);
+        rtn.partitionCreateTime = part(fields[7]);
+        rtn.partitionDdlTime = part(fields[8]);
+        return rtn;
+    }
+
+    private static String part(String field) {
+        return "-".equals(field) ? null : RunJournal.unescape(field);
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Objects.isNull;
+
+/*
+The fingerprints of the tables that were PROCESSED, as of the run that processed them.  Kept in a file, one
+TableFingerprint per line, and replaced as a whole at the end of each run.  The new file is written next to
+the old one and moved over it, so a run that dies part way leaves the previous index in place.
+ */
+@Slf4j
+public class TableFingerprintIndex {
+    public static final String HEADER = "# hms-mirror table fingerprints v1";
+
+    @Getter
+    private final Path file;
+    private final Map<String, TableFingerprint> fingerprints = new TreeMap<>();
+
+    public TableFingerprintIndex(Path file) {
+        this.file = file;
+    }
+
+    /*
+    Load the index.  A missing file is an empty index.
+     */
+    public static TableFingerprintIndex load(Path file) throws IOException {
+        TableFingerprintIndex rtn = new TableFingerprintIndex(file);
+        if (!Files.exists(file)) {
+            return rtn;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                TableFingerprint fingerprint = TableFingerprint.fromLine(line);
+                if (isNull(fingerprint)) {
+                    log.warn("Skipping unreadable table fingerprint: {}", line);
+                    continue;
+                }
+                rtn.put(fingerprint);
+            }
+        }
+        log.info("Loaded {} table fingerprints from: {}", rtn.size(), file);
+        return rtn;
+    }
+
+    public TableFingerprint get(String database, String table) {
+        return fingerprints.get(TableFingerprint.key(database, table));
+    }
+
+    public void put(TableFingerprint fingerprint) {
+        fingerprints.put(fingerprint.getKey(), fingerprint);
+    }
+
+    public int size() {
+        return fingerprints.size();
+    }
+
+    public Collection<TableFingerprint> values() {
+        return fingerprints.values();
+    }
+
+    public void save() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (TableFingerprint fingerprint : fingerprints.values()) {
+                writer.write(fingerprint.toLine());
+                writer.write('\n');
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+}
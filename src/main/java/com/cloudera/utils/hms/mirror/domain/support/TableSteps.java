@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.Marker;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+
+/*
+The steps recorded for a table.  Each step is a kind, the environment (when there is one), a detail and the
+System.nanoTime it was recorded at (plus how long it took, for the timed steps), held in arrays sized up front.
+Nothing is formatted until the steps are asked for as Markers, by the reports.
+
+The steps are a ring: only the last CAPACITY steps are kept, unless 'verbose' is on, in which case the ring grows
+and all of them are.  The number of steps recorded is always kept.
+ */
+public class TableSteps {
+    public static final int CAPACITY = 16;
+    private static final long UNTIMED = -1L;
+
+    // Set for the run (hms-mirror.steps.verbose), see Conversion.setStepsVerbose.
+    private volatile boolean verbose = false;
+
+    private StepEnum[] kinds = new StepEnum[CAPACITY];
+    private Environment[] environments = new Environment[CAPACITY];
+    private String[] details = new String[CAPACITY];
+    private long[] times = new long[CAPACITY];
+    private long[] durations = new long[CAPACITY];
+    // The slot of the oldest step kept, how many are kept and how many were recorded in all.
+    private int head = 0;
+    private int size = 0;
+    private long recorded = 0;
+    // When the step before the oldest one kept was recorded, to work out the elapsed time of the steps.
+    private long previous = System.nanoTime();
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public void record(StepEnum kind, Environment environment, String detail) {
+        record(kind, environment, detail, UNTIMED);
+    }
+
+    public synchronized void record(StepEnum kind, Environment environment, String detail, long durationNanos) {
+        int slot;
+        if (size < kinds.length) {
+            slot = (head + size++) % kinds.length;
+        } else if (verbose) {
+            grow();
+            slot = size++;
+        } else {
+            // Overwrite the oldest step, the next one becomes the base of the elapsed times.
+            slot = head;
+            previous = times[slot];
+            head = (head + 1) % kinds.length;
+        }
+        kinds[slot] = kind;
+        environments[slot] = environment;
+        details[slot] = detail;
+        times[slot] = System.nanoTime();
+        durations[slot] = durationNanos;
+        recorded++;
+    }
+
+    /*
+    Double the ring, unrolled from the oldest step so it starts over at slot 0.
+     */
+    private void grow() {
+        int capacity = kinds.length * 2;
+        StepEnum[] lclKinds = new StepEnum[capacity];
+        Environment[] lclEnvironments = new Environment[capacity];
+        String[] lclDetails = new String[capacity];
+        long[] lclTimes = new long[capacity];
+        long[] lclDurations = new long[capacity];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % kinds.length;
+            lclKinds[i] = kinds[slot];
+            lclEnvironments[i] = environments[slot];
+            lclDetails[i] = details[slot];
+            lclTimes[i] = times[slot];
+            lclDurations[i] = durations[slot];
+        }
+        kinds = lclKinds;
+        environments = lclEnvironments;
+        details = lclDetails;
+        times = lclTimes;
+        durations = lclDurations;
+        head = 0;
+    }
+
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(kinds, null);
+        Arrays.fill(environments, null);
+        Arrays.fill(details, null);
+        head = 0;
+        size = 0;
+        recorded = 0;
+        previous = System.nanoTime();
+    }
+
+    /*
+    The steps kept, oldest first, with the seconds since the step before.
+     */
+    public synchronized List<Marker> toMarkers() {
+        List<Marker> rtn = new ArrayList<>(size + 1);
+        if (recorded > size) {
+            rtn.add(new Marker("", "...", (recorded - size) + " earlier step(s) not kept"));
+        }
+        DecimalFormat decf = new DecimalFormat("#,##0.00");
+        long last = previous;
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % kinds.length;
+            String mark = decf.format((times[slot] - last) / 1_000_000_000.0);
+            last = times[slot];
+            StepEnum kind = kinds[slot];
+            String description = nonNull(environments[slot]) ? environments[slot].toString() : kind.getStep();
+            StringBuilder action = new StringBuilder(kind.getAction());
+            if (nonNull(details[slot])) {
+                action.append(details[slot]);
+            }
+            if (durations[slot] != UNTIMED) {
+                action.append(" (").append(durations[slot] / 1_000_000).append("ms)");
+            }
+            rtn.add(new Marker(mark, description, action.toString()));
+        }
+        return rtn;
+    }
+
+}
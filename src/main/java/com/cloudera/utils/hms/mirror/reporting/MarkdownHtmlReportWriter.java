@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.reporting;
+
+import com.cloudera.utils.hms.mirror.domain.support.MarkdownSink;
+import org.commonmark.Extension;
+import org.commonmark.ext.front.matter.YamlFrontMatterExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Writes a markdown report and its html rendering to files as the pieces of the report arrive, so the
+whole report is never held in memory.
+
+Each piece is rendered on its own.  The table rows of the report are html blocks, which commonmark
+passes through as is, so rendering them one at a time gives the same html as rendering the whole report.
+ */
+public class MarkdownHtmlReportWriter implements MarkdownSink, Closeable {
+    private static final List<Extension> EXTENSIONS = Arrays.asList(TablesExtension.create(), YamlFrontMatterExtension.create());
+    // Both are immutable and safe to share between threads.
+    private static final Parser PARSER = Parser.builder().extensions(EXTENSIONS).build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().extensions(EXTENSIONS).build();
+
+    private final Writer markdownWriter;
+    private final Writer htmlWriter;
+
+    public MarkdownHtmlReportWriter(File markdownFile, File htmlFile) throws IOException {
+        this.markdownWriter = new BufferedWriter(new FileWriter(markdownFile));
+        Writer html = null;
+        try {
+            html = new BufferedWriter(new FileWriter(htmlFile));
+        } finally {
+            if (html == null) {
+                markdownWriter.close();
+            }
+        }
+        this.htmlWriter = html;
+    }
+
+    @Override
+    public void write(CharSequence markdown) throws IOException {
+        markdownWriter.append(markdown);
+        RENDERER.render(PARSER.parse(markdown.toString()), htmlWriter);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            markdownWriter.close();
+        } finally {
+            htmlWriter.close();
+        }
+    }
+
+}
@@ -21,10 +21,15 @@ import com.cloudera.utils.hadoop.cli.CliEnvironment;
 import com.cloudera.utils.hadoop.cli.DisabledException;
 import com.cloudera.utils.hadoop.shell.command.CommandReturn;
 import com.cloudera.utils.hms.mirror.MessageCode;
+import com.cloudera.utils.hms.mirror.connections.ConcurrencyLimit;
+import com.cloudera.utils.hms.mirror.connections.ConnectionMetrics;
 import com.cloudera.utils.hms.mirror.connections.ConnectionPools;
 import com.cloudera.utils.hms.mirror.connections.ConnectionPoolsDBCP2Impl;
 import com.cloudera.utils.hms.mirror.connections.ConnectionPoolsHikariImpl;
 import com.cloudera.utils.hms.mirror.connections.ConnectionPoolsHybridImpl;
+import com.cloudera.utils.hms.mirror.connections.LimitedConnection;
+import com.cloudera.utils.hms.mirror.connections.SessionSettings;
+import com.cloudera.utils.hms.mirror.connections.TimedConnection;
 import com.cloudera.utils.hms.mirror.domain.DBCP2Properties;
 import com.cloudera.utils.hms.mirror.domain.HikariProperties;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
@@ -34,14 +39,18 @@ import com.cloudera.utils.hms.mirror.exceptions.SessionException;
 import com.cloudera.utils.hms.util.ConfigUtils;
 import lombok.Getter;
 import lombok.Setter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.net.URISyntaxException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -60,13 +69,20 @@ public class ConnectionPoolService {
     private boolean connected = false;
 
     private ExecuteSession executeSession;
-    private ConnectionPools connectionPools = null;
+    // Read by the metrics from other threads.
+    private volatile ConnectionPools connectionPools = null;
     private final EnvironmentService environmentService;
     private final CliEnvironment cliEnvironment;
     private final ConfigService configService;
     private final PasswordService passwordService;
     private final HikariProperties hikariProperties;
     private final DBCP2Properties dbcp2Properties;
+    // Caps on the HS2 connections in use at once, for the environments that have one.
+    private final Map<Environment, ConcurrencyLimit> hs2ConcurrencyLimits = new EnumMap<>(Environment.class);
+    // Null when the metrics are off.
+    private final ConnectionMetrics connectionMetrics;
+    // The 'set' statements applied to the HS2 sessions behind the pools.
+    private final SessionSettings sessionSettings = new SessionSettings();
 
     /**
      * Constructor for ConnectionPoolService.
@@ -75,22 +91,51 @@ public class ConnectionPoolService {
      * @param passwordService    Service for password operations
      * @param cliEnvironment     CLI environment
      * @param configService      Service for configuration
+     * @param leftLimit          Max LEFT HS2 connections in use at once (0 for the pool's limit)
+     * @param rightLimit         Max RIGHT HS2 connections in use at once (0 for the pool's limit)
+     * @param adaptive           Adjust the HS2 limits to the observed latency
+     * @param meterRegistry      Where the pool and statement metrics go
+     * @param metrics            Time the statements and report the pool usage
      */
     public ConnectionPoolService(EnvironmentService environmentService,
                                  PasswordService passwordService,
                                  CliEnvironment cliEnvironment,
                                  ConfigService configService,
                                  HikariProperties hikariProperties,
-                                 DBCP2Properties dbcp2Properties) {
+                                 DBCP2Properties dbcp2Properties,
+                                 @Value("${hms-mirror.concurrency.max-threads:10}") int maxThreads,
+                                 @Value("${hms-mirror.concurrency.environment.left:0}") int leftLimit,
+                                 @Value("${hms-mirror.concurrency.environment.right:0}") int rightLimit,
+                                 @Value("${hms-mirror.concurrency.adaptive.enabled:false}") boolean adaptive,
+                                 @Value("${hms-mirror.concurrency.adaptive.latency-tolerance:2.0}") double latencyTolerance,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${hms-mirror.metrics.enabled:true}") boolean metrics) {
         this.environmentService = environmentService;
         this.passwordService = passwordService;
         this.cliEnvironment = cliEnvironment;
         this.configService = configService;
         this.hikariProperties = hikariProperties;
         this.dbcp2Properties = dbcp2Properties;
+        addHs2ConcurrencyLimit(Environment.LEFT, leftLimit, maxThreads, adaptive, latencyTolerance);
+        addHs2ConcurrencyLimit(Environment.RIGHT, rightLimit, maxThreads, adaptive, latencyTolerance);
+        this.connectionMetrics = metrics ? new ConnectionMetrics(meterRegistry, this::getCurrentConnectionPools) : null;
         log.debug("ConnectionPoolService initialized");
     }
 
+    /*
+    Without a limit or adaptive mode, the connection pool is the only cap.  Adaptive mode without a limit
+    starts at 'max-threads'.
+     */
+    private void addHs2ConcurrencyLimit(Environment environment, int limit, int maxThreads, boolean adaptive,
+                                        double latencyTolerance) {
+        if (limit > 0 || adaptive) {
+            int max = limit > 0 ? limit : Math.max(1, maxThreads);
+            ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit(environment + " HS2", max, adaptive, latencyTolerance);
+            log.info("{} - HS2 concurrency: {}", environment, concurrencyLimit);
+            hs2ConcurrencyLimits.put(environment, concurrencyLimit);
+        }
+    }
+
     public ExecuteSession getExecuteSession() throws SessionException {
         if (isNull(executeSession)) {
             throw new SessionException("Session hasn't been set in ConnectionPoolService");// = executeSessionService.getSession();
@@ -99,6 +144,8 @@ public class ConnectionPoolService {
     }
 
     public void close() {
+        hs2ConcurrencyLimits.forEach((environment, limit) ->
+                log.info("{} - HS2 concurrency: {}", environment, limit));
         if (nonNull(connectionPools)) {
             // Set State of Connection.
             connected = false;
@@ -110,9 +157,17 @@ public class ConnectionPoolService {
             }
             // Set to null to allow for reset.
             connectionPools = null;
+            sessionSettings.clear();
         }
     }
 
+    /*
+    The pools as they are, without creating them.
+     */
+    public ConnectionPools getCurrentConnectionPools() {
+        return connectionPools;
+    }
+
     public ConnectionPools getConnectionPools() {
         if (isNull(connectionPools)) {
             try {
@@ -185,14 +240,47 @@ public class ConnectionPoolService {
 
     //    @Override
     public Connection getHS2EnvironmentConnection(Environment environment) throws SQLException {
-        Connection conn = getConnectionPools().getHS2EnvironmentConnection(environment);
-        return conn;
+        ConcurrencyLimit limit = hs2ConcurrencyLimits.get(environment);
+        if (isNull(limit)) {
+            return sessionSettings.track(timed(getConnectionPools().getHS2EnvironmentConnection(environment),
+                    environment, ConnectionMetrics.HS2));
+        }
+        ConcurrencyLimit.Permit permit;
+        try {
+            permit = limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a " + environment + " HS2 connection", e);
+        }
+        Connection conn = null;
+        try {
+            conn = getConnectionPools().getHS2EnvironmentConnection(environment);
+        } finally {
+            if (isNull(conn)) {
+                permit.release();
+            }
+        }
+        if (isNull(conn)) {
+            return null;
+        }
+        conn = sessionSettings.track(timed(conn, environment, ConnectionMetrics.HS2));
+        if (limit.isAdaptive()) {
+            // Adaptive mode follows how long the statements take (by type), not how long the connection is held.
+            conn = TimedConnection.wrap(conn, (sql, nanos, success) ->
+                    limit.recordLatency(ConnectionMetrics.queryType(sql), nanos));
+        }
+        // The permit goes back when the caller closes the connection.
+        return LimitedConnection.wrap(conn, permit);
     }
 
     //    @Override
     public Connection getMetastoreDirectEnvironmentConnection(Environment environment) throws SQLException {
         Connection conn = getConnectionPools().getMetastoreDirectEnvironmentConnection(environment);
-        return conn;
+        return timed(conn, environment, ConnectionMetrics.METASTORE_DIRECT);
+    }
+
+    private Connection timed(Connection connection, Environment environment, String pool) {
+        return isNull(connectionMetrics) ? connection : connectionMetrics.wrap(connection, environment, pool);
     }
 
 //    public boolean reset() throws SQLException, EncryptionException, SessionException {
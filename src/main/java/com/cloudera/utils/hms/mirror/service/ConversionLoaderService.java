@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Objects.isNull;
+
+/*
+Loads a Conversion (test data, or the output of a previous run to replay) a database at a time, without reading
+the whole file into memory first.  Each database is handed to a 'consumer' as soon as it's read, so the caller can
+trim it (filters, etc.) before the next one is read.
+
+Supported sources:
+- a Conversion yaml file ('databases: {<db>: <DBMirror>, ...}').  The parser walks the 'databases' map and reads one
+  DBMirror at a time, so the SnakeYAML 'codePointLimit' is not applied.
+- a DBMirror yaml file (the '<db>_hms-mirror.yaml' of a report).  The work of the previous run is stripped.
+- a report directory.  Every '<db>_hms-mirror.yaml' in it, as above.
+- a line-delimited json file ('.jsonl' or '.ndjson'), one DBMirror per line.  See 'writeLines' to create one.
+
+Files ending in '.gz' are decompressed while they're read.
+ */
+@Component
+@Slf4j
+public class ConversionLoaderService {
+
+    public static final String DATABASES = "databases";
+    public static final String REPORT_DB_SUFFIX = "_hms-mirror.yaml";
+    public static final String GZIP_SUFFIX = ".gz";
+
+    private final ObjectMapper streamingYamlMapper;
+    private final ObjectMapper jsonMapper;
+
+    /*
+    Both mappers are copies of the configured 'yamlMapper', so they read and write the domain the same way.  The
+    yaml copy lifts the 'codePointLimit': it's there to protect against loading huge documents into memory, which
+    we don't do here.
+     */
+    public ConversionLoaderService(ObjectMapper yamlMapper) {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+        this.streamingYamlMapper = yamlMapper.copyWith(YAMLFactory.builder().loaderOptions(loaderOptions).build());
+        this.jsonMapper = yamlMapper.copyWith(new JsonFactory());
+    }
+
+    public static boolean isLineDelimited(String filename) {
+        String name = stripGzip(filename).toLowerCase();
+        return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+    }
+
+    private static String stripGzip(String filename) {
+        return filename.endsWith(GZIP_SUFFIX) ? filename.substring(0, filename.length() - GZIP_SUFFIX.length()) : filename;
+    }
+
+    /*
+    Load the source into a new Conversion.  'consumer' (optional) sees each database before it's added, tables it
+    removes from the database are never held with the rest of the conversion.
+     */
+    public Conversion load(String filename, Consumer<DBMirror> consumer) throws IOException {
+        Conversion conversion = new Conversion();
+        read(filename, dbMirror -> {
+            if (!isNull(consumer)) {
+                consumer.accept(dbMirror);
+            }
+            conversion.getDatabases().put(dbMirror.getName(), dbMirror);
+        });
+        return conversion;
+    }
+
+    /*
+    Read the source and hand each database to the 'consumer', in the order they're in the source.
+     */
+    public void read(String filename, Consumer<DBMirror> consumer) throws IOException {
+        File file = new File(filename);
+        if (file.isDirectory()) {
+            readReportDirectory(file, consumer);
+            return;
+        }
+        URL url = locate(filename);
+        if (isLineDelimited(filename)) {
+            readLines(url, filename, consumer);
+        } else {
+            readYaml(url, filename, consumer);
+        }
+    }
+
+    private URL locate(String filename) throws IOException {
+        log.info("Checking 'classpath' for test data file");
+        URL url = this.getClass().getResource(filename);
+        if (isNull(url)) {
+            log.info("Checking filesystem for test data file: {}", filename);
+            File file = new File(filename);
+            if (!file.exists()) {
+                log.error("Couldn't locate test data file: {}", filename);
+                throw new FileNotFoundException("Couldn't locate test data file: " + filename);
+            }
+            url = file.toURI().toURL();
+        }
+        return url;
+    }
+
+    private InputStream open(URL url, String filename) throws IOException {
+        InputStream in = new BufferedInputStream(url.openStream());
+        return filename.endsWith(GZIP_SUFFIX) ? new GZIPInputStream(in) : in;
+    }
+
+    private void readReportDirectory(File directory, Consumer<DBMirror> consumer) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(REPORT_DB_SUFFIX));
+        if (isNull(files) || files.length == 0) {
+            throw new FileNotFoundException("No '*" + REPORT_DB_SUFFIX + "' files in: " + directory);
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            log.info("Reconstituting DBMirror from report file: {}", file);
+            readYaml(file.toURI().toURL(), file.getName(), consumer);
+        }
+    }
+
+    private void readLines(URL url, String filename, Consumer<DBMirror> consumer) throws IOException {
+        log.info("Reconstituting Conversion from line-delimited json: {}", filename);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(url, filename), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    consumer.accept(jsonMapper.readValue(line, DBMirror.class));
+                } catch (IOException ioe) {
+                    throw new IOException("Issue reading database at line " + lineNumber + " of " + filename, ioe);
+                }
+            }
+        }
+    }
+
+    private void readYaml(URL url, String filename, Consumer<DBMirror> consumer) throws IOException {
+        boolean conversionFile;
+        // Peek at the first field to tell a Conversion from a DBMirror.
+        try (JsonParser parser = streamingYamlMapper.getFactory().createParser(open(url, filename))) {
+            conversionFile = parser.nextToken() == JsonToken.START_OBJECT
+                    && parser.nextToken() == JsonToken.FIELD_NAME
+                    && DATABASES.equals(parser.getCurrentName());
+        }
+        if (!conversionFile) {
+            // A single database, the previous run's work is reset for the replay.
+            log.info("Reconstituting DBMirror from file: {}", filename);
+            DBMirror dbMirror;
+            try (InputStream in = open(url, filename)) {
+                dbMirror = streamingYamlMapper.readValue(in, DBMirror.class);
+            }
+            dbMirror.stripWork();
+            consumer.accept(dbMirror);
+            return;
+        }
+
+        log.info("Reconstituting Conversion from test data file: {}", filename);
+        try (JsonParser parser = streamingYamlMapper.getFactory().createParser(open(url, filename))) {
+            parser.nextToken(); // START_OBJECT
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!DATABASES.equals(field) || value != JsonToken.START_OBJECT) {
+                    // Nothing else in a Conversion is needed to replay it.
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String database = parser.getCurrentName();
+                    parser.nextToken();
+                    DBMirror dbMirror = streamingYamlMapper.readValue(parser, DBMirror.class);
+                    if (isNull(dbMirror)) {
+                        continue;
+                    }
+                    if (isNull(dbMirror.getName())) {
+                        dbMirror.setName(database);
+                    }
+                    consumer.accept(dbMirror);
+                }
+            }
+        }
+    }
+
+    /*
+    Write the databases of the conversion as line-delimited json, one DBMirror per line.  Each database is written
+    straight to the file.  A '.gz' filename is compressed.
+     */
+    public void writeLines(Conversion conversion, File file) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        if (file.getName().endsWith(GZIP_SUFFIX)) {
+            out = new GZIPOutputStream(out);
+        }
+        try (JsonGenerator generator = jsonMapper.getFactory().createGenerator(out)) {
+            // One value per line, without the default ' ' separator.
+            generator.setRootValueSeparator(null);
+            for (DBMirror dbMirror : conversion.getDatabases().values()) {
+                jsonMapper.writeValue(generator, dbMirror);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+}
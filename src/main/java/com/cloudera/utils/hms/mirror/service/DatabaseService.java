@@ -20,6 +20,7 @@ package com.cloudera.utils.hms.mirror.service;
 import com.cloudera.utils.hadoop.cli.CliEnvironment;
 import com.cloudera.utils.hadoop.cli.DisabledException;
 import com.cloudera.utils.hadoop.shell.command.CommandReturn;
+import com.cloudera.utils.hive.config.DBStore;
 import com.cloudera.utils.hive.config.QueryDefinitions;
 import com.cloudera.utils.hms.mirror.MessageCode;
 import com.cloudera.utils.hms.mirror.MirrorConf;
@@ -30,11 +31,14 @@ import com.cloudera.utils.hms.mirror.exceptions.EncryptionException;
 import com.cloudera.utils.hms.mirror.exceptions.MissingDataPointException;
 import com.cloudera.utils.hms.mirror.exceptions.RequiredConfigurationException;
 import com.cloudera.utils.hms.mirror.exceptions.SessionException;
+import com.cloudera.utils.hms.stage.ReturnStatus;
 import com.cloudera.utils.hms.util.DatabaseUtils;
 import com.cloudera.utils.hms.util.NamespaceUtils;
 import com.cloudera.utils.hms.util.TableUtils;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.net.URISyntaxException;
@@ -42,8 +46,8 @@ import java.sql.*;
 import java.sql.Connection;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
 import static com.cloudera.utils.hms.mirror.MessageCode.*;
@@ -68,6 +72,7 @@ public class DatabaseService {
     private final QueryDefinitionsService queryDefinitionsService;
     private final WarehouseService warehouseService;
     private final ConfigService configService;
+    private final TaskExecutor databaseThreadPool;
 
     public static final Set<String> skipList = new HashSet<String>(Arrays.asList(DB_LOCATION, DB_MANAGED_LOCATION, COMMENT, DB_NAME, OWNER_NAME, OWNER_TYPE));
 
@@ -79,17 +84,20 @@ public class DatabaseService {
      * @param connectionPoolService   Service for managing connection pools
      * @param queryDefinitionsService Service for query definitions
      * @param warehouseService        Service for warehouse operations
+     * @param databaseThreadPool      Runs the work of the databases concurrently
      */
     public DatabaseService(ConfigService configService,
                            ExecuteSessionService executeSessionService,
                            ConnectionPoolService connectionPoolService,
                            QueryDefinitionsService queryDefinitionsService,
-                           WarehouseService warehouseService) {
+                           WarehouseService warehouseService,
+                           @Qualifier("databaseThreadPool") TaskExecutor databaseThreadPool) {
         this.configService = configService;
         this.executeSessionService = executeSessionService;
         this.connectionPoolService = connectionPoolService;
         this.queryDefinitionsService = queryDefinitionsService;
         this.warehouseService = warehouseService;
+        this.databaseThreadPool = databaseThreadPool;
         log.debug("DatabaseService initialized");
     }
 
@@ -204,7 +212,10 @@ public class DatabaseService {
             log.info("Loading Partitions from Metastore Direct Connection {}:{}", environment, database);
             QueryDefinitions queryDefinitions = getQueryDefinitionsService().getQueryDefinitions(environment);
             if (nonNull(queryDefinitions)) {
-                String dbTableLocationQuery = queryDefinitions.getQueryDefinition("database_table_locations").getStatement();
+                CompiledFilter filter = config.getFilter().getCompiled();
+                DBStore.DB_TYPE dbType = config.getCluster(environment).getMetastoreDirect().getType();
+                String dbTableLocationQuery = filter.pushDown(
+                        queryDefinitions.getQueryDefinition("database_table_locations").getStatement(), dbType);
                 pstmt = conn.prepareStatement(dbTableLocationQuery);
                 pstmt.setString(1, database);
                 resultSet = pstmt.executeQuery();
@@ -220,31 +231,17 @@ public class DatabaseService {
                                 "and is most likely a remnant of a previous event. If this is a mistake, change the " +
                                 "'transferPrefix' to something more unique.", database, tableName);
                     } else {
-                        if (isBlank(config.getFilter().getTblRegEx()) && isBlank(config.getFilter().getTblExcludeRegEx())) {
+                        if (filter.isTableIncluded(tableName)) {
                             config.getTranslator().addTableSource(database, tableName, tableType, location, consolidationLevelBase,
                                     partitionLevelMismatch);
-                        } else if (!isBlank(config.getFilter().getTblRegEx())) {
-                            // Filter Tables
-                            assert (config.getFilter().getTblFilterPattern() != null);
-                            Matcher matcher = config.getFilter().getTblFilterPattern().matcher(tableName);
-                            if (matcher.matches()) {
-                                config.getTranslator().addTableSource(database, tableName, tableType, location, consolidationLevelBase,
-                                        partitionLevelMismatch);
-                            }
-                        } else if (config.getFilter().getTblExcludeRegEx() != null) {
-                            assert (config.getFilter().getTblExcludeFilterPattern() != null);
-                            Matcher matcher = config.getFilter().getTblExcludeFilterPattern().matcher(tableName);
-                            if (!matcher.matches()) { // ANTI-MATCH
-                                config.getTranslator().addTableSource(database, tableName, tableType, location, consolidationLevelBase,
-                                        partitionLevelMismatch);
-                            }
                         }
                     }
                 }
                 resultSet.close();
                 pstmt.close();
                 // Get the Partition Locations
-                String dbPartitionLocationQuery = queryDefinitions.getQueryDefinition("database_partition_locations").getStatement();
+                String dbPartitionLocationQuery = filter.pushDown(
+                        queryDefinitions.getQueryDefinition("database_partition_locations").getStatement(), dbType);
                 pstmt = conn.prepareStatement(dbPartitionLocationQuery);
                 pstmt.setString(1, database);
                 resultSet = pstmt.executeQuery();
@@ -255,24 +252,9 @@ public class DatabaseService {
                     String tableLocation = resultSet.getString(4);
                     String partitionLocation = resultSet.getString(5);
 
-                    if (isBlank(config.getFilter().getTblRegEx()) && isBlank(config.getFilter().getTblExcludeRegEx())) {
+                    if (filter.isTableIncluded(tableName)) {
                         config.getTranslator().addPartitionSource(database, tableName, tableType, partitionSpec,
                                 tableLocation, partitionLocation, consolidationLevelBase, partitionLevelMismatch);
-                    } else if (!isBlank(config.getFilter().getTblRegEx())) {
-                        // Filter Tables
-                        assert (config.getFilter().getTblFilterPattern() != null);
-                        Matcher matcher = config.getFilter().getTblFilterPattern().matcher(tableName);
-                        if (matcher.matches()) {
-                            config.getTranslator().addPartitionSource(database, tableName, tableType, partitionSpec,
-                                    tableLocation, partitionLocation, consolidationLevelBase, partitionLevelMismatch);
-                        }
-                    } else if (config.getFilter().getTblExcludeRegEx() != null) {
-                        assert (config.getFilter().getTblExcludeFilterPattern() != null);
-                        Matcher matcher = config.getFilter().getTblExcludeFilterPattern().matcher(tableName);
-                        if (!matcher.matches()) { // ANTI-MATCH
-                            config.getTranslator().addPartitionSource(database, tableName, tableType, partitionSpec,
-                                    tableLocation, partitionLocation, consolidationLevelBase, partitionLevelMismatch);
-                        }
                     }
                 }
             }
@@ -937,8 +919,10 @@ public class DatabaseService {
         return rtn;
     }
 
+    /*
+    Build the database statements.  The databases are built concurrently on the 'databaseThreadPool'.
+     */
     public boolean build() {
-        boolean rtn = true;
         ExecuteSession session = executeSessionService.getSession();
         HmsMirrorConfig config = session.getConfig();
         log.info("Building Database commands");
@@ -948,68 +932,126 @@ public class DatabaseService {
         }
 
         Conversion conversion = session.getConversion();
-        RunStatus runStatus = session.getRunStatus();
-        OperationStatistics stats = runStatus.getOperationStatistics();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
         for (String database : config.getDatabases()) {
-            log.info("Building Database commands: {}", database);
             DBMirror dbMirror = conversion.getDatabase(database);
-            try {
-                rtn = buildDBStatements(dbMirror);
-            } catch (RuntimeException rte) {
-                log.error("Issue building DB Statements for {}", database, rte);
-                runStatus.addError(MISC_ERROR, database + ":Issue building DB Statements");
-                rtn = false;
-            }
+            futures.add(CompletableFuture.supplyAsync(() -> buildDatabase(database, dbMirror), databaseThreadPool));
+        }
+        return allSucceeded(futures);
+    }
 
-//            if (rtn) {
-//                if (!runDatabaseSql(dbMirror, Environment.LEFT)) {
-//                    rtn = false;
-////                    stats.getFailures().incrementDatabases();
-//                } else {
-////                    stats.getSuccesses().incrementDatabases();
-//                }
-//                if (config.getDataStrategy() != DataStrategyEnum.STORAGE_MIGRATION && !runDatabaseSql(dbMirror, Environment.RIGHT)) {
-//                    rtn = false;
-////                    stats.getFailures().incrementDatabases();
-//                } else {
-//                    // TODO: Will this double up the mapped counts?  I think it will..  Will Observed..
-////                    stats.getSuccesses().incrementDatabases();
-//                }
-//            } else {
-////                stats.getFailures().incrementDatabases();
-//            }
+    private boolean buildDatabase(String database, DBMirror dbMirror) {
+        log.info("Building Database commands: {}", database);
+        try {
+            return buildDBStatements(dbMirror);
+        } catch (RuntimeException rte) {
+            log.error("Issue building DB Statements for {}", database, rte);
+            executeSessionService.getSession().getRunStatus().addError(MISC_ERROR, database + ":Issue building DB Statements");
+            return false;
         }
-        return rtn;
     }
 
+    /*
+    Run the database SQL.  The databases are run concurrently on the 'databaseThreadPool'.  Once a database fails,
+    the databases that haven't started yet are skipped.
+     */
     public boolean execute() {
-        boolean rtn = true;
         ExecuteSession session = executeSessionService.getSession();
         HmsMirrorConfig config = session.getConfig();
         log.info("Executing Database commands");
-        if (config.getMigrateACID().isInplace() && config.getDataStrategy() == DataStrategyEnum.SQL) {
-//            log.info("Downgrade in place.  Skipping database creation.");
-            return true;
-        }
 
         Conversion conversion = session.getConversion();
-        RunStatus runStatus = session.getRunStatus();
-        OperationStatistics stats = runStatus.getOperationStatistics();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
         for (String database : config.getDatabases()) {
-            log.info("Executing Database Commands for: {}", database);
             DBMirror dbMirror = conversion.getDatabase(database);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                if (failed.get()) {
+                    log.info("Skipping Database Commands for: {}. A previous database failed.", database);
+                    return false;
+                }
+                boolean rtn = executeDatabase(dbMirror);
+                if (!rtn) {
+                    failed.set(true);
+                }
+                return rtn;
+            }, databaseThreadPool));
+        }
+        return allSucceeded(futures) && !failed.get();
+    }
 
-            if (rtn) {
-                if (!runDatabaseSql(dbMirror, Environment.LEFT)) {
-                    rtn = false;
+    /*
+    Run the database SQL for a single database on the 'databaseThreadPool'.  Lets the tables of the database move
+    on as soon as their database is in place.
+     */
+    public CompletableFuture<Boolean> executeAsync(DBMirror dbMirror) {
+        return CompletableFuture.supplyAsync(() -> executeDatabase(dbMirror), databaseThreadPool);
+    }
+
+    protected boolean executeDatabase(DBMirror dbMirror) {
+        HmsMirrorConfig config = executeSessionService.getSession().getConfig();
+        if (config.getMigrateACID().isInplace() && config.getDataStrategy() == DataStrategyEnum.SQL) {
+            // Downgrade in place.  No database creation.
+            return true;
+        }
+        log.info("Executing Database Commands for: {}", dbMirror.getName());
+        boolean rtn = true;
+        try {
+            if (!runDatabaseSql(dbMirror, Environment.LEFT)) {
+                rtn = false;
+            }
+            if (config.getDataStrategy() != DataStrategyEnum.STORAGE_MIGRATION && !runDatabaseSql(dbMirror, Environment.RIGHT)) {
+                rtn = false;
+            }
+        } catch (RuntimeException rte) {
+            log.error("Issue executing Database Commands for {}", dbMirror.getName(), rte);
+            executeSessionService.getSession().getRunStatus().addError(MISC_ERROR, dbMirror.getName() + ":Issue executing DB Statements");
+            rtn = false;
+        }
+        return rtn;
+    }
+
+    /*
+    Get the LEFT and then the RIGHT database definitions on the 'databaseThreadPool'.  The status is ERROR when the
+    LEFT database doesn't exist and FATAL (with the exception) when the definitions couldn't be fetched.
+     */
+    public CompletableFuture<ReturnStatus> getDatabaseAsync(DBMirror dbMirror) {
+        return CompletableFuture.supplyAsync(() -> {
+            ReturnStatus rtn = new ReturnStatus();
+            try {
+                if (getDatabase(dbMirror, Environment.LEFT)) {
+                    getDatabase(dbMirror, Environment.RIGHT);
+                    rtn.setStatus(ReturnStatus.Status.SUCCESS);
+                } else {
+                    // LEFT DB doesn't exists.
+                    dbMirror.addIssue(Environment.LEFT, "DB doesn't exist. Check permissions for user running process");
+                    rtn.setStatus(ReturnStatus.Status.ERROR);
                 }
-                if (config.getDataStrategy() != DataStrategyEnum.STORAGE_MIGRATION && !runDatabaseSql(dbMirror, Environment.RIGHT)) {
+            } catch (SQLException | RuntimeException e) {
+                log.error("Issue getting database {}", dbMirror.getName(), e);
+                rtn.setStatus(ReturnStatus.Status.FATAL);
+                rtn.setException(e);
+            }
+            return rtn;
+        }, databaseThreadPool);
+    }
+
+    /*
+    Wait for all the futures.  True when every one of them returned true.
+     */
+    private static boolean allSucceeded(List<CompletableFuture<Boolean>> futures) {
+        boolean rtn = true;
+        for (CompletableFuture<Boolean> future : futures) {
+            try {
+                if (!Boolean.TRUE.equals(future.join())) {
                     rtn = false;
                 }
+            } catch (RuntimeException rte) {
+                log.error("Issue processing database", rte);
+                rtn = false;
             }
         }
         return rtn;
-
     }
 
     public Boolean checkSqlStatements(DBMirror dbMirror) {
@@ -32,38 +32,44 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 @Slf4j
 public class EnvironmentService {
 
-    public void setupGSS() {
-        try {
-            String CURRENT_USER_PROP = "current.user";
-
-            String HADOOP_CONF_DIR = "HADOOP_CONF_DIR";
-            String[] HADOOP_CONF_FILES = {"core-site.xml", "hdfs-site.xml", "mapred-site.xml", "yarn-site.xml"};
+    /*
+    The Hadoop configuration from the files in HADOOP_CONF_DIR (default: /etc/hadoop/conf).
+     */
+    public Configuration loadHadoopConfiguration() {
+        String HADOOP_CONF_DIR = "HADOOP_CONF_DIR";
+        String[] HADOOP_CONF_FILES = {"core-site.xml", "hdfs-site.xml", "mapred-site.xml", "yarn-site.xml"};
 
-            // Get a value that over rides the default, if nothing then use default.
-            String hadoopConfDirProp = System.getenv().getOrDefault(HADOOP_CONF_DIR, "/etc/hadoop/conf");
+        // Get a value that over rides the default, if nothing then use default.
+        String hadoopConfDirProp = System.getenv().getOrDefault(HADOOP_CONF_DIR, "/etc/hadoop/conf");
 
-            // Set a default
-            if (isBlank(hadoopConfDirProp))
-                hadoopConfDirProp = "/etc/hadoop/conf";
+        // Set a default
+        if (isBlank(hadoopConfDirProp))
+            hadoopConfDirProp = "/etc/hadoop/conf";
 
-            Configuration hadoopConfig = new Configuration(true);
+        Configuration hadoopConfig = new Configuration(true);
 
-            File hadoopConfDir = new File(hadoopConfDirProp).getAbsoluteFile();
-            for (String file : HADOOP_CONF_FILES) {
-                File f = new File(hadoopConfDir, file);
-                if (f.exists()) {
-                    log.debug("Adding conf resource: '{}'", f.getAbsolutePath());
-                    try {
-                        // I found this new Path call failed on the Squadron Clusters.
-                        // Not sure why.  Anyhow, the above seems to work the same.
-                        hadoopConfig.addResource(new Path(f.getAbsolutePath()));
-                    } catch (Throwable t) {
-                        // This worked for the Squadron Cluster.
-                        // I think it has something to do with the Docker images.
-                        hadoopConfig.addResource("file:" + f.getAbsolutePath());
-                    }
+        File hadoopConfDir = new File(hadoopConfDirProp).getAbsoluteFile();
+        for (String file : HADOOP_CONF_FILES) {
+            File f = new File(hadoopConfDir, file);
+            if (f.exists()) {
+                log.debug("Adding conf resource: '{}'", f.getAbsolutePath());
+                try {
+                    // I found this new Path call failed on the Squadron Clusters.
+                    // Not sure why.  Anyhow, the above seems to work the same.
+                    hadoopConfig.addResource(new Path(f.getAbsolutePath()));
+                } catch (Throwable t) {
+                    // This worked for the Squadron Cluster.
+                    // I think it has something to do with the Docker images.
+                    hadoopConfig.addResource("file:" + f.getAbsolutePath());
                 }
             }
+        }
+        return hadoopConfig;
+    }
+
+    public void setupGSS() {
+        try {
+            Configuration hadoopConfig = loadHadoopConfiguration();
 
             // hadoop.security.authentication
             if (hadoopConfig.get("hadoop.security.authentication", "simple").equalsIgnoreCase("kerberos")) {
@@ -19,6 +19,7 @@ package com.cloudera.utils.hms.mirror.service;
 
 import com.cloudera.utils.hms.mirror.MessageCode;
 import com.cloudera.utils.hms.mirror.MirrorConf;
+import com.cloudera.utils.hms.mirror.PhaseState;
 import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
@@ -32,6 +33,7 @@ import com.cloudera.utils.hms.stage.ReturnStatus;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ratis.thirdparty.io.netty.util.concurrent.CompleteFuture;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -42,9 +44,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.regex.Matcher;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.cloudera.utils.hms.mirror.MessageCode.*;
 import static java.lang.Thread.sleep;
@@ -66,6 +69,11 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
  * - tableService: Manages interactions related to database tables.
  * - translatorService: Executes data translation or mapping logic.
  * - transferService: Responsible for managing data transfer operations.
+ * - runJournalService: Keeps the journal used to resume a run that didn't finish.
+ * - statsCollectorService: Collects (and caches for the run) the file system stats of the table locations.
+ * - streaming: When set, each table flows through the metadata, build and execute stages on its own
+ *   instead of waiting for every table to finish a stage before the next stage starts.
+ * - stepsVerbose: When set, every step of every table is kept for the reports, not just the last few.
  * - log: Used for logging information or events related to the application.
  */
 @Service
@@ -82,6 +90,11 @@ public class HMSMirrorAppService {
     private final TableService tableService;
     private final TranslatorService translatorService;
     private final TransferService transferService;
+    private final RunJournalService runJournalService;
+    private final TableDeltaService tableDeltaService;
+    private final StatsCollectorService statsCollectorService;
+    private final boolean streaming;
+    private final boolean stepsVerbose;
 
     public HMSMirrorAppService(ExecuteSessionService executeSessionService,
                                ConnectionPoolService connectionPoolService,
@@ -91,7 +104,12 @@ public class HMSMirrorAppService {
                                TranslatorService translatorService,
                                TransferService transferService,
                                ConfigService configService,
-                               EnvironmentService environmentService) {
+                               EnvironmentService environmentService,
+                               RunJournalService runJournalService,
+                               TableDeltaService tableDeltaService,
+                               StatsCollectorService statsCollectorService,
+                               @Value("${hms-mirror.concurrency.streaming:false}") boolean streaming,
+                               @Value("${hms-mirror.steps.verbose:false}") boolean stepsVerbose) {
         this.executeSessionService = executeSessionService;
         this.connectionPoolService = connectionPoolService;
         this.databaseService = databaseService;
@@ -101,6 +119,11 @@ public class HMSMirrorAppService {
         this.transferService = transferService;
         this.configService = configService;
         this.environmentService = environmentService;
+        this.runJournalService = runJournalService;
+        this.tableDeltaService = tableDeltaService;
+        this.statsCollectorService = statsCollectorService;
+        this.streaming = streaming;
+        this.stepsVerbose = stepsVerbose;
     }
 
     public long getReturnCode() {
@@ -138,6 +161,7 @@ public class HMSMirrorAppService {
             runStatus.setComment("No comments provided for this run.  Consider adding one for easier tracking.");
         }
         Conversion conversion = session.getConversion();
+        conversion.setStepsVerbose(stepsVerbose);
         // Reset Start time to the actual 'execution' start time.
         runStatus.setStart(new Date());
         runStatus.setProgress(ProgressEnum.STARTED);
@@ -265,8 +289,7 @@ public class HMSMirrorAppService {
                     ResultSet rs = stmt.executeQuery(MirrorConf.SHOW_DATABASES);
                     while (rs.next()) {
                         String db = rs.getString(1);
-                        Matcher matcher = config.getFilter().getDbFilterPattern().matcher(db);
-                        if (matcher.find()) {
+                        if (config.getFilter().getCompiled().isDatabaseIncluded(db)) {
                             stats.getCounts().incrementDatabases();
                             databases.add(db);
                         }
@@ -297,6 +320,13 @@ public class HMSMirrorAppService {
         runStatus.setStage(StageEnum.GATHERING_DATABASES, CollectionEnum.COMPLETED);
         log.info("Start Processing for databases: {}", String.join(",", config.getDatabases()));
 
+        // Replay the journal of a previous run of this config that didn't finish.
+        runJournalService.open();
+        // Load the table fingerprints of the previous runs, for the delta mode.
+        tableDeltaService.open();
+        // The file system stats are cached by location for the run.
+        statsCollectorService.clear();
+
         if (!config.isLoadingTestData()) {
             runStatus.setStage(StageEnum.ENVIRONMENT_VARS, CollectionEnum.IN_PROGRESS);
             rtn = databaseService.loadEnvironmentVars();
@@ -328,50 +358,57 @@ public class HMSMirrorAppService {
         log.info("RunStatus Stage: {} is {}", StageEnum.DATABASES, runStatus.getStage(StageEnum.DATABASES));
         if (!config.isLoadingTestData()) {
             runStatus.setStage(StageEnum.DATABASES, CollectionEnum.IN_PROGRESS);
+            // The databases are fetched concurrently (see 'databaseThreadPool') and the tables of a database are
+            // listed as soon as its definitions are in.
+            List<CompletableFuture<ReturnStatus>> dbf = new ArrayList<>();
             for (String database : config.getDatabases()) {
                 runStatus.getOperationStatistics().getCounts().incrementDatabases();
                 DBMirror dbMirror = conversion.addDatabase(database);
-                try {
-                    // Get the Database definitions for the LEFT and RIGHT clusters.
-                    if (getDatabaseService().getDatabase(dbMirror, Environment.LEFT)) { //getConfig().getCluster(Environment.LEFT).getDatabase(config, dbMirror)) {
-                        getDatabaseService().getDatabase(dbMirror, Environment.RIGHT);
-                    } else {
-                        // LEFT DB doesn't exists.
-                        dbMirror.addIssue(Environment.LEFT, "DB doesn't exist. Check permissions for user running process");
-                        runStatus.getOperationStatistics().getFailures().incrementDatabases();
-                        rtn = Boolean.FALSE;
-                    }
-                } catch (SQLException se) {
-                    log.error("Issue getting databases", se);
-                    executeSessionService.getSession().addError(MISC_ERROR, "Issue getting databases");
-                    runStatus.getOperationStatistics().getFailures().incrementDatabases();
-                    runStatus.setStage(StageEnum.DATABASES, CollectionEnum.ERRORED);
-                    reportWriterService.wrapup();
-                    connectionPoolService.close();
-                    runStatus.setProgress(ProgressEnum.FAILED);
-                    return CompletableFuture.completedFuture(Boolean.FALSE);
-                } catch (RuntimeException rte) {
-                    log.error("Runtime Issue", rte);
-                    runStatus.addError(MISC_ERROR, rte.getMessage());
-                    runStatus.getOperationStatistics().getFailures().incrementDatabases();
-                    runStatus.setStage(StageEnum.DATABASES, CollectionEnum.ERRORED);
-                    reportWriterService.wrapup();
-                    connectionPoolService.close();
-                    runStatus.setProgress(ProgressEnum.FAILED);
-                    return CompletableFuture.completedFuture(Boolean.FALSE);
-                }
+                CompletableFuture<ReturnStatus> df = getDatabaseService().getDatabaseAsync(dbMirror);
+                dbf.add(df);
 
                 // Build out the table in a database.
                 if (!config.isLoadingTestData() && !config.isDatabaseOnly()) {
                     runStatus.setStage(StageEnum.TABLES, CollectionEnum.IN_PROGRESS);
-                    CompletableFuture<ReturnStatus> gt = getTableService().getTables(dbMirror);
-                    gtf.add(gt);
+                    gtf.add(df.thenCompose(ds -> ds.getStatus() == ReturnStatus.Status.FATAL
+                            ? CompletableFuture.completedFuture(ds)
+                            : getTableService().getTables(dbMirror)));
                 }
             }
-            runStatus.setStage(StageEnum.DATABASES, CollectionEnum.COMPLETED);
 
             // Wait for all the CompletableFutures to finish.
-            CompletableFuture.allOf(gtf.toArray(new CompletableFuture[0])).join();
+            CompletableFuture.allOf(dbf.toArray(new CompletableFuture[0])).join();
+            Throwable dbIssue = null;
+            for (CompletableFuture<ReturnStatus> df : dbf) {
+                ReturnStatus ds = df.join();
+                if (ds.getStatus() != ReturnStatus.Status.SUCCESS) {
+                    runStatus.getOperationStatistics().getFailures().incrementDatabases();
+                    rtn = Boolean.FALSE;
+                    if (ds.getStatus() == ReturnStatus.Status.FATAL && isNull(dbIssue)) {
+                        dbIssue = ds.getException();
+                    }
+                }
+            }
+            try {
+                CompletableFuture.allOf(gtf.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException ce) {
+                // Checked below.
+            }
+            if (nonNull(dbIssue)) {
+                if (dbIssue instanceof SQLException) {
+                    log.error("Issue getting databases", dbIssue);
+                    executeSessionService.getSession().addError(MISC_ERROR, "Issue getting databases");
+                } else {
+                    log.error("Runtime Issue", dbIssue);
+                    runStatus.addError(MISC_ERROR, dbIssue.getMessage());
+                }
+                runStatus.setStage(StageEnum.DATABASES, CollectionEnum.ERRORED);
+                reportWriterService.wrapup();
+                connectionPoolService.close();
+                runStatus.setProgress(ProgressEnum.FAILED);
+                return CompletableFuture.completedFuture(Boolean.FALSE);
+            }
+            runStatus.setStage(StageEnum.DATABASES, CollectionEnum.COMPLETED);
 
             // Check that all the CompletableFutures in 'gtf' passed with ReturnStatus.Status.SUCCESS.
             for (CompletableFuture<ReturnStatus> sf : gtf) {
@@ -470,7 +507,9 @@ public class HMSMirrorAppService {
         }
 
         // Shortcut.  Only DB's.
-        if (!config.isDatabaseOnly()) {
+        if (!config.isDatabaseOnly() && streaming) {
+            rtn = streamTables(rtn);
+        } else if (!config.isDatabaseOnly()) {
             Set<String> collectedDbs = conversion.getDatabases().keySet();
             // ========================================
             // Get the table METADATA for the tables collected in the databases.
@@ -484,6 +523,9 @@ public class HMSMirrorAppService {
                     Set<String> tables = dbMirror.getTableMirrors().keySet();
                     for (String table : tables) {
                         TableMirror tableMirror = dbMirror.getTableMirrors().get(table);
+                        if (skipProcessedInJournal(tableMirror) || tableDeltaService.isSkipped(tableMirror)) {
+                            continue;
+                        }
                         gtf.add(tableService.getTableMetadata(tableMirror));
                     }
                 }
@@ -502,36 +544,14 @@ public class HMSMirrorAppService {
                     try {
                         ReturnStatus returnStatus = sf.get();
                         if (nonNull(returnStatus)) {
-                            switch (returnStatus.getStatus()) {
-                                case SUCCESS:
-                                    runStatus.getOperationStatistics().getCounts().incrementTables();
-                                    // Trigger next step and set status.
-                                    // TODO: Next Step
-                                    sf.get().setStatus(ReturnStatus.Status.NEXTSTEP);
-                                    // Launch the next step, which is the transfer.
-                                    runStatus.getOperationStatistics().getSuccesses().incrementTables();
-
-                                    migrationFuture.add(getTransferService().build(sf.get().getTableMirror()));
-                                    break;
-                                case ERROR:
-                                    runStatus.getOperationStatistics().getCounts().incrementTables();
-                                    sf.get().setStatus(ReturnStatus.Status.NEXTSTEP);
-                                    break;
-                                case FATAL:
-                                    runStatus.getOperationStatistics().getCounts().incrementTables();
-                                    runStatus.getOperationStatistics().getFailures().incrementTables();
-                                    rtn = Boolean.FALSE;
-                                    sf.get().setStatus(ReturnStatus.Status.NEXTSTEP);
-                                    log.error("FATAL: ", sf.get().getException());
-                                case NEXTSTEP:
-                                    break;
-                                case SKIP:
-                                    runStatus.getOperationStatistics().getCounts().incrementTables();
-                                    // Set for tables that are being removed.
-                                    runStatus.getOperationStatistics().getSkipped().incrementTables();
-                                    sf.get().setStatus(ReturnStatus.Status.NEXTSTEP);
-                                    break;
+                            if (!recordTableMetadataStatus(returnStatus)) {
+                                rtn = Boolean.FALSE;
+                            }
+                            if (returnStatus.getStatus() == ReturnStatus.Status.SUCCESS) {
+                                // Launch the next step, which is the transfer.
+                                migrationFuture.add(getTransferService().build(returnStatus.getTableMirror()));
                             }
+                            returnStatus.setStatus(ReturnStatus.Status.NEXTSTEP);
                         }
                     } catch (InterruptedException | ExecutionException | RuntimeException e) {
                         log.error("Interrupted Table collection", e);
@@ -549,22 +569,7 @@ public class HMSMirrorAppService {
                 gtf.clear(); // reset
 
                 // Remove the tables that are marked for removal.
-                for (String database : collectedDbs) {
-                    DBMirror dbMirror = conversion.getDatabase(database);
-                    Set<String> tables = dbMirror.getTableMirrors().keySet();
-                    for (String table : tables) {
-                        TableMirror tableMirror = dbMirror.getTableMirrors().get(table);
-                        if (tableMirror.isRemove()) {
-                            // Setup the filtered out tables so they can be reported w/ reason.
-//                        stats.getSkipped().incrementTables();
-                            log.info("Table: {}.{} is being removed from further processing. Reason: {}", dbMirror.getName(), table, tableMirror.getRemoveReason());
-                            dbMirror.getFilteredOut().put(table, tableMirror.getRemoveReason());
-                        }
-                    }
-                    log.info("Removing tables marked for removal from further processing.");
-                    dbMirror.getTableMirrors().values().removeIf(TableMirror::isRemove);
-                    log.info("Tables marked for removal have been removed from further processing.");
-                }
+                removeTablesMarkedForRemoval(conversion);
 
             } else {
                 runStatus.setStage(StageEnum.LOAD_TABLE_METADATA, CollectionEnum.SKIPPED);
@@ -605,49 +610,10 @@ public class HMSMirrorAppService {
             migrationFuture.clear(); // reset
 
             // Validate the SET statements.
-            runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.IN_PROGRESS);
-            if (rtn) {
-                // Check the Unique SET statements.
-                for (String database : collectedDbs) {
-                    DBMirror dbMirror = conversion.getDatabase(database);
-                    if (!databaseService.checkSqlStatements(dbMirror)) {
-                        rtn = Boolean.FALSE;
-                    }
-                }
-                if (rtn) {
-                    runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.COMPLETED);
-                } else {
-                    runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.ERRORED);
-                    runStatus.addError(MessageCode.VALIDATE_SQL_STATEMENT_ISSUE);
-
-                }
-            } else {
-                runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.SKIPPED);
-            }
+            rtn = validateSetStatements(rtn);
 
             // Process the SQL for the Databases;
-            runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.IN_PROGRESS);
-            if (rtn) {
-                if (config.isExecute()) {
-                    if (getDatabaseService().execute()) {
-                        runStatus.getOperationStatistics().getSuccesses().incrementDatabases();
-                        runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.COMPLETED);
-                    } else {
-                        runStatus.addError(MessageCode.DATABASE_CREATION);
-                        runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.ERRORED);
-                        runStatus.getOperationStatistics().getFailures().incrementDatabases();
-                        rtn = Boolean.FALSE;
-                    }
-                } else {
-                    runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.SKIPPED);
-                }
-                // Set error if issue during processing.
-                if (!rtn)
-                    runStatus.addError(MessageCode.PROCESSING_DATABASES_ISSUE);
-
-            } else {
-                runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.SKIPPED);
-            }
+            rtn = processDatabases(rtn);
 
             // Process the SQL for the Tables;
 
@@ -729,6 +695,14 @@ public class HMSMirrorAppService {
             runStatus.setProgress(ProgressEnum.FAILED);
         }
 
+        logStepTimings(conversion);
+
+        // A successful run retires the journal, otherwise it's kept for the next run to resume from.
+        runJournalService.close(rtn && conversion.getUnsuccessfullTableCount() == 0);
+        // Keep the fingerprints of the tables that were processed, for the next run.
+        tableDeltaService.close(conversion);
+        statsCollectorService.clear();
+
         try {
             runStatus.setStage(StageEnum.SAVING_REPORTS, CollectionEnum.COMPLETED);
             reportWriterService.wrapup();
@@ -744,4 +718,361 @@ public class HMSMirrorAppService {
 
         return CompletableFuture.completedFuture(rtn);
     }
+
+    /*
+    The latency of the timed table steps over the whole run.
+     */
+    private void logStepTimings(Conversion conversion) {
+        conversion.stepTimings().forEach((kind, histogram) -> {
+            if (histogram.getCount() > 0) {
+                log.info("Step timings for '{}': {}", kind.getStep(), histogram.toSummary());
+            }
+        });
+    }
+
+    /**
+     * Streams each table through the metadata, build and execute stages on its own.  A table moves to the next
+     * stage as soon as its previous stage completes, so one slow table doesn't hold the rest of the tables at a
+     * stage barrier.  The stage status in the RunStatus is derived from the per table counters.
+     * <p>
+     * Nothing of a database is executed before the 'SET' statements of its tables are validated, so the tables
+     * of a database are built first, then its 'SET' statements are validated, then its database SQL is run and
+     * then its tables are executed.  The databases go through this on their own, so the execution of one database
+     * overlaps the metadata collection of the others.  When the 'SET' statements of a database fail, none of its
+     * tables are executed and no table that hasn't started executing yet (in any database) will be.
+     *
+     * @param rtn The current state of the run.
+     * @return false when any of the stages failed.
+     */
+    protected Boolean streamTables(Boolean rtn) {
+        ExecuteSession session = executeSessionService.getSession();
+        HmsMirrorConfig config = session.getConfig();
+        RunStatus runStatus = session.getRunStatus();
+        Conversion conversion = session.getConversion();
+
+        if (!rtn) {
+            runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.SKIPPED);
+            runStatus.setStage(StageEnum.LOAD_TABLE_METADATA, CollectionEnum.SKIPPED);
+            runStatus.setStage(StageEnum.BUILDING_TABLES, CollectionEnum.SKIPPED);
+            runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.SKIPPED);
+            runStatus.setStage(StageEnum.PROCESSING_TABLES, CollectionEnum.SKIPPED);
+            return rtn;
+        }
+
+        log.info("Streaming tables through the metadata, build and execute stages.");
+        runStatus.setStage(StageEnum.LOAD_TABLE_METADATA, CollectionEnum.IN_PROGRESS);
+        runStatus.setStage(StageEnum.BUILDING_TABLES, CollectionEnum.IN_PROGRESS);
+        runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.IN_PROGRESS);
+        runStatus.setStage(StageEnum.PROCESSING_DATABASES,
+                config.isExecute() ? CollectionEnum.IN_PROGRESS : CollectionEnum.SKIPPED);
+        runStatus.setStage(StageEnum.PROCESSING_TABLES,
+                config.isExecute() ? CollectionEnum.IN_PROGRESS : CollectionEnum.SKIPPED);
+
+        AtomicBoolean success = new AtomicBoolean(Boolean.TRUE);
+        AtomicBoolean setsValid = new AtomicBoolean(Boolean.TRUE);
+        AtomicBoolean databasesProcessed = new AtomicBoolean(Boolean.TRUE);
+        List<CompletableFuture<Void>> pipelines = new ArrayList<>();
+        for (DBMirror dbMirror : conversion.getDatabases().values()) {
+            List<TableMirror> tableMirrors = new ArrayList<>();
+            List<CompletableFuture<ReturnStatus>> builds = new ArrayList<>();
+            // Copy the list, the pipeline shouldn't be affected by changes to the map while it's running.
+            for (TableMirror tableMirror : new ArrayList<>(dbMirror.getTableMirrors().values())) {
+                if (skipProcessedInJournal(tableMirror) || tableDeltaService.isSkipped(tableMirror)) {
+                    continue;
+                }
+                tableMirrors.add(tableMirror);
+                builds.add(buildTable(tableMirror, success));
+            }
+            pipelines.add(CompletableFuture.allOf(builds.toArray(new CompletableFuture[0]))
+                    .thenCompose(built -> {
+                        // Validate before anything of the database is executed.
+                        if (!validateSetStatements(dbMirror)) {
+                            log.error("SET statements for {} failed validation.  Nothing more will be executed.",
+                                    dbMirror.getName());
+                            setsValid.set(Boolean.FALSE);
+                            success.set(Boolean.FALSE);
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        if (!config.isExecute() || !setsValid.get()) {
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        return getDatabaseService().executeAsync(dbMirror)
+                                .exceptionally(t -> {
+                                    log.error("Issue processing database: {}", dbMirror.getName(), t);
+                                    return Boolean.FALSE;
+                                })
+                                .thenCompose(processed -> {
+                                    if (!processed) {
+                                        log.error("Database SQL for {} failed.  Its tables won't be processed.",
+                                                dbMirror.getName());
+                                        databasesProcessed.set(Boolean.FALSE);
+                                        success.set(Boolean.FALSE);
+                                        return CompletableFuture.completedFuture(null);
+                                    }
+                                    List<CompletableFuture<ReturnStatus>> executions = new ArrayList<>();
+                                    for (int i = 0; i < builds.size(); i++) {
+                                        // Already done, doesn't block.
+                                        ReturnStatus buildStatus = builds.get(i).join();
+                                        // Only push SUCCESSFUL tables to the execution stage.
+                                        if (buildStatus.getStatus() == ReturnStatus.Status.SUCCESS) {
+                                            executions.add(executeTable(tableMirrors.get(i), success, setsValid));
+                                        }
+                                    }
+                                    return CompletableFuture.allOf(executions.toArray(new CompletableFuture[0]));
+                                });
+                    })
+                    .exceptionally(t -> {
+                        // Couldn't hand the tables of the database off to the pipeline.
+                        log.error("Issue streaming the tables of database: {}", dbMirror.getName(), t);
+                        success.set(Boolean.FALSE);
+                        return null;
+                    }));
+        }
+
+        // Wait for all the tables to make their way through the pipeline.
+        CompletableFuture.allOf(pipelines.toArray(new CompletableFuture[0])).join();
+
+        if (setsValid.get()) {
+            runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.COMPLETED);
+        } else {
+            runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.ERRORED);
+            runStatus.addError(MessageCode.VALIDATE_SQL_STATEMENT_ISSUE);
+        }
+
+        if (config.isExecute()) {
+            if (databasesProcessed.get()) {
+                runStatus.getOperationStatistics().getSuccesses().incrementDatabases();
+                runStatus.setStage(StageEnum.PROCESSING_DATABASES,
+                        setsValid.get() ? CollectionEnum.COMPLETED : CollectionEnum.SKIPPED);
+            } else {
+                runStatus.addError(MessageCode.DATABASE_CREATION);
+                runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.ERRORED);
+                runStatus.getOperationStatistics().getFailures().incrementDatabases();
+                runStatus.addError(MessageCode.PROCESSING_DATABASES_ISSUE);
+            }
+        }
+
+        runStatus.setStageFromProgress(StageEnum.LOAD_TABLE_METADATA);
+        if (runStatus.getStage(StageEnum.LOAD_TABLE_METADATA) == CollectionEnum.ERRORED) {
+            runStatus.addError(MessageCode.COLLECTING_TABLE_DEFINITIONS);
+        }
+        runStatus.setStageFromProgress(StageEnum.BUILDING_TABLES);
+        if (config.isExecute()) {
+            runStatus.setStageFromProgress(StageEnum.PROCESSING_TABLES);
+            if (runStatus.getStage(StageEnum.PROCESSING_TABLES) == CollectionEnum.ERRORED) {
+                runStatus.addError(MessageCode.PROCESSING_TABLES_ISSUE);
+            }
+        }
+
+        removeTablesMarkedForRemoval(conversion);
+
+        return success.get();
+    }
+
+    /*
+    Chain the metadata and build stages for a single table.  The build is only started when the metadata was
+    collected.  Completes with the status of the last stage the table went through.
+     */
+    private CompletableFuture<ReturnStatus> buildTable(TableMirror tableMirror, AtomicBoolean success) {
+        RunStatus runStatus = executeSessionService.getSession().getRunStatus();
+        StageProgress metadataProgress = runStatus.getStageProgress(StageEnum.LOAD_TABLE_METADATA);
+        StageProgress buildProgress = runStatus.getStageProgress(StageEnum.BUILDING_TABLES);
+
+        CompletableFuture<ReturnStatus> metadata = tableService.getTableMetadata(tableMirror);
+        metadataProgress.submit();
+        return metadata
+                .exceptionally(t -> fatalStatus(tableMirror, t))
+                .thenCompose(metadataStatus -> {
+                    boolean collected = recordTableMetadataStatus(metadataStatus);
+                    metadataProgress.complete(!collected);
+                    if (!collected) {
+                        success.set(Boolean.FALSE);
+                    }
+                    if (metadataStatus.getStatus() != ReturnStatus.Status.SUCCESS) {
+                        return CompletableFuture.completedFuture(metadataStatus);
+                    }
+                    CompletableFuture<ReturnStatus> build = getTransferService().build(tableMirror);
+                    buildProgress.submit();
+                    return build
+                            .exceptionally(t -> fatalStatus(tableMirror, t))
+                            .thenApply(buildStatus -> {
+                                boolean built = buildStatus.getStatus() != ReturnStatus.Status.FATAL;
+                                buildProgress.complete(!built);
+                                if (!built) {
+                                    success.set(Boolean.FALSE);
+                                }
+                                return buildStatus;
+                            });
+                })
+                .exceptionally(t -> {
+                    // Couldn't hand the table off to the next stage.
+                    success.set(Boolean.FALSE);
+                    return fatalStatus(tableMirror, t);
+                });
+    }
+
+    /*
+    Execute a built table, unless the 'SET' statements of the run have failed validation since.
+     */
+    private CompletableFuture<ReturnStatus> executeTable(TableMirror tableMirror, AtomicBoolean success,
+                                                         AtomicBoolean setsValid) {
+        if (!setsValid.get()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        StageProgress executeProgress = executeSessionService.getSession().getRunStatus()
+                .getStageProgress(StageEnum.PROCESSING_TABLES);
+        CompletableFuture<ReturnStatus> execute = getTransferService().execute(tableMirror);
+        executeProgress.submit();
+        return execute
+                .exceptionally(t -> fatalStatus(tableMirror, t))
+                .thenApply(executeStatus -> {
+                    // Check if the table was removed, so that's not a processing error.
+                    boolean failed = executeStatus.getStatus() == ReturnStatus.Status.FATAL
+                            || (executeStatus.getStatus() == ReturnStatus.Status.ERROR
+                            && !tableMirror.isRemove());
+                    executeProgress.complete(failed);
+                    if (failed) {
+                        success.set(Boolean.FALSE);
+                    }
+                    return executeStatus;
+                });
+    }
+
+    /*
+    Validate the 'SET' statements of the tables of a database.
+     */
+    private boolean validateSetStatements(DBMirror dbMirror) {
+        try {
+            return databaseService.checkSqlStatements(dbMirror);
+        } catch (RuntimeException e) {
+            log.error("Issue validating the SET statements of database: {}", dbMirror.getName(), e);
+            return false;
+        }
+    }
+
+    private ReturnStatus fatalStatus(TableMirror tableMirror, Throwable t) {
+        log.error("Issue processing table: {}.{}", tableMirror.getParent().getName(), tableMirror.getName(), t);
+        ReturnStatus rtn = new ReturnStatus();
+        rtn.setTableMirror(tableMirror);
+        rtn.setStatus(ReturnStatus.Status.FATAL);
+        rtn.setException(t);
+        return rtn;
+    }
+
+    /*
+    Record the outcome of the table metadata collection in the operation statistics.
+    Returns false when the collection was FATAL.
+     */
+    private boolean recordTableMetadataStatus(ReturnStatus returnStatus) {
+        OperationStatistics stats = executeSessionService.getSession().getRunStatus().getOperationStatistics();
+        switch (returnStatus.getStatus()) {
+            case SUCCESS:
+                stats.getCounts().incrementTables();
+                stats.getSuccesses().incrementTables();
+                break;
+            case ERROR:
+                stats.getCounts().incrementTables();
+                break;
+            case FATAL:
+                stats.getCounts().incrementTables();
+                stats.getFailures().incrementTables();
+                log.error("FATAL: ", returnStatus.getException());
+                return false;
+            case SKIP:
+                stats.getCounts().incrementTables();
+                // Set for tables that are being removed.
+                stats.getSkipped().incrementTables();
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /*
+    Tables that were PROCESSED by a previous run of the same config (see RunJournalService) aren't processed again.
+     */
+    private boolean skipProcessedInJournal(TableMirror tableMirror) {
+        if (!runJournalService.isProcessed(tableMirror)) {
+            return false;
+        }
+        log.info("Table: {}.{} was PROCESSED in a previous run (run journal), skipping.",
+                tableMirror.getParent().getName(), tableMirror.getName());
+        tableMirror.setPhaseState(PhaseState.RETRY_SKIPPED_PAST_SUCCESS);
+        tableMirror.recordStep(StepEnum.JOURNAL_SKIPPED, null, null);
+        return true;
+    }
+
+    private void removeTablesMarkedForRemoval(Conversion conversion) {
+        for (DBMirror dbMirror : conversion.getDatabases().values()) {
+            for (Map.Entry<String, TableMirror> entry : dbMirror.getTableMirrors().entrySet()) {
+                TableMirror tableMirror = entry.getValue();
+                if (tableMirror.isRemove()) {
+                    // Setup the filtered out tables so they can be reported w/ reason.
+                    log.info("Table: {}.{} is being removed from further processing. Reason: {}",
+                            dbMirror.getName(), entry.getKey(), tableMirror.getRemoveReason());
+                    dbMirror.getFilteredOut().put(entry.getKey(), Objects.toString(tableMirror.getRemoveReason(), ""));
+                }
+            }
+            log.info("Removing tables marked for removal from further processing.");
+            dbMirror.removeTables(TableMirror::isRemove);
+            log.info("Tables marked for removal have been removed from further processing.");
+            // The table metadata has been collected, so the bulk loaded definitions are no longer needed.
+            dbMirror.getMetastoreTableDefinitions().clear();
+            dbMirror.getMetastorePartitionCounts().clear();
+        }
+    }
+
+    private Boolean validateSetStatements(Boolean rtn) {
+        ExecuteSession session = executeSessionService.getSession();
+        RunStatus runStatus = session.getRunStatus();
+        Conversion conversion = session.getConversion();
+        runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.IN_PROGRESS);
+        if (rtn) {
+            // Check the Unique SET statements.
+            for (DBMirror dbMirror : conversion.getDatabases().values()) {
+                if (!databaseService.checkSqlStatements(dbMirror)) {
+                    rtn = Boolean.FALSE;
+                }
+            }
+            if (rtn) {
+                runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.COMPLETED);
+            } else {
+                runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.ERRORED);
+                runStatus.addError(MessageCode.VALIDATE_SQL_STATEMENT_ISSUE);
+            }
+        } else {
+            runStatus.setStage(StageEnum.VALIDATING_ENVIRONMENT_SETS, CollectionEnum.SKIPPED);
+        }
+        return rtn;
+    }
+
+    private Boolean processDatabases(Boolean rtn) {
+        ExecuteSession session = executeSessionService.getSession();
+        HmsMirrorConfig config = session.getConfig();
+        RunStatus runStatus = session.getRunStatus();
+        runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.IN_PROGRESS);
+        if (rtn) {
+            if (config.isExecute()) {
+                if (getDatabaseService().execute()) {
+                    runStatus.getOperationStatistics().getSuccesses().incrementDatabases();
+                    runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.COMPLETED);
+                } else {
+                    runStatus.addError(MessageCode.DATABASE_CREATION);
+                    runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.ERRORED);
+                    runStatus.getOperationStatistics().getFailures().incrementDatabases();
+                    rtn = Boolean.FALSE;
+                }
+            } else {
+                runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.SKIPPED);
+            }
+            // Set error if issue during processing.
+            if (!rtn)
+                runStatus.addError(MessageCode.PROCESSING_DATABASES_ISSUE);
+
+        } else {
+            runStatus.setStage(StageEnum.PROCESSING_DATABASES, CollectionEnum.SKIPPED);
+        }
+        return rtn;
+    }
 }
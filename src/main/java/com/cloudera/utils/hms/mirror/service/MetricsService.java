@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.ConversionSnapshot;
+import com.cloudera.utils.hms.mirror.domain.support.ExecuteSession;
+import com.cloudera.utils.hms.mirror.util.VirtualThreadTaskExecutor;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+
+/*
+The run level metrics, on top of the connection metrics (see ConnectionMetrics):
+
+- executor.(active|queued|completed|...): the thread pools, tagged with the name of the pool.  Each table is one
+  task on the 'metadataThreadPool', 'buildThreadPool' and 'tableExecutionThreadPool', so the rate of
+  'executor.completed' on those is the tables/sec of the stage.
+- hms.mirror.tables (by phase) and hms.mirror.databases: the size of the Conversion being worked on.  Read
+  with 'jvm.memory.used' to see what the Conversion costs in heap.
+
+Every run writes them to 'metrics.txt' in the report directory.  In web mode they're also at /actuator/prometheus
+(and /actuator/metrics) when those are exposed (hms-mirror.metrics.exposure), only 'health' is by default.
+ */
+@Service
+@Slf4j
+@Getter
+public class MetricsService {
+    // What goes in 'metrics.txt'.
+    private static final List<String> REPORTED = Arrays.asList("hms.mirror.", "executor", "jvm.memory.", "jvm.gc.pause");
+
+    private final MeterRegistry meterRegistry;
+    private final ExecuteSessionService executeSessionService;
+
+    public MetricsService(MeterRegistry meterRegistry,
+                          ExecuteSessionService executeSessionService,
+                          Map<String, TaskExecutor> taskExecutors) {
+        this.meterRegistry = meterRegistry;
+        this.executeSessionService = executeSessionService;
+        taskExecutors.forEach(this::bindExecutor);
+        bindConversion();
+    }
+
+    private void bindExecutor(String name, TaskExecutor taskExecutor) {
+        if (taskExecutor instanceof ThreadPoolTaskExecutor) {
+            new ExecutorServiceMetrics(((ThreadPoolTaskExecutor) taskExecutor).getThreadPoolExecutor(), name,
+                    Tags.empty()).bindTo(meterRegistry);
+        } else if (taskExecutor instanceof VirtualThreadTaskExecutor) {
+            // The same meters as a thread pool, so the dashboards don't have to care which engine is used.
+            VirtualThreadTaskExecutor executor = (VirtualThreadTaskExecutor) taskExecutor;
+            Tags tags = Tags.of("name", name);
+            Gauge.builder("executor.active", executor, VirtualThreadTaskExecutor::getRunningCount)
+                    .tags(tags).register(meterRegistry);
+            Gauge.builder("executor.queued", executor, e -> e.getActiveCount() - e.getRunningCount())
+                    .tags(tags).register(meterRegistry);
+            FunctionCounter.builder("executor.completed", executor, VirtualThreadTaskExecutor::getCompletedCount)
+                    .tags(tags).register(meterRegistry);
+        } else {
+            log.debug("No metrics for the {} executor ({})", name, taskExecutor.getClass().getName());
+        }
+    }
+
+    private void bindConversion() {
+        Gauge.builder("hms.mirror.databases", this, m -> m.snapshot().getDatabaseCount())
+                .description("Databases in the Conversion")
+                .register(meterRegistry);
+        for (PhaseState phaseState : PhaseState.values()) {
+            Gauge.builder("hms.mirror.tables", this, m -> m.snapshot().getCount(phaseState))
+                    .description("Tables in the Conversion, by phase")
+                    .tag("phase", phaseState.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    private ConversionSnapshot snapshot() {
+        ExecuteSession session = executeSessionService.getSession();
+        Conversion conversion = isNull(session) ? null : session.getConversion();
+        return isNull(conversion) ? new Conversion().snapshot() : conversion.snapshot();
+    }
+
+    /*
+    Write the metrics, a line for each value: name{tags} statistic value.  Times are in milliseconds.
+     */
+    public void write(String file) {
+        List<Meter> meters = meterRegistry.getMeters().stream()
+                .filter(meter -> REPORTED.stream().anyMatch(prefix -> meter.getId().getName().startsWith(prefix)))
+                .sorted(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                        .thenComparing(meter -> meter.getId().getTags().toString()))
+                .collect(Collectors.toList());
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            for (Meter meter : meters) {
+                String id = meter.getId().getName() + meter.getId().getTags().stream()
+                        .map(tag -> tag.getKey() + "=\"" + tag.getValue() + "\"")
+                        .collect(Collectors.joining(",", "{", "}"));
+                if (meter instanceof Timer) {
+                    Timer timer = (Timer) meter;
+                    writer.write(id + " count " + timer.count() + "\n");
+                    writer.write(id + " total_ms " + timer.totalTime(TimeUnit.MILLISECONDS) + "\n");
+                    writer.write(id + " max_ms " + timer.max(TimeUnit.MILLISECONDS) + "\n");
+                    for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                        writer.write(id + " p" + Math.round(percentile.percentile() * 100) + "_ms "
+                                + percentile.value(TimeUnit.MILLISECONDS) + "\n");
+                    }
+                } else {
+                    for (Measurement measurement : meter.measure()) {
+                        writer.write(id + " " + measurement.getStatistic().name().toLowerCase() + " "
+                                + measurement.getValue() + "\n");
+                    }
+                }
+            }
+            log.info("Metrics 'saved' to: {}", file);
+        } catch (IOException ioe) {
+            log.error("Problem 'writing' metrics", ioe);
+        }
+    }
+
+}
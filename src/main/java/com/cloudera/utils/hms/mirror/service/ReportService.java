@@ -17,11 +17,15 @@
 
 package com.cloudera.utils.hms.mirror.service;
 
+import com.cloudera.utils.hms.mirror.PhaseState;
 import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.ReportIndex;
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
-import com.cloudera.utils.hms.util.NamespaceUtils;
 import com.cloudera.utils.hms.util.UrlUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -29,22 +33,17 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
 import org.apache.commons.io.filefilter.NotFileFilter;
 import org.apache.commons.io.filefilter.TrueFileFilter;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
 import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
 
 import static com.cloudera.utils.hms.mirror.web.controller.ControllerReferences.*;
@@ -63,53 +62,42 @@ import static java.util.Objects.nonNull;
 @Setter
 public class ReportService {
 
+    private static final TypeReference<Map<String, TableMirror>> TABLE_MAP_TYPE = new TypeReference<Map<String, TableMirror>>() {
+    };
+
     private final DomainService domainService;
     private final ExecuteSessionService executeSessionService;
+    private final ObjectMapper yamlMapper;
 
-    public ReportService(DomainService domainService, ExecuteSessionService executeSessionService) {
+    public ReportService(DomainService domainService, ExecuteSessionService executeSessionService,
+                         ObjectMapper yamlMapper) {
         this.domainService = domainService;
         this.executeSessionService = executeSessionService;
+        this.yamlMapper = yamlMapper;
     }
 
     /**
-     * Creates a ZIP file from all files in the specified directory.
+     * Writes a ZIP archive of the files in the session directory to the stream, a file at a time, so
+     * nothing but the copy buffer is held in memory.  The stream is finished but not closed.
      *
-     * @param zipFileName   the name of the ZIP file to be created
-     * @param baseDirectory the path to the directory whose files will be added to the ZIP
-     * @throws IOException if an I/O error occurs while creating or writing the ZIP file
+     * @param sessionDirectory the directory whose files will be added to the ZIP
+     * @param out              where the ZIP is written
+     * @throws IOException if an I/O error occurs while reading the files or writing the ZIP
      */
-    private void createZipFromDirectory(String zipFileName, String baseDirectory) throws IOException {
-        final FileOutputStream fos = new FileOutputStream(zipFileName);
-        ZipOutputStream zipOut = new ZipOutputStream(fos);
-        File sessionDirectory = new File(baseDirectory);
-        String[] files = sessionDirectory.list();
-        for (String srcFile : files) {
-            System.out.println("Adding file: " + srcFile);
-            String absolutePath = baseDirectory + File.separator + srcFile;
-            File fileToZip = new File(absolutePath);
-            if (fileToZip.exists()) {
-                FileInputStream fis = null;
-                try {
-                    fis = new FileInputStream(fileToZip);
-                    ZipEntry zipEntry = new ZipEntry(srcFile);
-                    zipOut.putNextEntry(zipEntry);
-                    byte[] bytes = new byte[1024];
-                    int length;
-                    while ((length = fis.read(bytes)) >= 0) {
-                        zipOut.write(bytes, 0, length);
-                    }
-                } catch (ZipException ze) {
-                    log.error(ze.getMessage(), ze);
-                } finally {
-                    assert fis != null;
-                    fis.close();
-                }
-            } else {
-                System.out.println("File not found: " + srcFile);
+    private void writeZip(File sessionDirectory, OutputStream out) throws IOException {
+        ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(out, 1 << 16));
+        File[] files = sessionDirectory.listFiles(File::isFile);
+        if (nonNull(files)) {
+            Arrays.sort(files);
+            for (File file : files) {
+                log.debug("Adding file: {}", file.getName());
+                zipOut.putNextEntry(new ZipEntry(file.getName()));
+                Files.copy(file.toPath(), zipOut);
+                zipOut.closeEntry();
             }
         }
-        zipOut.close();
-        fos.close();
+        zipOut.finish();
+        zipOut.flush();
     }
 
     /**
@@ -165,6 +153,10 @@ public class ReportService {
         String[] files = sessionDirectory.list();
 
         for (String srcFile : files) {
+            if (srcFile.endsWith(ReportIndex.SUFFIX)) {
+                // Used to browse the database reports, not a report on its own.
+                continue;
+            }
             if (srcFile.endsWith("_hms-mirror.yaml")) {
                 String databaseName = srcFile.substring(0, srcFile.indexOf("_hms-mirror.yaml"));
 
@@ -262,46 +254,181 @@ public class ReportService {
         return dbMirror;
     }
 
+    /**
+     * Retrieves the index of a database report: where each table is in the database yaml, with a summary of
+     * it.  The index is written with the report.  For a report written before there was one (or one that
+     * changed since), it's built a table at a time and saved next to the report.
+     *
+     * @param sessionId the unique identifier for the session
+     * @param database  the database of the report
+     * @return the index of the tables in the database report
+     * @throws IOException if the database report can't be read
+     */
+    public ReportIndex getReportIndex(String sessionId, String database) throws IOException {
+        File yamlFile = new File(getDatabaseFile(sessionId, database));
+        if (!yamlFile.exists()) {
+            throw new FileNotFoundException("Database report not found: " + yamlFile.getPath());
+        }
+        File indexFile = ReportIndex.indexFile(yamlFile);
+        if (indexFile.exists()) {
+            try {
+                ReportIndex index = ReportIndex.read(indexFile);
+                if (index.isCurrent(yamlFile)) {
+                    return index;
+                }
+            } catch (IOException e) {
+                log.warn("Report index {} can't be read, rebuilding it: {}", indexFile.getPath(), e.getMessage());
+            }
+        }
+        return rebuildReportIndex(sessionId, database);
+    }
+
+    /**
+     * Builds the index of a database report from the database yaml, a table at a time, and saves it next to
+     * the report.  Used when there's no index, or when the one there doesn't line up with the report (see
+     * {@link ReportIndex.MismatchException}).
+     *
+     * @param sessionId the unique identifier for the session
+     * @param database  the database of the report
+     * @return the index of the tables in the database report
+     * @throws IOException if the database report can't be read
+     */
+    public ReportIndex rebuildReportIndex(String sessionId, String database) throws IOException {
+        File yamlFile = new File(getDatabaseFile(sessionId, database));
+        File indexFile = ReportIndex.indexFile(yamlFile);
+        log.info("Indexing database report: {}", yamlFile.getPath());
+        ReportIndex index = ReportIndex.scan(database, yamlFile);
+        for (ReportIndex.Entry entry : index.getTables()) {
+            entry.summarize(readTable(yamlFile, entry));
+        }
+        index.summarize();
+        try {
+            index.write(indexFile);
+        } catch (IOException e) {
+            log.warn("Report index {} couldn't be saved: {}", indexFile.getPath(), e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Retrieves a page of the tables in a database report, from its index.
+     *
+     * @param sessionId  the unique identifier for the session
+     * @param database   the database of the report
+     * @param phaseState only the tables in this phase, all when null
+     * @param errorsOnly only the tables with errors
+     * @param page       the page, from 0
+     * @param size       the number of tables in a page
+     * @return the page of table summaries, with the number of tables that match
+     * @throws IOException if the database report can't be read
+     */
+    public ReportIndex.Page getTables(String sessionId, String database, PhaseState phaseState,
+                                      boolean errorsOnly, int page, int size) throws IOException {
+        return getReportIndex(sessionId, database).find(phaseState, errorsOnly, page, size);
+    }
+
+    /**
+     * Retrieves a single table of a database report, reading only that table from the database yaml.
+     *
+     * @param sessionId the unique identifier for the session
+     * @param database  the database of the report
+     * @param table     the table
+     * @return the table, or null when it's not in the report
+     * @throws IOException if the database report can't be read
+     */
+    public TableMirror getTableMirror(String sessionId, String database, String table) throws IOException {
+        ReportIndex index = getReportIndex(sessionId, database);
+        ReportIndex.Entry entry = index.getEntry(table);
+        if (isNull(entry)) {
+            return null;
+        }
+        try {
+            return readTable(new File(getDatabaseFile(sessionId, database)), entry);
+        } catch (ReportIndex.MismatchException e) {
+            log.warn("{}, rebuilding the index", e.getMessage());
+            entry = rebuildReportIndex(sessionId, database).getEntry(table);
+            return isNull(entry) ? null : readTable(new File(getDatabaseFile(sessionId, database)), entry);
+        }
+    }
+
+    /**
+     * Retrieves a database report with only a page of its tables.  The rest of the tables are not read.
+     *
+     * @param sessionId the unique identifier for the session
+     * @param database  the database of the report
+     * @param index     the index of the database report
+     * @param page      the tables to load
+     * @return the database with the tables of the page
+     * @throws ReportIndex.MismatchException when the index doesn't line up with the report, rebuild it and try again
+     * @throws IOException if the database report can't be read
+     */
+    public DBMirror getDBMirror(String sessionId, String database, ReportIndex index, ReportIndex.Page page) throws IOException {
+        File yamlFile = new File(getDatabaseFile(sessionId, database));
+        DBMirror dbMirror = yamlMapper.readerFor(DBMirror.class).readValue(index.readDatabase(yamlFile));
+        Map<String, TableMirror> tables = new TreeMap<>();
+        for (ReportIndex.Entry entry : page.getTables()) {
+            tables.put(entry.getName(), readTable(yamlFile, entry));
+        }
+        dbMirror.setTableMirrors(tables);
+        return dbMirror;
+    }
+
+    private TableMirror readTable(File yamlFile, ReportIndex.Entry entry) throws IOException {
+        Map<String, TableMirror> tables = yamlMapper.readValue(ReportIndex.readTable(yamlFile, entry), TABLE_MAP_TYPE);
+        TableMirror rtn = tables.get(entry.getName());
+        if (tables.size() != 1 || isNull(rtn)) {
+            throw new ReportIndex.MismatchException("Report index doesn't line up with " + yamlFile.getName()
+                    + " at table " + entry.getName());
+        }
+        return rtn;
+    }
+
     public String getReportFileString(String sessionId, String file) {
         String reportFile = getReportFile(sessionId, file);
         String asString = domainService.fileToString(reportFile);
         return asString;
     }
 
-    /**
-     * Generates a ZIP archive containing the reports for a given session ID and returns it as an HTTP entity.
-     * The method locates the session directory based on the `id`, compresses its contents into a ZIP file,
-     * and prepares it for download with relevant HTTP headers.
-     *
-     * @param id the unique identifier of the session whose reports are to be zipped
-     * @return an HTTP entity containing the ZIP archive of the session reports as a byte array resource
-     * @throws IOException if the session directory does not exist, is not a directory, or there is an error during file processing
-     */
-    public HttpEntity<ByteArrayResource> getZippedReport(String id) throws IOException {
+    private File getSessionDirectory(String id) throws IOException {
         // Using the 'id', get the reports for the session.
         String reportDirectory = executeSessionService.getReportOutputDirectory();
-        // List directories in the report directory.
-        String sessionDirectoryName = reportDirectory + File.separator + id;
-        File sessionDirectory = new File(sessionDirectoryName);
+        File sessionDirectory = new File(reportDirectory + File.separator + id);
         // Ensure it exists and is a directory.
         if (!sessionDirectory.exists() || !sessionDirectory.isDirectory()) {
             throw new IOException("Session reports not found.");
         }
+        return sessionDirectory;
+    }
 
-        String lastDir = NamespaceUtils.getLastDirectory(id);
-        // Zip the files in the report directory and return the zip file.
-        String zipFileName = System.getProperty("java.io.tmpdir") + File.separator + lastDir + ".zip";
-
-        createZipFromDirectory(zipFileName, sessionDirectoryName);
+    /**
+     * Returns the reports of a session as a ZIP archive, for download.  The archive is written to the response
+     * as it's built, so it's never held in memory or on disk.
+     *
+     * @param id the unique identifier of the session whose reports are to be zipped
+     * @return an HTTP entity that streams the ZIP archive of the session reports
+     * @throws IOException if the session directory does not exist or is not a directory
+     */
+    public HttpEntity<StreamingResponseBody> getZippedReport(String id) throws IOException {
+        File sessionDirectory = getSessionDirectory(id);
 
-        // Package and return the zip file.
         HttpHeaders header = new HttpHeaders();
         header.setContentType(new MediaType("application", "force-download"));
 
         String downloadFilename = id + ".zip";
         header.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + downloadFilename);
 
-        return new HttpEntity<>(new ByteArrayResource(Files.readAllBytes(Paths.get(zipFileName))), header);
+        return new HttpEntity<>(out -> writeZip(sessionDirectory, out), header);
+    }
+
+    /**
+     * Writes the reports of a session as a ZIP archive to the stream.
+     *
+     * @param id  the unique identifier of the session whose reports are to be zipped
+     * @param out where the ZIP is written, it's not closed
+     * @throws IOException if the session directory does not exist, or there is an error writing the ZIP
+     */
+    public void writeZippedReport(String id, OutputStream out) throws IOException {
+        writeZip(getSessionDirectory(id), out);
     }
 
     /**
@@ -21,26 +21,22 @@ import com.cloudera.utils.hms.mirror.PhaseState;
 import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
 import com.cloudera.utils.hms.mirror.domain.support.*;
+import com.cloudera.utils.hms.mirror.reporting.MarkdownHtmlReportWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.commonmark.Extension;
-import org.commonmark.ext.front.matter.YamlFrontMatterExtension;
-import org.commonmark.ext.gfm.tables.TablesExtension;
-import org.commonmark.node.Node;
-import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
-import java.util.Arrays;
-import java.util.Date;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static java.util.Objects.nonNull;
 
@@ -55,6 +51,8 @@ public class ReportWriterService {
     private final ExecuteSessionService executeSessionService;
     private final TranslatorService translatorService;
     private final DatabaseService databaseService;
+    private final MetricsService metricsService;
+    private final TaskExecutor reportWriterThreadPool;
 
     public ReportWriterService(
             DistCpService distCpService,
@@ -62,13 +60,17 @@ public class ReportWriterService {
             ConfigService configService,
             ExecuteSessionService executeSessionService,
             TranslatorService translatorService,
-            DatabaseService databaseService) {
+            DatabaseService databaseService,
+            MetricsService metricsService,
+            @Qualifier("reportWriterThreadPool") TaskExecutor reportWriterThreadPool) {
         this.distCpService = distCpService;
         this.yamlMapper = yamlMapper;
         this.configService = configService;
         this.executeSessionService = executeSessionService;
         this.translatorService = translatorService;
         this.databaseService = databaseService;
+        this.metricsService = metricsService;
+        this.reportWriterThreadPool = reportWriterThreadPool;
     }
 
     public void wrapup() {
@@ -168,158 +170,181 @@ public class ReportWriterService {
             log.error("Problem 'writing' run status", ioe);
         }
 
+        metricsService.write(reportOutputDir + File.separator + "metrics.txt");
+
+        // The distcp plans cover all the databases, so they're built once for the run.
+        if (configService.canDeriveDistcpPlan(session)) {
+            distCpService.buildAllDistCpReports(session, reportOutputDir);
+        }
+
+        // The database artifacts don't depend on each other, so write them in parallel.
+        final String dbReportOutputDir = reportOutputDir;
+        Map<String, CompletableFuture<Void>> dbReportFutures = new TreeMap<>();
         for (Map.Entry<String, DBMirror> dbEntry : conversion.getDatabases().entrySet()) {
-            String database = HmsMirrorConfigUtil.getResolvedDB(dbEntry.getKey(), config);
-            String originalDatabase = dbEntry.getKey();
-            Map<String, Number> leftSummaryStats = databaseService.getEnvironmentSummaryStatistics(dbEntry.getValue(), Environment.LEFT);
-            dbEntry.getValue().getEnvironmentStatistics().put(Environment.LEFT, leftSummaryStats);
-            String dbReportOutputFile = reportOutputDir + File.separator + originalDatabase + "_hms-mirror";
-            String dbLeftExecuteFile = reportOutputDir + File.separator + originalDatabase + "_LEFT_execute.sql";
-            String dbLeftCleanUpFile = reportOutputDir + File.separator + originalDatabase + "_LEFT_CleanUp_execute.sql";
-            String dbRightExecuteFile = reportOutputDir + File.separator + originalDatabase + "_RIGHT_execute.sql";
-            String dbRightCleanUpFile = reportOutputDir + File.separator + originalDatabase + "_RIGHT_CleanUp_execute.sql";
-            String dbRunbookFile = reportOutputDir + File.separator + originalDatabase + "_runbook.md";
+            dbReportFutures.put(dbEntry.getKey(), CompletableFuture.runAsync(() ->
+                    writeDatabaseReport(session, dbReportOutputDir, dbEntry.getKey(), dbEntry.getValue()),
+                    reportWriterThreadPool));
+        }
+        for (Map.Entry<String, CompletableFuture<Void>> dbReportFuture : dbReportFutures.entrySet()) {
             try {
-                // Output directory maps
-                boolean dcLeft = Boolean.FALSE;
-                boolean dcRight = Boolean.FALSE;
-
-                if (configService.canDeriveDistcpPlan(session)) {
-                    distCpService.buildAllDistCpReports(session, reportOutputDir);
-                }
+                dbReportFuture.getValue().join();
+            } catch (CompletionException | CancellationException e) {
+                log.error("Issue writing report for: {}", dbReportFuture.getKey(), e);
+            }
+        }
+    }
 
+    /*
+    Write the report (md, html and yaml), the execute and cleanup sql scripts and the runbook for a database.
+     */
+    protected void writeDatabaseReport(ExecuteSession session, String reportOutputDir,
+                                       String originalDatabase, DBMirror dbMirror) {
+        HmsMirrorConfig config = session.getConfig();
+        Conversion conversion = session.getConversion();
+        Map<String, Number> leftSummaryStats = databaseService.getEnvironmentSummaryStatistics(dbMirror, Environment.LEFT);
+        dbMirror.getEnvironmentStatistics().put(Environment.LEFT, leftSummaryStats);
+        String dbReportOutputFile = reportOutputDir + File.separator + originalDatabase + "_hms-mirror";
+        String dbLeftExecuteFile = reportOutputDir + File.separator + originalDatabase + "_LEFT_execute.sql";
+        String dbLeftCleanUpFile = reportOutputDir + File.separator + originalDatabase + "_LEFT_CleanUp_execute.sql";
+        String dbRightExecuteFile = reportOutputDir + File.separator + originalDatabase + "_RIGHT_execute.sql";
+        String dbRightCleanUpFile = reportOutputDir + File.separator + originalDatabase + "_RIGHT_CleanUp_execute.sql";
+        String dbRunbookFile = reportOutputDir + File.separator + originalDatabase + "_runbook.md";
+        try {
+            // Output directory maps
+            boolean dcLeft = Boolean.FALSE;
+            boolean dcRight = Boolean.FALSE;
 
-                FileWriter runbookFile = new FileWriter(dbRunbookFile);
-                runbookFile.write("# Runbook for database: " + originalDatabase);
-                runbookFile.write("\n\nYou'll find the **run report** in the file:\n\n`" + dbReportOutputFile + ".md|html` " +
-                        "\n\nThis file includes details about the configuration at the time this was run and the " +
-                        "output/actions on each table in the database that was included.\n\n");
-                runbookFile.write("## Steps\n\n");
-                if (config.isExecute()) {
-                    runbookFile.write("Execute was **ON**, so many of the scripts have been run already.  Verify status " +
-                            "in the above report.  `distcp` actions (if requested/applicable) need to be run manually. " +
-                            "Some cleanup scripts may have been run if no `distcp` actions were requested.\n\n");
-                    if (nonNull(config.getCluster(Environment.RIGHT)) && nonNull(config.getCluster(Environment.RIGHT).getHiveServer2())) {
-                        if (config.getCluster(Environment.RIGHT).getHiveServer2().isDisconnected()) {
-                            runbookFile.write("Process ran with RIGHT environment 'disconnected'.  All RIGHT scripts will need to be run manually.\n\n");
-                        }
+            FileWriter runbookFile = new FileWriter(dbRunbookFile);
+            runbookFile.write("# Runbook for database: " + originalDatabase);
+            runbookFile.write("\n\nYou'll find the **run report** in the file:\n\n`" + dbReportOutputFile + ".md|html` " +
+                    "\n\nThis file includes details about the configuration at the time this was run and the " +
+                    "output/actions on each table in the database that was included.\n\n");
+            runbookFile.write("## Steps\n\n");
+            if (config.isExecute()) {
+                runbookFile.write("Execute was **ON**, so many of the scripts have been run already.  Verify status " +
+                        "in the above report.  `distcp` actions (if requested/applicable) need to be run manually. " +
+                        "Some cleanup scripts may have been run if no `distcp` actions were requested.\n\n");
+                if (nonNull(config.getCluster(Environment.RIGHT)) && nonNull(config.getCluster(Environment.RIGHT).getHiveServer2())) {
+                    if (config.getCluster(Environment.RIGHT).getHiveServer2().isDisconnected()) {
+                        runbookFile.write("Process ran with RIGHT environment 'disconnected'.  All RIGHT scripts will need to be run manually.\n\n");
                     }
-                } else {
-                    runbookFile.write("Execute was **OFF**.  All actions will need to be run manually. See below steps.\n\n");
                 }
-                int step = 1;
-                FileWriter reportFile = new FileWriter(dbReportOutputFile + ".md");
-                String mdReportStr = conversion.toReport(originalDatabase, getExecuteSessionService());
-
-                File dbYamlFile = new File(dbReportOutputFile + ".yaml");
-                FileWriter dbYamlFileWriter = new FileWriter(dbYamlFile);
+            } else {
+                runbookFile.write("Execute was **OFF**.  All actions will need to be run manually. See below steps.\n\n");
+            }
+            int step = 1;
+            File dbYamlFile = new File(dbReportOutputFile + ".yaml");
 
-                DBMirror yamlDb = conversion.getDatabase(originalDatabase);
-                Map<PhaseState, Integer> phaseSummaryMap = yamlDb.getPhaseSummary();
-                if (phaseSummaryMap.containsKey(PhaseState.ERROR)) {
-                    Integer errCount = phaseSummaryMap.get(PhaseState.ERROR);
-                    // TODO: Add to Error Count
+            DBMirror yamlDb = conversion.getDatabase(originalDatabase);
+            Map<PhaseState, Integer> phaseSummaryMap = yamlDb.getPhaseSummary();
+            if (phaseSummaryMap.containsKey(PhaseState.ERROR)) {
+                Integer errCount = phaseSummaryMap.get(PhaseState.ERROR);
+                // TODO: Add to Error Count
 //                    rtn += errCount;
-                }
+            }
 
-                String dbYamlStr = yamlMapper.writeValueAsString(yamlDb);
+            // Serialize straight to the file, without building the yaml in memory first.
+            boolean yamlWritten = false;
+            try (Writer dbYamlFileWriter = new BufferedWriter(new FileWriter(dbYamlFile))) {
+                yamlMapper.writeValue(dbYamlFileWriter, yamlDb);
+                yamlWritten = true;
+                log.info("Database ({}) yaml 'saved' to: {}", originalDatabase, dbYamlFile.getPath());
+            } catch (IOException ioe) {
+                log.error("Problem 'writing' database yaml", ioe);
+            }
+            // Where each table is in the yaml, so the report can be browsed a table at a time.  Never for a yaml
+            // that wasn't written in full.
+            if (yamlWritten) {
                 try {
-                    dbYamlFileWriter.write(dbYamlStr);
-                    log.info("Database ({}) yaml 'saved' to: {}", originalDatabase, dbYamlFile.getPath());
+                    ReportIndex index = ReportIndex.scan(originalDatabase, dbYamlFile);
+                    for (ReportIndex.Entry entry : index.getTables()) {
+                        entry.summarize(yamlDb.getTableMirrors().get(entry.getName()));
+                    }
+                    index.summarize();
+                    index.write(ReportIndex.indexFile(dbYamlFile));
                 } catch (IOException ioe) {
-                    log.error("Problem 'writing' database yaml", ioe);
-                } finally {
-                    dbYamlFileWriter.close();
+                    log.error("Problem 'writing' database report index", ioe);
                 }
+            }
 
-                reportFile.write(mdReportStr);
-                reportFile.flush();
-                reportFile.close();
-                // Convert to HTML
-                List<Extension> extensions = Arrays.asList(TablesExtension.create(), YamlFrontMatterExtension.create());
-
-                org.commonmark.parser.Parser parser = org.commonmark.parser.Parser.builder().extensions(extensions).build();
-                Node document = parser.parse(mdReportStr);
-                HtmlRenderer renderer = HtmlRenderer.builder().extensions(extensions).build();
-                String htmlReportStr = renderer.render(document);  // "<p>This is <em>Sparta</em></p>\n"
-                reportFile = new FileWriter(dbReportOutputFile + ".html");
-                reportFile.write(htmlReportStr);
-                reportFile.close();
+            // The markdown report and its html are written a table at a time.
+            try (MarkdownHtmlReportWriter reportWriter = new MarkdownHtmlReportWriter(
+                    new File(dbReportOutputFile + ".md"), new File(dbReportOutputFile + ".html"))) {
+                conversion.writeReport(originalDatabase, getExecuteSessionService(), reportWriter);
+            }
 
-                log.info("Status Report of 'hms-mirror' is here: {}.md|html", dbReportOutputFile);
+            log.info("Status Report of 'hms-mirror' is here: {}.md|html", dbReportOutputFile);
 
-                String les = conversion.executeSql(Environment.LEFT, originalDatabase);
-                if (les != null) {
-                    FileWriter leftExecOutput = new FileWriter(dbLeftExecuteFile);
-                    leftExecOutput.write(les);
-                    leftExecOutput.close();
-                    log.info("LEFT Execution Script is here: {}", dbLeftExecuteFile);
-                    runbookFile.write(step++ + ". **LEFT** clusters SQL script. ");
-                    if (config.isExecute()) {
-                        runbookFile.write(" (Has been executed already, check report file details)");
-                    } else {
-                        runbookFile.write("(Has NOT been executed yet)");
-                    }
-                    runbookFile.write("\n");
+            String les = conversion.executeSql(Environment.LEFT, originalDatabase);
+            if (les != null) {
+                FileWriter leftExecOutput = new FileWriter(dbLeftExecuteFile);
+                leftExecOutput.write(les);
+                leftExecOutput.close();
+                log.info("LEFT Execution Script is here: {}", dbLeftExecuteFile);
+                runbookFile.write(step++ + ". **LEFT** clusters SQL script. ");
+                if (config.isExecute()) {
+                    runbookFile.write(" (Has been executed already, check report file details)");
+                } else {
+                    runbookFile.write("(Has NOT been executed yet)");
                 }
+                runbookFile.write("\n");
+            }
 
-                if (dcLeft) {
-                    runbookFile.write(step++ + ". **LEFT** cluster `distcp` actions.  Needs to be performed manually.  Use 'distcp' report/template.");
-                    runbookFile.write("\n");
-                }
+            if (dcLeft) {
+                runbookFile.write(step++ + ". **LEFT** cluster `distcp` actions.  Needs to be performed manually.  Use 'distcp' report/template.");
+                runbookFile.write("\n");
+            }
 
-                String res = conversion.executeSql(Environment.RIGHT, originalDatabase);
-                if (res != null) {
-                    FileWriter rightExecOutput = new FileWriter(dbRightExecuteFile);
-                    rightExecOutput.write(res);
-                    rightExecOutput.close();
-                    log.info("RIGHT Execution Script is here: {}", dbRightExecuteFile);
-                    runbookFile.write(step++ + ". **RIGHT** clusters SQL script. ");
-                    if (config.isExecute()) {
-                        if (!config.getCluster(Environment.RIGHT).getHiveServer2().isDisconnected()) {
-                            runbookFile.write(" (Has been executed already, check report file details)");
-                        } else {
-                            runbookFile.write(" (Has NOT been executed because the environment is NOT connected.  Review and run scripts manually.)");
-                        }
+            String res = conversion.executeSql(Environment.RIGHT, originalDatabase);
+            if (res != null) {
+                FileWriter rightExecOutput = new FileWriter(dbRightExecuteFile);
+                rightExecOutput.write(res);
+                rightExecOutput.close();
+                log.info("RIGHT Execution Script is here: {}", dbRightExecuteFile);
+                runbookFile.write(step++ + ". **RIGHT** clusters SQL script. ");
+                if (config.isExecute()) {
+                    if (!config.getCluster(Environment.RIGHT).getHiveServer2().isDisconnected()) {
+                        runbookFile.write(" (Has been executed already, check report file details)");
                     } else {
-                        runbookFile.write("(Has NOT been executed yet)");
+                        runbookFile.write(" (Has NOT been executed because the environment is NOT connected.  Review and run scripts manually.)");
                     }
-                    runbookFile.write("\n");
+                } else {
+                    runbookFile.write("(Has NOT been executed yet)");
                 }
+                runbookFile.write("\n");
+            }
 
-                if (dcRight) {
-                    runbookFile.write(step++ + ". **RIGHT** cluster `distcp` actions.  Needs to be performed manually.  Use 'distcp' report/template.");
-                    runbookFile.write("\n");
-                }
+            if (dcRight) {
+                runbookFile.write(step++ + ". **RIGHT** cluster `distcp` actions.  Needs to be performed manually.  Use 'distcp' report/template.");
+                runbookFile.write("\n");
+            }
 
-                String lcu = conversion.executeCleanUpSql(Environment.LEFT, originalDatabase);
-                if (lcu != null) {
-                    FileWriter leftCleanUpOutput = new FileWriter(dbLeftCleanUpFile);
-                    leftCleanUpOutput.write(lcu);
-                    leftCleanUpOutput.close();
-                    log.info("LEFT CleanUp Execution Script is here: {}", dbLeftCleanUpFile);
-                    runbookFile.write(step++ + ". **LEFT** clusters CLEANUP SQL script. ");
-                    runbookFile.write("(Has NOT been executed yet)");
-                    runbookFile.write("\n");
-                }
+            String lcu = conversion.executeCleanUpSql(Environment.LEFT, originalDatabase);
+            if (lcu != null) {
+                FileWriter leftCleanUpOutput = new FileWriter(dbLeftCleanUpFile);
+                leftCleanUpOutput.write(lcu);
+                leftCleanUpOutput.close();
+                log.info("LEFT CleanUp Execution Script is here: {}", dbLeftCleanUpFile);
+                runbookFile.write(step++ + ". **LEFT** clusters CLEANUP SQL script. ");
+                runbookFile.write("(Has NOT been executed yet)");
+                runbookFile.write("\n");
+            }
 
-                String rcu = conversion.executeCleanUpSql(Environment.RIGHT, originalDatabase);
-                if (rcu != null) {
-                    FileWriter rightCleanUpOutput = new FileWriter(dbRightCleanUpFile);
-                    rightCleanUpOutput.write(rcu);
-                    rightCleanUpOutput.close();
-                    log.info("RIGHT CleanUp Execution Script is here: {}", dbRightCleanUpFile);
-                    runbookFile.write(step++ + ". **RIGHT** clusters CLEANUP SQL script. ");
-                    runbookFile.write("(Has NOT been executed yet)");
-                    runbookFile.write("\n");
-                }
-                log.info("Runbook here: {}", dbRunbookFile);
-                runbookFile.close();
-            } catch (IOException ioe) {
-                log.error("Issue writing report for: {}", originalDatabase, ioe);
+            String rcu = conversion.executeCleanUpSql(Environment.RIGHT, originalDatabase);
+            if (rcu != null) {
+                FileWriter rightCleanUpOutput = new FileWriter(dbRightCleanUpFile);
+                rightCleanUpOutput.write(rcu);
+                rightCleanUpOutput.close();
+                log.info("RIGHT CleanUp Execution Script is here: {}", dbRightCleanUpFile);
+                runbookFile.write(step++ + ". **RIGHT** clusters CLEANUP SQL script. ");
+                runbookFile.write("(Has NOT been executed yet)");
+                runbookFile.write("\n");
             }
+            log.info("Runbook here: {}", dbRunbookFile);
+            runbookFile.close();
+        } catch (IOException ioe) {
+            log.error("Issue writing report for: {}", originalDatabase, ioe);
         }
-//        }
-
     }
+
 }
\ No newline at end of file
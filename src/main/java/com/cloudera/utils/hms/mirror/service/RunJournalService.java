@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.Pair;
+import com.cloudera.utils.hms.mirror.domain.Cluster;
+import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.RunJournal;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps the run journal for the current run, so a run that didn't finish can be started again and pick up
+ * where it left off.
+ * <p>
+ * The journal is kept in the (base) output directory and is named after the parts of the config that
+ * identify the run (data strategy, clusters, databases and filters).  Starting a run with the same config
+ * replays the journal: tables that were PROCESSED are skipped and the SQL that was already executed for the
+ * other tables isn't run again.  When a run completes without errors, the journal is renamed so the next
+ * run starts clean.
+ * <p>
+ * Problems writing the journal are logged and turn the journal off for the rest of the run, they don't fail
+ * the run.
+ */
+@Service
+@Slf4j
+@Getter
+public class RunJournalService {
+    public static final String JOURNAL_FILE_PREFIX = "hms-mirror-journal-";
+    public static final String JOURNAL_FILE_EXTENSION = ".log";
+
+    private final ExecuteSessionService executeSessionService;
+    private final boolean enabled;
+
+    private volatile RunJournal journal = null;
+
+    public RunJournalService(ExecuteSessionService executeSessionService,
+                             @Value("${hms-mirror.journal.enabled:false}") boolean enabled) {
+        this.executeSessionService = executeSessionService;
+        this.enabled = enabled;
+    }
+
+    /*
+    Open (and replay) the journal for the current session's config.
+     */
+    public synchronized void open() {
+        close(false);
+        HmsMirrorConfig config = executeSessionService.getSession().getConfig();
+        if (!enabled || config.isLoadingTestData() || !config.isExecute()) {
+            return;
+        }
+        Path journalFile = Paths.get(config.getOutputDirectory(),
+                JOURNAL_FILE_PREFIX + fingerprint(config) + JOURNAL_FILE_EXTENSION);
+        try {
+            journal = RunJournal.open(journalFile);
+            if (journal.getReplayedRecords() > 0) {
+                executeSessionService.getSession().getRunStatus().addConfigMessage(
+                        "Resuming from run journal: " + journalFile + ". " + journal.getProcessedTableCount()
+                                + " table(s) PROCESSED in a previous run will be skipped.");
+            }
+            log.info("Run journal: {}", journalFile);
+        } catch (IOException ioe) {
+            log.error("Unable to open the run journal: {}.  Continuing without it.", journalFile, ioe);
+            journal = null;
+        }
+    }
+
+    public boolean isProcessed(TableMirror tableMirror) {
+        RunJournal lclJournal = journal;
+        return nonNull(lclJournal) && lclJournal.isProcessed(tableMirror.getParent().getName(), tableMirror.getName());
+    }
+
+    public boolean isExecuted(TableMirror tableMirror, Environment environment, Pair pair) {
+        RunJournal lclJournal = journal;
+        return nonNull(lclJournal) && lclJournal.isExecuted(tableMirror.getParent().getName(), tableMirror.getName(),
+                environment, pair.getAction());
+    }
+
+    public void recordPhase(TableMirror tableMirror) {
+        RunJournal lclJournal = journal;
+        if (isNull(lclJournal)) {
+            return;
+        }
+        try {
+            lclJournal.phase(tableMirror.getParent().getName(), tableMirror.getName(), tableMirror.getPhaseState());
+        } catch (IOException ioe) {
+            failed(ioe);
+        }
+    }
+
+    public void recordSql(TableMirror tableMirror, Environment environment, Pair pair) {
+        RunJournal lclJournal = journal;
+        if (isNull(lclJournal)) {
+            return;
+        }
+        try {
+            lclJournal.sql(tableMirror.getParent().getName(), tableMirror.getName(), environment, pair);
+        } catch (IOException ioe) {
+            failed(ioe);
+        }
+    }
+
+    /*
+    Close the journal.  When the run was successful, the journal is retired so the next run starts clean.
+     */
+    public synchronized void close(boolean success) {
+        RunJournal lclJournal = journal;
+        journal = null;
+        if (isNull(lclJournal)) {
+            return;
+        }
+        try {
+            lclJournal.close();
+            if (success) {
+                Path journalFile = lclJournal.getFile();
+                String completed = journalFile.getFileName().toString()
+                        .replace(JOURNAL_FILE_EXTENSION, "_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date())
+                                + ".completed");
+                Files.move(journalFile, journalFile.resolveSibling(completed));
+                log.info("Run completed, run journal retired to: {}", completed);
+            }
+        } catch (IOException ioe) {
+            log.error("Issue closing the run journal: {}", lclJournal.getFile(), ioe);
+        }
+    }
+
+    private synchronized void failed(IOException ioe) {
+        if (nonNull(journal)) {
+            log.error("Unable to write to the run journal: {}.  Continuing without it.", journal.getFile(), ioe);
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.debug("Issue closing the run journal after a failure", e);
+            }
+            journal = null;
+        }
+    }
+
+    /*
+    Identify the run from the parts of the config that decide which tables are processed and where.
+     */
+    protected String fingerprint(HmsMirrorConfig config) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(config.getDataStrategy()).append("|");
+        for (Environment environment : new Environment[]{Environment.LEFT, Environment.RIGHT}) {
+            Cluster cluster = config.getCluster(environment);
+            if (nonNull(cluster) && nonNull(cluster.getHiveServer2())) {
+                sb.append(cluster.getHiveServer2().getUri());
+            }
+            sb.append("|");
+        }
+        sb.append(String.join(",", config.getDatabases())).append("|");
+        sb.append(config.getFilter().getDbRegEx()).append("|");
+        sb.append(config.getFilter().getTblRegEx()).append("|");
+        sb.append(config.getFilter().getTblExcludeRegEx());
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte[] digest = md.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return String.format("%040x", new BigInteger(1, digest)).substring(0, 16);
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new RuntimeException(nsae);
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hadoop.cli.CliEnvironment;
+import com.cloudera.utils.hadoop.cli.DisabledException;
+import com.cloudera.utils.hadoop.shell.command.CommandReturn;
+import com.cloudera.utils.hms.mirror.domain.support.MetastoreTableDefinition;
+import com.cloudera.utils.hms.util.NamespaceUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/*
+Collects the directory, file and size counts of table locations for the small file tuning.
+
+The counts come from the table parameters loaded through the Metastore Direct connection when the metastore has
+accurate basic stats for the table, otherwise from the file system's content summary (the same numbers as a
+'count').  The content summaries are:
+
+- cached by location for the run, so a location is only counted once.
+- run in parallel on the 'statsThreadPool', with the locations of a database submitted together.
+- limited to 'namespace-concurrency' calls at once for each namespace, so a large run doesn't swamp the NameNode.
+
+When the file system can't be reached directly, the hadoop-cli 'count' is used.
+ */
+@Service
+@Slf4j
+@Getter
+public class StatsCollectorService {
+    private static final String NUM_FILES = "numFiles";
+    private static final String TOTAL_SIZE = "totalSize";
+    private static final String COLUMN_STATS_ACCURATE = "COLUMN_STATS_ACCURATE";
+
+    private final ExecuteSessionService executeSessionService;
+    private final EnvironmentService environmentService;
+    private final TaskExecutor statsThreadPool;
+    private final int namespaceConcurrency;
+
+    private final Map<String, CompletableFuture<ContentStats>> cache = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> namespacePermits = new ConcurrentHashMap<>();
+    private volatile Configuration hadoopConfiguration;
+
+    public StatsCollectorService(ExecuteSessionService executeSessionService,
+                                 EnvironmentService environmentService,
+                                 @Qualifier("statsThreadPool") TaskExecutor statsThreadPool,
+                                 @Value("${hms-mirror.stats.namespace-concurrency:8}") int namespaceConcurrency) {
+        this.executeSessionService = executeSessionService;
+        this.environmentService = environmentService;
+        this.statsThreadPool = statsThreadPool;
+        this.namespaceConcurrency = Math.max(1, namespaceConcurrency);
+    }
+
+    /*
+    Drop the counts of a previous run.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /*
+    Start counting the locations in the background.  Later calls to 'getContentStats' pick up the results.
+     */
+    public void prefetch(Collection<String> locations) {
+        for (String location : locations) {
+            if (isNull(location)) {
+                continue;
+            }
+            // Claim the location first and hand it to the pool after, so a pool that blocks on submit doesn't
+            // hold a lock in the cache while it waits.
+            CompletableFuture<ContentStats> mine = new CompletableFuture<>();
+            if (nonNull(cache.putIfAbsent(location, mine))) {
+                continue;
+            }
+            try {
+                statsThreadPool.execute(() -> complete(mine, location));
+            } catch (RejectedExecutionException e) {
+                // Others may already be waiting on it, so count it here.
+                complete(mine, location);
+            }
+        }
+    }
+
+    private void complete(CompletableFuture<ContentStats> future, String location) {
+        try {
+            future.complete(count(location));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /*
+    The counts for a location, or null when they couldn't be collected.
+     */
+    public ContentStats getContentStats(String location) {
+        CompletableFuture<ContentStats> future = cache.get(location);
+        if (isNull(future)) {
+            CompletableFuture<ContentStats> mine = new CompletableFuture<>();
+            future = cache.putIfAbsent(location, mine);
+            if (isNull(future)) {
+                // Count it on this thread, it's already a worker.
+                mine.complete(count(location));
+                future = mine;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            log.warn("Unable to collect stats for {}", location, e);
+            return null;
+        }
+    }
+
+    /*
+    The counts from the metastore's table parameters, when the metastore has accurate basic stats for the table.
+    Not used for partitioned tables, where the table parameters don't cover the partitions.
+     */
+    public static ContentStats fromTableParameters(MetastoreTableDefinition definition) {
+        if (isNull(definition) || !definition.getPartitionKeys().isEmpty()) {
+            return null;
+        }
+        Map<String, String> params = definition.getTableParameters();
+        String accurate = params.get(COLUMN_STATS_ACCURATE);
+        if (isNull(accurate) || !accurate.replace(" ", "").contains("\"BASIC_STATS\":\"true\"")) {
+            return null;
+        }
+        try {
+            long files = Long.parseLong(params.get(NUM_FILES));
+            long size = Long.parseLong(params.get(TOTAL_SIZE));
+            return new ContentStats(null, files, size);
+        } catch (NumberFormatException e) {
+            // Missing or not a number.
+            return null;
+        }
+    }
+
+    protected ContentStats count(String location) {
+        String namespace = NamespaceUtils.getNamespace(location);
+        Semaphore permits = namespacePermits.computeIfAbsent(isNull(namespace) ? "" : namespace,
+                k -> new Semaphore(namespaceConcurrency));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            try {
+                Path path = new Path(location);
+                FileSystem fs = path.getFileSystem(getHadoopConfiguration());
+                ContentSummary summary = fs.getContentSummary(path);
+                return new ContentStats(summary.getDirectoryCount(), summary.getFileCount(), summary.getLength());
+            } catch (IOException | RuntimeException e) {
+                log.debug("Unable to get the content summary for {} from the file system. Trying 'count'.", location, e);
+            }
+            return countWithCli(location);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private ContentStats countWithCli(String location) {
+        try {
+            CliEnvironment cli = executeSessionService.getCliEnvironment();
+            CommandReturn cr = cli.processInput("count " + location);
+            if (!cr.isError() && cr.getRecords().size() == 1) {
+                // We should only get back one record.
+                List<Object> countRecord = cr.getRecords().get(0);
+                // 0 = Folder Count
+                // 1 = File Count
+                // 2 = Size Summary
+                return new ContentStats(Long.parseLong(countRecord.get(0).toString()),
+                        Long.parseLong(countRecord.get(1).toString()),
+                        Long.parseLong(countRecord.get(2).toString()));
+            }
+        } catch (DisabledException de) {
+            log.debug("hadoop-cli is disabled. No stats for {}", location);
+        } catch (RuntimeException e) {
+            log.warn("Issue getting the count for {}", location, e);
+        }
+        return null;
+    }
+
+    private Configuration getHadoopConfiguration() {
+        if (isNull(hadoopConfiguration)) {
+            synchronized (this) {
+                if (isNull(hadoopConfiguration)) {
+                    hadoopConfiguration = environmentService.loadHadoopConfiguration();
+                }
+            }
+        }
+        return hadoopConfiguration;
+    }
+
+    @Getter
+    public static class ContentStats {
+        // Null when the source doesn't have it.
+        private final Long directoryCount;
+        private final long fileCount;
+        private final long length;
+
+        public ContentStats(Long directoryCount, long fileCount, long length) {
+            this.directoryCount = directoryCount;
+            this.fileCount = fileCount;
+            this.length = length;
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.StepEnum;
+import com.cloudera.utils.hms.mirror.domain.support.TableFingerprint;
+import com.cloudera.utils.hms.mirror.domain.support.TableFingerprintIndex;
+import com.cloudera.utils.hms.util.TableUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.cloudera.utils.hms.mirror.TablePropertyVars.TRANSIENT_LAST_DDL_TIME;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The delta mode: tables that haven't changed on the LEFT since a previous run PROCESSED them aren't collected
+ * or processed again.
+ * <p>
+ * A table fingerprint index is kept in the (base) output directory, named after the same parts of the config as
+ * the run journal.  With a Metastore Direct connection, the change markers of all the tables in a database
+ * (TBLS and PARTITIONS create and DDL times and the partition count) are loaded with one query and unchanged
+ * tables are dropped before anything is fetched through HS2.  Without one, the definition is still
+ * fetched and the fingerprint of its fields, the location and 'transient_lastDdlTime' are compared before the
+ * rest of the table's metadata is collected.
+ * <p>
+ * The index is only updated by runs that execute.  A table that isn't PROCESSED in a run drops out of the index,
+ * so the next run picks it up again.  Changes made on the RIGHT since the previous run aren't seen.
+ */
+@Service
+@Slf4j
+@Getter
+public class TableDeltaService {
+    public static final String INDEX_FILE_PREFIX = "hms-mirror-delta-";
+    public static final String INDEX_FILE_EXTENSION = ".idx";
+    public static final String UNCHANGED_REASON = "Unchanged since it was processed by a previous run (delta).";
+
+    private final ExecuteSessionService executeSessionService;
+    private final RunJournalService runJournalService;
+    private final boolean enabled;
+
+    private volatile TableFingerprintIndex previous = null;
+    // What was collected for the tables in this run.
+    private final Map<String, TableFingerprint> current = new ConcurrentHashMap<>();
+    private final Set<String> unchanged = ConcurrentHashMap.newKeySet();
+
+    public TableDeltaService(ExecuteSessionService executeSessionService,
+                             RunJournalService runJournalService,
+                             @Value("${hms-mirror.delta.enabled:false}") boolean enabled) {
+        this.executeSessionService = executeSessionService;
+        this.runJournalService = runJournalService;
+        this.enabled = enabled;
+    }
+
+    /*
+    Load the index of the previous runs of the current session's config.
+     */
+    public synchronized void open() {
+        previous = null;
+        current.clear();
+        unchanged.clear();
+        HmsMirrorConfig config = executeSessionService.getSession().getConfig();
+        if (!enabled || config.isLoadingTestData()) {
+            return;
+        }
+        Path indexFile = Paths.get(config.getOutputDirectory(),
+                INDEX_FILE_PREFIX + runJournalService.fingerprint(config) + INDEX_FILE_EXTENSION);
+        try {
+            previous = TableFingerprintIndex.load(indexFile);
+            if (previous.size() > 0) {
+                executeSessionService.getSession().getRunStatus().addConfigMessage(
+                        "Delta mode: " + previous.size() + " table(s) PROCESSED by a previous run (" + indexFile
+                                + ") will be skipped when they haven't changed.");
+            }
+        } catch (IOException ioe) {
+            log.error("Unable to load the table fingerprint index: {}.  Processing all tables.", indexFile, ioe);
+            previous = new TableFingerprintIndex(indexFile);
+        }
+    }
+
+    public boolean isOpen() {
+        return nonNull(previous);
+    }
+
+    /*
+    Record what was collected for a LEFT table in this run.
+     */
+    public void collect(TableFingerprint fingerprint) {
+        if (!isOpen()) {
+            return;
+        }
+        current.merge(fingerprint.getKey(), fingerprint, (existing, update) -> {
+            existing.merge(update);
+            return existing;
+        });
+    }
+
+    /*
+    Record the parts of the LEFT definition.  Called as soon as it's been loaded, before anything works on it.
+     */
+    public void collectDefinition(TableMirror tableMirror) {
+        if (!isOpen()) {
+            return;
+        }
+        EnvironmentTable let = tableMirror.getEnvironmentTable(Environment.LEFT);
+        if (isNull(let.getDefinition()) || let.getDefinition().isEmpty()) {
+            return;
+        }
+        TableFingerprint fingerprint = new TableFingerprint(tableMirror.getParent().getName(), tableMirror.getName());
+        fingerprint.setFieldsFingerprint(TableUtils.tableFieldsFingerPrint(let.getDefinition()));
+        fingerprint.setLocation(TableUtils.getLocation(tableMirror.getName(), let.getDefinition()));
+        fingerprint.setLastDdlTime(TableUtils.getTblProperty(TRANSIENT_LAST_DDL_TIME, let));
+        collect(fingerprint);
+    }
+
+    public boolean isUnchanged(TableMirror tableMirror) {
+        TableFingerprintIndex lclPrevious = previous;
+        if (isNull(lclPrevious)) {
+            return false;
+        }
+        String database = tableMirror.getParent().getName();
+        TableFingerprint recorded = lclPrevious.get(database, tableMirror.getName());
+        return nonNull(recorded) && recorded.matches(current.get(TableFingerprint.key(database, tableMirror.getName())));
+    }
+
+    /*
+    Mark the table for removal when it hasn't changed.  Returns true when it was marked.
+     */
+    public boolean skipIfUnchanged(TableMirror tableMirror) {
+        if (!isUnchanged(tableMirror)) {
+            return false;
+        }
+        unchanged.add(TableFingerprint.key(tableMirror.getParent().getName(), tableMirror.getName()));
+        tableMirror.setRemove(Boolean.TRUE);
+        tableMirror.setRemoveReason(UNCHANGED_REASON);
+        tableMirror.recordStep(StepEnum.DELTA_SKIPPED, null, null);
+        log.info("Table: {}.{} hasn't changed since the previous run (delta), skipping.",
+                tableMirror.getParent().getName(), tableMirror.getName());
+        return true;
+    }
+
+    /*
+    Mark the unchanged tables of the database for removal.  Returns the number of tables still to be processed.
+     */
+    public int skipUnchanged(DBMirror dbMirror) {
+        int rtn = 0;
+        for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+            if (!tableMirror.isRemove() && !skipIfUnchanged(tableMirror)) {
+                rtn++;
+            }
+        }
+        return rtn;
+    }
+
+    public boolean isSkipped(TableMirror tableMirror) {
+        return unchanged.contains(TableFingerprint.key(tableMirror.getParent().getName(), tableMirror.getName()));
+    }
+
+    /*
+    Write the index for the next run: the tables PROCESSED in this run and the unchanged tables that were skipped.
+    Runs that don't execute leave the index as it was.
+     */
+    public synchronized void close(Conversion conversion) {
+        TableFingerprintIndex lclPrevious = previous;
+        previous = null;
+        if (isNull(lclPrevious)) {
+            return;
+        }
+        HmsMirrorConfig config = executeSessionService.getSession().getConfig();
+        if (config.isExecute()) {
+            TableFingerprintIndex next = new TableFingerprintIndex(lclPrevious.getFile());
+            for (TableFingerprint recorded : lclPrevious.values()) {
+                if (unchanged.contains(recorded.getKey())) {
+                    TableFingerprint fingerprint = current.get(recorded.getKey());
+                    if (nonNull(fingerprint)) {
+                        recorded.merge(fingerprint);
+                    }
+                    next.put(recorded);
+                }
+            }
+            for (DBMirror dbMirror : conversion.getDatabases().values()) {
+                for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+                    TableFingerprint fingerprint = current.get(TableFingerprint.key(dbMirror.getName(), tableMirror.getName()));
+                    if (nonNull(fingerprint) && !tableMirror.isRemove()
+                            && tableMirror.getPhaseState() == PhaseState.PROCESSED) {
+                        next.put(fingerprint);
+                    }
+                }
+            }
+            try {
+                next.save();
+                log.info("Saved {} table fingerprints for the next run to: {}", next.size(), next.getFile());
+            } catch (IOException ioe) {
+                log.error("Unable to save the table fingerprint index: {}", next.getFile(), ioe);
+            }
+        } else {
+            log.info("The run didn't execute, the table fingerprint index wasn't changed: {}", lclPrevious.getFile());
+        }
+        current.clear();
+        unchanged.clear();
+    }
+
+}
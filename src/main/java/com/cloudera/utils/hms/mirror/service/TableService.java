@@ -19,12 +19,12 @@ package com.cloudera.utils.hms.mirror.service;
 
 //import com.cloudera.utils.hadoop.HadoopSession;
 
-import com.cloudera.utils.hadoop.cli.CliEnvironment;
 import com.cloudera.utils.hadoop.cli.DisabledException;
-import com.cloudera.utils.hadoop.shell.command.CommandReturn;
+import com.cloudera.utils.hive.config.DBStore;
 import com.cloudera.utils.hive.config.QueryDefinitions;
 import com.cloudera.utils.hms.mirror.MirrorConf;
 import com.cloudera.utils.hms.mirror.Pair;
+import com.cloudera.utils.hms.mirror.connections.SessionSettings;
 import com.cloudera.utils.hms.mirror.domain.*;
 import com.cloudera.utils.hms.mirror.domain.support.*;
 import com.cloudera.utils.hms.stage.ReturnStatus;
@@ -32,6 +32,9 @@ import com.cloudera.utils.hms.util.TableUtils;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -44,7 +47,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
+import java.util.concurrent.CompletionException;
 
 import static com.cloudera.utils.hms.mirror.MessageCode.METASTORE_PARTITION_LOCATIONS_NOT_FETCHED;
 import static com.cloudera.utils.hms.mirror.MirrorConf.*;
@@ -69,6 +72,13 @@ public class TableService {
     private final QueryDefinitionsService queryDefinitionsService;
     private final TranslatorService translatorService;
     private final StatsCalculatorService statsCalculatorService;
+    private final RunJournalService runJournalService;
+    private final StatsCollectorService statsCollectorService;
+    private final TableDeltaService tableDeltaService;
+    private final boolean directTableDefinitions;
+    private final int partitionFetchSize;
+    private final TaskExecutor metadataThreadPool;
+    private final TaskExecutor rightMetadataThreadPool;
 
     // Assuming your logger is already defined, e.g.
     // private static final Logger log = LoggerFactory.getLogger(TableService.class);
@@ -79,7 +89,14 @@ public class TableService {
             ConnectionPoolService connectionPoolService,
             QueryDefinitionsService queryDefinitionsService,
             TranslatorService translatorService,
-            StatsCalculatorService statsCalculatorService
+            StatsCalculatorService statsCalculatorService,
+            RunJournalService runJournalService,
+            StatsCollectorService statsCollectorService,
+            TableDeltaService tableDeltaService,
+            @Value("${hms-mirror.metadata.direct-table-definitions:false}") boolean directTableDefinitions,
+            @Value("${hms-mirror.metadata.partition-fetch-size:10000}") int partitionFetchSize,
+            @Qualifier("metadataThreadPool") TaskExecutor metadataThreadPool,
+            @Qualifier("rightMetadataThreadPool") TaskExecutor rightMetadataThreadPool
     ) {
         log.debug("Initializing TableService with provided service dependencies");
         this.configService = configService;
@@ -88,6 +105,13 @@ public class TableService {
         this.queryDefinitionsService = queryDefinitionsService;
         this.translatorService = translatorService;
         this.statsCalculatorService = statsCalculatorService;
+        this.runJournalService = runJournalService;
+        this.statsCollectorService = statsCollectorService;
+        this.tableDeltaService = tableDeltaService;
+        this.directTableDefinitions = directTableDefinitions;
+        this.partitionFetchSize = partitionFetchSize;
+        this.metadataThreadPool = metadataThreadPool;
+        this.rightMetadataThreadPool = rightMetadataThreadPool;
     }
 
     /**
@@ -118,7 +142,7 @@ public class TableService {
                 if (TableUtils.isACID(et)) {
                     // For ACID tables, check that Migrate is ON.
                     if (config.getMigrateACID().isOn()) {
-                        tableMirror.addStep("TRANSACTIONAL", Boolean.TRUE);
+                        tableMirror.recordStep(StepEnum.TRANSACTIONAL, null, null);
                     } else {
                         tableMirror.setRemove(Boolean.TRUE);
                         tableMirror.setRemoveReason("ACID table and ACID processing not selected (-ma|-mao).");
@@ -235,6 +259,13 @@ public class TableService {
         } else {
             log.debug("Loading schema from catalog for {}", tableId);
             loadSchemaFromCatalog(tableMirror, environment);
+            if (environment == Environment.LEFT) {
+                // Compare with the previous run before anything else is collected for the table.
+                tableDeltaService.collectDefinition(tableMirror);
+                if (tableDeltaService.skipIfUnchanged(tableMirror)) {
+                    return;
+                }
+            }
         }
         log.debug("Checking table filter for {}", tableId);
         checkTableFilter(tableMirror, environment);
@@ -246,20 +277,25 @@ public class TableService {
         if (environment == Environment.LEFT && partitioned
                 && !tableMirror.isRemove() && !config.isLoadingTestData()) {
             log.debug("Table is partitioned. Checking metadata details for {}", tableId);
-            if (config.loadMetadataDetails()) {
+            if (config.loadMetadataDetails() && nonNull(bulkPartitionCounts(tableMirror, environment))) {
+                log.debug("Partition metadata for {} was loaded with the database", tableId);
+            } else if (config.loadMetadataDetails()) {
                 log.debug("Loading partition metadata directly for {}", tableId);
+                long start = System.nanoTime();
                 loadTablePartitionMetadataDirect(tableMirror, environment);
+                tableMirror.recordTimed(StepEnum.PARTITIONS, environment, null, System.nanoTime() - start);
             }
         }
         Integer partLimit = config.getFilter().getTblPartitionLimit();
         if (partLimit != null && partLimit > 0) {
             log.debug("Checking partition count filter for {}", tableId);
-            if (environmentTable.getPartitions().size() > partLimit) {
+            int partitionCount = partitionCount(tableMirror, environment, environmentTable);
+            if (partitionCount > partLimit) {
                 log.info("Table partition count exceeds limit for {}. Limit: {}, Actual: {}",
-                        tableId, partLimit, environmentTable.getPartitions().size());
+                        tableId, partLimit, partitionCount);
                 tableMirror.setRemove(Boolean.TRUE);
                 tableMirror.setRemoveReason("The table partition count exceeds the specified table filter partition limit: " +
-                        partLimit + " < " + environmentTable.getPartitions().size());
+                        partLimit + " < " + partitionCount);
             }
         }
         log.info("Completed table definition for {}", tableId);
@@ -296,118 +332,154 @@ public class TableService {
         }
     }
 
-    @Async("metadataThreadPool")
+    /*
+    The LEFT definition is fetched on the 'metadataThreadPool' and, when needed, the RIGHT definition on the
+    'rightMetadataThreadPool'.  A slow RIGHT cluster only holds the threads of its own pool.
+     */
     public CompletableFuture<ReturnStatus> getTableMetadata(TableMirror tableMirror) {
         log.info("Fetching table metadata asynchronously for table: {}", tableMirror.getName());
         ReturnStatus rtn = new ReturnStatus();
         // Preset and overwrite the status when an issue or anomoly occurs.
         rtn.setStatus(ReturnStatus.Status.SUCCESS);
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // ...logic...
-                rtn.setTableMirror(tableMirror);
-                HmsMirrorConfig hmsMirrorConfig = executeSessionService.getSession().getConfig();
-                RunStatus runStatus = executeSessionService.getSession().getRunStatus();
-                EnvironmentTable leftEnvTable = tableMirror.getEnvironmentTable(Environment.LEFT);
-                try {
-                    getTableDefinition(tableMirror, leftEnvTable, Environment.LEFT);
-                    if (tableMirror.isRemove()) {
-                        rtn.setStatus(ReturnStatus.Status.SKIP);
-                        return rtn;
-                    } else {
-                        switch (hmsMirrorConfig.getDataStrategy()) {
-                            case DUMP:
-                            case STORAGE_MIGRATION:
-                                // Make a clone of the left as a working copy.
-                                try {
-                                    tableMirror.getEnvironments().put(Environment.RIGHT, tableMirror.getEnvironmentTable(Environment.LEFT).clone());
-                                } catch (CloneNotSupportedException e) {
-                                    log.error("Clone not supported for table: {}.{}", tableMirror.getParent().getName(), tableMirror.getName());
-                                }
-                                rtn.setStatus(ReturnStatus.Status.SUCCESS);//successful = Boolean.TRUE;
-                                break;
-                            default:
-                                EnvironmentTable rightEnvTable = tableMirror.getEnvironmentTable(Environment.RIGHT);
-                                try {
-                                    getTableDefinition(tableMirror, rightEnvTable, Environment.RIGHT);
-                                    rtn.setStatus(ReturnStatus.Status.SUCCESS);//successful = Boolean.TRUE;
-                                } catch (SQLException se) {
-                                    // Can't find the table on the RIGHT.  This is OK if the table doesn't exist.
-                                    log.debug("No table definition for {}:{}", tableMirror.getParent().getName(), tableMirror.getName(), se);
-                                }
-                        }
-                    }
-                } catch (SQLException throwables) {
-                    // Check to see if the RIGHT exists.  This is for `--sync` mode.
-                    // If it doesn't exist, then this is OK.
-                    if (hmsMirrorConfig.isSync()) {
-                        EnvironmentTable rightEnvTable = tableMirror.getEnvironmentTable(Environment.RIGHT);
-                        try {
-                            getTableDefinition(tableMirror, rightEnvTable, Environment.RIGHT);
-                            rtn.setStatus(ReturnStatus.Status.SUCCESS);//successful = Boolean.TRUE;
-                        } catch (SQLException se) {
-                            // OK, if the db doesn't exist yet.
-                            handleSqlException(throwables, tableMirror, rightEnvTable, Environment.RIGHT);
-                            rtn.setStatus(ReturnStatus.Status.ERROR);
-                            rtn.setException(throwables);
-                        }
-                    } else {
-                        handleSqlException(throwables, tableMirror, leftEnvTable, Environment.LEFT);
-                        rtn.setStatus(ReturnStatus.Status.ERROR);
-                        rtn.setException(throwables);
+        rtn.setTableMirror(tableMirror);
+        return CompletableFuture.supplyAsync(() -> getLeftTableMetadata(tableMirror, rtn), metadataThreadPool)
+                .thenCompose(fetchRight -> fetchRight
+                        ? CompletableFuture.supplyAsync(() -> getRightTableMetadata(tableMirror, rtn), rightMetadataThreadPool)
+                        : CompletableFuture.completedFuture(rtn))
+                .exceptionally(e -> {
+                    Throwable cause = (e instanceof CompletionException && nonNull(e.getCause())) ? e.getCause() : e;
+                    log.error("Error occurred while fetching metadata for table: {}", tableMirror, cause);
+                    rtn.setStatus(ReturnStatus.Status.ERROR);
+                    rtn.setException(cause);
+                    return rtn;
+                });
+    }
+
+    /*
+    Returns true when the RIGHT definition still needs to be fetched.  When the LEFT fails in '--sync' mode,
+    the LEFT exception is left on the return status for the RIGHT to report.
+     */
+    private boolean getLeftTableMetadata(TableMirror tableMirror, ReturnStatus rtn) {
+        HmsMirrorConfig hmsMirrorConfig = executeSessionService.getSession().getConfig();
+        EnvironmentTable leftEnvTable = tableMirror.getEnvironmentTable(Environment.LEFT);
+        try {
+            getTableDefinition(tableMirror, leftEnvTable, Environment.LEFT);
+            if (tableMirror.isRemove()) {
+                rtn.setStatus(ReturnStatus.Status.SKIP);
+                return false;
+            }
+            switch (hmsMirrorConfig.getDataStrategy()) {
+                case DUMP:
+                case STORAGE_MIGRATION:
+                    // Make a clone of the left as a working copy.
+                    try {
+                        tableMirror.getEnvironments().put(Environment.RIGHT, tableMirror.getEnvironmentTable(Environment.LEFT).clone());
+                    } catch (CloneNotSupportedException e) {
+                        log.error("Clone not supported for table: {}.{}", tableMirror.getParent().getName(), tableMirror.getName());
                     }
-                }
-                log.debug("Metadata fetch completed for table: {}", tableMirror);
-                return rtn;
-            } catch (Exception e) {
-                log.error("Error occurred while fetching metadata for table: {}", tableMirror, e);
+                    rtn.setStatus(ReturnStatus.Status.SUCCESS);//successful = Boolean.TRUE;
+                    log.debug("Metadata fetch completed for table: {}", tableMirror);
+                    return false;
+                default:
+                    return true;
+            }
+        } catch (SQLException throwables) {
+            // Check to see if the RIGHT exists.  This is for `--sync` mode.
+            // If it doesn't exist, then this is OK.
+            if (hmsMirrorConfig.isSync()) {
+                rtn.setException(throwables);
+                return true;
+            }
+            handleSqlException(throwables, tableMirror, leftEnvTable, Environment.LEFT);
+            rtn.setStatus(ReturnStatus.Status.ERROR);
+            rtn.setException(throwables);
+            return false;
+        }
+    }
+
+    private ReturnStatus getRightTableMetadata(TableMirror tableMirror, ReturnStatus rtn) {
+        EnvironmentTable rightEnvTable = tableMirror.getEnvironmentTable(Environment.RIGHT);
+        Throwable leftException = rtn.getException();
+        try {
+            getTableDefinition(tableMirror, rightEnvTable, Environment.RIGHT);
+            rtn.setStatus(ReturnStatus.Status.SUCCESS);//successful = Boolean.TRUE;
+            rtn.setException(null);
+        } catch (SQLException se) {
+            if (leftException instanceof SQLException) {
+                // OK, if the db doesn't exist yet.
+                handleSqlException((SQLException) leftException, tableMirror, rightEnvTable, Environment.RIGHT);
                 rtn.setStatus(ReturnStatus.Status.ERROR);
-                rtn.setException(e);
-                return rtn;
+            } else {
+                // Can't find the table on the RIGHT.  This is OK if the table doesn't exist.
+                log.debug("No table definition for {}:{}", tableMirror.getParent().getName(), tableMirror.getName(), se);
             }
-        });
+        }
+        log.debug("Metadata fetch completed for table: {}", tableMirror);
+        return rtn;
     }
 
-    @Async("metadataThreadPool")
+    /*
+    Runs on the 'listingThreadPool' thread itself.  The blocking HS2 calls must not be handed to the common
+    ForkJoinPool, which is sized to the cores and not to the connection pools.
+     */
+    @Async("listingThreadPool")
     public CompletableFuture<ReturnStatus> getTables(DBMirror dbMirror) {
         log.info("Fetching tables asynchronously for DBMirror: {}", dbMirror.getName());
-        return CompletableFuture.supplyAsync(() -> {
-            ReturnStatus rtn = new ReturnStatus();
+        ReturnStatus rtn = new ReturnStatus();
+        try {
+            ExecuteSession session = executeSessionService.getSession();
+            HmsMirrorConfig config = session.getConfig();
+            log.debug("Getting tables for Database {}", dbMirror.getName());
             try {
-                // ...logic...
-                ExecuteSession session = executeSessionService.getSession();
-                HmsMirrorConfig config = session.getConfig();
-                RunStatus runStatus = session.getRunStatus();
-                log.debug("Getting tables for Database {}", dbMirror.getName());
-                try {
-                    getTables(dbMirror, Environment.LEFT);
-                    if (config.isSync()) {
-                        // Get the tables on the RIGHT side.  Used to determine if a table has been dropped on the LEFT
-                        // and later needs to be removed on the RIGHT.
-                        try {
-                            getTables(dbMirror, Environment.RIGHT);
-                        } catch (SQLException se) {
-                            // OK, if the db doesn't exist yet.
-                        }
+                getTables(dbMirror, Environment.LEFT);
+                if (config.isSync()) {
+                    // Get the tables on the RIGHT side.  Used to determine if a table has been dropped on the LEFT
+                    // and later needs to be removed on the RIGHT.
+                    try {
+                        getTables(dbMirror, Environment.RIGHT);
+                    } catch (SQLException se) {
+                        // OK, if the db doesn't exist yet.
                     }
-                    rtn.setStatus(ReturnStatus.Status.SUCCESS);
-                } catch (SQLException throwables) {
-                    rtn.setStatus(ReturnStatus.Status.ERROR);
-                    rtn.setException(throwables);
-                } catch (RuntimeException rte) {
-                    log.error("Runtime Issue getting tables for Database: {}", dbMirror.getName(), rte);
-                    rtn.setStatus(ReturnStatus.Status.ERROR);
-                    rtn.setException(rte);
                 }
-                log.debug("Tables fetch completed for DBMirror: {}", dbMirror);
-                return rtn;
-            } catch (Exception e) {
-                log.error("Error occurred while fetching tables for DBMirror: {}", dbMirror.getName(), e);
+                int tablesToProcess = dbMirror.getTableMirrors().size();
+                if (tableDeltaService.isOpen()) {
+                    // Drop the tables that haven't changed since the previous run before loading anything for them.
+                    loadChangeMarkersDirect(dbMirror);
+                    tablesToProcess = tableDeltaService.skipUnchanged(dbMirror);
+                }
+                if (tablesToProcess > 0) {
+                    loadTableDefinitionsDirect(dbMirror, Environment.LEFT);
+                    if (config.loadMetadataDetails()) {
+                        loadPartitionsDirect(dbMirror, Environment.LEFT);
+                    }
+                    prefetchTableStats(dbMirror, Environment.LEFT);
+                    switch (config.getDataStrategy()) {
+                        case DUMP:
+                        case STORAGE_MIGRATION:
+                            // The RIGHT definitions are cloned from the LEFT.
+                            break;
+                        default:
+                            loadTableDefinitionsDirect(dbMirror, Environment.RIGHT);
+                    }
+                } else {
+                    log.info("No tables in {} changed since the previous run (delta).", dbMirror.getName());
+                }
+                rtn.setStatus(ReturnStatus.Status.SUCCESS);
+            } catch (SQLException throwables) {
+                rtn.setStatus(ReturnStatus.Status.ERROR);
+                rtn.setException(throwables);
+            } catch (RuntimeException rte) {
+                log.error("Runtime Issue getting tables for Database: {}", dbMirror.getName(), rte);
                 rtn.setStatus(ReturnStatus.Status.ERROR);
-                rtn.setException(e);
-                return rtn;
+                rtn.setException(rte);
             }
-        });
+            log.debug("Tables fetch completed for DBMirror: {}", dbMirror);
+        } catch (Exception e) {
+            log.error("Error occurred while fetching tables for DBMirror: {}", dbMirror.getName(), e);
+            rtn.setStatus(ReturnStatus.Status.ERROR);
+            rtn.setException(e);
+        }
+        return CompletableFuture.completedFuture(rtn);
     }
 
     public void getTables(DBMirror dbMirror, Environment environment) throws SQLException {
@@ -491,20 +563,7 @@ public class TableService {
 
         Filter filter = config.getFilter();
 
-        boolean addTable = false;
-        if (filter == null || (isBlank(filter.getTblRegEx()) && isBlank(filter.getTblExcludeRegEx()))) {
-            addTable = true;
-        } else {
-            if (!isBlank(filter.getTblRegEx())) {
-                Matcher matcher = filter.getTblFilterPattern().matcher(tableName);
-                addTable = matcher.matches();
-            } else if (!isBlank(filter.getTblExcludeRegEx())) {
-                Matcher matcher = filter.getTblExcludeFilterPattern().matcher(tableName);
-                addTable = !matcher.matches();
-            }
-        }
-
-        if (addTable) {
+        if (filter == null || filter.getCompiled().isTableIncluded(tableName)) {
             // Add to DBMirror for processing.
             TableMirror tableMirror = dbMirror.addTable(tableName);
             String uniqueStr = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").format(LocalDateTime.now());
@@ -561,16 +620,22 @@ public class TableService {
         EnvironmentTable environmentTable = tableMirror.getEnvironmentTable(environment);
         HmsMirrorConfig config = executeSessionService.getSession().getConfig();
 
+        if (loadSchemaFromDirectDefinition(tableMirror, environment, database)) {
+            return;
+        }
+
         try (Connection connection = getConnectionPoolService().getHS2EnvironmentConnection(environment)) {
             if (connection == null) return;
 
             try (Statement statement = connection.createStatement()) {
                 useDatabase(statement, database);
+                long start = System.nanoTime();
                 List<String> tableDefinition = fetchTableDefinition(statement, tableMirror, database, environment);
+                long elapsed = System.nanoTime() - start;
                 environmentTable.setDefinition(tableDefinition);
                 environmentTable.setName(tableMirror.getName());
                 environmentTable.setExists(Boolean.TRUE);
-                tableMirror.addStep(environment.toString(), "Fetched Schema");
+                tableMirror.recordTimed(StepEnum.SCHEMA, environment, null, elapsed);
 
                 if (config.getOwnershipTransfer().isTable()) {
                     String owner = fetchTableOwner(statement, tableMirror, database, environment);
@@ -583,6 +648,193 @@ public class TableService {
         log.debug("Loaded schema from catalog for table: {}", tableMirror);
     }
 
+    /*
+    Use the definition loaded in bulk through the Metastore Direct connection, when there is one.  Returns false
+    when the definition still needs to be fetched with 'SHOW CREATE TABLE'.
+     */
+    private boolean loadSchemaFromDirectDefinition(TableMirror tableMirror, Environment environment, String database) throws SQLException {
+        Map<String, MetastoreTableDefinition> definitions = tableMirror.getParent().getMetastoreTableDefinitions().get(environment);
+        if (isNull(definitions)) {
+            return false;
+        }
+        MetastoreTableDefinition definition = definitions.get(tableMirror.getName());
+        if (isNull(definition)) {
+            // The bulk load covers every table in the database, so the table doesn't exist.
+            throw new SQLException("Table not found (Metastore Direct): " + database + "." + tableMirror.getName());
+        }
+        if (!definition.isReproducible()) {
+            log.debug("{}:{}.{} can't be rebuilt from the Metastore Direct definition. Using SHOW CREATE TABLE.",
+                    environment, database, tableMirror.getName());
+            return false;
+        }
+        EnvironmentTable environmentTable = tableMirror.getEnvironmentTable(environment);
+        environmentTable.setDefinition(definition.toDefinition());
+        environmentTable.setName(tableMirror.getName());
+        environmentTable.setExists(Boolean.TRUE);
+        tableMirror.recordStep(StepEnum.SCHEMA_DIRECT, environment, null);
+        if (executeSessionService.getSession().getConfig().getOwnershipTransfer().isTable()
+                && nonNull(definition.getOwner())) {
+            environmentTable.setOwner(definition.getOwner());
+        }
+        return true;
+    }
+
+    /*
+    Load the definitions of all the tables in a database with a few set based queries through the Metastore Direct
+    connection.  These replace the 'SHOW CREATE TABLE' and 'SHOW TABLE EXTENDED' round trips through HS2 for each
+    table.  When anything goes wrong, nothing is held and the tables fall back to HS2.
+     */
+    protected void loadTableDefinitionsDirect(DBMirror dbMirror, Environment environment) {
+        ExecuteSession session = executeSessionService.getSession();
+        HmsMirrorConfig config = session.getConfig();
+        if (!directTableDefinitions || config.isLoadingTestData() || isNull(config.getCluster(environment))
+                // The 'SHOW CREATE TABLE' layout of legacy Hive differs, so leave those to HS2.
+                || config.getCluster(environment).isLegacyHive()
+                || !configService.isMetastoreDirectConfigured(session, environment)) {
+            return;
+        }
+        String database = (environment == Environment.LEFT)
+                ? dbMirror.getName()
+                : HmsMirrorConfigUtil.getResolvedDB(dbMirror.getName(), config);
+        QueryDefinitions queryDefinitions = getQueryDefinitionsService().getQueryDefinitions(environment);
+        if (isNull(queryDefinitions)) {
+            return;
+        }
+
+        Map<String, MetastoreTableDefinition> definitions = new HashMap<>();
+        try (Connection conn = getConnectionPoolService().getMetastoreDirectEnvironmentConnection(environment)) {
+            if (isNull(conn)) {
+                return;
+            }
+            log.info("Loading table definitions from Metastore Direct Connection {}:{}", environment, database);
+            runDirectQuery(conn, environment, queryDefinitions, "database_table_definitions", database, resultSet -> {
+                MetastoreTableDefinition definition = new MetastoreTableDefinition(resultSet.getString(1));
+                definition.setTableType(resultSet.getString(2));
+                definition.setOwner(resultSet.getString(3));
+                definition.setLocation(resultSet.getString(4));
+                definition.setInputFormat(resultSet.getString(5));
+                definition.setOutputFormat(resultSet.getString(6));
+                definition.setNumBuckets(resultSet.getInt(7));
+                definition.setSerdeLib(resultSet.getString(8));
+                definition.setSkewed(resultSet.getInt(9) > 0);
+                definitions.put(definition.getName(), definition);
+            });
+            runDirectQuery(conn, environment, queryDefinitions, "database_table_columns", database, resultSet -> {
+                MetastoreTableDefinition definition = definitions.get(resultSet.getString(1));
+                if (nonNull(definition)) {
+                    definition.addColumn(resultSet.getString(2), resultSet.getString(3), resultSet.getString(4));
+                }
+            });
+            runDirectQuery(conn, environment, queryDefinitions, "database_table_partition_keys", database, resultSet -> {
+                MetastoreTableDefinition definition = definitions.get(resultSet.getString(1));
+                if (nonNull(definition)) {
+                    definition.addPartitionKey(resultSet.getString(2), resultSet.getString(3), resultSet.getString(4));
+                }
+            });
+            runDirectQuery(conn, environment, queryDefinitions, "database_table_bucket_columns", database, resultSet -> {
+                MetastoreTableDefinition definition = definitions.get(resultSet.getString(1));
+                if (nonNull(definition)) {
+                    definition.addBucketColumn(resultSet.getString(2));
+                }
+            });
+            runDirectQuery(conn, environment, queryDefinitions, "database_table_sort_columns", database, resultSet -> {
+                MetastoreTableDefinition definition = definitions.get(resultSet.getString(1));
+                if (nonNull(definition)) {
+                    definition.addSortColumn(resultSet.getString(2), resultSet.getInt(3));
+                }
+            });
+            runDirectQuery(conn, environment, queryDefinitions, "database_table_serde_params", database, resultSet -> {
+                MetastoreTableDefinition definition = definitions.get(resultSet.getString(1));
+                if (nonNull(definition)) {
+                    definition.getSerdeParameters().put(resultSet.getString(2), resultSet.getString(3));
+                }
+            });
+            runDirectQuery(conn, environment, queryDefinitions, "database_table_params", database, resultSet -> {
+                MetastoreTableDefinition definition = definitions.get(resultSet.getString(1));
+                if (nonNull(definition)) {
+                    definition.getTableParameters().put(resultSet.getString(2), resultSet.getString(3));
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Issue loading table definitions from Metastore Direct Connection {}:{}. " +
+                    "Falling back to SHOW CREATE TABLE.", environment, database, e);
+            return;
+        }
+        if (definitions.isEmpty()) {
+            // Nothing to go on (the database may not exist yet), leave it to HS2.
+            return;
+        }
+        dbMirror.getMetastoreTableDefinitions().put(environment, definitions);
+        log.info("Loaded {} table definitions from Metastore Direct Connection {}:{}",
+                definitions.size(), environment, database);
+    }
+
+    /*
+    Load the change markers of all the LEFT tables in a database through the Metastore Direct connection, for the
+    delta mode to compare with the previous run.  When anything goes wrong, the tables are compared on their
+    definitions instead.
+     */
+    protected void loadChangeMarkersDirect(DBMirror dbMirror) {
+        ExecuteSession session = executeSessionService.getSession();
+        if (session.getConfig().isLoadingTestData()
+                || !configService.isMetastoreDirectConfigured(session, Environment.LEFT)) {
+            return;
+        }
+        QueryDefinitions queryDefinitions = getQueryDefinitionsService().getQueryDefinitions(Environment.LEFT);
+        if (isNull(queryDefinitions) || isNull(queryDefinitions.getQueryDefinition("database_table_change_markers"))) {
+            return;
+        }
+        String database = dbMirror.getName();
+        List<TableFingerprint> markers = new ArrayList<>();
+        try (Connection conn = getConnectionPoolService().getMetastoreDirectEnvironmentConnection(Environment.LEFT)) {
+            if (isNull(conn)) {
+                return;
+            }
+            runDirectQuery(conn, Environment.LEFT, queryDefinitions, "database_table_change_markers", database, resultSet -> {
+                TableFingerprint fingerprint = new TableFingerprint(database, resultSet.getString(1));
+                fingerprint.setCreateTime(resultSet.getString(2));
+                fingerprint.setLastDdlTime(resultSet.getString(3));
+                fingerprint.setPartitionCount(resultSet.getString(4));
+                fingerprint.setPartitionCreateTime(resultSet.getString(5));
+                fingerprint.setPartitionDdlTime(resultSet.getString(6));
+                markers.add(fingerprint);
+            });
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Issue loading the change markers from Metastore Direct Connection LEFT:{}. " +
+                    "Comparing the table definitions instead.", database, e);
+            return;
+        }
+        markers.forEach(tableDeltaService::collect);
+        log.info("Loaded {} change markers from Metastore Direct Connection LEFT:{}", markers.size(), database);
+    }
+
+    private void runDirectQuery(Connection conn, Environment environment, QueryDefinitions queryDefinitions,
+                                String queryName, String database, ResultSetHandler handler) throws SQLException {
+        String query = pushDownTableFilter(queryDefinitions.getQueryDefinition(queryName).getStatement(), environment);
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, database);
+            try (ResultSet resultSet = pstmt.executeQuery()) {
+                while (resultSet.next()) {
+                    handler.handle(resultSet);
+                }
+            }
+        }
+    }
+
+    /*
+    Add the table filter to a per database Metastore Direct query when it can be expressed in SQL, so the rows of
+    the tables that were filtered out aren't sent back at all.
+     */
+    private String pushDownTableFilter(String query, Environment environment) {
+        HmsMirrorConfig config = executeSessionService.getSession().getConfig();
+        return config.getFilter().getCompiled().pushDown(query, config.getCluster(environment).getMetastoreDirect().getType());
+    }
+
+    @FunctionalInterface
+    private interface ResultSetHandler {
+        void handle(ResultSet resultSet) throws SQLException;
+    }
+
     private String resolveDatabaseName(TableMirror tableMirror, Environment environment) {
         log.trace("Resolving database name for table: {} in environment: {}", tableMirror, environment);
         // ...logic...
@@ -655,7 +907,7 @@ public class TableService {
         // ...logic...
         String message = exception.getMessage();
         if (message.contains("Table not found") || message.contains("Database does not exist")) {
-            tableMirror.addStep(environment.toString(), "No Schema");
+            tableMirror.recordStep(StepEnum.NO_SCHEMA, environment, null);
         } else {
             log.error(message, exception);
             environmentTable.addError(message);
@@ -705,7 +957,7 @@ public class TableService {
             } catch (SQLException throwables) {
                 if (throwables.getMessage().contains("Table not found") || throwables.getMessage().contains("Database does not exist")) {
                     // This is ok in the upper cluster where we don't expect the table to exist if the process hadn't run before.
-                    tableMirror.addStep(environment.toString(), "No Schema");
+                    tableMirror.recordStep(StepEnum.NO_SCHEMA, environment, null);
                 } else {
                     log.error(throwables.getMessage(), throwables);
                     et.addError(throwables.getMessage());
@@ -751,7 +1003,7 @@ public class TableService {
                 log.debug("{}:{}.{}: Loading Partitions", environment, database, et.getName());
 
                 resultSet = stmt.executeQuery(MessageFormat.format(MirrorConf.SHOW_PARTITIONS, database, et.getName()));
-                Map<String, String> partDef = new HashMap<String, String>();
+                Map<String, String> partDef = new PartitionLocationMap();
                 while (resultSet.next()) {
                     partDef.put(resultSet.getString(1), NOT_SET);
                 }
@@ -785,6 +1037,128 @@ public class TableService {
         }
     }
 
+    /*
+    The partition counts of the table's database when its partitions were loaded in bulk, otherwise null.
+     */
+    private Map<String, Integer> bulkPartitionCounts(TableMirror tableMirror, Environment environment) {
+        return isNull(tableMirror.getParent()) ? null
+                : tableMirror.getParent().getMetastorePartitionCounts().get(environment);
+    }
+
+    /*
+    Tables over the partition limit don't have their partitions loaded in bulk, so use the count when there is one.
+     */
+    private int partitionCount(TableMirror tableMirror, Environment environment, EnvironmentTable environmentTable) {
+        Map<String, Integer> counts = bulkPartitionCounts(tableMirror, environment);
+        if (nonNull(counts)) {
+            return counts.getOrDefault(tableMirror.getName(), 0);
+        }
+        return environmentTable.getPartitions().size();
+    }
+
+    /*
+    Load the partitions of every table in a database with one streamed query through the Metastore Direct
+    connection, instead of a 'part_locations' query for each partitioned table.
+
+    The partition counts are checked first with a COUNT query.  When there's a partition limit
+    (filter.tblPartitionLimit), the partitions of the tables over the limit are left out of the query, since
+    those tables will be filtered out anyway.  When anything goes wrong, nothing is held and the tables fall
+    back to the query for each table.
+     */
+    protected void loadPartitionsDirect(DBMirror dbMirror, Environment environment) {
+        ExecuteSession session = executeSessionService.getSession();
+        HmsMirrorConfig config = session.getConfig();
+        if (config.isLoadingTestData() || isNull(dbMirror.getTableMirrors()) || dbMirror.getTableMirrors().isEmpty()
+                || !configService.isMetastoreDirectConfigured(session, environment)) {
+            return;
+        }
+        QueryDefinitions queryDefinitions = getQueryDefinitionsService().getQueryDefinitions(environment);
+        if (isNull(queryDefinitions)) {
+            return;
+        }
+        String database = dbMirror.getName();
+        Integer partLimit = config.getFilter().getTblPartitionLimit();
+        boolean limited = nonNull(partLimit) && partLimit > 0;
+
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, PartitionLocationMap> partitions = new HashMap<>();
+        long rows = 0;
+        try (Connection conn = getConnectionPoolService().getMetastoreDirectEnvironmentConnection(environment)) {
+            if (isNull(conn)) {
+                return;
+            }
+            log.info("Loading partitions from Metastore Direct Connection {}:{}", environment, database);
+            runDirectQuery(conn, environment, queryDefinitions, "database_partition_counts", database, resultSet ->
+                    counts.put(resultSet.getString(1), resultSet.getInt(2)));
+            boolean wanted = false;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                if (dbMirror.getTableMirrors().containsKey(entry.getKey()) && (!limited || entry.getValue() <= partLimit)) {
+                    wanted = true;
+                    break;
+                }
+            }
+            if (wanted) {
+                String queryName = limited ? "database_partitions_within_limit" : "database_partitions";
+                rows = streamPartitions(conn, pushDownTableFilter(queryDefinitions.getQueryDefinition(queryName).getStatement(), environment),
+                        database, limited ? partLimit : null, config.getCluster(environment).getMetastoreDirect().getType(),
+                        (table, partName, location) -> {
+                            // Only the tables that made it through the filters.
+                            if (dbMirror.getTableMirrors().containsKey(table)) {
+                                partitions.computeIfAbsent(table, k -> new PartitionLocationMap()).put(partName, location);
+                            }
+                        });
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Issue loading partitions from Metastore Direct Connection {}:{}. " +
+                    "Falling back to loading them by table.", environment, database, e);
+            return;
+        }
+        partitions.forEach((table, partDef) ->
+                dbMirror.getTableMirrors().get(table).getEnvironmentTable(environment).setPartitions(partDef));
+        dbMirror.getMetastorePartitionCounts().put(environment, counts);
+        log.info("Loaded {} partitions for {} tables from Metastore Direct Connection {}:{}",
+                rows, partitions.size(), environment, database);
+    }
+
+    /*
+    Fetch the partitions in chunks instead of the whole result set at once.  MySQL only streams with
+    Integer.MIN_VALUE (or 'useCursorFetch') and Postgres only uses a cursor outside of auto-commit.
+     */
+    protected long streamPartitions(Connection conn, String query, String database, Integer partLimit,
+                                  DBStore.DB_TYPE dbType, PartitionHandler handler) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        if (dbType == DBStore.DB_TYPE.POSTGRES && autoCommit) {
+            conn.setAutoCommit(false);
+        }
+        long rows = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(dbType == DBStore.DB_TYPE.MYSQL ? Integer.MIN_VALUE : partitionFetchSize);
+            pstmt.setString(1, database);
+            if (nonNull(partLimit)) {
+                // The partition counts are limited to the tables of the same database.
+                pstmt.setString(2, database);
+                pstmt.setInt(3, partLimit);
+            }
+            try (ResultSet resultSet = pstmt.executeQuery()) {
+                while (resultSet.next()) {
+                    handler.handle(resultSet.getString(1), resultSet.getString(2), resultSet.getString(3));
+                    rows++;
+                }
+            }
+        } finally {
+            if (dbType == DBStore.DB_TYPE.POSTGRES && autoCommit) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    protected interface PartitionHandler {
+        void handle(String table, String partName, String location);
+    }
+
     protected void loadTablePartitionMetadataDirect(TableMirror tableMirror, Environment environment) {
         /*
         1. Get Metastore Direct Connection
@@ -819,7 +1193,7 @@ public class TableService {
                 pstmt.setString(1, database);
                 pstmt.setString(2, et.getName());
                 resultSet = pstmt.executeQuery();
-                Map<String, String> partDef = new HashMap<String, String>();
+                Map<String, String> partDef = new PartitionLocationMap();
                 while (resultSet.next()) {
                     partDef.put(resultSet.getString(1), resultSet.getString(2));
                 }
@@ -840,6 +1214,56 @@ public class TableService {
         }
     }
 
+    /*
+    True when the data strategy uses the table stats (see 'handleDataStrategy').
+     */
+    private static boolean isStatsCollected(HmsMirrorConfig config) {
+        if (config.getOptimization().isSkipStatsCollection()) {
+            return false;
+        }
+        switch (config.getDataStrategy()) {
+            case SQL:
+            case HYBRID:
+            case EXPORT_IMPORT:
+            case STORAGE_MIGRATION:
+            case COMMON:
+            case ACID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /*
+    Start collecting the file system stats of the database's table locations in the background, so they're
+    ready when each table's stats are loaded.  Needs the definitions loaded through the Metastore Direct
+    connection for the locations.  Tables with accurate stats in the metastore are skipped.
+     */
+    protected void prefetchTableStats(DBMirror dbMirror, Environment environment) {
+        HmsMirrorConfig config = executeSessionService.getSession().getConfig();
+        Map<String, MetastoreTableDefinition> definitions = dbMirror.getMetastoreTableDefinitions().get(environment);
+        if (isNull(definitions) || !isStatsCollected(config)) {
+            return;
+        }
+        List<String> locations = new ArrayList<>();
+        for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+            MetastoreTableDefinition definition = definitions.get(tableMirror.getName());
+            if (tableMirror.isRemove() || isNull(definition) || !definition.isReproducible()
+                    || isBlank(definition.getLocation())
+                    || nonNull(StatsCollectorService.fromTableParameters(definition))) {
+                continue;
+            }
+            String protocol = definition.getLocation().split(":")[0];
+            if (config.getSupportFileSystems().contains(protocol)) {
+                locations.add(definition.getLocation());
+            }
+        }
+        if (!locations.isEmpty()) {
+            log.info("Collecting stats for {} table locations in {}:{}", locations.size(), environment, dbMirror.getName());
+            statsCollectorService.prefetch(locations);
+        }
+    }
+
     protected void loadTableStats(TableMirror tableMirror, Environment environment) throws DisabledException {
         // Considered only gathering stats for partitioned tables, but decided to gather for all tables to support
         //  smallfiles across the board.
@@ -862,8 +1286,8 @@ public class TableService {
         // Determine File sizes in table or partitions.
         /*
         - Get Base location for table
-        - Get HadoopSession
-        - Do a 'count' of the location.
+        - Use the metastore's stats when they're accurate
+        - Otherwise, the content summary of the location (collected in the background or now).
          */
         String location = TableUtils.getLocation(et.getName(), et.getDefinition());
         // Only run checks against hdfs and ozone namespaces.
@@ -873,25 +1297,30 @@ public class TableService {
         TableUtils.getSerdeType(et);
 
         if (hmsMirrorConfig.getSupportFileSystems().contains(protocol)) {
-            CliEnvironment cli = executeSessionService.getCliEnvironment();
-
-            String countCmd = "count " + location;
-            CommandReturn cr = cli.processInput(countCmd);
-            if (!cr.isError() && cr.getRecords().size() == 1) {
-                // We should only get back one record.
-                List<Object> countRecord = cr.getRecords().get(0);
-                // 0 = Folder Count
-                // 1 = File Count
-                // 2 = Size Summary
-                try {
-                    Double avgFileSize = (double) (Long.parseLong(countRecord.get(2).toString()) /
-                            Integer.parseInt(countRecord.get(1).toString()));
-                    et.getStatistics().put(DIR_COUNT, Integer.valueOf(countRecord.get(0).toString()));
-                    et.getStatistics().put(FILE_COUNT, Integer.valueOf(countRecord.get(1).toString()));
-                    et.getStatistics().put(DATA_SIZE, Long.valueOf(countRecord.get(2).toString()));
+            StatsCollectorService.ContentStats stats = null;
+            Map<String, MetastoreTableDefinition> definitions = nonNull(tableMirror.getParent())
+                    ? tableMirror.getParent().getMetastoreTableDefinitions().get(environment) : null;
+            if (nonNull(definitions)) {
+                MetastoreTableDefinition definition = definitions.get(tableMirror.getName());
+                if (nonNull(definition) && location.equals(definition.getLocation())) {
+                    stats = StatsCollectorService.fromTableParameters(definition);
+                }
+            }
+            if (isNull(stats)) {
+                stats = statsCollectorService.getContentStats(location);
+            }
+            if (nonNull(stats)) {
+                if (stats.getFileCount() > 0) {
+                    // Same integer division as the 'count' based stats.
+                    Double avgFileSize = (double) (stats.getLength() / stats.getFileCount());
+                    if (nonNull(stats.getDirectoryCount())) {
+                        et.getStatistics().put(DIR_COUNT, stats.getDirectoryCount().intValue());
+                    }
+                    et.getStatistics().put(FILE_COUNT, (int) stats.getFileCount());
+                    et.getStatistics().put(DATA_SIZE, stats.getLength());
                     et.getStatistics().put(AVG_FILE_SIZE, avgFileSize);
                     et.getStatistics().put(TABLE_EMPTY, Boolean.FALSE);
-                } catch (ArithmeticException ae) {
+                } else {
                     // Directory is probably empty.
                     et.getStatistics().put(TABLE_EMPTY, Boolean.TRUE);
                 }
@@ -945,6 +1374,8 @@ public class TableService {
 
                         if (rtn && nonNull(conn)) {
                             try (Statement stmt = conn.createStatement()) {
+                                // Consecutive statements (other than 'set') go as a batch when the driver supports it.
+                                List<Pair> batch = supportsBatchUpdates(conn) ? new ArrayList<>() : null;
                                 for (Pair pair : sqlList) {
                                     String action = pair.getAction();
                                     if (action.trim().isEmpty() || action.trim().startsWith("--")) {
@@ -953,33 +1384,33 @@ public class TableService {
                                         log.debug("{}:SQL:{}:{}", environment, pair.getDescription(), pair.getAction());
                                         tblMirror.setMigrationStageMessage("Executing SQL: " + pair.getDescription());
                                         if (config.isExecute()) {
-                                            // Log the Return of 'set' commands.
-                                            if (pair.getAction().trim().toLowerCase().startsWith("set")) {
-                                                stmt.execute(pair.getAction());
-                                                try {
-                                                    // Check for a result set and print result if present.
-                                                    ResultSet resultSet = stmt.getResultSet();
-                                                    if (!isNull(resultSet)) {
-                                                        while (resultSet.next()) {
-                                                            tblMirror.addStep(environment.toString(), "Sql Run Complete for: " + pair.getDescription() + " : " + resultSet.getString(1));
-                                                            log.info("{}:{}", pair.getAction(), resultSet.getString(1));
-                                                        }
-                                                    } else {
-                                                        tblMirror.addStep(environment.toString(), "Sql Run Complete for: " + pair.getDescription());
-                                                    }
-                                                } catch (SQLException se) {
-                                                    // Otherwise, just log command.
-                                                    tblMirror.addStep(environment.toString(), "Sql Run Complete for: " + pair.getDescription());
+                                            if (SessionSettings.isSessionStatement(action)) {
+                                                // Session statements apply to what follows, so run what's queued first.
+                                                // They're never journaled, a resumed run needs them again.
+                                                executeBatch(stmt, batch, tblMirror, environment);
+                                                if (getConnectionPoolService().getSessionSettings().isApplied(conn, action)) {
+                                                    tblMirror.recordStep(StepEnum.SQL_SKIPPED_SESSION, environment, pair.getDescription());
+                                                } else {
+                                                    // Recorded against the session by the connection.
+                                                    executeSessionStatement(stmt, pair, tblMirror, environment);
                                                 }
+                                            } else if (runJournalService.isExecuted(tblMirror, environment, pair)) {
+                                                // DDL or DML executed by a previous run that didn't finish.
+                                                tblMirror.recordStep(StepEnum.SQL_SKIPPED_JOURNAL, environment, pair.getDescription());
+                                            } else if (nonNull(batch)) {
+                                                batch.add(pair);
                                             } else {
+                                                long start = System.nanoTime();
                                                 stmt.execute(pair.getAction());
-                                                tblMirror.addStep(environment.toString(), "Sql Run Complete for: " + pair.getDescription());
+                                                runJournalService.recordSql(tblMirror, environment, pair);
+                                                tblMirror.recordTimed(StepEnum.SQL, environment, pair.getDescription(), elapsed(start, environment, pair));
                                             }
                                         } else {
-                                            tblMirror.addStep(environment.toString(), "Sql Run SKIPPED (DRY-RUN) for: " + pair.getDescription());
+                                            tblMirror.recordStep(StepEnum.SQL_DRY_RUN, environment, pair.getDescription());
                                         }
                                     }
                                 }
+                                executeBatch(stmt, batch, tblMirror, environment);
                             } catch (SQLException throwables) {
                                 log.error("{}:{}", environment.toString(), throwables.getMessage(), throwables);
                                 String message = throwables.getMessage();
@@ -1004,4 +1435,90 @@ public class TableService {
         }
         return rtn;
     }
+
+    /*
+    Run a session statement ('set', 'reset' or 'use') and record the value it reports, when it reports one.
+     */
+    private void executeSessionStatement(Statement stmt, Pair pair, TableMirror tblMirror,
+                                         Environment environment) throws SQLException {
+        long start = System.nanoTime();
+        stmt.execute(pair.getAction());
+        long elapsed = elapsed(start, environment, pair);
+        try {
+            // Check for a result set and print result if present.
+            ResultSet resultSet = stmt.getResultSet();
+            if (!isNull(resultSet)) {
+                while (resultSet.next()) {
+                    tblMirror.recordTimed(StepEnum.SQL, environment, pair.getDescription() + " : " + resultSet.getString(1), elapsed);
+                    log.info("{}:{}", pair.getAction(), resultSet.getString(1));
+                }
+            } else {
+                tblMirror.recordTimed(StepEnum.SQL, environment, pair.getDescription(), elapsed);
+            }
+        } catch (SQLException se) {
+            // Otherwise, just log command.
+            tblMirror.recordTimed(StepEnum.SQL, environment, pair.getDescription(), elapsed);
+        }
+    }
+
+    /*
+    Run the queued statements as a single batch and empty the queue.  When the batch fails part way, the
+    statements the driver reports as done are still recorded in the run journal.
+     */
+    private void executeBatch(Statement stmt, List<Pair> batch, TableMirror tblMirror,
+                              Environment environment) throws SQLException {
+        if (isNull(batch) || batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (batch.size() == 1) {
+            stmt.execute(batch.get(0).getAction());
+        } else {
+            for (Pair pair : batch) {
+                stmt.addBatch(pair.getAction());
+            }
+            try {
+                stmt.executeBatch();
+            } catch (BatchUpdateException bue) {
+                int[] counts = bue.getUpdateCounts();
+                for (int i = 0; nonNull(counts) && i < counts.length && i < batch.size(); i++) {
+                    if (counts[i] != Statement.EXECUTE_FAILED) {
+                        runJournalService.recordSql(tblMirror, environment, batch.get(i));
+                    }
+                }
+                batch.clear();
+                throw bue;
+            } finally {
+                stmt.clearBatch();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        log.debug("{}:SQL batch of {} statement(s) ran in {}ms", environment, batch.size(), nanos / 1_000_000);
+        // Each statement of a batch is timed as its share of the batch.
+        long share = nanos / batch.size();
+        String suffix = batch.size() == 1 ? "" : " (batch of " + batch.size() + ")";
+        for (Pair pair : batch) {
+            runJournalService.recordSql(tblMirror, environment, pair);
+            tblMirror.recordTimed(StepEnum.SQL, environment, pair.getDescription() + suffix, share);
+        }
+        batch.clear();
+    }
+
+    private static long elapsed(long start, Environment environment, Pair pair) {
+        long nanos = System.nanoTime() - start;
+        log.debug("{}:SQL:{} ran in {}ms", environment, pair.getDescription(), nanos / 1_000_000);
+        return nanos;
+    }
+
+    /*
+    The Hive driver doesn't support batches, but other drivers behind the HS2 pool might.
+     */
+    private static boolean supportsBatchUpdates(Connection conn) {
+        try {
+            return conn.getMetaData().supportsBatchUpdates();
+        } catch (SQLException | RuntimeException e) {
+            log.trace("Unable to check batch support", e);
+            return false;
+        }
+    }
 }
@@ -30,6 +30,7 @@ import com.cloudera.utils.hms.mirror.domain.support.DataStrategyEnum;
 import com.cloudera.utils.hms.mirror.domain.support.Environment;
 import com.cloudera.utils.hms.mirror.domain.support.HmsMirrorConfigUtil;
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
+import com.cloudera.utils.hms.mirror.domain.support.StepEnum;
 import com.cloudera.utils.hms.mirror.exceptions.MissingDataPointException;
 import com.cloudera.utils.hms.mirror.exceptions.RequiredConfigurationException;
 import com.cloudera.utils.hms.stage.ReturnStatus;
@@ -67,6 +68,7 @@ public class TransferService {
     private final DataStrategyService dataStrategyService;
     private final HybridDataStrategy hybridDataStrategy;
     private final HybridAcidDowngradeInPlaceDataStrategy hybridAcidDowngradeInPlaceDataStrategy;
+    private final RunJournalService runJournalService;
 
     public TransferService(
             ConfigService configService,
@@ -76,7 +78,8 @@ public class TransferService {
             WarehouseService warehouseService,
             DataStrategyService dataStrategyService,
             HybridDataStrategy hybridDataStrategy,
-            HybridAcidDowngradeInPlaceDataStrategy hybridAcidDowngradeInPlaceDataStrategy
+            HybridAcidDowngradeInPlaceDataStrategy hybridAcidDowngradeInPlaceDataStrategy,
+            RunJournalService runJournalService
     ) {
         this.configService = configService;
         this.executeSessionService = executeSessionService;
@@ -86,9 +89,10 @@ public class TransferService {
         this.dataStrategyService = dataStrategyService;
         this.hybridDataStrategy = hybridDataStrategy;
         this.hybridAcidDowngradeInPlaceDataStrategy = hybridAcidDowngradeInPlaceDataStrategy;
+        this.runJournalService = runJournalService;
     }
 
-    @Async("jobThreadPool")
+    @Async("buildThreadPool")
     public CompletableFuture<ReturnStatus> build(TableMirror tableMirror) {
         ReturnStatus rtn = new ReturnStatus();
         rtn.setTableMirror(tableMirror);
@@ -107,7 +111,7 @@ public class TransferService {
             tableMirror.setPhaseState(PhaseState.CALCULATING_SQL);
             tableMirror.setStrategy(config.getDataStrategy());
             tableMirror.incPhase();
-            tableMirror.addStep("Build TRANSFER", config.getDataStrategy().toString());
+            tableMirror.recordStep(StepEnum.BUILD_TRANSFER, null, config.getDataStrategy().toString());
             try {
                 DataStrategy dataStrategy = null;
                 switch (config.getDataStrategy()) {
@@ -266,7 +270,7 @@ public class TransferService {
         return CompletableFuture.completedFuture(rtn);
     }
 
-    @Async("jobThreadPool")
+    @Async("tableExecutionThreadPool")
     public CompletableFuture<ReturnStatus> execute(TableMirror tableMirror) {
         ReturnStatus rtn = new ReturnStatus();
         rtn.setTableMirror(tableMirror);
@@ -281,11 +285,12 @@ public class TransferService {
 
         // Set Database to Transfer DB.
         tableMirror.setPhaseState(PhaseState.APPLYING_SQL);
+        runJournalService.recordPhase(tableMirror);
 
         tableMirror.setStrategy(config.getDataStrategy());
 
         tableMirror.incPhase();
-        tableMirror.addStep("Processing TRANSFER", config.getDataStrategy().toString());
+        tableMirror.recordStep(StepEnum.PROCESS_TRANSFER, null, config.getDataStrategy().toString());
         try {
             DataStrategy dataStrategy = null;
             switch (config.getDataStrategy()) {
@@ -329,6 +334,7 @@ public class TransferService {
             rtn.setStatus(ReturnStatus.Status.FATAL);
             rtn.setException(rte);
         }
+        runJournalService.recordPhase(tableMirror);
 
         Date end = new Date();
         Long diff = end.getTime() - start.getTime();
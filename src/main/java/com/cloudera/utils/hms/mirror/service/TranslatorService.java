@@ -113,26 +113,27 @@ public class TranslatorService {
         String newLocation = originalLocation;
         HmsMirrorConfig hmsMirrorConfig = executeSessionService.getSession().getConfig();
 
-        if (!hmsMirrorConfig.getTranslator().getOrderedGlobalLocationMap().isEmpty()) {
+        GlobalLocationMapIndex glmIndex = hmsMirrorConfig.getTranslator().getGlobalLocationMapIndex();
+        if (!glmIndex.isEmpty()) {
             log.debug("Checking location: {} for replacement element in global location map.", originalLocation);
-            for (String key : hmsMirrorConfig.getTranslator().getOrderedGlobalLocationMap().keySet()) {
-                if (originalLocation.startsWith(key)) {
-                    Map<TableType, String> rLocMap = hmsMirrorConfig.getTranslator().getOrderedGlobalLocationMap().get(key);
-                    String rLoc = null;
-                    if (externalTable) {
-                        rLoc = rLocMap.get(TableType.EXTERNAL_TABLE);
+            // Longest key that the location starts with.
+            Map.Entry<String, Map<TableType, String>> glmEntry = glmIndex.longestPrefix(originalLocation);
+            if (nonNull(glmEntry)) {
+                String key = glmEntry.getKey();
+                Map<TableType, String> rLocMap = glmEntry.getValue();
+                String rLoc = null;
+                if (externalTable) {
+                    rLoc = rLocMap.get(TableType.EXTERNAL_TABLE);
+                    newLocation = rLoc + originalLocation.replace(key, "");
+                    glmResult.setMapped(Boolean.TRUE);
+                } else {
+                    rLoc = rLocMap.get(TableType.MANAGED_TABLE);
+                    if (nonNull(rLoc)) {
                         newLocation = rLoc + originalLocation.replace(key, "");
                         glmResult.setMapped(Boolean.TRUE);
-                    } else {
-                        rLoc = rLocMap.get(TableType.MANAGED_TABLE);
-                        if (nonNull(rLoc)) {
-                            newLocation = rLoc + originalLocation.replace(key, "");
-                            glmResult.setMapped(Boolean.TRUE);
-                        }
                     }
-                    log.info("Location Map Found. {}:{} New Location: {}", key, rLoc, newLocation);
-                    break;
                 }
+                log.info("Location Map Found. {}:{} New Location: {}", key, rLoc, newLocation);
             }
         }
         glmResult.setMappedDir(newLocation);
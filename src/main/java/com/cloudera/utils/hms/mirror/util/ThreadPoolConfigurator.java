@@ -17,7 +17,6 @@
 
 package com.cloudera.utils.hms.mirror.util;
 
-import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -27,6 +26,10 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 @Slf4j
 public class ThreadPoolConfigurator {
@@ -34,33 +37,149 @@ public class ThreadPoolConfigurator {
     private static final int ORDER = 20;
     private static final int DEFAULT_QUEUE_CAPACITY = 1000;
     private static final int SINGLE_THREAD_POOL_SIZE = 1;
+    private static final String ENGINE_VIRTUAL = "virtual";
 
     private ThreadPoolTaskExecutor createThreadPool(String threadNamePrefix, int corePoolSize, int maxPoolSize) {
+        return createThreadPool(threadNamePrefix, corePoolSize, maxPoolSize, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private ThreadPoolTaskExecutor createThreadPool(String threadNamePrefix, int corePoolSize, int maxPoolSize,
+                                                    RejectedExecutionHandler rejectedExecutionHandler) {
+        return createThreadPool(threadNamePrefix, corePoolSize, maxPoolSize, DEFAULT_QUEUE_CAPACITY, rejectedExecutionHandler);
+    }
+
+    private ThreadPoolTaskExecutor createThreadPool(String threadNamePrefix, int corePoolSize, int maxPoolSize,
+                                                    int queueCapacity, RejectedExecutionHandler rejectedExecutionHandler) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
         executor.setMaxPoolSize(maxPoolSize);
-        executor.setQueueCapacity(DEFAULT_QUEUE_CAPACITY);
+        executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
         executor.initialize();
         return executor;
     }
 
-    @Bean("jobThreadPool")
+    /*
+    The 'virtual' engine runs each task on its own virtual thread, limited to the same number of tasks at
+    once as the platform pool would have threads.  It needs JDK 21+, otherwise the platform pool is used.
+     */
+    private TaskExecutor createStageThreadPool(String stage, int maxThreads, int stageThreads, int queueCapacity,
+                                               String engine) {
+        int threads = stageThreads > 0 ? stageThreads : maxThreads;
+        if (ENGINE_VIRTUAL.equalsIgnoreCase(engine)) {
+            if (VirtualThreadTaskExecutor.isSupported()) {
+                log.info("Setting up {} stage with virtual threads, max concurrent tasks: {} and queue capacity: {}",
+                        stage, threads, queueCapacity);
+                return new VirtualThreadTaskExecutor(stage + "-", threads, queueCapacity);
+            }
+            log.warn("Virtual threads aren't supported by Java {}.  Using a thread pool for the {} stage.",
+                    System.getProperty("java.version"), stage);
+        }
+        log.info("Setting up {} stage thread pool with max threads: {} and queue capacity: {}", stage, threads, queueCapacity);
+        return createThreadPool(stage + "-", threads, threads, queueCapacity, new BlockWhenQueueFullPolicy());
+    }
+
+    /*
+    Back-pressure for the stage pools.  Instead of rejecting the task when the queue is full, the submitting
+    thread waits for space.  The stages only submit to later stages, so a waiting submitter can't be waiting
+    on itself.
+     */
+    protected static class BlockWhenQueueFullPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            try {
+                executor.getQueue().put(r);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+            }
+        }
+    }
+
+    /*
+    The table work is split into stages (listing, metadata, build and execute), each with its own pool so a
+    slow stage doesn't hold the threads of another.  The RIGHT table definitions are fetched on their own
+    pool, so a slow RIGHT cluster doesn't hold the threads collecting the LEFT metadata.  The database
+    definitions and the database SQL run on the 'database' pool, a database at a time on each thread.
+
+    A stage size of 0 (the default) uses 'max-threads'.  When a stage queue is full, the submitter waits
+    for space instead of the task being rejected.
+     */
+    @Bean("databaseThreadPool")
+    @Order(ORDER)
+    @ConditionalOnProperty(name = "hms-mirror.concurrency.max-threads")
+    public TaskExecutor databaseThreadPool(@Value("${hms-mirror.concurrency.max-threads}") Integer maxThreads,
+                                           @Value("${hms-mirror.concurrency.stage.database:0}") Integer value,
+                                           @Value("${hms-mirror.concurrency.queue-capacity:1000}") Integer queueCapacity,
+                                           @Value("${hms-mirror.concurrency.engine:platform}") String engine) {
+        return createStageThreadPool("database", maxThreads, value, queueCapacity, engine);
+    }
+
+    @Bean("listingThreadPool")
     @Order(ORDER)
     @ConditionalOnProperty(name = "hms-mirror.concurrency.max-threads")
-    public TaskExecutor jobThreadPool(ExecuteSessionService executeSessionService, 
-                                    @Value("${hms-mirror.concurrency.max-threads}") Integer value) {
-        log.info("Setting up jobThreadPool with max threads: {}", value);
-        return createThreadPool("job-", value, value);
+    public TaskExecutor listingThreadPool(@Value("${hms-mirror.concurrency.max-threads}") Integer maxThreads,
+                                          @Value("${hms-mirror.concurrency.stage.listing:0}") Integer value,
+                                          @Value("${hms-mirror.concurrency.queue-capacity:1000}") Integer queueCapacity,
+                                          @Value("${hms-mirror.concurrency.engine:platform}") String engine) {
+        return createStageThreadPool("listing", maxThreads, value, queueCapacity, engine);
     }
 
     @Bean("metadataThreadPool")
     @Order(ORDER)
     @ConditionalOnProperty(name = "hms-mirror.concurrency.max-threads")
-    public TaskExecutor metadataThreadPool(ExecuteSessionService executeSessionService, 
-                                         @Value("${hms-mirror.concurrency.max-threads}") Integer value) {
-        log.info("Setting up metadataThreadPool with max threads: {}", value);
-        return createThreadPool("metadata-", value, value);
+    public TaskExecutor metadataThreadPool(@Value("${hms-mirror.concurrency.max-threads}") Integer maxThreads,
+                                           @Value("${hms-mirror.concurrency.stage.metadata:0}") Integer value,
+                                           @Value("${hms-mirror.concurrency.queue-capacity:1000}") Integer queueCapacity,
+                                           @Value("${hms-mirror.concurrency.engine:platform}") String engine) {
+        return createStageThreadPool("metadata", maxThreads, value, queueCapacity, engine);
+    }
+
+    @Bean("rightMetadataThreadPool")
+    @Order(ORDER)
+    @ConditionalOnProperty(name = "hms-mirror.concurrency.max-threads")
+    public TaskExecutor rightMetadataThreadPool(@Value("${hms-mirror.concurrency.max-threads}") Integer maxThreads,
+                                                @Value("${hms-mirror.concurrency.stage.right-metadata:0}") Integer value,
+                                                @Value("${hms-mirror.concurrency.queue-capacity:1000}") Integer queueCapacity,
+                                                @Value("${hms-mirror.concurrency.engine:platform}") String engine) {
+        return createStageThreadPool("right-metadata", maxThreads, value, queueCapacity, engine);
+    }
+
+    @Bean("buildThreadPool")
+    @Order(ORDER)
+    @ConditionalOnProperty(name = "hms-mirror.concurrency.max-threads")
+    public TaskExecutor buildThreadPool(@Value("${hms-mirror.concurrency.max-threads}") Integer maxThreads,
+                                        @Value("${hms-mirror.concurrency.stage.build:0}") Integer value,
+                                        @Value("${hms-mirror.concurrency.queue-capacity:1000}") Integer queueCapacity,
+                                        @Value("${hms-mirror.concurrency.engine:platform}") String engine) {
+        return createStageThreadPool("build", maxThreads, value, queueCapacity, engine);
+    }
+
+    @Bean("tableExecutionThreadPool")
+    @Order(ORDER)
+    @ConditionalOnProperty(name = "hms-mirror.concurrency.max-threads")
+    public TaskExecutor tableExecutionThreadPool(@Value("${hms-mirror.concurrency.max-threads}") Integer maxThreads,
+                                                 @Value("${hms-mirror.concurrency.stage.execute:0}") Integer value,
+                                                 @Value("${hms-mirror.concurrency.queue-capacity:1000}") Integer queueCapacity,
+                                                 @Value("${hms-mirror.concurrency.engine:platform}") String engine) {
+        return createStageThreadPool("execute", maxThreads, value, queueCapacity, engine);
+    }
+
+    /*
+    Collects the file system stats (content summaries) of the table locations.
+     */
+    @Bean("statsThreadPool")
+    @Order(ORDER)
+    @ConditionalOnProperty(name = "hms-mirror.concurrency.max-threads")
+    public TaskExecutor statsThreadPool(@Value("${hms-mirror.concurrency.max-threads}") Integer maxThreads,
+                                        @Value("${hms-mirror.concurrency.stage.stats:0}") Integer value,
+                                        @Value("${hms-mirror.concurrency.queue-capacity:1000}") Integer queueCapacity,
+                                        @Value("${hms-mirror.concurrency.engine:platform}") String engine) {
+        return createStageThreadPool("stats", maxThreads, value, queueCapacity, engine);
     }
 
     @Bean("reportingThreadPool")
@@ -70,6 +189,17 @@ public class ThreadPoolConfigurator {
         return createThreadPool("reporting-", SINGLE_THREAD_POOL_SIZE, SINGLE_THREAD_POOL_SIZE);
     }
 
+    /*
+    Writes the per database report artifacts at the end of a run.  When the queue is full, the caller
+    writes the report itself, which holds back the submission of more work.
+     */
+    @Bean("reportWriterThreadPool")
+    @Order(ORDER)
+    public TaskExecutor reportWriterThreadPool(@Value("${hms-mirror.concurrency.report-writer-threads:4}") Integer value) {
+        log.info("Setting up reportWriterThreadPool with max threads: {}", value);
+        return createThreadPool("report-writer-", value, value, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     @Bean("executionThreadPool")
     @Order(ORDER)
     public TaskExecutor executionThreadPool() {
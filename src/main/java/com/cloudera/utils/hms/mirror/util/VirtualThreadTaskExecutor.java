@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Runs each task on its own virtual thread (JDK 21+).  The blocking JDBC and HDFS calls then park the virtual
+thread instead of holding a platform thread, so the number of tasks in flight is bounded by the
+'concurrency' (sized to the connection pools) and not by the number of cores or platform threads.
+
+- At most 'concurrency' tasks run at once.  The others park until a slot frees up.
+- At most 'concurrency + queueCapacity' tasks are accepted.  Beyond that, the submitter waits, which is the
+  same back-pressure the platform thread pools apply.
+
+The virtual thread API is reached through reflection, so the application still builds and runs on older
+JDKs.  Check 'isSupported' before building one.
+ */
+@Slf4j
+@Getter
+public class VirtualThreadTaskExecutor implements TaskExecutor {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    // JDK 19 and 20 have the method, but it fails unless preview features are enabled.
+    private static final boolean SUPPORTED = probe();
+
+    private final String name;
+    private final int concurrency;
+    private final int queueCapacity;
+    @Getter(AccessLevel.NONE)
+    private final ThreadFactory threadFactory;
+    @Getter(AccessLevel.NONE)
+    private final Semaphore running;
+    @Getter(AccessLevel.NONE)
+    private final Semaphore accepted;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder completed = new LongAdder();
+
+    public VirtualThreadTaskExecutor(String name, int concurrency, int queueCapacity) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads aren't supported by this JVM: " + System.getProperty("java.version"));
+        }
+        this.name = name;
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.threadFactory = virtualThreadFactory(name);
+        this.running = new Semaphore(concurrency, true);
+        this.accepted = new Semaphore(concurrency + queueCapacity, true);
+    }
+
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            accepted.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to submit to " + name, e);
+        }
+        Thread thread;
+        try {
+            thread = threadFactory.newThread(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                        completed.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("{} task interrupted before it started", name);
+                } finally {
+                    accepted.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            accepted.release();
+            throw new RejectedExecutionException("Unable to create a virtual thread for " + name, e);
+        }
+        thread.start();
+    }
+
+    /*
+    Tasks running now plus the ones waiting to run.
+     */
+    public int getActiveCount() {
+        return concurrency + queueCapacity - accepted.availablePermits();
+    }
+
+    /*
+    Tasks running now, at most 'concurrency'.
+     */
+    public int getRunningCount() {
+        return concurrency - running.availablePermits();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    private static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            // Thread.ofVirtual().name(name, 0).factory()
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to build the virtual thread factory for " + name, e);
+        }
+    }
+
+    private static boolean probe() {
+        if (OF_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            virtualThreadFactory("probe");
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static Method findMethod(Class<?> clazz, String method) {
+        try {
+            return clazz.getMethod(method);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
@@ -83,4 +83,9 @@ public interface ControllerReferences {
     String PROPERTY = "PROPERTY";
     String SIDE = "SIDE";
     String VALUE = "VALUE";
+    String REPORT_INDEX = "REPORT_INDEX";
+    String TABLES_PAGE = "TABLES_PAGE";
+    String PHASE = "PHASE";
+    String ERRORS_ONLY = "ERRORS_ONLY";
+    String PAGE = "PAGE";
 }
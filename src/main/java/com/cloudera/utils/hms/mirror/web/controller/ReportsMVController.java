@@ -17,8 +17,10 @@
 
 package com.cloudera.utils.hms.mirror.web.controller;
 
+import com.cloudera.utils.hms.mirror.PhaseState;
 import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.support.ReportIndex;
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
 import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
 import com.cloudera.utils.hms.mirror.service.ReportService;
@@ -27,8 +29,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -36,10 +37,8 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 @Controller
@@ -51,16 +50,19 @@ public class ReportsMVController implements ControllerReferences {
     private final ReportService reportService;
     private final UIModelService uiModelService;
     private final ExecuteSessionService executeSessionService;
+    private final int pageSize;
 
     public ReportsMVController(
             ObjectMapper yamlMapper,
             ReportService reportService,
             UIModelService uiModelService,
-            ExecuteSessionService executeSessionService) {
+            ExecuteSessionService executeSessionService,
+            @Value("${hms-mirror.reports.page-size:100}") int pageSize) {
         this.yamlMapper = yamlMapper;
         this.reportService = reportService;
         this.uiModelService = uiModelService;
         this.executeSessionService = executeSessionService;
+        this.pageSize = pageSize;
     }
 
     @RequestMapping(value = "/select", method = RequestMethod.GET)
@@ -101,10 +103,35 @@ public class ReportsMVController implements ControllerReferences {
     @RequestMapping(value = "/dbdetail", method = RequestMethod.GET)
     public String viewReport(Model model,
                              @RequestParam(value = REPORT_ID, required = true) String report_id,
-                             @RequestParam(value = DATABASE, required = true) String database) {
+                             @RequestParam(value = DATABASE, required = true) String database,
+                             @RequestParam(value = PHASE, required = false) PhaseState phase,
+                             @RequestParam(value = ERRORS_ONLY, required = false, defaultValue = "false") boolean errorsOnly,
+                             @RequestParam(value = PAGE, required = false, defaultValue = "0") int page) {
         model.addAttribute(REPORT_ID, report_id);
         model.addAttribute(DATABASE, database);
-        DBMirror dbMirror = reportService.getDBMirror(report_id, database);
+        model.addAttribute(PHASE, phase);
+        model.addAttribute(ERRORS_ONLY, errorsOnly);
+        DBMirror dbMirror;
+        try {
+            // Only the tables of the page are read from the database report.
+            ReportIndex index = reportService.getReportIndex(report_id, database);
+            ReportIndex.Page tablesPage = index.find(phase, errorsOnly, page, pageSize);
+            try {
+                dbMirror = reportService.getDBMirror(report_id, database, index, tablesPage);
+            } catch (ReportIndex.MismatchException e) {
+                // The report changed since it was indexed.
+                log.warn("{}, rebuilding the index", e.getMessage());
+                index = reportService.rebuildReportIndex(report_id, database);
+                tablesPage = index.find(phase, errorsOnly, page, pageSize);
+                dbMirror = reportService.getDBMirror(report_id, database, index, tablesPage);
+            }
+            model.addAttribute(REPORT_INDEX, index);
+            model.addAttribute(TABLES_PAGE, tablesPage);
+        } catch (IOException e) {
+            log.error("Report index not available for report: {} database: {}, loading the whole report",
+                    report_id, database, e);
+            dbMirror = reportService.getDBMirror(report_id, database);
+        }
         model.addAttribute(DB_MIRROR, dbMirror);
         HmsMirrorConfig config = reportService.getConfig(report_id);
         model.addAttribute(CONFIG, config);
@@ -178,13 +205,10 @@ public class ReportsMVController implements ControllerReferences {
     public void doDownloadReport(@RequestParam(value = REPORT_ID, required = true) String report_id,
                                  HttpServletResponse response) {
         try {
-            HttpEntity<ByteArrayResource> entity = reportService.getZippedReport(report_id);
             response.setContentType("application/zip");
-            // Translate headers
-            entity.getHeaders().forEach((k, v) -> response.setHeader(k, v.get(0)));
             response.setHeader("Content-Disposition", "attachment; filename=\"" + report_id + ".zip\"");
-            InputStream is = Objects.requireNonNull(entity.getBody()).getInputStream();
-            org.apache.commons.io.IOUtils.copy(is, response.getOutputStream());
+            // Zipped straight to the response.
+            reportService.writeZippedReport(report_id, response.getOutputStream());
             response.flushBuffer();
         } catch (IOException e) {
             log.error("Error while downloading report: {}", report_id, e);
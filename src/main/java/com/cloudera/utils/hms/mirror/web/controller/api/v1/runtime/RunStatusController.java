@@ -19,6 +19,7 @@ package com.cloudera.utils.hms.mirror.web.controller.api.v1.runtime;
 
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
 import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
+import com.cloudera.utils.hms.mirror.web.service.ProgressStreamService;
 import com.cloudera.utils.hms.mirror.web.service.RunStatusService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,7 +27,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @CrossOrigin
 @RestController
@@ -36,10 +39,13 @@ public class RunStatusController {
 
     private final ExecuteSessionService executeSessionService;
     private final RunStatusService runStatusService;
+    private final ProgressStreamService progressStreamService;
 
-    public RunStatusController(ExecuteSessionService executeSessionService, RunStatusService runStatusService) {
+    public RunStatusController(ExecuteSessionService executeSessionService, RunStatusService runStatusService,
+                               ProgressStreamService progressStreamService) {
         this.executeSessionService = executeSessionService;
         this.runStatusService = runStatusService;
+        this.progressStreamService = progressStreamService;
     }
 
     @Operation(summary = "Get the RunStatus")
@@ -57,4 +63,17 @@ public class RunStatusController {
     public RunStatus getRunStatus(@RequestParam(name = "sessionId", required = false) String sessionId) {
         return runStatusService.getRunStatus(sessionId);
     }
+
+    @Operation(summary = "Stream the progress of the current session as server-sent events",
+            description = "Starts with a 'snapshot' event, then sends what changed: 'progress', 'stage', 'phases', " +
+                    "'tables', 'errors' and 'warnings'.  Reconnect with the 'Last-Event-ID' header to get the " +
+                    "events missed in between.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progress events",
+                    content = {@Content(mediaType = "text/event-stream")})
+    })
+    @RequestMapping(method = RequestMethod.GET, value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRunStatus(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return progressStreamService.subscribe(lastEventId);
+    }
 }
\ No newline at end of file
@@ -17,6 +17,9 @@
 
 package com.cloudera.utils.hms.mirror.web.controller.api.v1.runtime;
 
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.ReportIndex;
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
 import com.cloudera.utils.hms.mirror.exceptions.EncryptionException;
 import com.cloudera.utils.hms.mirror.exceptions.MismatchException;
@@ -32,14 +35,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.util.Set;
 
+import static java.util.Objects.isNull;
+
 @CrossOrigin
 @RestController
 @Slf4j
@@ -98,7 +103,7 @@ public class RuntimeController {
     })
     @ResponseBody
     @RequestMapping(method = RequestMethod.GET, value = "/reports/latest/download")
-    public HttpEntity<ByteArrayResource> downloadLatestSessionReport() throws IOException {
+    public HttpEntity<StreamingResponseBody> downloadLatestSessionReport() throws IOException {
         Set<String> availableReports = reportService.getAvailableReports();
         if (availableReports.isEmpty()) {
             throw new IOException("No reports available");
@@ -115,7 +120,7 @@ public class RuntimeController {
     })
     @ResponseBody
     @RequestMapping(method = RequestMethod.GET, value = "/reports/{id}/download")
-    public HttpEntity<ByteArrayResource> downloadSessionReport(@PathVariable @NotNull String id) throws IOException {
+    public HttpEntity<StreamingResponseBody> downloadSessionReport(@PathVariable @NotNull String id) throws IOException {
         return reportService.getZippedReport(id);
     }
 
@@ -130,4 +135,41 @@ public class RuntimeController {
     public Set<String> availableReports() {
         return reportService.getAvailableReports();
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Page through the tables of a database report",
+            description = "From the report index, so the database report isn't parsed.  Filter on the phase of the " +
+                    "tables and/or the tables with errors.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "A page of the table summaries",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReportIndex.Page.class))})
+    })
+    @ResponseBody
+    @RequestMapping(method = RequestMethod.GET, value = "/reports/{id}/databases/{database}/tables")
+    public ReportIndex.Page reportTables(@PathVariable @NotNull String id,
+                                         @PathVariable @NotNull String database,
+                                         @RequestParam(name = "phase", required = false) PhaseState phase,
+                                         @RequestParam(name = "errors", required = false, defaultValue = "false") boolean errors,
+                                         @RequestParam(name = "page", required = false, defaultValue = "0") int page,
+                                         @RequestParam(name = "size", required = false, defaultValue = "100") int size) throws IOException {
+        return reportService.getTables(id, database, phase, errors, page, size);
+    }
+
+    @Operation(summary = "Get a single table of a database report")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The table",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TableMirror.class))})
+    })
+    @ResponseBody
+    @RequestMapping(method = RequestMethod.GET, value = "/reports/{id}/databases/{database}/tables/{table}")
+    public TableMirror reportTable(@PathVariable @NotNull String id,
+                                   @PathVariable @NotNull String database,
+                                   @PathVariable @NotNull String table) throws IOException {
+        TableMirror tableMirror = reportService.getTableMirror(id, database, table);
+        if (isNull(tableMirror)) {
+            throw new IOException("Table " + table + " not found in the report for " + database);
+        }
+        return tableMirror;
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.cloudera.utils.hms.mirror.web.service;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.support.*;
+import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/*
+Pushes the changes in the progress of the current session to the subscribers of the progress stream, instead of
+having them poll the whole RunStatus.
+
+The progress is read every 'interval-ms' (only while there are subscribers) and compared with the previous read.
+What changed in between goes out as a few coalesced events (see ProgressEvent), so a table that went through
+several phases between two reads is one change, not several.  The last 'replay-buffer' events are kept, so a
+subscriber that reconnects with the id of the last event it saw gets what it missed, or a new snapshot when the
+events are no longer kept.
+
+The events are built under the lock of the service and queued for each subscriber, then sent outside of it, so a
+slow subscriber doesn't hold up the others or the reads.  The reader is stopped when the last subscriber goes and
+started again with the next one.
+ */
+@Service
+@Slf4j
+public class ProgressStreamService {
+    // Send a comment now and then, so proxies don't close an idle stream.
+    private static final long KEEPALIVE_MS = 15000;
+
+    private final ExecuteSessionService executeSessionService;
+    private final long intervalMs;
+    private final int replayBuffer;
+    private final long timeoutMs;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Deque<ProgressEvent> replay = new ArrayDeque<>();
+    private ScheduledExecutorService scheduler = null;
+    private State previous = null;
+    private long lastId = 0;
+    private long lastSent = System.currentTimeMillis();
+
+    public ProgressStreamService(ExecuteSessionService executeSessionService,
+                                 @Value("${hms-mirror.progress.interval-ms:500}") long intervalMs,
+                                 @Value("${hms-mirror.progress.replay-buffer:256}") int replayBuffer,
+                                 @Value("${hms-mirror.progress.timeout-ms:1800000}") long timeoutMs) {
+        this.executeSessionService = executeSessionService;
+        this.intervalMs = intervalMs;
+        this.replayBuffer = replayBuffer;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /*
+    A new subscriber.  With the id of the last event it saw ('Last-Event-ID'), it gets the events after it when they
+    are still kept.  Otherwise, it starts with a snapshot of the progress.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> unsubscribe(emitter));
+        emitter.onTimeout(() -> unsubscribe(emitter));
+        emitter.onError(e -> unsubscribe(emitter));
+
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (this) {
+            // Catch up first, so what's queued for the new subscriber is as of the last event.
+            enqueue(poll());
+            subscriber.pending.addAll(catchUp(lastEventId));
+            subscribers.add(subscriber);
+            startScheduler();
+        }
+        flush();
+        return emitter;
+    }
+
+    /*
+    The subscriber went away (completed, timed out or failed).  The reader stops with the last one.
+     */
+    synchronized void unsubscribe(SseEmitter emitter) {
+        subscribers.removeIf(subscriber -> subscriber.emitter == emitter);
+        if (subscribers.isEmpty()) {
+            stopScheduler();
+        }
+    }
+
+    /*
+    What a subscriber that saw up to 'lastEventId' needs to be up to date.
+     */
+    synchronized List<ProgressEvent> catchUp(Long lastEventId) {
+        List<ProgressEvent> rtn = new ArrayList<>();
+        if (nonNull(lastEventId) && lastEventId <= lastId
+                && (lastEventId == lastId || (!replay.isEmpty() && replay.peekFirst().getId() <= lastEventId + 1))) {
+            for (ProgressEvent event : replay) {
+                if (event.getId() > lastEventId) {
+                    rtn.add(event);
+                }
+            }
+        } else if (nonNull(previous)) {
+            // Has the id of the last event, so a reconnect picks up right after it.
+            rtn.add(new ProgressEvent(lastId, ProgressEvent.SNAPSHOT, previous.toSnapshot()));
+        }
+        return rtn;
+    }
+
+    /*
+    Read the progress and turn what changed since the last read into events.  The events are numbered and kept
+    for the subscribers that reconnect.
+     */
+    synchronized List<ProgressEvent> poll() {
+        List<ProgressEvent> rtn = new ArrayList<>();
+        State current = State.read(executeSessionService.getSession());
+        if (isNull(current)) {
+            return rtn;
+        }
+        if (isNull(previous) || !current.continues(previous)) {
+            // A new session or a reset, start over.
+            rtn.add(next(ProgressEvent.SNAPSHOT, current.toSnapshot()));
+        } else {
+            if (current.progress != previous.progress) {
+                rtn.add(next(ProgressEvent.PROGRESS, data("progress", current.progress)));
+            }
+            Map<StageEnum, CollectionEnum> stages = new EnumMap<>(StageEnum.class);
+            current.stages.forEach((stage, status) -> {
+                if (status != previous.stages.get(stage)) {
+                    stages.put(stage, status);
+                }
+            });
+            // The tables done in each stage ('12/40'), see StageProgress.getSummary.
+            Map<StageEnum, String> summaries = new EnumMap<>(StageEnum.class);
+            current.summaries.forEach((stage, summary) -> {
+                if (!summary.equals(previous.summaries.get(stage))) {
+                    summaries.put(stage, summary);
+                }
+            });
+            if (!stages.isEmpty() || !summaries.isEmpty()) {
+                Map<String, Object> data = data("stages", stages);
+                data.put("summaries", summaries);
+                rtn.add(next(ProgressEvent.STAGE, data));
+            }
+            if (!current.phases.equals(previous.phases)) {
+                Map<String, Object> data = data("phases", current.phases);
+                data.put("tableCount", current.tableCount);
+                data.put("databaseCount", current.databaseCount);
+                rtn.add(next(ProgressEvent.PHASES, data));
+            }
+            Map<String, PhaseState> started = new TreeMap<>();
+            current.activeTables.forEach((table, phase) -> {
+                if (phase != previous.activeTables.get(table)) {
+                    started.put(table, phase);
+                }
+            });
+            List<String> finished = new ArrayList<>();
+            for (String table : previous.activeTables.keySet()) {
+                if (!current.activeTables.containsKey(table)) {
+                    finished.add(table);
+                }
+            }
+            if (!started.isEmpty() || !finished.isEmpty()) {
+                Map<String, Object> data = data("started", started);
+                data.put("finished", finished);
+                rtn.add(next(ProgressEvent.TABLES, data));
+            }
+            List<String> errors = added(previous.errors, current.errors);
+            if (!errors.isEmpty()) {
+                rtn.add(next(ProgressEvent.ERRORS, data("added", errors)));
+            }
+            List<String> warnings = added(previous.warnings, current.warnings);
+            if (!warnings.isEmpty()) {
+                rtn.add(next(ProgressEvent.WARNINGS, data("added", warnings)));
+            }
+        }
+        previous = current;
+        return rtn;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    synchronized boolean isReading() {
+        return nonNull(scheduler);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Subscriber> lclSubscribers;
+        synchronized (this) {
+            stopScheduler();
+            lclSubscribers = new ArrayList<>(subscribers);
+            subscribers.clear();
+        }
+        for (Subscriber subscriber : lclSubscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    protected void tick() {
+        synchronized (this) {
+            if (subscribers.isEmpty()) {
+                stopScheduler();
+                return;
+            }
+            try {
+                List<ProgressEvent> events = poll();
+                if (!events.isEmpty()) {
+                    enqueue(events);
+                } else if (System.currentTimeMillis() - lastSent > KEEPALIVE_MS) {
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.keepalive = true;
+                    }
+                    lastSent = System.currentTimeMillis();
+                }
+            } catch (RuntimeException e) {
+                // Keep the scheduler going, the next read will try again.
+                log.warn("Issue reading the progress for the stream: {}", e.getMessage());
+            }
+        }
+        flush();
+    }
+
+    /*
+    Queue the events for every subscriber, in order.  Called under the lock, the sending is left to 'flush'.
+     */
+    private void enqueue(List<ProgressEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.pending.addAll(events);
+        }
+        lastSent = System.currentTimeMillis();
+    }
+
+    /*
+    Send what's queued, outside of the lock of the service.
+     */
+    private void flush() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.flush();
+            } catch (IOException | IllegalStateException e) {
+                drop(subscriber, e);
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber, Exception e) {
+        log.debug("Progress subscriber went away: {}", e.getMessage());
+        unsubscribe(subscriber.emitter);
+        subscriber.emitter.completeWithError(e);
+    }
+
+    private void startScheduler() {
+        if (isNull(scheduler)) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "progress-stream");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void stopScheduler() {
+        if (nonNull(scheduler)) {
+            // Not 'shutdownNow', this can be the reader itself.
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    private ProgressEvent next(String type, Map<String, Object> data) {
+        ProgressEvent event = new ProgressEvent(++lastId, type, data);
+        replay.addLast(event);
+        while (replay.size() > replayBuffer) {
+            replay.removeFirst();
+        }
+        return event;
+    }
+
+    private static Map<String, Object> data(String key, Object value) {
+        Map<String, Object> rtn = new LinkedHashMap<>();
+        rtn.put(key, value);
+        return rtn;
+    }
+
+    private static List<String> added(Set<String> before, Set<String> after) {
+        List<String> rtn = new ArrayList<>();
+        for (String message : after) {
+            if (!before.contains(message)) {
+                rtn.add(message);
+            }
+        }
+        return rtn;
+    }
+
+    /*
+    A subscriber and the events queued for it.  Sending is serialized on the subscriber, so the events go out in
+    the order they were queued, whichever thread sends them.
+     */
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<ProgressEvent> pending = new ConcurrentLinkedQueue<>();
+        private volatile boolean keepalive = false;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void flush() throws IOException {
+            ProgressEvent event;
+            while ((event = pending.poll()) != null) {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.getId()))
+                        .name(event.getType())
+                        .data(event, MediaType.APPLICATION_JSON));
+                keepalive = false;
+            }
+            if (keepalive) {
+                keepalive = false;
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        }
+    }
+
+    /*
+    What's compared from one read to the next.
+     */
+    private static class State {
+        private String sessionId;
+        private ProgressEnum progress;
+        private final Map<StageEnum, CollectionEnum> stages = new EnumMap<>(StageEnum.class);
+        private final Map<StageEnum, String> summaries = new EnumMap<>(StageEnum.class);
+        private Map<PhaseState, Integer> phases = Collections.emptyMap();
+        private Map<String, PhaseState> activeTables = Collections.emptyMap();
+        private int tableCount = 0;
+        private int databaseCount = 0;
+        // Messages are kept by code, not in the order they came in.
+        private final Set<String> errors = new LinkedHashSet<>();
+        private final Set<String> warnings = new LinkedHashSet<>();
+
+        static State read(ExecuteSession session) {
+            if (isNull(session) || isNull(session.getRunStatus())) {
+                return null;
+            }
+            RunStatus runStatus = session.getRunStatus();
+            State rtn = new State();
+            rtn.sessionId = session.getSessionId();
+            rtn.progress = runStatus.getProgress();
+            for (StageEnum stage : StageEnum.values()) {
+                CollectionEnum status = runStatus.getStage(stage);
+                if (nonNull(status)) {
+                    rtn.stages.put(stage, status);
+                    rtn.summaries.put(stage, runStatus.getStageProgress(stage).getSummary());
+                }
+            }
+            Conversion conversion = session.getConversion();
+            if (nonNull(conversion)) {
+                ConversionSnapshot snapshot = conversion.snapshot();
+                rtn.phases = snapshot.getPhases();
+                rtn.activeTables = snapshot.getActiveTables();
+                rtn.tableCount = snapshot.getTableCount();
+                rtn.databaseCount = snapshot.getDatabaseCount();
+            }
+            rtn.errors.addAll(runStatus.getErrorMessages());
+            rtn.warnings.addAll(runStatus.getWarningMessages());
+            return rtn;
+        }
+
+        /*
+        Same session and nothing taken away, so the difference can be sent.
+         */
+        boolean continues(State previous) {
+            return Objects.equals(sessionId, previous.sessionId)
+                    && errors.containsAll(previous.errors)
+                    && warnings.containsAll(previous.warnings);
+        }
+
+        Map<String, Object> toSnapshot() {
+            Map<String, Object> rtn = data("sessionId", sessionId);
+            rtn.put("progress", progress);
+            rtn.put("stages", stages);
+            rtn.put("summaries", summaries);
+            rtn.put("phases", phases);
+            rtn.put("tableCount", tableCount);
+            rtn.put("databaseCount", databaseCount);
+            rtn.put("activeTables", activeTables);
+            rtn.put("errors", new ArrayList<>(errors));
+            rtn.put("warnings", new ArrayList<>(warnings));
+            return rtn;
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
 package com.cloudera.utils.hms.mirror.web.service;
 
 import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.TableMirror;
 import com.cloudera.utils.hms.mirror.domain.support.Conversion;
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
@@ -25,10 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -54,24 +52,23 @@ public class RunStatusService {
         return runStatus;
     }
 
-    public synchronized void updateProgress(RunStatus runStatus) {
+    /*
+    Only reads the tables the databases hold as active, so it doesn't need to be serialized across requests.  The
+    list is built aside and swapped in.
+     */
+    public void updateProgress(RunStatus runStatus) {
         Conversion conversion = executeSessionService.getSession().getConversion();
         if (nonNull(conversion)) {
-            // Reset the inProgressTables with what's currently working.
-            runStatus.getInProgressTables().clear();
-            // In a safe concurrent stream fashion, go thru the conversion databases
-            // and tables to update the inProgressTables.
+            // The databases keep track of the tables being worked on, so there's no need to go thru them all.
             List<TableMirror> inProgressTables = new ArrayList<>();
-            try {
-                inProgressTables = conversion.getDatabases().values().stream()
-                        .flatMap(db -> db.getTableMirrors().values().stream())
-                        .filter(table -> Objects.requireNonNull(table.getPhaseState()) == PhaseState.CALCULATING_SQL)
-                        .collect(Collectors.toList());
-            } catch (ConcurrentModificationException cme) {
-                // If we get a concurrent modification exception, move ahead and get it next time..
-                log.warn("ConcurrentModificationException caught while updating inProgressTables. Will retry next time.");
+            for (DBMirror dbMirror : conversion.getDatabases().values()) {
+                for (TableMirror tableMirror : dbMirror.getActiveTables()) {
+                    if (tableMirror.getPhaseState() == PhaseState.CALCULATING_SQL) {
+                        inProgressTables.add(tableMirror);
+                    }
+                }
             }
             runStatus.setInProgressTables(inProgressTables);
         }
     }
-}
\ No newline at end of file
+}
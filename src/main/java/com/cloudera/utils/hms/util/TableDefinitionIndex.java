@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.util;
+
+import com.cloudera.utils.hms.mirror.TablePropertyVars;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.cloudera.utils.hms.util.TableUtils.*;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/*
+The parsed view of a table definition that the TableUtils predicates and lookups read from, instead of scanning
+the definition lines for each call.  Built in one pass over the lines:
+
+- the position of each distinct line (the 'indexOf' of the markers: LOCATION, TBLPROPERTIES, ROW FORMAT SERDE, ..)
+- the table flags (managed, external, view, partitioned, hive native, AVRO schema based)
+- the CREATE and bucket (INTO n BUCKETS) lines
+
+The table property lookups are resolved on first use and remembered.  The answers are the same as the line scans
+they replace, including the matching rules (first match, case) of each lookup.
+
+The index belongs to one version of the lines.  Use 'TableDefinitionIndex.of' to get the current one.
+ */
+public class TableDefinitionIndex {
+
+    private final List<String> lines;
+    private final int version;
+    private final Map<String, Integer> firstIndex = new HashMap<>();
+    private int createLine = -1;
+    private String bucketsLine;
+    private boolean managed = false;
+    private boolean external = false;
+    private boolean view = false;
+    private boolean partitioned = false;
+    private boolean hiveNative = false;
+    private boolean avroSchemaBased = false;
+    // Key -> line of the table property (or -1).
+    private final Map<String, Integer> tblPropertyLines = new ConcurrentHashMap<>();
+    // Lowercase prefix -> first line that starts with it (or -1).
+    private final Map<String, Integer> prefixLines = new ConcurrentHashMap<>();
+
+    TableDefinitionIndex(List<String> lines, int version) {
+        this.lines = lines;
+        this.version = version;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            firstIndex.putIfAbsent(line, i);
+            if (isBlank(line)) {
+                continue;
+            }
+            if (createLine < 0 && line.startsWith(CREATE)) {
+                createLine = i;
+            }
+            if (bucketsLine == null && line.startsWith(INTO)) {
+                bucketsLine = line;
+            }
+            managed |= line.startsWith(CREATE_TABLE);
+            external |= line.startsWith(CREATE_EXTERNAL_TABLE);
+            partitioned |= line.startsWith(PARTITIONED_BY);
+            avroSchemaBased |= line.contains(TablePropertyVars.AVRO_SCHEMA_URL_KEY);
+            String trimmed = line.trim();
+            view |= trimmed.startsWith(CREATE_VIEW);
+            hiveNative |= trimmed.startsWith(LOCATION);
+        }
+    }
+
+    /*
+    The index of the lines, cached when the lines are TableDefinitionLines.
+     */
+    public static TableDefinitionIndex of(List<String> lines) {
+        if (lines instanceof TableDefinitionLines) {
+            return ((TableDefinitionLines) lines).index();
+        }
+        return new TableDefinitionIndex(lines, 0);
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /*
+    Same as 'List.indexOf' on the lines.
+     */
+    public int indexOf(String line) {
+        Integer rtn = firstIndex.get(line);
+        return rtn == null ? -1 : rtn;
+    }
+
+    /*
+    The line after the marker, trimmed and without quotes.  Null when the marker isn't there.
+     */
+    public String valueAfter(String marker) {
+        int idx = indexOf(marker);
+        if (idx > 0) {
+            return lines.get(idx + 1).trim().replace("'", "");
+        }
+        return null;
+    }
+
+    public int getCreateLine() {
+        return createLine;
+    }
+
+    public String getBucketsLine() {
+        return bucketsLine;
+    }
+
+    public boolean isManaged() {
+        return managed;
+    }
+
+    public boolean isExternal() {
+        return external;
+    }
+
+    public boolean isView() {
+        return view;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    public boolean isHiveNative() {
+        return hiveNative;
+    }
+
+    public boolean isAvroSchemaBased() {
+        return avroSchemaBased;
+    }
+
+    /*
+    The line of the table property 'key' (case-insensitive), looking from the TBLPROPERTIES marker, or -1.
+     */
+    public int tblPropertyLine(String key) {
+        return tblPropertyLines.computeIfAbsent(key, k -> {
+            int tpIdx = indexOf(TBL_PROPERTIES);
+            for (int i = tpIdx + 1; i < lines.size(); i++) {
+                String checkKey = lines.get(i).trim().split("=")[0].replace("'", "");
+                if (checkKey.equalsIgnoreCase(k)) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    /*
+    The first line that starts with the prefix, ignoring case and leading spaces, or -1.
+     */
+    public int firstLineStartingWith(String prefix) {
+        return prefixLines.computeIfAbsent(prefix.toLowerCase(), p -> {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (nonNull(line) && line.trim().toLowerCase().startsWith(p)) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    /*
+    The value of a "'key'='value'" property line, without the quotes and the trailing ',' or ')'.
+     */
+    public Optional<String> propertyValue(int line) {
+        if (line < 0) {
+            return Optional.empty();
+        }
+        String[] prop = lines.get(line).trim().split("=");
+        if (prop.length != 2) {
+            return Optional.empty();
+        }
+        // Stripe the quotes
+        String value = prop[1].replace("'", "").trim();
+        // Remove trailing , or )
+        if (value.endsWith(",") || value.endsWith(")")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return Optional.of(value);
+    }
+
+}
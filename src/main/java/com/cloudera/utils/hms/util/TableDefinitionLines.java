@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/*
+The lines of a table definition (the 'SHOW CREATE TABLE' layout) with the parsed TableDefinitionIndex cached
+alongside.  Any change to the lines (including 'set') moves the version, which drops the cached index, so it's
+rebuilt on the next lookup.  The version is separate from 'modCount', so a 'set' while iterating the lines is
+still fine.
+
+Changes made through a 'subList' view aren't tracked, don't edit the definition that way.
+ */
+public class TableDefinitionLines extends ArrayList<String> {
+
+    private transient volatile TableDefinitionIndex index;
+    private transient int version = 0;
+
+    public TableDefinitionLines() {
+    }
+
+    public TableDefinitionLines(Collection<String> lines) {
+        super(lines);
+    }
+
+    @Override
+    public String set(int index, String element) {
+        version++;
+        return super.set(index, element);
+    }
+
+    @Override
+    public boolean add(String element) {
+        version++;
+        return super.add(element);
+    }
+
+    @Override
+    public void add(int index, String element) {
+        version++;
+        super.add(index, element);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> c) {
+        version++;
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends String> c) {
+        version++;
+        return super.addAll(index, c);
+    }
+
+    @Override
+    public String remove(int index) {
+        version++;
+        return super.remove(index);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        version++;
+        return super.remove(o);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        version++;
+        return super.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        version++;
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super String> filter) {
+        version++;
+        return super.removeIf(filter);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        version++;
+        super.removeRange(fromIndex, toIndex);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<String> operator) {
+        version++;
+        super.replaceAll(operator);
+    }
+
+    @Override
+    public void sort(Comparator<? super String> c) {
+        version++;
+        super.sort(c);
+    }
+
+    @Override
+    public void clear() {
+        version++;
+        super.clear();
+    }
+
+    /*
+    The index of the current lines.
+     */
+    public TableDefinitionIndex index() {
+        TableDefinitionIndex rtn = index;
+        if (rtn == null || rtn.getVersion() != version) {
+            rtn = new TableDefinitionIndex(this, version);
+            index = rtn;
+        }
+        return rtn;
+    }
+
+    @Override
+    public Object clone() {
+        TableDefinitionLines clone = (TableDefinitionLines) super.clone();
+        clone.index = null;
+        return clone;
+    }
+
+}
@@ -88,12 +88,7 @@ public class TableUtils {
 
     public static String getLocation(String tableName, List<String> tableDefinition) {
         log.debug("Getting table location data for: {}", tableName);
-        String location = null;
-        int locIdx = tableDefinition.indexOf(LOCATION);
-        if (locIdx > 0) {
-            location = tableDefinition.get(locIdx + 1).trim().replace("'", "");
-        }
-        return location;
+        return TableDefinitionIndex.of(tableDefinition).valueAfter(LOCATION);
     }
 
     public static String getTableNameFromDefinition(List<String> tableDefinition) {
@@ -143,7 +138,7 @@ public class TableUtils {
         log.debug("Getting table serde path (if available) data for: {}", tableName);
         String location = null;
 
-        int wspIdx = tableDefinition.indexOf(WITH_SERDEPROPERTIES);
+        int wspIdx = TableDefinitionIndex.of(tableDefinition).indexOf(WITH_SERDEPROPERTIES);
         if (wspIdx > 0) {
             for (int i = wspIdx + 1; i < tableDefinition.size(); i++) {
                 String sprop = tableDefinition.get(i);
@@ -169,7 +164,7 @@ public class TableUtils {
     public static String prefixTableNameLocation(String tableName, List<String> tableDefinition, String prefix) {
         log.debug("Prefix table location data for: {}", tableName);
         String location = null;
-        int locIdx = tableDefinition.indexOf(LOCATION);
+        int locIdx = TableDefinitionIndex.of(tableDefinition).indexOf(LOCATION);
         if (locIdx > 0) {
             location = tableDefinition.get(locIdx + 1).trim();
             int lastSlashIdx = location.lastIndexOf("/");
@@ -185,7 +180,7 @@ public class TableUtils {
 
     public static void stripLocation(String tableName, List<String> tableDefinition) {
         log.debug("Stripping table location data for: {}", tableName);
-        int locIdx = tableDefinition.indexOf(LOCATION);
+        int locIdx = TableDefinitionIndex.of(tableDefinition).indexOf(LOCATION);
         if (locIdx > 0) {
             tableDefinition.remove(locIdx + 1);
             tableDefinition.remove(locIdx);
@@ -234,15 +229,11 @@ public class TableUtils {
 
     public static void changeTableName(String tableName, String newTableName, List<String> tableDefinition) {
         log.debug("Changing name of table in definition");
-        for (String line : tableDefinition) {
-            if (line.startsWith(CREATE)) {
-                int indexCT = tableDefinition.indexOf(line);
-                // Split on the period between the db and table
-                String createLine = tableDefinition.get(indexCT);
-                createLine = createLine.replace(tableName, newTableName);
-                tableDefinition.set(indexCT, createLine);
-                break;
-            }
+        int indexCT = TableDefinitionIndex.of(tableDefinition).getCreateLine();
+        if (indexCT >= 0) {
+            String createLine = tableDefinition.get(indexCT);
+            createLine = createLine.replace(tableName, newTableName);
+            tableDefinition.set(indexCT, createLine);
         }
     }
 
@@ -292,8 +283,11 @@ public class TableUtils {
         Boolean rtn = Boolean.FALSE;
         log.debug("Updating table location for: {}", tableName);
 
+        // Both markers are looked up before the definition changes.
+        TableDefinitionIndex index = TableDefinitionIndex.of(tableDefinition);
+        int wspIdx = index.indexOf(WITH_SERDEPROPERTIES);
         if (!isBlank(newLocation)) {
-            int locIdx = tableDefinition.indexOf(LOCATION);
+            int locIdx = index.indexOf(LOCATION);
             if (locIdx >= 0) {
                 // Removing preexisting quotes before adding them back.
                 tableDefinition.set(locIdx + 1, "'" + newLocation.replaceAll("'", "") + "'");
@@ -302,7 +296,6 @@ public class TableUtils {
         }
         // Check for a 'path' element in SERDEPROPERTIES.  This is set by spark in some case and it matches the LOCATION
         // path.
-        int wspIdx = tableDefinition.indexOf(WITH_SERDEPROPERTIES);
         if (wspIdx > 0) {
             for (int i = wspIdx + 1; i < tableDefinition.size(); i++) {
                 String sprop = tableDefinition.get(i);
@@ -323,12 +316,10 @@ public class TableUtils {
     public static int numOfBuckets(EnvironmentTable envTable) {
         int rtn = 0;
         log.debug("Looking to see if table has buckets");
-        for (String line : envTable.getDefinition()) {
-            if (line.startsWith(INTO)) {
-                String[] bucketParts = line.split(" ");
-                rtn = Integer.parseInt(bucketParts[1]);
-                break;
-            }
+        String line = TableDefinitionIndex.of(envTable.getDefinition()).getBucketsLine();
+        if (nonNull(line)) {
+            String[] bucketParts = line.split(" ");
+            rtn = Integer.parseInt(bucketParts[1]);
         }
         return rtn;
     }
@@ -430,12 +421,8 @@ public class TableUtils {
 
     public static SerdeType getInputFormat(EnvironmentTable envTable) {
         log.trace("Getting table INPUTFORMAT for: {}", envTable.getName());
-        String inputFormat = null;
         SerdeType rtn = SerdeType.UNKNOWN;
-        int locIdx = envTable.getDefinition().indexOf(STORED_AS_INPUTFORMAT);
-        if (locIdx > 0) {
-            inputFormat = envTable.getDefinition().get(locIdx + 1).trim().replace("'", "");
-        }
+        String inputFormat = TableDefinitionIndex.of(envTable.getDefinition()).valueAfter(STORED_AS_INPUTFORMAT);
         if (!isBlank(inputFormat)) {
             for (SerdeType serdeType : SerdeType.values()) {
                 if (serdeType.isType(inputFormat)) {
@@ -449,12 +436,8 @@ public class TableUtils {
 
     public static SerdeType getSerdeType(EnvironmentTable envTable) {
         log.trace("Getting table serde data for: {}", envTable.getName());
-        String serdeClass = null;
         SerdeType rtn = SerdeType.UNKNOWN;
-        int locIdx = envTable.getDefinition().indexOf(ROW_FORMAT_SERDE);
-        if (locIdx > 0) {
-            serdeClass = envTable.getDefinition().get(locIdx + 1).trim().replace("'", "");
-        }
+        String serdeClass = TableDefinitionIndex.of(envTable.getDefinition()).valueAfter(ROW_FORMAT_SERDE);
         if (!isBlank(serdeClass)) {
             for (SerdeType serdeType : SerdeType.values()) {
                 if (serdeType.isType(serdeClass)) {
@@ -482,52 +465,29 @@ public class TableUtils {
 //            throw new RuntimeException("Table definition for " + envTable.getName() + " is null.");
 //        }
         if (nonNull(envTable.getDefinition())) {
-            for (String line : envTable.getDefinition()) {
-                if (!isBlank(line) && line.startsWith(CREATE_TABLE)) {
-                    rtn = Boolean.TRUE;
-                    break;
-                }
-            }
+            rtn = TableDefinitionIndex.of(envTable.getDefinition()).isManaged();
         }
         return rtn;
     }
 
     public static void stripDatabase(String tableName, List<String> tableDefinition) {
-        for (String line : tableDefinition) {
-            if (line.startsWith(CREATE)) {
-                int indexCT = tableDefinition.indexOf(line);
-                // Split on the period between the db and table
-                String[] parts = line.split("\\.");
-                if (parts.length == 2) {
-                    // Now split on the `
-                    String[] parts01 = parts[0].split("`");
-                    if (parts01.length == 2) {
-                        String newCreate = parts01[0] + "`" + parts[1];
-                        tableDefinition.set(indexCT, newCreate);
-                    }
+        int indexCT = TableDefinitionIndex.of(tableDefinition).getCreateLine();
+        if (indexCT >= 0) {
+            // Split on the period between the db and table
+            String[] parts = tableDefinition.get(indexCT).split("\\.");
+            if (parts.length == 2) {
+                // Now split on the `
+                String[] parts01 = parts[0].split("`");
+                if (parts01.length == 2) {
+                    String newCreate = parts01[0] + "`" + parts[1];
+                    tableDefinition.set(indexCT, newCreate);
                 }
-                break;
             }
         }
     }
 
     public static void stripDatabase(EnvironmentTable envTable) {
-        for (String line : envTable.getDefinition()) {
-            if (line.startsWith(CREATE)) {
-                int indexCT = envTable.getDefinition().indexOf(line);
-                // Split on the period between the db and table
-                String[] parts = line.split("\\.");
-                if (parts.length == 2) {
-                    // Now split on the `
-                    String[] parts01 = parts[0].split("`");
-                    if (parts01.length == 2) {
-                        String newCreate = parts01[0] + "`" + parts[1];
-                        envTable.getDefinition().set(indexCT, newCreate);
-                    }
-                }
-                break;
-            }
-        }
+        stripDatabase(envTable.getName(), envTable.getDefinition());
     }
 
     public static Boolean prefixTableName(String tableName, String prefix, List<String> tableDefinition) {
@@ -555,12 +515,13 @@ public class TableUtils {
         Boolean rtn = Boolean.FALSE;
         if (isManaged(envTable)) {
             log.debug("Converting table: {} to EXTERNAL", envTable.getName());
-            for (String line : envTable.getDefinition()) {
+            List<String> definition = envTable.getDefinition();
+            for (int i = 0; i < definition.size(); i++) {
+                String line = definition.get(i);
                 if (line.startsWith(CREATE_TABLE)) {
-                    int indexCT = envTable.getDefinition().indexOf(line);
-                    String cet = line.replace(CREATE_TABLE, CREATE_EXTERNAL_TABLE);
-                    envTable.getDefinition().set(indexCT, cet);
+                    definition.set(i, line.replace(CREATE_TABLE, CREATE_EXTERNAL_TABLE));
                     rtn = Boolean.TRUE;
+                    break;
                 }
             }
             // If ACID, remove transactional property to complete conversion to external.
@@ -614,24 +575,14 @@ public class TableUtils {
         if (isNull(envTable.getDefinition())) {
             log.error("Table definition for " + envTable.getName() + " is null.");
         }
-        for (String line : envTable.getDefinition()) {
-            if (!isBlank(line) && line.trim().startsWith(LOCATION)) {
-                rtn = Boolean.TRUE;
-                break;
-            }
-        }
+        rtn = TableDefinitionIndex.of(envTable.getDefinition()).isHiveNative();
         return rtn;
     }
 
     public static Boolean isExternal(EnvironmentTable envTable) {
         Boolean rtn = Boolean.FALSE;
         log.trace("Checking if table '{}' is 'external'", envTable.getName());
-        for (String line : envTable.getDefinition()) {
-            if (line.startsWith(CREATE_EXTERNAL_TABLE)) {
-                rtn = Boolean.TRUE;
-                break;
-            }
-        }
+        rtn = TableDefinitionIndex.of(envTable.getDefinition()).isExternal();
         return rtn;
     }
 
@@ -650,25 +601,10 @@ public class TableUtils {
             log.error("Table definition for " + envTable.getName() + " is null.");
 //            throw new RuntimeException("Table definition for " + envTable.getName() + " is null.");
         }
-        for (String line : envTable.getDefinition()) {
-            if (nonNull(line)) {
-                String tline = line.trim();
-                if (tline.toLowerCase().startsWith("'" + TablePropertyVars.HMS_MIRROR_CONVERTED_FLAG.toLowerCase())) {
-                    String[] prop = tline.split("=");
-                    if (prop.length == 2) {
-                        // Stripe the quotes
-                        String value = prop[1].replace("'", "").trim();
-                        // Remove trailing , or )
-                        if (value.endsWith(",") || value.endsWith(")")) {
-                            value = value.substring(0, value.length() - 1);
-                        }
-                        if (Boolean.parseBoolean(value)) {
-                            rtn = Boolean.TRUE;
-                        }
-                    }
-                    break;
-                }
-            }
+        TableDefinitionIndex index = TableDefinitionIndex.of(envTable.getDefinition());
+        int line = index.firstLineStartingWith("'" + TablePropertyVars.HMS_MIRROR_CONVERTED_FLAG);
+        if (index.propertyValue(line).map(Boolean::parseBoolean).orElse(Boolean.FALSE)) {
+            rtn = Boolean.TRUE;
         }
         return rtn;
     }
@@ -679,12 +615,7 @@ public class TableUtils {
             log.error("Definition for " + envTable.getName() + " is null.");
         }
 
-        for (String line : envTable.getDefinition()) {
-            if (line.trim().startsWith(CREATE_VIEW)) {
-                rtn = Boolean.TRUE;
-                break;
-            }
-        }
+        rtn = TableDefinitionIndex.of(envTable.getDefinition()).isView();
         return rtn;
     }
 
@@ -699,26 +630,11 @@ public class TableUtils {
             log.error("Table definition for " + envTable.getName() + " is null.");
         }
         if (isManaged(envTable)) {
-            for (String line : envTable.getDefinition()) {
-                if (!isBlank(line)) {
-                    String tline = line.trim();
-                    if (tline.toLowerCase().startsWith("'" + TablePropertyVars.TRANSACTIONAL)) {
-                        String[] prop = tline.split("=");
-                        if (prop.length == 2) {
-                            // Stripe the quotes
-                            String value = prop[1].replace("'", "").trim();
-                            // Remove trailing , or )
-                            if (value.endsWith(",") || value.endsWith(")")) {
-                                value = value.substring(0, value.length() - 1);
-                            }
-                            if (Boolean.parseBoolean(value)) {
-                                rtn = Boolean.TRUE;
-                                envTable.getStatistics().put(TablePropertyVars.TRANSACTIONAL, Boolean.TRUE);
-                            }
-                        }
-                        break;
-                    }
-                }
+            TableDefinitionIndex index = TableDefinitionIndex.of(envTable.getDefinition());
+            int line = index.firstLineStartingWith("'" + TablePropertyVars.TRANSACTIONAL);
+            if (index.propertyValue(line).map(Boolean::parseBoolean).orElse(Boolean.FALSE)) {
+                rtn = Boolean.TRUE;
+                envTable.getStatistics().put(TablePropertyVars.TRANSACTIONAL, Boolean.TRUE);
             }
         }
         return rtn;
@@ -731,26 +647,11 @@ public class TableUtils {
             log.error("Table definition for " + envTable.getName() + " is null.");
         }
         if (isExternal(envTable)) {
-            for (String line : envTable.getDefinition()) {
-                if (nonNull(line)) {
-                    String tline = line.trim();
-                    if (tline.toLowerCase().startsWith("'" + TablePropertyVars.EXTERNAL_TABLE_PURGE)) {
-                        String[] prop = tline.split("=");
-                        if (prop.length == 2) {
-                            // Stripe the quotes
-                            String value = prop[1].replace("'", "").trim();
-                            // Remove trailing , or )
-                            if (value.endsWith(",") || value.endsWith(")")) {
-                                value = value.substring(0, value.length() - 1);
-                            }
-                            if (Boolean.parseBoolean(value)) {
-                                rtn = Boolean.TRUE;
-                                envTable.getStatistics().put(TablePropertyVars.EXTERNAL_TABLE_PURGE, Boolean.TRUE);
-                            }
-                        }
-                        break;
-                    }
-                }
+            TableDefinitionIndex index = TableDefinitionIndex.of(envTable.getDefinition());
+            int line = index.firstLineStartingWith("'" + TablePropertyVars.EXTERNAL_TABLE_PURGE);
+            if (index.propertyValue(line).map(Boolean::parseBoolean).orElse(Boolean.FALSE)) {
+                rtn = Boolean.TRUE;
+                envTable.getStatistics().put(TablePropertyVars.EXTERNAL_TABLE_PURGE, Boolean.TRUE);
             }
         }
         return rtn;
@@ -789,12 +690,7 @@ public class TableUtils {
         if (isNull(envTable.getDefinition())) {
             return rtn;
         }
-        for (String line : envTable.getDefinition()) {
-            if (!isBlank(line) && line.startsWith(PARTITIONED_BY)) {
-                rtn = Boolean.TRUE;
-                break;
-            }
-        }
+        rtn = TableDefinitionIndex.of(envTable.getDefinition()).isPartitioned();
         return rtn;
     }
 
@@ -804,12 +700,7 @@ public class TableUtils {
         if (isNull(envTable.getDefinition())) {
             log.error("Table definition for " + envTable.getName() + " is null.");
         }
-        for (String line : envTable.getDefinition()) {
-            if (!isBlank(line) && line.contains(TablePropertyVars.AVRO_SCHEMA_URL_KEY)) {
-                rtn = Boolean.TRUE;
-                break;
-            }
-        }
+        rtn = TableDefinitionIndex.of(envTable.getDefinition()).isAvroSchemaBased();
         return rtn;
     }
 
@@ -856,23 +747,10 @@ public class TableUtils {
     public static Boolean isHMSLegacyManaged(EnvironmentTable envTable) {
         Boolean rtn = Boolean.FALSE;
         log.trace("Checking if table '{}' was tagged as Legacy Managed by 'hms-mirror'", envTable.getName());
-        for (String line : envTable.getDefinition()) {
-            String tline = line.trim();
-            if (tline.toLowerCase().startsWith("'" + TablePropertyVars.HMS_MIRROR_LEGACY_MANAGED_FLAG.toLowerCase())) {
-                String[] prop = tline.split("=");
-                if (prop.length == 2) {
-                    // Stripe the quotes
-                    String value = prop[1].replace("'", "").trim();
-                    // Remove trailing , or )
-                    if (value.endsWith(",") || value.endsWith(")")) {
-                        value = value.substring(0, value.length() - 1);
-                    }
-                    if (Boolean.parseBoolean(value)) {
-                        rtn = Boolean.TRUE;
-                    }
-                }
-                break;
-            }
+        TableDefinitionIndex index = TableDefinitionIndex.of(envTable.getDefinition());
+        int line = index.firstLineStartingWith("'" + TablePropertyVars.HMS_MIRROR_LEGACY_MANAGED_FLAG);
+        if (index.propertyValue(line).map(Boolean::parseBoolean).orElse(Boolean.FALSE)) {
+            rtn = Boolean.TRUE;
         }
         return rtn;
     }
@@ -883,7 +761,7 @@ public class TableUtils {
 
     public static void upsertTblProperty(String key, String value, List<String> tableDefinition) {
         // Search for property first.
-        int tpIdx = tableDefinition.indexOf(TBL_PROPERTIES);
+        int tpIdx = TableDefinitionIndex.of(tableDefinition).indexOf(TBL_PROPERTIES);
         if (tpIdx != -1) {
             boolean found = false;
             for (int i = tpIdx + 1; i < tableDefinition.size() - 1; i++) {
@@ -928,9 +806,10 @@ public class TableUtils {
 
     public static FileFormatType getFileFormatType(List<String> tblDef) {
 //        String rtn = null;
-        int tpIdx = tblDef.indexOf("ROW FORMAT SERDE");
+        TableDefinitionIndex index = TableDefinitionIndex.of(tblDef);
+        int tpIdx = index.indexOf(ROW_FORMAT_SERDE);
         String rowformatSerde = tblDef.get(tpIdx + 1);
-        tpIdx = tblDef.indexOf("STORED AS INPUTFORMAT");
+        tpIdx = index.indexOf(STORED_AS_INPUTFORMAT);
         String inputFormat = tblDef.get(tpIdx + 1);
         FileFormatType fileFormatType = FileFormatType.from(rowformatSerde, inputFormat);
 
@@ -959,8 +838,8 @@ public class TableUtils {
         | STORED BY                                          |
         |   'org.apache.iceberg.mr.hive.HiveIcebergStorageHandler'  |
          */
-        String rtn = null;
-        int sbIdx = envTable.getDefinition().indexOf(STORED_BY);
+        TableDefinitionIndex index = TableDefinitionIndex.of(envTable.getDefinition());
+        int sbIdx = index.indexOf(STORED_BY);
 
         if (sbIdx != -1) {
             // Check current line (eg: STORED BY ICEBERG)
@@ -973,7 +852,7 @@ public class TableUtils {
                 }
             }
         } else {
-            sbIdx = envTable.getDefinition().indexOf(STORED_BY_ICEBERG);
+            sbIdx = index.indexOf(STORED_BY_ICEBERG);
             if (sbIdx != -1) {
                 return Boolean.TRUE;
             }
@@ -1017,17 +896,10 @@ public class TableUtils {
 
     public static String getTblProperty(String key, List<String> tblDef) {
         String rtn = null;
-        int tpIdx = tblDef.indexOf(TBL_PROPERTIES);
-
-        for (int i = tpIdx + 1; i < tblDef.size(); i++) {
-            String line = tblDef.get(i).trim();
-            String[] checkProperty = line.split("=");
-            String checkKey = checkProperty[0].replace("'", "");
-            if (checkKey.equalsIgnoreCase(key)) {
-                // Found existing Property, replace it.
-                rtn = checkProperty[1].replace("'", "");
-                break;
-            }
+        int i = TableDefinitionIndex.of(tblDef).tblPropertyLine(key);
+        if (i >= 0) {
+            String[] checkProperty = tblDef.get(i).trim().split("=");
+            rtn = checkProperty[1].replace("'", "");
         }
         // Remove Comma, if present.
         if (!isBlank(rtn) && rtn.endsWith(","))
@@ -1038,27 +910,21 @@ public class TableUtils {
     public static Boolean replaceTblProperty(String key, String newValue, EnvironmentTable environmentTable) {
         Boolean rtn = Boolean.FALSE;
         List<String> tblDef = environmentTable.getDefinition();
-        int tpIdx = tblDef.indexOf(TBL_PROPERTIES);
-
-        for (int i = tpIdx + 1; i < tblDef.size(); i++) {
+        int i = TableDefinitionIndex.of(tblDef).tblPropertyLine(key);
+        if (i >= 0) {
             String line = tblDef.get(i).trim();
-            String[] checkProperty = line.split("=");
-            String checkKey = checkProperty[0].replace("'", "");
-            if (checkKey.equalsIgnoreCase(key)) {
-                // Found existing Property, replace it.
-                tblDef.remove(i);
-                StringBuilder sb = new StringBuilder();
-                sb.append("'").append(key).append("'")
-                        .append("=")
-                        .append("'").append(newValue).append("'");
-                // Replace ending param.
-                if (line.endsWith(")")) {
-                    sb.append(")");
-                }
-                tblDef.add(i, sb.toString());
-                rtn = Boolean.TRUE;
-                break;
-            }
+            // Found existing Property, replace it.
+            tblDef.remove(i);
+            StringBuilder sb = new StringBuilder();
+            sb.append("'").append(key).append("'")
+                    .append("=")
+                    .append("'").append(newValue).append("'");
+            // Replace ending param.
+            if (line.endsWith(")")) {
+                sb.append(")");
+            }
+            tblDef.add(i, sb.toString());
+            rtn = Boolean.TRUE;
         }
         return rtn;
     }
@@ -1071,27 +937,23 @@ public class TableUtils {
 
     public static void removeTblProperty(String key, List<String> tableDefinition) {
         // Search for property first.
-        int tpIdx = tableDefinition.indexOf(TBL_PROPERTIES);
-
-        for (int i = tpIdx + 1; i < tableDefinition.size(); i++) {
+        TableDefinitionIndex index = TableDefinitionIndex.of(tableDefinition);
+        int tpIdx = index.indexOf(TBL_PROPERTIES);
+        int i = index.tblPropertyLine(key);
+        if (i >= 0) {
             String line = tableDefinition.get(i).trim();
-            String[] checkProperty = line.split("=");
-            String checkKey = checkProperty[0].replace("'", "");
-            if (checkKey.equalsIgnoreCase(key)) {
-                // Found existing Property, replace it.
-                tableDefinition.remove(i);
-                // Replace ending param.
-                if (line.endsWith(")")) {
-                    if (i == tpIdx + 2) {
-                        String lastLine = tableDefinition.get(i - 1).trim();
-                        String newLastLine = lastLine.replace(",", ")");
-                        tableDefinition.remove(i - 1);
-                        tableDefinition.add(newLastLine);
-                    } else {
-                        tableDefinition.add(i, ")");
-                    }
+            // Found existing Property, replace it.
+            tableDefinition.remove(i);
+            // Replace ending param.
+            if (line.endsWith(")")) {
+                if (i == tpIdx + 2) {
+                    String lastLine = tableDefinition.get(i - 1).trim();
+                    String newLastLine = lastLine.replace(",", ")");
+                    tableDefinition.remove(i - 1);
+                    tableDefinition.add(newLastLine);
+                } else {
+                    tableDefinition.add(i, ")");
                 }
-                break;
             }
         }
     }
@@ -37,3 +37,132 @@ function openSection(evt, sectionName, save) {
 }
 
 // document.getElementById('messages_menu').click();
+
+/*
+Keep the status page up to date from the progress stream: the run status, the stages, the tables being worked on and
+the errors and warnings are changed in place.  The page is only reloaded once, when the run is over ('shownProgress'
+is the status it was drawn with), for the parts that only show up then.  Without EventSource, it reloads every
+'fallbackReloadMs' as before.
+ */
+function followProgress(url, fallbackReloadMs, shownProgress) {
+    if (typeof EventSource === "undefined") {
+        setTimeout(function () { window.location.reload(); }, fallbackReloadMs);
+        return;
+    }
+    if (document.readyState === "loading") {
+        // Called from the head, the page isn't there yet.
+        document.addEventListener("DOMContentLoaded", function () {
+            followProgress(url, fallbackReloadMs, shownProgress);
+        });
+        return;
+    }
+    var source = new EventSource(url);
+    var setText = function (element, text) {
+        if (element) {
+            element.textContent = text;
+        }
+    };
+    var setProgress = function (progress) {
+        setText(document.getElementById("run-progress"), progress);
+        if ((progress === "COMPLETED" || progress === "FAILED") && progress !== shownProgress) {
+            source.close();
+            window.location.reload();
+        }
+    };
+    var setStages = function (stages, summaries) {
+        Object.keys(stages || {}).forEach(function (stage) {
+            var row = document.getElementById("stage-" + stage);
+            setText(row && row.querySelector(".stage-status"), stages[stage]);
+        });
+        Object.keys(summaries || {}).forEach(function (stage) {
+            var row = document.getElementById("stage-" + stage);
+            setText(row && row.querySelector(".stage-summary"), summaries[stage]);
+        });
+    };
+    var addRow = function (body, cells, key) {
+        var row = document.createElement("tr");
+        if (key) {
+            row.setAttribute("data-table", key);
+        }
+        cells.forEach(function (text) {
+            var cell = document.createElement("td");
+            cell.textContent = text;
+            row.appendChild(cell);
+        });
+        body.appendChild(row);
+        return row;
+    };
+    var setTables = function (started, finished) {
+        var body = document.getElementById("active-tables");
+        if (!body) {
+            return;
+        }
+        (finished || []).forEach(function (table) {
+            body.querySelectorAll("tr[data-table]").forEach(function (row) {
+                if (row.getAttribute("data-table") === table) {
+                    body.removeChild(row);
+                }
+            });
+        });
+        Object.keys(started || {}).forEach(function (table) {
+            var existing = null;
+            body.querySelectorAll("tr[data-table]").forEach(function (row) {
+                if (row.getAttribute("data-table") === table) {
+                    existing = row;
+                }
+            });
+            if (existing) {
+                setText(existing.cells[1], started[table]);
+            } else {
+                addRow(body, [table, started[table]], table);
+            }
+        });
+    };
+    var addMessages = function (kind, messages, replace) {
+        var body = document.getElementById("run-" + kind);
+        if (!body) {
+            return;
+        }
+        if (replace) {
+            body.innerHTML = "";
+        }
+        (messages || []).forEach(function (message) {
+            addRow(body, [message]);
+        });
+        document.getElementById("run-" + kind + "-view").style.display = body.rows.length > 0 ? "" : "none";
+    };
+    var handlers = {
+        snapshot: function (data) {
+            // Replaces whatever the page was drawn with, the stream has the tables by database.
+            var body = document.getElementById("active-tables");
+            if (body) {
+                body.innerHTML = "";
+            }
+            setTables(data.activeTables, []);
+            setStages(data.stages, data.summaries);
+            addMessages("errors", data.errors, true);
+            addMessages("warnings", data.warnings, true);
+            setProgress(data.progress);
+        },
+        progress: function (data) {
+            setProgress(data.progress);
+        },
+        stage: function (data) {
+            setStages(data.stages, data.summaries);
+        },
+        tables: function (data) {
+            setTables(data.started, data.finished);
+        },
+        errors: function (data) {
+            addMessages("errors", data.added, false);
+        },
+        warnings: function (data) {
+            addMessages("warnings", data.added, false);
+        }
+    };
+    Object.keys(handlers).forEach(function (type) {
+        source.addEventListener(type, function (e) {
+            handlers[type](JSON.parse(e.data).data);
+        });
+    });
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitTest {
+
+    @Test
+    public void waitsForPermit() throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit("TEST", 1, false, 2.0);
+        ConcurrencyLimit.Permit permit = limit.acquire();
+        assertEquals(1, limit.getInUse());
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            try {
+                limit.acquire().release();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        other.start();
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        permit.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        other.join();
+        assertEquals(0, limit.getInUse());
+    }
+
+    @Test
+    public void nestedAcquire_doesNotWait() throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit("TEST", 1, false, 2.0);
+        ConcurrencyLimit.Permit outer = limit.acquire();
+        ConcurrencyLimit.Permit inner = limit.acquire();
+        assertEquals(1, limit.getInUse());
+        inner.release();
+        inner.release();
+        assertEquals(1, limit.getInUse());
+        outer.release();
+        assertEquals(0, limit.getInUse());
+    }
+
+    @Test
+    public void releasedOnAnotherThread_freesTheOwnersSlot() throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit("TEST", 1, false, 2.0);
+        ConcurrencyLimit.Permit outer = limit.acquire();
+        ConcurrencyLimit.Permit inner = limit.acquire();
+
+        // Closed by the threads the work was handed to.
+        Thread closer = new Thread(() -> {
+            outer.release();
+            inner.release();
+        });
+        closer.start();
+        closer.join();
+        assertEquals(0, limit.getInUse());
+
+        // This thread holds nothing now, so it has to wait like any other.
+        ConcurrencyLimit.Permit again = limit.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            try {
+                limit.acquire().release();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        other.start();
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        again.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        other.join();
+        assertEquals(0, limit.getInUse());
+    }
+
+    @Test
+    public void adaptive_backsOffWhenLatencyGrows() {
+        ConcurrencyLimit limit = new ConcurrencyLimit("TEST", 8, true, 2.0);
+        for (int i = 0; i < 40; i++) {
+            limit.recordLatency("ALTER", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(8, limit.getLimit());
+        for (int i = 0; i < 40 && limit.getLimit() == 8; i++) {
+            limit.recordLatency("ALTER", TimeUnit.MILLISECONDS.toNanos(30));
+        }
+        assertTrue(limit.getLimit() < 8);
+        assertTrue(limit.getLimit() >= 1);
+    }
+
+    @Test
+    public void adaptive_ignoresHoldTime() throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit("TEST", 8, true, 2.0);
+        for (int i = 0; i < 40; i++) {
+            ConcurrencyLimit.Permit permit = limit.acquire();
+            limit.recordLatency("ALTER", TimeUnit.MILLISECONDS.toNanos(1));
+            if (i > 20) {
+                // Held for a while by the caller, the statements stay quick.
+                Thread.sleep(15);
+            }
+            permit.release();
+        }
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    public void adaptive_measuresEachTypeOnItsOwn() {
+        ConcurrencyLimit limit = new ConcurrencyLimit("TEST", 8, true, 2.0);
+        // Quick DDL mixed with the long running data statements.
+        for (int i = 0; i < 200; i++) {
+            limit.recordLatency("ALTER", TimeUnit.MILLISECONDS.toNanos(2));
+            if (i % 5 == 0) {
+                limit.recordLatency("INSERT", TimeUnit.MINUTES.toNanos(3));
+            }
+            if (i % 20 == 0) {
+                limit.recordLatency("ANALYZE", TimeUnit.MINUTES.toNanos(1));
+            }
+        }
+        assertEquals(8, limit.getLimit());
+
+        // The DDL slowing down is still seen.
+        for (int i = 0; i < 40 && limit.getLimit() == 8; i++) {
+            limit.recordLatency("ALTER", TimeUnit.MILLISECONDS.toNanos(60));
+            limit.recordLatency("INSERT", TimeUnit.MINUTES.toNanos(3));
+        }
+        assertTrue(limit.getLimit() < 8);
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionMetricsTest {
+
+    @Test
+    public void queryType() {
+        assertEquals("CREATE", ConnectionMetrics.queryType("  create external table x (id int)"));
+        assertEquals("SELECT", ConnectionMetrics.queryType("(SELECT 1)"));
+        assertEquals("SET", ConnectionMetrics.queryType("SET hive.exec.dynamic.partition=true"));
+        assertEquals(TimedConnection.BATCH, ConnectionMetrics.queryType(TimedConnection.BATCH));
+        assertEquals(ConnectionMetrics.OTHER, ConnectionMetrics.queryType(null));
+        assertEquals(ConnectionMetrics.OTHER, ConnectionMetrics.queryType("-- comment"));
+        assertEquals(ConnectionMetrics.OTHER, ConnectionMetrics.queryType("averyveryverylongtablename"));
+    }
+
+    @Test
+    public void statementsAreTimed() throws SQLException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConnectionMetrics metrics = new ConnectionMetrics(registry, () -> null);
+
+        Connection physical = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(physical.createStatement()).thenReturn(statement);
+        when(physical.prepareStatement(anyString())).thenReturn(prepared);
+        when(statement.execute("DROP TABLE x")).thenThrow(new SQLException("No such table"));
+
+        Connection connection = metrics.wrap(physical, Environment.LEFT, ConnectionMetrics.HS2);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE x (id int)");
+            stmt.execute("create table y (id int)");
+            assertThrows(SQLException.class, () -> stmt.execute("DROP TABLE x"));
+            stmt.addBatch("ALTER TABLE x SET TBLPROPERTIES ('a'='b')");
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT NAME FROM DBS WHERE NAME = ?")) {
+            stmt.setString(1, "sales");
+            stmt.executeQuery();
+        }
+        verify(statement).close();
+        verify(prepared).setString(1, "sales");
+
+        assertEquals(2, timer(registry, "CREATE", "success").count());
+        assertEquals(1, timer(registry, "DROP", "failure").count());
+        assertEquals(1, timer(registry, TimedConnection.BATCH, "success").count());
+        assertEquals(1, timer(registry, "SELECT", "success").count());
+        // Nothing but 'execute' is timed.
+        assertEquals(5, registry.find("hms.mirror.query").timers().stream().mapToLong(Timer::count).sum());
+
+        assertNull(metrics.wrap(null, Environment.LEFT, ConnectionMetrics.HS2));
+    }
+
+    @Test
+    public void poolsAreReadWhenScraped() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConnectionPools pools = mock(ConnectionPools.class);
+        Map<Environment, ConnectionPoolUsage> usage = new EnumMap<>(Environment.class);
+        usage.put(Environment.LEFT, new ConnectionPoolUsage(3, 1, 10, 2));
+        when(pools.getHs2PoolUsage()).thenReturn(usage);
+        when(pools.getMetastoreDirectPoolUsage()).thenReturn(Collections.emptyMap());
+        ConnectionAcquisitionStatistics statistics = new ConnectionAcquisitionStatistics();
+        statistics.record(4_000_000L, true);
+        statistics.record(2_000_000L, false);
+        when(pools.getHs2AcquisitionStatistics()).thenReturn(Collections.singletonMap(Environment.LEFT, statistics));
+        when(pools.getMetastoreDirectAcquisitionStatistics()).thenReturn(Collections.emptyMap());
+
+        Map<String, ConnectionPools> current = new HashMap<>();
+        ConnectionMetrics metrics = new ConnectionMetrics(registry, () -> current.get("pools"));
+        assertEquals(0, registry.get("hms.mirror.pool.connections.active").tag("environment", "LEFT")
+                .tag("pool", ConnectionMetrics.HS2).gauge().value());
+
+        current.put("pools", pools);
+        assertEquals(3, registry.get("hms.mirror.pool.connections.active").tag("environment", "LEFT")
+                .tag("pool", ConnectionMetrics.HS2).gauge().value());
+        assertEquals(2, registry.get("hms.mirror.pool.connections.waiting").tag("environment", "LEFT")
+                .tag("pool", ConnectionMetrics.HS2).gauge().value());
+        assertEquals(0, registry.get("hms.mirror.pool.connections.active").tag("environment", "RIGHT")
+                .tag("pool", ConnectionMetrics.HS2).gauge().value());
+        assertEquals(2, registry.get("hms.mirror.pool.acquire").tag("environment", "LEFT")
+                .tag("pool", ConnectionMetrics.HS2).functionTimer().count());
+        assertEquals(4, registry.get("hms.mirror.pool.acquire.max").tag("environment", "LEFT")
+                .tag("pool", ConnectionMetrics.HS2).gauge().value());
+        assertNotNull(metrics);
+    }
+
+    private static Timer timer(SimpleMeterRegistry registry, String type, String outcome) {
+        return registry.get("hms.mirror.query").tag("type", type).tag("outcome", outcome).timer();
+    }
+
+}
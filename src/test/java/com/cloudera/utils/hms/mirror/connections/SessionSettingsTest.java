@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.connections;
+
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SessionSettingsTest {
+
+    private static Connection physical() throws SQLException {
+        Connection physical = mock(Connection.class);
+        when(physical.createStatement()).thenAnswer(i -> mock(Statement.class));
+        return physical;
+    }
+
+    private static Connection pooled(Connection physical) throws SQLException {
+        Connection proxy = mock(Connection.class);
+        when(proxy.unwrap(Connection.class)).thenReturn(physical);
+        when(proxy.createStatement()).thenAnswer(i -> physical.createStatement());
+        return proxy;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    @Test
+    public void parseSet() {
+        Map.Entry<String, String> setting = SessionSettings.parseSet(" SET hive.exec.dynamic.partition.mode = nonstrict;");
+        assertEquals("hive.exec.dynamic.partition.mode", setting.getKey());
+        assertEquals("nonstrict", setting.getValue());
+        assertNull(SessionSettings.parseSet("set hive.exec.dynamic.partition.mode"));
+        assertNull(SessionSettings.parseSet("CREATE TABLE settings (id int)"));
+        assertTrue(SessionSettings.isReset("RESET"));
+        assertFalse(SessionSettings.isReset("reset_table"));
+        assertTrue(SessionSettings.isSessionStatement(" use sales"));
+        assertFalse(SessionSettings.isSessionStatement("user_table"));
+        assertFalse(SessionSettings.isSessionStatement("CREATE DATABASE sales"));
+    }
+
+    @Test
+    public void appliedPerSession() throws SQLException {
+        SessionSettings settings = new SessionSettings();
+        Connection session1 = physical();
+        Connection session2 = physical();
+        String set = "SET tez.queue.name=migration";
+
+        assertFalse(settings.isApplied(pooled(session1), set));
+        execute(settings.track(pooled(session1)), set);
+        // A new borrow of the same session.
+        assertTrue(settings.isApplied(pooled(session1), set));
+        assertFalse(settings.isApplied(pooled(session1), "SET tez.queue.name=default"));
+        assertFalse(settings.isApplied(pooled(session2), set));
+
+        // Whoever runs it, through any borrow.
+        execute(settings.track(pooled(session1)), "RESET");
+        assertFalse(settings.isApplied(pooled(session1), set));
+
+        execute(settings.track(pooled(session2)), set);
+        Connection tracked = settings.track(pooled(session2));
+        try (Statement stmt = tracked.createStatement()) {
+            stmt.addBatch("CREATE TABLE a (id int)");
+            stmt.executeBatch();
+        }
+        assertFalse(settings.isApplied(pooled(session2), set));
+
+        execute(settings.track(pooled(session2)), set);
+        settings.clear();
+        assertFalse(settings.isApplied(pooled(session2), set));
+    }
+
+    @Test
+    public void failedSet_forgetsSession() throws SQLException {
+        SessionSettings settings = new SessionSettings();
+        Connection session = physical();
+        String set = "SET tez.queue.name=migration";
+        execute(settings.track(pooled(session)), set);
+
+        Statement failing = mock(Statement.class);
+        when(failing.execute("SET tez.queue.name=other")).thenThrow(new SQLException("Bad queue"));
+        when(session.createStatement()).thenReturn(failing);
+        assertThrows(SQLException.class, () -> execute(settings.track(pooled(session)), "SET tez.queue.name=other"));
+        assertFalse(settings.isApplied(pooled(session), set));
+    }
+
+    @Test
+    public void dbcp2Guard_tracksInnermostConnection() throws SQLException {
+        SessionSettings settings = new SessionSettings();
+        Connection session = physical();
+        String set = "SET tez.queue.name=migration";
+
+        // Each borrow is a new guard around the same connection, which unwraps to itself.
+        execute(settings.track(new DelegatingConnection<>(session)), set);
+        assertTrue(settings.isApplied(new DelegatingConnection<>(session), set));
+    }
+
+    @Test
+    public void unknownSession_neverSkipped() throws SQLException {
+        SessionSettings settings = new SessionSettings();
+        Connection connection = physical();
+        when(connection.unwrap(Connection.class)).thenReturn(connection);
+        String set = "SET tez.queue.name=migration";
+
+        assertSame(connection, settings.track(connection));
+        execute(settings.track(connection), set);
+        assertFalse(settings.isApplied(connection, set));
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hive.config.DBStore;
+import com.cloudera.utils.hms.mirror.domain.Filter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledFilterTest {
+
+    private static final List<String> TABLES = Arrays.asList("orders", "orders_2024", "customers", "sales_eu",
+            "sales_us", "salesx", "tmp_load", "web.logs", "web_logs", "ORDERS");
+
+    /*
+    Whatever the matcher makes of the regex, it has to agree with the regex.
+     */
+    private static void assertSameAsRegex(String regex, boolean fullMatch) {
+        NameMatcher matcher = NameMatcher.compile(regex, fullMatch);
+        Pattern pattern = Pattern.compile(regex);
+        for (String table : TABLES) {
+            boolean expected = fullMatch ? pattern.matcher(table).matches() : pattern.matcher(table).find();
+            assertEquals(expected, matcher.matches(table), regex + " on " + table);
+        }
+    }
+
+    @Test
+    public void nameMatcher_decomposes() {
+        NameMatcher matcher = NameMatcher.compile("orders|customers", true);
+        assertTrue(matcher.isDecomposed());
+        assertEquals(2, matcher.getNames().size());
+
+        matcher = NameMatcher.compile("^(sales_.*|tmp_.*)$", true);
+        assertTrue(matcher.isDecomposed());
+        assertEquals(Arrays.asList("sales_", "tmp_"), matcher.getPrefixes());
+
+        matcher = NameMatcher.compile("web\\.logs", true);
+        assertTrue(matcher.isDecomposed());
+        assertTrue(matcher.getNames().contains("web.logs"));
+
+        // Find only breaks down when it's anchored.
+        assertFalse(NameMatcher.compile("orders", false).isDecomposed());
+        matcher = NameMatcher.compile("^sales", false);
+        assertTrue(matcher.isDecomposed());
+        assertEquals(Arrays.asList("sales"), matcher.getPrefixes());
+
+        assertFalse(NameMatcher.compile("sales_[a-z]+", true).isDecomposed());
+        assertFalse(NameMatcher.compile("(orders)|(customers)", true).isDecomposed());
+        assertFalse(NameMatcher.compile("orders|", true).isDecomposed());
+        assertFalse(NameMatcher.compile("\\w+", true).isDecomposed());
+    }
+
+    @Test
+    public void nameMatcher_agreesWithTheRegex() {
+        for (String regex : Arrays.asList("orders|customers", "sales_.*", "^(sales_.*|tmp_.*)$", "(?:orders|web\\.logs)",
+                "web.logs", "orders.*|customers", ".*", "sales_[a-z]+", "(orders)|(customers)", "ORDERS", "orders$")) {
+            assertSameAsRegex(regex, true);
+        }
+        for (String regex : Arrays.asList("sales", "^sales", "^sales$", "^(orders|customers)$", "^orders_", "s$")) {
+            assertSameAsRegex(regex, false);
+        }
+    }
+
+    @Test
+    public void nameMatcher_findOnlyDecomposesAnAnchoredGroup() {
+        // The anchors only bind the first and last alternatives, 'logs' can be anywhere.
+        for (String regex : Arrays.asList("^orders|logs", "^orders|logs$", "^(orders)|(logs)$", "^(?:orders)|logs")) {
+            assertFalse(NameMatcher.compile(regex, false).isDecomposed(), regex);
+            assertSameAsRegex(regex, false);
+        }
+        NameMatcher matcher = NameMatcher.compile("^(orders|sales_.*)$", false);
+        assertTrue(matcher.isDecomposed());
+        assertTrue(matcher.getNames().contains("orders"));
+        assertEquals(Arrays.asList("sales_"), matcher.getPrefixes());
+        matcher = NameMatcher.compile("^(?:orders|web)", false);
+        assertTrue(matcher.isDecomposed());
+        assertEquals(Arrays.asList("orders", "web"), matcher.getPrefixes());
+        for (String regex : Arrays.asList("^(orders|sales_.*)$", "^(?:orders|web)")) {
+            assertSameAsRegex(regex, false);
+        }
+    }
+
+    @Test
+    public void compiled_followsTheFilter() {
+        Filter filter = new Filter();
+        CompiledFilter compiled = filter.getCompiled();
+        assertFalse(compiled.isTableFiltering());
+        assertTrue(compiled.isTableIncluded("anything"));
+        assertTrue(compiled.isDatabaseIncluded("anything"));
+        assertSame(compiled, filter.getCompiled());
+
+        filter.setTblExcludeRegEx("tmp_.*");
+        compiled = filter.getCompiled();
+        assertFalse(compiled.isTableIncluded("tmp_load"));
+        assertTrue(compiled.isTableIncluded("orders"));
+
+        // The include filter wins.
+        filter.setTblRegEx("orders");
+        compiled = filter.getCompiled();
+        assertTrue(compiled.isTableIncluded("orders"));
+        assertFalse(compiled.isTableIncluded("customers"));
+
+        filter.setDbRegEx("fin");
+        assertTrue(filter.getCompiled().isDatabaseIncluded("finance"));
+        assertFalse(filter.getCompiled().isDatabaseIncluded("sales"));
+    }
+
+    @Test
+    public void pushDown() {
+        String mysql = "SELECT T.TBL_NAME FROM DBS D INNER JOIN TBLS T ON D.DB_ID = T.DB_ID WHERE D.NAME = ? ORDER BY T.TBL_NAME";
+        String postgres = "SELECT \"T\".\"TBL_NAME\" FROM \"DBS\" \"D\" INNER JOIN \"TBLS\" \"T\" ON \"D\".\"DB_ID\" = \"T\".\"DB_ID\" " +
+                "WHERE \"D\".\"NAME\" = ?";
+
+        Filter filter = new Filter();
+        // Nothing to push down.
+        assertEquals(mysql, filter.getCompiled().pushDown(mysql, DBStore.DB_TYPE.MYSQL));
+
+        filter.setTblRegEx("orders|customers|sales_.*");
+        assertEquals("SELECT T.TBL_NAME FROM DBS D INNER JOIN TBLS T ON D.DB_ID = T.DB_ID WHERE D.NAME = ? AND " +
+                        "(T.TBL_NAME IN ('customers', 'orders') OR T.TBL_NAME LIKE 'sales!_%' ESCAPE '!') ORDER BY T.TBL_NAME",
+                filter.getCompiled().pushDown(mysql, DBStore.DB_TYPE.MYSQL));
+        assertEquals(postgres + " AND (\"T\".\"TBL_NAME\" IN ('customers', 'orders') OR " +
+                        "\"T\".\"TBL_NAME\" LIKE 'sales!_%' ESCAPE '!')",
+                filter.getCompiled().pushDown(postgres, DBStore.DB_TYPE.POSTGRES));
+
+        filter.setTblRegEx(null);
+        filter.setTblExcludeRegEx("tmp_.*");
+        assertEquals("NOT (T.TBL_NAME LIKE 'tmp!_%' ESCAPE '!')", filter.getCompiled().tableNameCondition("T.TBL_NAME"));
+
+        // Not expressible, left to the regex.
+        filter.setTblExcludeRegEx("tmp_[0-9]+");
+        assertNull(filter.getCompiled().tableNameCondition("T.TBL_NAME"));
+        filter.setTblExcludeRegEx("web\\.logs");
+        assertNull(filter.getCompiled().tableNameCondition("T.TBL_NAME"));
+        filter.setTblExcludeRegEx("Orders");
+        assertNull(filter.getCompiled().tableNameCondition("T.TBL_NAME"));
+        filter.setTblExcludeRegEx("o'rders");
+        assertEquals(mysql, filter.getCompiled().pushDown(mysql, DBStore.DB_TYPE.MYSQL));
+    }
+
+}
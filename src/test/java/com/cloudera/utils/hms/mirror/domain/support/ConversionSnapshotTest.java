@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversionSnapshotTest {
+
+    @Test
+    public void countersFollowThePhases() {
+        Conversion conversion = new Conversion();
+        DBMirror sales = conversion.addDatabase("sales");
+        assertSame(sales, conversion.addDatabase("sales"));
+        TableMirror orders = sales.addTable("orders");
+        TableMirror customers = sales.addTable("customers");
+        assertSame(orders, sales.addTable("orders"));
+        conversion.addDatabase("finance").addTable("ledger");
+
+        ConversionSnapshot snapshot = conversion.snapshot();
+        assertEquals(2, snapshot.getDatabaseCount());
+        assertEquals(3, snapshot.getTableCount());
+        assertEquals(3, snapshot.getCount(PhaseState.INIT));
+        assertTrue(snapshot.getActiveTables().isEmpty());
+
+        orders.setPhaseState(PhaseState.CALCULATING_SQL);
+        customers.setPhaseState(PhaseState.ERROR);
+        snapshot = conversion.snapshot();
+        assertEquals(1, snapshot.getCount(PhaseState.INIT));
+        assertEquals(PhaseState.CALCULATING_SQL, snapshot.getActiveTables().get("sales.orders"));
+        assertEquals(1, snapshot.getDatabasePhases().get("sales").get(PhaseState.ERROR));
+        assertEquals(1, sales.getActiveTables().size());
+
+        orders.setPhaseState(PhaseState.CALCULATED_SQL);
+        assertTrue(sales.getActiveTables().isEmpty());
+        // The snapshot taken before doesn't change.
+        assertEquals(1, snapshot.getActiveTables().size());
+        assertEquals(2, conversion.getUnsuccessfullTableCount());
+
+        customers.setRemove(true);
+        sales.removeTables(TableMirror::isRemove);
+        snapshot = conversion.snapshot();
+        assertEquals(2, snapshot.getTableCount());
+        assertEquals(0, snapshot.getCount(PhaseState.ERROR));
+        // Not in the map, not counted.
+        customers.setPhaseState(PhaseState.PROCESSED);
+        assertEquals(0, conversion.snapshot().getCount(PhaseState.PROCESSED));
+    }
+
+    @Test
+    public void setTableMirrors_counts() {
+        DBMirror dbMirror = new DBMirror();
+        dbMirror.setName("sales");
+        Map<String, TableMirror> tables = new TreeMap<>();
+        for (String name : new String[]{"a", "b", "c"}) {
+            TableMirror tableMirror = new TableMirror();
+            tableMirror.setName(name);
+            tableMirror.setPhaseState(PhaseState.PROCESSED);
+            tables.put(name, tableMirror);
+        }
+        dbMirror.setTableMirrors(tables);
+        assertEquals(3, dbMirror.getPhaseSummary().get(PhaseState.PROCESSED));
+
+        dbMirror.getTableMirrors().remove("a");
+        dbMirror.recountPhases();
+        assertEquals(2, dbMirror.getPhaseSummary().get(PhaseState.PROCESSED));
+    }
+
+    @Test
+    public void concurrentAddsAndTransitions() throws Exception {
+        Conversion conversion = new Conversion();
+        int threads = 8;
+        int tables = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < tables; i++) {
+                        // Every thread adds the same tables, only one of them gets to add each.
+                        DBMirror dbMirror = conversion.addDatabase("db_" + (i % 10));
+                        TableMirror tableMirror = dbMirror.addTable("tbl_" + i);
+                        tableMirror.setPhaseState(PhaseState.CALCULATING_SQL);
+                        tableMirror.setPhaseState(PhaseState.CALCULATED_SQL);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        ConversionSnapshot snapshot = conversion.snapshot();
+        assertEquals(10, snapshot.getDatabaseCount());
+        assertEquals(tables, snapshot.getTableCount());
+        assertEquals(tables, snapshot.getCount(PhaseState.CALCULATED_SQL));
+        assertTrue(snapshot.getActiveTables().isEmpty());
+    }
+
+}
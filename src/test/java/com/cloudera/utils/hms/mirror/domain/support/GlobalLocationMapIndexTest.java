@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.domain.Translator;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalLocationMapIndexTest {
+
+    private static Map<TableType, String> target(String location) {
+        Map<TableType, String> rtn = new HashMap<>();
+        rtn.put(TableType.EXTERNAL_TABLE, location);
+        return rtn;
+    }
+
+    /*
+    The lookup the index replaces.
+     */
+    private static String linearScan(Map<String, Map<TableType, String>> ordered, String location) {
+        for (String key : ordered.keySet()) {
+            if (location.startsWith(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private static String indexed(GlobalLocationMapIndex index, String location) {
+        Map.Entry<String, Map<TableType, String>> entry = index.longestPrefix(location);
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Test
+    public void longestPrefix_wins() {
+        Map<String, Map<TableType, String>> glm = new TreeMap<>(new StringLengthComparator());
+        glm.put("/warehouse/tablespace/external/hive", target("/finance/external"));
+        glm.put("/warehouse/tablespace/external/hive/sales.db", target("/sales/external"));
+        glm.put("/user/", target("/users"));
+        GlobalLocationMapIndex index = new GlobalLocationMapIndex(glm);
+
+        assertEquals(3, index.size());
+        assertEquals("/warehouse/tablespace/external/hive/sales.db",
+                indexed(index, "/warehouse/tablespace/external/hive/sales.db/orders/dt=2024-01-01"));
+        assertEquals("/warehouse/tablespace/external/hive",
+                indexed(index, "/warehouse/tablespace/external/hive/hr.db/people"));
+        assertEquals("/user/", indexed(index, "/user/dstreev/data"));
+        assertNull(indexed(index, "/user"));
+        assertNull(indexed(index, "/apps/hive/warehouse/sales.db"));
+        assertEquals("/sales/external",
+                index.longestPrefix("/warehouse/tablespace/external/hive/sales.db/orders")
+                        .getValue().get(TableType.EXTERNAL_TABLE));
+    }
+
+    @Test
+    public void partialDirectoryAndNamespace_matchLikeStartsWith() {
+        Map<String, Map<TableType, String>> glm = new TreeMap<>(new StringLengthComparator());
+        glm.put("/data/db_", target("/landing/db_"));
+        glm.put("/data/hive", target("/landing/hive"));
+        glm.put("hdfs://HOME90/apps", target("/apps"));
+        glm.put("s3a://bucket", target("/bucket"));
+        GlobalLocationMapIndex index = new GlobalLocationMapIndex(glm);
+
+        assertEquals("/data/db_", indexed(index, "/data/db_01/tbl"));
+        assertEquals("/data/hive", indexed(index, "/data/hive2/tbl"));
+        assertEquals("hdfs://HOME90/apps", indexed(index, "hdfs://HOME90/apps/hive/warehouse"));
+        assertNull(indexed(index, "hdfs://HOME91/apps/hive/warehouse"));
+        assertNull(indexed(index, "/apps/hive/warehouse"));
+        assertEquals("s3a://bucket", indexed(index, "s3a://bucket2/data"));
+        for (String location : Arrays.asList("/data/db_01/tbl", "/data/hive2/tbl",
+                "hdfs://HOME90/apps/hive/warehouse", "hdfs://HOME91/apps", "s3a://bucket2/data")) {
+            assertEquals(linearScan(glm, location), indexed(index, location), location);
+        }
+    }
+
+    @Test
+    public void randomLocations_matchLinearScan() {
+        Random random = new Random(42);
+        String[] dirs = {"warehouse", "tablespace", "external", "hive", "managed", "db", "db_", "db_01",
+                "sales.db", "sales", "user", "apps", "tbl", "dt=2024"};
+        Map<String, Map<TableType, String>> glm = new TreeMap<>(new StringLengthComparator());
+        for (int i = 0; i < 2_000; i++) {
+            glm.put(randomPath(random, dirs), target("/target/" + i));
+        }
+        GlobalLocationMapIndex index = new GlobalLocationMapIndex(glm);
+        for (int i = 0; i < 20_000; i++) {
+            String location = randomPath(random, dirs);
+            assertEquals(linearScan(glm, location), indexed(index, location), location);
+        }
+    }
+
+    private static String randomPath(Random random, String[] dirs) {
+        StringBuilder sb = new StringBuilder();
+        switch (random.nextInt(4)) {
+            case 0:
+                sb.append("hdfs://HOME90");
+                break;
+            case 1:
+                sb.append("hdfs://HOME9");
+                break;
+            default:
+        }
+        int depth = random.nextInt(6);
+        for (int i = 0; i < depth; i++) {
+            sb.append('/').append(dirs[random.nextInt(dirs.length)]);
+        }
+        if (random.nextInt(5) == 0) {
+            sb.append('/');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void translator_rebuildsIndexWhenMapChanges() {
+        Translator translator = new Translator();
+        translator.addUserGlobalLocationMap(TableType.EXTERNAL_TABLE, "/warehouse/external", "/ext");
+        assertEquals("/warehouse/external",
+                indexed(translator.getGlobalLocationMapIndex(), "/warehouse/external/db.db"));
+
+        translator.addUserGlobalLocationMap(TableType.EXTERNAL_TABLE, "/warehouse/external/db.db", "/db");
+        assertEquals("/warehouse/external/db.db",
+                indexed(translator.getGlobalLocationMapIndex(), "/warehouse/external/db.db/tbl"));
+
+        Map<String, Map<TableType, String>> auto = new TreeMap<>();
+        auto.put("/auto", target("/auto_target"));
+        translator.setAutoGlobalLocationMap(auto);
+        translator.rebuildOrderedGlobalLocationMap();
+        assertEquals("/auto", indexed(translator.getGlobalLocationMapIndex(), "/auto/db.db"));
+        assertEquals(3, translator.getGlobalLocationMapIndex().size());
+    }
+
+}
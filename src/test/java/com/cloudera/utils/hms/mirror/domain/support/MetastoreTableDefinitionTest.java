@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.util.TableUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetastoreTableDefinitionTest {
+
+    private MetastoreTableDefinition acidPartitioned() {
+        MetastoreTableDefinition definition = new MetastoreTableDefinition("acid_03");
+        definition.setTableType(MetastoreTableDefinition.MANAGED_TABLE);
+        definition.setLocation("hdfs://HOME90/warehouse/tablespace/managed/hive/z_hms_mirror_testdb_20230529_103849.db/acid_03");
+        definition.setSerdeLib("org.apache.hadoop.hive.ql.io.orc.OrcSerde");
+        definition.setInputFormat("org.apache.hadoop.hive.ql.io.orc.OrcInputFormat");
+        definition.setOutputFormat("org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat");
+        definition.setNumBuckets(6);
+        definition.addColumn("id", "string", null);
+        definition.addColumn("checkvalue", "string", null);
+        definition.addPartitionKey("num", "string", null);
+        definition.addBucketColumn("id");
+        definition.getSerdeParameters().put("serialization.format", "1");
+        definition.getTableParameters().put("bucketing_version", "2");
+        definition.getTableParameters().put("transactional", "true");
+        definition.getTableParameters().put("transactional_properties", "default");
+        definition.getTableParameters().put("transient_lastDdlTime", "1685371184");
+        definition.getTableParameters().put("numFiles", "12");
+        definition.getTableParameters().put("COLUMN_STATS_ACCURATE", "{\"BASIC_STATS\":\"true\"}");
+        return definition;
+    }
+
+    @Test
+    public void toDefinition_matchesShowCreateTable() {
+        List<String> expected = Arrays.asList(
+                "CREATE TABLE `acid_03`(",
+                "`id` string,",
+                "`checkvalue` string)",
+                "PARTITIONED BY (",
+                "`num` string)",
+                "CLUSTERED BY (",
+                "id)",
+                "INTO 6 BUCKETS",
+                "ROW FORMAT SERDE",
+                "'org.apache.hadoop.hive.ql.io.orc.OrcSerde'",
+                "STORED AS INPUTFORMAT",
+                "'org.apache.hadoop.hive.ql.io.orc.OrcInputFormat'",
+                "OUTPUTFORMAT",
+                "'org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat'",
+                "LOCATION",
+                "'hdfs://HOME90/warehouse/tablespace/managed/hive/z_hms_mirror_testdb_20230529_103849.db/acid_03'",
+                "TBLPROPERTIES (",
+                "'bucketing_version'='2',",
+                "'transactional'='true',",
+                "'transactional_properties'='default',",
+                "'transient_lastDdlTime'='1685371184')");
+        MetastoreTableDefinition definition = acidPartitioned();
+        assertTrue(definition.isReproducible());
+        assertEquals(expected, definition.toDefinition());
+    }
+
+    @Test
+    public void toDefinition_readableByTableUtils() {
+        MetastoreTableDefinition definition = acidPartitioned();
+        definition.setTableType(MetastoreTableDefinition.EXTERNAL_TABLE);
+        definition.getTableParameters().put("EXTERNAL", "TRUE");
+        definition.getTableParameters().put("comment", "Don't drop");
+        definition.getSerdeParameters().put("field.delim", ",");
+
+        EnvironmentTable environmentTable = new EnvironmentTable(null);
+        environmentTable.setDefinition(definition.toDefinition());
+
+        assertTrue(TableUtils.isExternal(environmentTable));
+        assertTrue(TableUtils.isPartitioned(environmentTable));
+        assertEquals(6, TableUtils.numOfBuckets(environmentTable));
+        assertEquals("hdfs://HOME90/warehouse/tablespace/managed/hive/z_hms_mirror_testdb_20230529_103849.db/acid_03",
+                TableUtils.getLocation("acid_03", environmentTable.getDefinition()));
+        assertTrue(environmentTable.getDefinition().contains("COMMENT 'Don\\'t drop'"));
+        assertTrue(environmentTable.getDefinition().contains("'field.delim'=',')"));
+        assertNull(TableUtils.getTblProperty("EXTERNAL", environmentTable));
+    }
+
+    @Test
+    public void toDefinition_escapesSerdeProperties() {
+        MetastoreTableDefinition definition = acidPartitioned();
+        definition.setSerdeLib("org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe");
+        definition.getSerdeParameters().put("field.delim", "\u0001");
+        definition.getSerdeParameters().put("line.delim", "\n");
+        definition.getSerdeParameters().put("mapkey.delim", "\t");
+        definition.getSerdeParameters().put("escape.delim", "\\");
+
+        List<String> lines = definition.toDefinition();
+        int start = lines.indexOf("WITH SERDEPROPERTIES (");
+        assertEquals(Arrays.asList(
+                "'escape.delim'='\\\\',",
+                "'field.delim'='\\u0001',",
+                "'line.delim'='\\n',",
+                "'mapkey.delim'='\\t')",
+                "STORED AS INPUTFORMAT"), lines.subList(start + 1, start + 6));
+    }
+
+    @Test
+    public void isReproducible_falseForViewsAndStorageHandlers() {
+        MetastoreTableDefinition view = new MetastoreTableDefinition("v_01");
+        view.setTableType("VIRTUAL_VIEW");
+        assertFalse(view.isReproducible());
+
+        MetastoreTableDefinition handler = acidPartitioned();
+        handler.getTableParameters().put("storage_handler", "org.apache.hadoop.hive.hbase.HBaseStorageHandler");
+        assertFalse(handler.isReproducible());
+
+        MetastoreTableDefinition skewed = acidPartitioned();
+        skewed.setSkewed(true);
+        assertFalse(skewed.isReproducible());
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+Compares the heap used to hold the partitions of one large table in a HashMap (the previous store) and in a
+PartitionLocationMap.  Not a unit test, run it directly with a fixed heap for stable numbers:
+
+  java -Xms4g -Xmx4g -cp <test-classpath> com.cloudera.utils.hms.mirror.domain.support.PartitionLocationMapMemoryBenchmark [partitions]
+ */
+public class PartitionLocationMapMemoryBenchmark {
+
+    private static final String TABLE_LOCATION =
+            "hdfs://HOME90/warehouse/tablespace/external/hive/sales_history.db/web_transactions";
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        long hashMapBytes = measure(HashMap::new, count);
+        long compactBytes = measure(PartitionLocationMap::new, count);
+        System.out.printf("Partitions: %,d%n", count);
+        System.out.printf("HashMap:              %,d bytes (%,d bytes/partition)%n", hashMapBytes, hashMapBytes / count);
+        System.out.printf("PartitionLocationMap: %,d bytes (%,d bytes/partition)%n", compactBytes, compactBytes / count);
+        System.out.printf("Ratio:                %.1fx%n", (double) hashMapBytes / compactBytes);
+    }
+
+    private static long measure(Supplier<Map<String, String>> factory, int count) {
+        long before = usedHeap();
+        Map<String, String> partitions = factory.get();
+        fill(partitions, count);
+        long after = usedHeap();
+        // Keep the map reachable until after the measurement.
+        if (partitions.size() != count) {
+            throw new IllegalStateException("Unexpected size: " + partitions.size());
+        }
+        return after - before;
+    }
+
+    /*
+    Daily partitions per region, the shape of our largest tables.  Keys and values are built the way the JDBC
+    driver hands them over: new Strings for every row.
+     */
+    private static void fill(Map<String, String> partitions, int count) {
+        int i = 0;
+        for (int day = 0; i < count; day++) {
+            for (int region = 0; region < 50 && i < count; region++, i++) {
+                String spec = "dt=" + (20000101 + day) + "/region=r" + region;
+                partitions.put(new String(spec), TABLE_LOCATION + "/" + spec);
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.cloudera.utils.hms.mirror.MirrorConf.NOT_SET;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionLocationMapTest {
+
+    private static final String TABLE_LOCATION = "hdfs://HOME90/warehouse/tablespace/external/hive/db.db/ext_part_01";
+
+    @Test
+    public void putGet_roundTripsLocations() {
+        Map<String, String> partitions = new PartitionLocationMap();
+        partitions.put("num=56", TABLE_LOCATION + "/num=56");
+        partitions.put("year=2024/month=01", TABLE_LOCATION + "/year=2024/month=01");
+        partitions.put("num=57", "hdfs://HOME90/other/location");
+        partitions.put("num=58", NOT_SET);
+        partitions.put("num=59", null);
+
+        assertEquals(5, partitions.size());
+        assertEquals(TABLE_LOCATION + "/num=56", partitions.get("num=56"));
+        assertEquals(TABLE_LOCATION + "/year=2024/month=01", partitions.get("year=2024/month=01"));
+        assertEquals("hdfs://HOME90/other/location", partitions.get("num=57"));
+        assertEquals(NOT_SET, partitions.get("num=58"));
+        assertNull(partitions.get("num=59"));
+        assertTrue(partitions.containsKey("num=59"));
+        assertFalse(partitions.containsKey("year=2024"));
+        assertNull(partitions.get("num=60"));
+    }
+
+    @Test
+    public void matchesHashMap() {
+        Random random = new Random(42);
+        Map<String, String> expected = new HashMap<>();
+        Map<String, String> partitions = new PartitionLocationMap();
+        for (int i = 0; i < 20000; i++) {
+            String spec = "year=" + (2000 + random.nextInt(20)) + "/id=" + random.nextInt(5000);
+            String location = random.nextBoolean() ? TABLE_LOCATION + "/" + spec : "s3a://bucket/" + i;
+            if (random.nextInt(10) == 0) {
+                assertEquals(expected.remove(spec), partitions.remove(spec));
+            } else {
+                assertEquals(expected.put(spec, location), partitions.put(spec, location));
+            }
+        }
+        assertEquals(expected, partitions);
+        assertEquals(partitions, expected);
+        assertEquals(expected.hashCode(), partitions.hashCode());
+    }
+
+    @Test
+    public void entrySetValue_updatesLocation() {
+        Map<String, String> partitions = new PartitionLocationMap();
+        partitions.put("num=56", TABLE_LOCATION + "/num=56");
+        partitions.put("num=57", TABLE_LOCATION + "/num=57");
+        for (Map.Entry<String, String> entry : partitions.entrySet()) {
+            entry.setValue(entry.getValue().replace("hdfs://HOME90", "ofs://OHOME90"));
+        }
+        assertEquals("ofs://OHOME90/warehouse/tablespace/external/hive/db.db/ext_part_01/num=57",
+                partitions.get("num=57"));
+
+        Iterator<Map.Entry<String, String>> iter = partitions.entrySet().iterator();
+        iter.next();
+        iter.remove();
+        assertEquals(1, partitions.size());
+        assertEquals(Collections.singleton("num=57"), partitions.keySet());
+    }
+
+    @Test
+    public void iteratorRemove_keepsInsertionOrder() {
+        Map<String, String> expected = new LinkedHashMap<>();
+        Map<String, String> partitions = new PartitionLocationMap();
+        for (int i = 0; i < 1000; i++) {
+            expected.put("num=" + i, TABLE_LOCATION + "/num=" + i);
+            partitions.put("num=" + i, TABLE_LOCATION + "/num=" + i);
+        }
+        // Drop every other entry, none can be skipped.
+        List<String> visited = new ArrayList<>();
+        Iterator<Map.Entry<String, String>> iter = partitions.entrySet().iterator();
+        while (iter.hasNext()) {
+            String spec = iter.next().getKey();
+            visited.add(spec);
+            if (Integer.parseInt(spec.substring(4)) % 2 == 0) {
+                iter.remove();
+            }
+        }
+        expected.keySet().removeIf(spec -> Integer.parseInt(spec.substring(4)) % 2 == 0);
+        assertEquals(1000, visited.size());
+        assertEquals(500, partitions.size());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(partitions.keySet()));
+        assertNull(partitions.get("num=0"));
+        assertEquals(TABLE_LOCATION + "/num=1", partitions.get("num=1"));
+
+        // Compacted on the next puts, still in order.
+        for (int i = 1000; i < 1500; i++) {
+            expected.put("num=" + i, TABLE_LOCATION + "/num=" + i);
+            partitions.put("num=" + i, TABLE_LOCATION + "/num=" + i);
+        }
+        partitions.remove("num=1");
+        expected.remove("num=1");
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(partitions.entrySet()));
+        assertEquals(expected, partitions);
+    }
+
+    @Test
+    public void copy_isDetached() {
+        PartitionLocationMap partitions = new PartitionLocationMap();
+        partitions.put("num=56", TABLE_LOCATION + "/num=56");
+        Map<String, String> copy = new PartitionLocationMap(partitions);
+        copy.put("num=56", "changed");
+        copy.put("num=57", "added");
+        assertEquals(1, partitions.size());
+        assertEquals(TABLE_LOCATION + "/num=56", partitions.get("num=56"));
+        assertEquals("changed", copy.get("num=56"));
+    }
+
+    @Test
+    public void environmentTable_serializesAsMap() throws Exception {
+        EnvironmentTable environmentTable = new EnvironmentTable();
+        environmentTable.getPartitions().put("num=56", TABLE_LOCATION + "/num=56");
+        environmentTable.getPartitions().put("num=57", NOT_SET);
+
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(environmentTable);
+        EnvironmentTable read = mapper.readValue(json, EnvironmentTable.class);
+
+        assertTrue(read.getPartitions() instanceof PartitionLocationMap);
+        assertEquals(environmentTable.getPartitions(), read.getPartitions());
+    }
+
+}
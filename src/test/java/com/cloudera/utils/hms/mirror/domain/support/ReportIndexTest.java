@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportIndexTest {
+
+    private static final ObjectMapper YAML = new ObjectMapper(new YAMLFactory())
+            .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void tablesAreReadOneAtATime() throws Exception {
+        DBMirror dbMirror = new DBMirror();
+        dbMirror.setName("sales");
+        for (int i = 0; i < 25; i++) {
+            TableMirror tableMirror = dbMirror.addTable(String.format("tbl_%02d", i));
+            tableMirror.setPhaseState(i % 5 == 0 ? PhaseState.ERROR : PhaseState.PROCESSED);
+            if (i % 5 == 0) {
+                tableMirror.addError(Environment.LEFT, "Failed on " + tableMirror.getName());
+            }
+            tableMirror.recordStep(StepEnum.INIT, Environment.LEFT, "A long enough detail to be split over lines " +
+                    "by the yaml writer, so the index has to step over the continuation lines.");
+        }
+        dbMirror.getFilteredOut().put("tmp_load", "Filtered out");
+        File yamlFile = tempDir.resolve("sales_hms-mirror.yaml").toFile();
+        YAML.writeValue(yamlFile, dbMirror);
+
+        ReportIndex index = ReportIndex.scan("sales", yamlFile);
+        assertEquals(25, index.getTables().size());
+        for (ReportIndex.Entry entry : index.getTables()) {
+            Map<String, TableMirror> tables = YAML.readValue(ReportIndex.readTable(yamlFile, entry),
+                    new TypeReference<Map<String, TableMirror>>() {
+                    });
+            assertEquals(1, tables.size());
+            TableMirror tableMirror = tables.get(entry.getName());
+            assertEquals(entry.getName(), tableMirror.getName());
+            assertEquals(1, tableMirror.getSteps().size());
+            entry.summarize(tableMirror);
+        }
+        index.summarize();
+        assertEquals(5, index.getPhases().get(PhaseState.ERROR));
+        assertEquals(20, index.getPhases().get(PhaseState.PROCESSED));
+
+        // The database without the tables.
+        DBMirror database = YAML.readValue(index.readDatabase(yamlFile), DBMirror.class);
+        assertEquals("sales", database.getName());
+        assertTrue(database.getTableMirrors().isEmpty());
+        assertEquals("Filtered out", database.getFilteredOut().get("tmp_load"));
+
+        // Saved and read back.
+        File indexFile = ReportIndex.indexFile(yamlFile);
+        assertEquals("sales" + ReportIndex.SUFFIX, indexFile.getName());
+        index.write(indexFile);
+        index = ReportIndex.read(indexFile);
+        assertTrue(index.isCurrent(yamlFile));
+
+        ReportIndex.Page page = index.find(null, false, 2, 10);
+        assertEquals(25, page.getTotal());
+        assertEquals(3, page.getPages());
+        assertEquals(5, page.getTables().size());
+        assertEquals("tbl_20", page.getTables().get(0).getName());
+
+        page = index.find(PhaseState.ERROR, true, 0, 10);
+        assertEquals(5, page.getTotal());
+        assertEquals(1, page.getTables().get(0).getErrors());
+        assertTrue(index.find(PhaseState.PROCESSED, true, 0, 10).getTables().isEmpty());
+        // Past the end.
+        assertTrue(index.find(null, false, 9, 10).getTables().isEmpty());
+    }
+
+}
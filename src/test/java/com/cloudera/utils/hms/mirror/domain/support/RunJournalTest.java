@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.Pair;
+import com.cloudera.utils.hms.mirror.PhaseState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RunJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void replay_processedAndPartialTables() throws IOException {
+        Path file = tempDir.resolve("journal.log");
+        String createSql = "CREATE EXTERNAL TABLE `acid_02`\n(id\tstring)\nLOCATION 'hdfs://HOME90/data\\acid_02'";
+        try (RunJournal journal = RunJournal.open(file)) {
+            assertEquals(0, journal.getReplayedRecords());
+            journal.phase("sales", "acid_01", PhaseState.APPLYING_SQL);
+            journal.sql("sales", "acid_01", Environment.RIGHT, new Pair("Create table", "CREATE TABLE acid_01 (id string)"));
+            journal.phase("sales", "acid_01", PhaseState.PROCESSED);
+            journal.phase("sales", "acid_02", PhaseState.APPLYING_SQL);
+            journal.sql("sales", "acid_02", Environment.RIGHT, new Pair("Create table", createSql));
+            // Failed and then retried.
+            journal.phase("sales", "acid_03", PhaseState.PROCESSED);
+            journal.phase("sales", "acid_03", PhaseState.ERROR);
+        }
+        // The JVM went away while writing a record.
+        Files.write(file, "PHASE\t1717236000000\tsales\tacid_04\tPROCE".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (RunJournal journal = RunJournal.open(file)) {
+            assertEquals(7, journal.getReplayedRecords());
+            assertEquals(1, journal.getProcessedTableCount());
+            assertTrue(journal.isProcessed("sales", "acid_01"));
+            assertFalse(journal.isProcessed("sales", "acid_02"));
+            assertFalse(journal.isProcessed("sales", "acid_03"));
+            assertFalse(journal.isProcessed("sales", "acid_04"));
+
+            assertTrue(journal.isExecuted("sales", "acid_02", Environment.RIGHT, createSql));
+            assertFalse(journal.isExecuted("sales", "acid_02", Environment.LEFT, createSql));
+            assertFalse(journal.isExecuted("sales", "acid_02", Environment.RIGHT, "DROP TABLE acid_02"));
+
+            // Appends to the existing journal.
+            journal.phase("sales", "acid_02", PhaseState.PROCESSED);
+        }
+
+        try (RunJournal journal = RunJournal.open(file)) {
+            assertTrue(journal.isProcessed("sales", "acid_02"));
+            assertFalse(journal.isExecuted("sales", "acid_02", Environment.RIGHT, createSql));
+        }
+    }
+
+    @Test
+    public void resume_rerunsSessionStatements() throws IOException {
+        Path file = tempDir.resolve("journal.log");
+        String use = "USE sales";
+        String set = "SET hive.exec.dynamic.partition.mode=nonstrict";
+        String createSql = "CREATE EXTERNAL TABLE acid_01 (id string)";
+        String alterSql = "ALTER TABLE acid_01 SET TBLPROPERTIES ('external.table.purge'='true')";
+        try (RunJournal journal = RunJournal.open(file)) {
+            journal.phase("sales", "acid_01", PhaseState.APPLYING_SQL);
+            journal.sql("sales", "acid_01", Environment.RIGHT, new Pair("Selecting DB", use));
+            journal.sql("sales", "acid_01", Environment.RIGHT, new Pair("Setting", set));
+            journal.sql("sales", "acid_01", Environment.RIGHT, new Pair("Create table", createSql));
+            journal.sql("sales", "acid_01", Environment.RIGHT, new Pair("Alter table", alterSql));
+        }
+        // An older journal that still has the 'USE'.
+        Files.write(file, ("SQL\t1717236000000\tsales\tacid_01\tRIGHT\tSelecting DB\t" + use + "\n")
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (RunJournal journal = RunJournal.open(file)) {
+            // The phase, the DDL and the old 'USE'.
+            assertEquals(4, journal.getReplayedRecords());
+            assertFalse(journal.isExecuted("sales", "acid_01", Environment.RIGHT, use));
+            assertFalse(journal.isExecuted("sales", "acid_01", Environment.RIGHT, set));
+            assertTrue(journal.isExecuted("sales", "acid_01", Environment.RIGHT, createSql));
+            assertTrue(journal.isExecuted("sales", "acid_01", Environment.RIGHT, alterSql));
+            // Keyed on the table and the environment.
+            assertFalse(journal.isExecuted("sales", "acid_01", Environment.LEFT, createSql));
+            assertFalse(journal.isExecuted("sales", "acid_02", Environment.RIGHT, createSql));
+        }
+    }
+
+    @Test
+    public void escape_roundTrip() {
+        String value = "a\tb\nc\r\\d\\t";
+        assertEquals(value, RunJournal.unescape(RunJournal.escape(value)));
+        assertFalse(RunJournal.escape(value).contains("\t"));
+        assertFalse(RunJournal.escape(value).contains("\n"));
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableFingerprintIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static TableFingerprint processed() {
+        TableFingerprint rtn = new TableFingerprint("sales", "orders");
+        rtn.setFieldsFingerprint("0a1b2c3d");
+        rtn.setLocation("hdfs://HOME90/warehouse/tablespace/external/hive/sales.db/orders");
+        rtn.setLastDdlTime("1606919548");
+        rtn.setCreateTime("1606919500");
+        rtn.setPartitionCount("120");
+        rtn.setPartitionCreateTime("1606999999");
+        return rtn;
+    }
+
+    @Test
+    public void matches_onlyTheCollectedParts() {
+        TableFingerprint previous = processed();
+
+        // Metastore Direct change markers only.
+        TableFingerprint markers = new TableFingerprint("sales", "orders");
+        markers.setCreateTime("1606919500");
+        markers.setLastDdlTime("1606919548");
+        markers.setPartitionCount("120");
+        markers.setPartitionCreateTime("1606999999");
+        assertTrue(previous.matches(markers));
+
+        markers.setPartitionCount("121");
+        assertFalse(previous.matches(markers));
+
+        // The definition only.
+        TableFingerprint definition = new TableFingerprint("sales", "orders");
+        definition.setFieldsFingerprint("0a1b2c3d");
+        definition.setLocation(previous.getLocation());
+        definition.setLastDdlTime("1606919548");
+        assertTrue(previous.matches(definition));
+        definition.setFieldsFingerprint("ffff");
+        assertFalse(previous.matches(definition));
+
+        // A part the previous run didn't collect is a change.
+        markers = new TableFingerprint("sales", "orders");
+        markers.setPartitionDdlTime("1606999999");
+        assertFalse(previous.matches(markers));
+
+        // Nothing collected, nothing to go on.
+        assertFalse(previous.matches(new TableFingerprint("sales", "orders")));
+        assertFalse(previous.matches(null));
+    }
+
+    @Test
+    public void merge_keepsWhatWasCollected() {
+        TableFingerprint markers = new TableFingerprint("sales", "orders");
+        markers.setCreateTime("1606919500");
+        markers.setPartitionCount("120");
+        TableFingerprint definition = new TableFingerprint("sales", "orders");
+        definition.setFieldsFingerprint("0a1b2c3d");
+        definition.setPartitionCount(null);
+
+        markers.merge(definition);
+        assertEquals("1606919500", markers.getCreateTime());
+        assertEquals("120", markers.getPartitionCount());
+        assertEquals("0a1b2c3d", markers.getFieldsFingerprint());
+    }
+
+    @Test
+    public void saveAndLoad() throws IOException {
+        Path file = tempDir.resolve("delta").resolve("hms-mirror-delta-0123.idx");
+        TableFingerprintIndex index = TableFingerprintIndex.load(file);
+        assertEquals(0, index.size());
+
+        index.put(processed());
+        TableFingerprint odd = new TableFingerprint("sales", "odd\tname");
+        odd.setLocation("s3a://bucket/with\\slash");
+        index.put(odd);
+        index.save();
+        // Garbage in the file is skipped.
+        Files.write(file, "not a fingerprint\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        TableFingerprintIndex loaded = TableFingerprintIndex.load(file);
+        assertEquals(2, loaded.size());
+        TableFingerprint orders = loaded.get("sales", "orders");
+        assertEquals(processed().toLine(), orders.toLine());
+        assertNull(orders.getPartitionDdlTime());
+        assertTrue(orders.matches(processed()));
+        TableFingerprint loadedOdd = loaded.get("sales", "odd\tname");
+        assertEquals("s3a://bucket/with\\slash", loadedOdd.getLocation());
+        assertNull(loadedOdd.getFieldsFingerprint());
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.domain.support;
+
+import com.cloudera.utils.hms.mirror.Marker;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableStepsTest {
+
+    @Test
+    public void markersKeepTheOldLayout() {
+        TableSteps steps = new TableSteps();
+        steps.record(StepEnum.AVRO, null, null);
+        steps.record(StepEnum.SQL, Environment.RIGHT, "Create table", 5_000_000L);
+        steps.record(StepEnum.SQL_DRY_RUN, Environment.RIGHT, "Create table");
+
+        List<Marker> markers = steps.toMarkers();
+        assertEquals(3, markers.size());
+        assertEquals("AVRO", markers.get(0).getDescription());
+        assertEquals("Checked", markers.get(0).getAction());
+        assertEquals("RIGHT", markers.get(1).getDescription());
+        assertEquals("Sql Run Complete for: Create table (5ms)", markers.get(1).getAction());
+        assertEquals("Sql Run SKIPPED (DRY-RUN) for: Create table", markers.get(2).getAction());
+        assertTrue(markers.get(0).getMark().matches("[0-9,]+\\.[0-9]{2}"));
+
+        steps.clear();
+        assertTrue(steps.toMarkers().isEmpty());
+    }
+
+    @Test
+    public void onlyTheLastStepsAreKept() {
+        TableSteps steps = new TableSteps();
+        int total = TableSteps.CAPACITY + 5;
+        for (int i = 0; i < total; i++) {
+            steps.record(StepEnum.SQL_DRY_RUN, Environment.LEFT, "stmt " + i);
+        }
+        assertEquals(total, steps.getRecorded());
+        List<Marker> markers = steps.toMarkers();
+        assertEquals(TableSteps.CAPACITY + 1, markers.size());
+        assertEquals("5 earlier step(s) not kept", markers.get(0).getAction());
+        assertEquals("Sql Run SKIPPED (DRY-RUN) for: stmt 5", markers.get(1).getAction());
+        assertEquals("Sql Run SKIPPED (DRY-RUN) for: stmt " + (total - 1), markers.get(markers.size() - 1).getAction());
+
+        steps = new TableSteps();
+        steps.setVerbose(true);
+        for (int i = 0; i < total; i++) {
+            steps.record(StepEnum.SQL_DRY_RUN, Environment.LEFT, "stmt " + i);
+        }
+        markers = steps.toMarkers();
+        assertEquals(total, markers.size());
+        assertEquals("Sql Run SKIPPED (DRY-RUN) for: stmt 0", markers.get(0).getAction());
+    }
+
+    @Test
+    public void verboseAfterWrapKeepsTheOrder() {
+        TableSteps steps = new TableSteps();
+        int wrapped = TableSteps.CAPACITY + 5;
+        for (int i = 0; i < wrapped; i++) {
+            steps.record(StepEnum.SQL_DRY_RUN, Environment.LEFT, "stmt " + i);
+        }
+        // The ring grows from the oldest step kept, wherever it sits.
+        steps.setVerbose(true);
+        int total = wrapped + TableSteps.CAPACITY;
+        for (int i = wrapped; i < total; i++) {
+            steps.record(StepEnum.SQL_DRY_RUN, Environment.LEFT, "stmt " + i);
+        }
+        List<Marker> markers = steps.toMarkers();
+        assertEquals(2 * TableSteps.CAPACITY + 1, markers.size());
+        assertEquals("5 earlier step(s) not kept", markers.get(0).getAction());
+        for (int i = 1; i < markers.size(); i++) {
+            assertEquals("Sql Run SKIPPED (DRY-RUN) for: stmt " + (i + 4), markers.get(i).getAction());
+        }
+    }
+
+    @Test
+    public void verboseFollowsTheConversion() {
+        Conversion conversion = new Conversion();
+        TableMirror before = conversion.addDatabase("sales").addTable("orders");
+        conversion.setStepsVerbose(true);
+        TableMirror after = conversion.addDatabase("finance").addTable("ledger");
+        for (TableMirror tableMirror : Arrays.asList(before, after)) {
+            for (int i = 0; i < TableSteps.CAPACITY * 2; i++) {
+                tableMirror.recordStep(StepEnum.SQL_DRY_RUN, Environment.LEFT, "stmt " + i);
+            }
+            assertEquals("init", tableMirror.getSteps().get(0).getDescription());
+        }
+    }
+
+    @Test
+    public void stepsReadFromAReportAreKept() {
+        TableMirror tableMirror = new TableMirror();
+        tableMirror.setSteps(Arrays.asList(new Marker("0.00", "LEFT", "Loaded")));
+        assertEquals("Loaded", tableMirror.getSteps().get(0).getAction());
+        tableMirror.clearSteps();
+        assertTrue(tableMirror.getSteps().isEmpty());
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000_000L, histogram.getMax());
+        // Within the width of a bucket (12.5%).
+        assertEquals(500_000_000L, histogram.getPercentile(50), 500_000_000L * 0.125);
+        assertEquals(990_000_000L, histogram.getPercentile(99), 990_000_000L * 0.125);
+        assertTrue(histogram.getPercentile(50) >= 500_000_000L);
+        assertEquals(1_000_000_000L, histogram.getPercentile(100));
+
+        for (long value : new long[]{0, 1, 3, 4, 5, 7, 8, 1023, 1024, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(value <= LatencyHistogram.upper(index), "upper of " + value);
+            if (index > 0) {
+                assertTrue(value > LatencyHistogram.upper(index - 1), "lower of " + value);
+            }
+        }
+    }
+
+    @Test
+    public void timedStepsGoToTheDatabase() {
+        Conversion conversion = new Conversion();
+        TableMirror orders = conversion.addDatabase("sales").addTable("orders");
+        TableMirror ledger = conversion.addDatabase("finance").addTable("ledger");
+        orders.recordTimed(StepEnum.SCHEMA, Environment.LEFT, null, 2_000_000L);
+        orders.recordTimed(StepEnum.SQL, Environment.RIGHT, "Create table", 3_000_000L);
+        ledger.recordTimed(StepEnum.SQL, Environment.RIGHT, "Create table", 4_000_000L);
+        ledger.recordStep(StepEnum.SQL_DRY_RUN, Environment.RIGHT, "Create table");
+
+        DBMirror sales = conversion.getDatabase("sales");
+        assertEquals(1, sales.getStepTimings().get(StepEnum.SQL).getCount());
+        Map<StepEnum, LatencyHistogram> timings = conversion.stepTimings();
+        assertEquals(2, timings.get(StepEnum.SQL).getCount());
+        assertEquals(4_000_000L, timings.get(StepEnum.SQL).getMax());
+        assertEquals(1, timings.get(StepEnum.SCHEMA).getCount());
+        assertEquals(0, timings.get(StepEnum.PARTITIONS).getCount());
+        assertFalse(timings.containsKey(StepEnum.SQL_DRY_RUN));
+
+        // init, plus the two steps.
+        assertEquals(3, orders.getSteps().size());
+        orders.clearSteps();
+        assertTrue(orders.getSteps().isEmpty());
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.reporting;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.front.matter.YamlFrontMatterExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MarkdownHtmlReportWriterTest {
+
+    @TempDir
+    File tempDir;
+
+    private static List<String> reportPieces() {
+        List<String> pieces = new ArrayList<>();
+        pieces.add("# HMS-Mirror for: sales\n\nv.2.0.0\n---\n## Run Log\n\n| Date | Elapsed Time | Status\n|:---|:---|:---|\n"
+                + "| 2024-06-01 10:00:00 | 12.50 secs | COMPLETED|\n\n## DB Issues\n\nnone\n\n"
+                + "## Table Status (3)  \n\n*NOTE* SQL in this report may be altered by the renderer.\n\n"
+                + "<table>\n<tr>\n<th style=\"test-align:left\">Table</th>\n<th style=\"test-align:left\">SQL</th>\n</tr>\n");
+        for (int i = 0; i < 3; i++) {
+            pieces.add("<tr>\n<td>tbl_" + i + "</td>\n<td>\n<table><tr>\n<td>Create table</td>\n"
+                    + "<td>CREATE EXTERNAL TABLE `tbl_" + i + "` (id string)</td>\n</tr>\n</table></td>\n</tr>\n");
+        }
+        pieces.add("</table>\n\n## Skipped Tables/Views\n\n| Table / View | Reason |\n|:---|:---|\n| v_01 | VIEW |\n");
+        return pieces;
+    }
+
+    @Test
+    public void pieces_renderSameAsWholeReport() throws IOException {
+        File md = new File(tempDir, "sales_hms-mirror.md");
+        File html = new File(tempDir, "sales_hms-mirror.html");
+        try (MarkdownHtmlReportWriter writer = new MarkdownHtmlReportWriter(md, html)) {
+            for (String piece : reportPieces()) {
+                writer.write(new StringBuilder(piece));
+            }
+        }
+
+        String whole = String.join("", reportPieces());
+        List<Extension> extensions = Arrays.asList(TablesExtension.create(), YamlFrontMatterExtension.create());
+        String expectedHtml = HtmlRenderer.builder().extensions(extensions).build()
+                .render(Parser.builder().extensions(extensions).build().parse(whole));
+
+        assertEquals(whole, new String(Files.readAllBytes(md.toPath())));
+        assertEquals(expectedHtml, new String(Files.readAllBytes(html.toPath())));
+    }
+
+}
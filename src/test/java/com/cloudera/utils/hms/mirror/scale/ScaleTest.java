@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.scale;
+
+import com.cloudera.utils.hms.mirror.domain.support.DataStrategyEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/*
+The offline scale test.  Only runs when the size is set, eg:
+
+  mvn test -Dtest=ScaleTest -Dhms-mirror.scale.tables=60000 -Dhms-mirror.scale.partitions=5000000 -DargLine=-Xmx16g
+
+See SyntheticConversionGenerator for the other 'hms-mirror.scale.*' settings.  'hms-mirror.scale.strategies' limits
+the run to a comma separated list of strategies (all the visible strategies by default).  The results are written
+to 'scale-results.md' in 'hms-mirror.scale.output-dir' (target/scale-test).
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "hms-mirror.scale.tables", matches = "\\d+")
+public class ScaleTest {
+
+    @Test
+    public void allStrategies() throws IOException {
+        SyntheticConversionGenerator generator = SyntheticConversionGenerator.fromSystemProperties();
+        File outputDir = new File(System.getProperty(SyntheticConversionGenerator.PROPERTY_PREFIX + "output-dir",
+                "target/scale-test"));
+        File conversionFile = new File(outputDir, "conversion.yaml");
+        generator.write(conversionFile);
+
+        List<DataStrategyEnum> strategies = new ArrayList<>();
+        String strategyList = System.getProperty(SyntheticConversionGenerator.PROPERTY_PREFIX + "strategies");
+        if (strategyList != null) {
+            for (String strategy : strategyList.split(",")) {
+                strategies.add(DataStrategyEnum.valueOf(strategy.trim()));
+            }
+        } else {
+            strategies.addAll(Arrays.asList(DataStrategyEnum.visibleValues()));
+        }
+
+        ScaleTestRunner runner = new ScaleTestRunner(conversionFile, outputDir);
+        List<ScaleTestRunner.Result> results = runner.runAll(strategies);
+        File summary = new File(outputDir, "scale-results.md");
+        ScaleTestRunner.writeSummary(summary, generator, results);
+        log.info("Scale test results:\n{}", ScaleTestRunner.toMarkdown(generator, results));
+
+        assertEquals(strategies.size(), results.size());
+        for (ScaleTestRunner.Result result : results) {
+            // The return code is recorded, not checked.  A run that doesn't finish is a failure.
+            assertNull(result.getFailure(), result.getStrategy() + " didn't finish");
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.scale;
+
+import com.cloudera.utils.hms.mirror.cli.Mirror;
+import com.cloudera.utils.hms.mirror.domain.support.DataStrategyEnum;
+import com.cloudera.utils.hms.mirror.service.HMSMirrorAppService;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.DecimalFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Runs hms-mirror over a (synthetic) conversion file for each data strategy, in this JVM and without any
+connections ('--hms-mirror.conversion.test-filename'), and records for each run:
+
+- the wall time, from the start of the application context to the end of the run.
+- the heap peak, sampled while the run is going.
+- the bytes allocated by all the threads (where the JVM reports it), sampled the same way.
+
+A run is a new application context, the context is closed before the next one starts.
+ */
+@Getter
+@Setter
+@Slf4j
+public class ScaleTestRunner {
+
+    private static final long SAMPLE_INTERVAL_MS = 50;
+
+    private final File conversionFile;
+    private final File outputDir;
+    private String configFilename = "/config/default.yaml.hdp2-cdp";
+    // Extra arguments for the strategies that need more than the config.
+    private Map<DataStrategyEnum, List<String>> strategyArgs = new EnumMap<>(DataStrategyEnum.class);
+
+    public ScaleTestRunner(File conversionFile, File outputDir) {
+        this.conversionFile = conversionFile;
+        this.outputDir = outputDir;
+        strategyArgs.put(DataStrategyEnum.STORAGE_MIGRATION, Arrays.asList(
+                "--hms-mirror.config.target-namespace=s3a://scale_target",
+                "--hms-mirror.config.migrate-acid=true",
+                "--hms-mirror.config.distcp=true"));
+        strategyArgs.put(DataStrategyEnum.SQL, Collections.singletonList("--hms-mirror.config.distcp=true"));
+        strategyArgs.put(DataStrategyEnum.HYBRID, Collections.singletonList("--hms-mirror.config.distcp=true"));
+    }
+
+    @Getter
+    public static class Result {
+        private final DataStrategyEnum strategy;
+        private long returnCode;
+        private long wallTimeMs;
+        private long heapPeakBytes;
+        private long allocatedBytes;
+        private String failure;
+
+        Result(DataStrategyEnum strategy) {
+            this.strategy = strategy;
+        }
+    }
+
+    public Result run(DataStrategyEnum strategy) {
+        Result result = new Result(strategy);
+        List<String> args = new ArrayList<>();
+        args.add("--hms-mirror.config.data-strategy=" + strategy);
+        args.add("--hms-mirror.conversion.test-filename=" + conversionFile.getAbsolutePath());
+        args.add("--hms-mirror.config.filename=" + configFilename);
+        args.add("--hms-mirror.config.output-dir=" + new File(outputDir, strategy.toString()).getAbsolutePath());
+        args.addAll(strategyArgs.getOrDefault(strategy, Collections.emptyList()));
+
+        // Start each run from the same heap.
+        System.gc();
+        Sampler sampler = new Sampler();
+        sampler.start();
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = SpringApplication.run(Mirror.class, args.toArray(new String[0]))) {
+            result.returnCode = context.getBean(HMSMirrorAppService.class).getReturnCode();
+        } catch (Throwable t) {
+            log.error("Scale run for {} failed", strategy, t);
+            result.failure = t.getClass().getSimpleName() + ": " + t.getMessage();
+        } finally {
+            result.wallTimeMs = (System.nanoTime() - start) / 1_000_000;
+            sampler.finish();
+            result.heapPeakBytes = sampler.heapPeak;
+            result.allocatedBytes = sampler.allocated();
+        }
+        log.info("Scale run for {}: rc={} time={}ms heap peak={} allocated={}", strategy, result.returnCode,
+                result.wallTimeMs, result.heapPeakBytes, result.allocatedBytes);
+        return result;
+    }
+
+    public List<Result> runAll(Collection<DataStrategyEnum> strategies) {
+        List<Result> rtn = new ArrayList<>();
+        for (DataStrategyEnum strategy : strategies) {
+            rtn.add(run(strategy));
+        }
+        return rtn;
+    }
+
+    /*
+    The results as a markdown table.
+     */
+    public static String toMarkdown(SyntheticConversionGenerator generator, List<Result> results) {
+        DecimalFormat mb = new DecimalFormat("#,##0.0");
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Scale Test\n\n");
+        sb.append("Databases: ").append(generator.getDatabases())
+                .append(", Tables: ").append(generator.getTables())
+                .append(", Partitions: ").append(generator.getPartitions())
+                .append(", Max Heap: ").append(mb.format(Runtime.getRuntime().maxMemory() / 1048576.0)).append("MB\n\n");
+        sb.append("| Strategy | Return Code | Wall Time (s) | Heap Peak (MB) | Allocated (MB) | Failure |\n");
+        sb.append("|:---|---:|---:|---:|---:|:---|\n");
+        for (Result result : results) {
+            sb.append("| ").append(result.getStrategy())
+                    .append(" | ").append(result.getReturnCode())
+                    .append(" | ").append(mb.format(result.getWallTimeMs() / 1000.0))
+                    .append(" | ").append(mb.format(result.getHeapPeakBytes() / 1048576.0))
+                    .append(" | ").append(result.getAllocatedBytes() < 0 ? "n/a" : mb.format(result.getAllocatedBytes() / 1048576.0))
+                    .append(" | ").append(result.getFailure() == null ? "" : result.getFailure())
+                    .append(" |\n");
+        }
+        return sb.toString();
+    }
+
+    public static void writeSummary(File file, SyntheticConversionGenerator generator, List<Result> results) throws IOException {
+        Files.write(file.toPath(), toMarkdown(generator, results).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+    Samples the heap use and the allocated bytes of every thread until it's finished.  Threads that end between
+    two samples lose the allocation since the last sample.
+     */
+    private static class Sampler extends Thread {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final Map<Long, Long> startAllocated = new ConcurrentHashMap<>();
+        private final Map<Long, Long> lastAllocated = new ConcurrentHashMap<>();
+        private volatile boolean running = true;
+        private volatile long heapPeak = 0;
+
+        Sampler() {
+            super("scale-test-sampler");
+            setDaemon(true);
+            for (long id : threads.getAllThreadIds()) {
+                long bytes = allocatedBytes(id);
+                if (bytes >= 0) {
+                    startAllocated.put(id, bytes);
+                }
+            }
+        }
+
+        private long allocatedBytes(long id) {
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(id);
+            }
+            return -1;
+        }
+
+        private void sample() {
+            heapPeak = Math.max(heapPeak, memory.getHeapMemoryUsage().getUsed());
+            for (long id : threads.getAllThreadIds()) {
+                long bytes = allocatedBytes(id);
+                if (bytes >= 0) {
+                    lastAllocated.put(id, bytes);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                sample();
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        void finish() {
+            running = false;
+            interrupt();
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sample();
+        }
+
+        long allocated() {
+            if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+                return -1;
+            }
+            long rtn = 0;
+            for (Map.Entry<Long, Long> entry : lastAllocated.entrySet()) {
+                rtn += entry.getValue() - startAllocated.getOrDefault(entry.getKey(), 0L);
+            }
+            return rtn;
+        }
+    }
+
+}
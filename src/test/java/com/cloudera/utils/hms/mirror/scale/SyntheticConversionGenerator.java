@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.scale;
+
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static com.cloudera.utils.hms.mirror.MirrorConf.DB_LOCATION;
+import static com.cloudera.utils.hms.mirror.MirrorConf.DB_MANAGED_LOCATION;
+
+/*
+Builds synthetic conversions, in the layout of the test data sets (src/test/resources/test_data), that can be
+loaded with '--hms-mirror.conversion.test-filename'.
+
+- the tables are spread round-robin over the databases.
+- each table is ACID, legacy managed (non-transactional), external or external/purge, by the ratios.
+- the partitions go to the partitioned tables with a power law ('partition-skew' 0 is even, 1 is zipf), so a few
+  tables hold most of them, like a real metastore.
+- the tables live under the warehouse of the first namespace.  Some of the external tables are placed outside
+  of the warehouse, spread over the other namespaces.
+
+The same settings and seed always build the same conversion.  'write' streams the conversion to a file a
+database at a time, so the generator never holds more than one database.
+ */
+@Getter
+@Setter
+@Slf4j
+public class SyntheticConversionGenerator {
+
+    public static final String PROPERTY_PREFIX = "hms-mirror.scale.";
+
+    public static final String EXTERNAL_DIR = "/warehouse/tablespace/external/hive";
+    public static final String MANAGED_DIR = "/warehouse/tablespace/managed/hive";
+
+    public enum TableKind {
+        ACID,
+        LEGACY_MANAGED,
+        EXTERNAL,
+        EXTERNAL_PURGE
+    }
+
+    private int databases = 10;
+    private int tables = 1_000;
+    private long partitions = 10_000;
+    private double acidRatio = 0.3;
+    private double legacyManagedRatio = 0.1;
+    // Of the external tables.
+    private double externalPurgeRatio = 0.5;
+    private double partitionedRatio = 0.4;
+    private double partitionSkew = 1.0;
+    // External tables outside the warehouse.
+    private double offWarehouseRatio = 0.1;
+    private List<String> namespaces = new ArrayList<>(Arrays.asList("hdfs://HDP50", "hdfs://HDP51", "s3a://scale_bucket"));
+    private long seed = 42L;
+
+    /*
+    The settings from the 'hms-mirror.scale.*' system properties (eg: -Dhms-mirror.scale.tables=60000), with the
+    defaults for the ones that aren't set.
+     */
+    public static SyntheticConversionGenerator fromSystemProperties() {
+        SyntheticConversionGenerator rtn = new SyntheticConversionGenerator();
+        Properties props = System.getProperties();
+        rtn.setDatabases(Integer.parseInt(props.getProperty(PROPERTY_PREFIX + "databases", String.valueOf(rtn.getDatabases()))));
+        rtn.setTables(Integer.parseInt(props.getProperty(PROPERTY_PREFIX + "tables", String.valueOf(rtn.getTables()))));
+        rtn.setPartitions(Long.parseLong(props.getProperty(PROPERTY_PREFIX + "partitions", String.valueOf(rtn.getPartitions()))));
+        rtn.setAcidRatio(Double.parseDouble(props.getProperty(PROPERTY_PREFIX + "acid-ratio", String.valueOf(rtn.getAcidRatio()))));
+        rtn.setLegacyManagedRatio(Double.parseDouble(props.getProperty(PROPERTY_PREFIX + "legacy-managed-ratio", String.valueOf(rtn.getLegacyManagedRatio()))));
+        rtn.setExternalPurgeRatio(Double.parseDouble(props.getProperty(PROPERTY_PREFIX + "external-purge-ratio", String.valueOf(rtn.getExternalPurgeRatio()))));
+        rtn.setPartitionedRatio(Double.parseDouble(props.getProperty(PROPERTY_PREFIX + "partitioned-ratio", String.valueOf(rtn.getPartitionedRatio()))));
+        rtn.setPartitionSkew(Double.parseDouble(props.getProperty(PROPERTY_PREFIX + "partition-skew", String.valueOf(rtn.getPartitionSkew()))));
+        rtn.setOffWarehouseRatio(Double.parseDouble(props.getProperty(PROPERTY_PREFIX + "off-warehouse-ratio", String.valueOf(rtn.getOffWarehouseRatio()))));
+        String namespaces = props.getProperty(PROPERTY_PREFIX + "namespaces");
+        if (namespaces != null) {
+            rtn.setNamespaces(new ArrayList<>(Arrays.asList(namespaces.split(","))));
+        }
+        rtn.setSeed(Long.parseLong(props.getProperty(PROPERTY_PREFIX + "seed", String.valueOf(rtn.getSeed()))));
+        return rtn;
+    }
+
+    public static String databaseName(int db) {
+        return String.format("scale_db_%04d", db);
+    }
+
+    public static String tableName(int table) {
+        return String.format("tbl_%07d", table);
+    }
+
+    /*
+    The whole conversion in memory.  Use 'write' for the big ones.
+     */
+    public Conversion generate() {
+        Plan plan = new Plan();
+        Conversion conversion = new Conversion();
+        for (int db = 0; db < databases; db++) {
+            conversion.getDatabases().put(databaseName(db), buildDatabase(plan, db));
+        }
+        return conversion;
+    }
+
+    /*
+    Stream the conversion (as yaml) to the file, a database at a time.
+     */
+    public void write(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        Plan plan = new Plan();
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+             JsonGenerator generator = mapper.getFactory().createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeFieldName("databases");
+            generator.writeStartObject();
+            for (int db = 0; db < databases; db++) {
+                generator.writeFieldName(databaseName(db));
+                mapper.writeValue(generator, buildDatabase(plan, db));
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        log.info("Wrote synthetic conversion ({} databases, {} tables, {} partitions) to {}",
+                databases, tables, plan.totalPartitions, file);
+    }
+
+    /*
+    The kind, location and partition count of every table, decided up front so a database can be built on
+    its own.
+     */
+    private class Plan {
+        private final TableKind[] kinds = new TableKind[tables];
+        private final String[] namespaceOf = new String[tables];
+        private final boolean[] offWarehouse = new boolean[tables];
+        private final int[] partitionCounts = new int[tables];
+        private long totalPartitions = 0;
+
+        Plan() {
+            Random random = new Random(seed);
+            List<Integer> partitioned = new ArrayList<>();
+            for (int t = 0; t < tables; t++) {
+                double kind = random.nextDouble();
+                if (kind < acidRatio) {
+                    kinds[t] = TableKind.ACID;
+                } else if (kind < acidRatio + legacyManagedRatio) {
+                    kinds[t] = TableKind.LEGACY_MANAGED;
+                } else {
+                    kinds[t] = random.nextDouble() < externalPurgeRatio ? TableKind.EXTERNAL_PURGE : TableKind.EXTERNAL;
+                }
+                namespaceOf[t] = namespaces.get(0);
+                if ((kinds[t] == TableKind.EXTERNAL || kinds[t] == TableKind.EXTERNAL_PURGE)
+                        && random.nextDouble() < offWarehouseRatio) {
+                    offWarehouse[t] = true;
+                    namespaceOf[t] = namespaces.get(random.nextInt(namespaces.size()));
+                }
+                if (random.nextDouble() < partitionedRatio) {
+                    partitioned.add(t);
+                }
+            }
+            if (partitioned.isEmpty() || partitions <= 0) {
+                return;
+            }
+            // Power law over a shuffled order, so the big tables are spread over the databases.
+            Collections.shuffle(partitioned, random);
+            double[] weights = new double[partitioned.size()];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = 1.0 / Math.pow(i + 1, partitionSkew);
+                sum += weights[i];
+            }
+            for (int i = 0; i < weights.length; i++) {
+                // At least one partition for a partitioned table.
+                int count = (int) Math.max(1, Math.round(partitions * weights[i] / sum));
+                partitionCounts[partitioned.get(i)] = count;
+                totalPartitions += count;
+            }
+        }
+    }
+
+    private DBMirror buildDatabase(Plan plan, int db) {
+        String database = databaseName(db);
+        DBMirror dbMirror = new DBMirror();
+        dbMirror.setName(database);
+        String namespace = namespaces.get(0);
+        dbMirror.setProperty(Environment.LEFT, "DB_NAME", database);
+        dbMirror.setProperty(Environment.LEFT, DB_LOCATION, namespace + EXTERNAL_DIR + "/" + database + ".db");
+        dbMirror.setProperty(Environment.LEFT, DB_MANAGED_LOCATION, namespace + MANAGED_DIR + "/" + database + ".db");
+        Map<String, TableMirror> tableMirrors = new TreeMap<>();
+        for (int t = db; t < tables; t += databases) {
+            String name = tableName(t);
+            TableMirror tableMirror = new TableMirror();
+            tableMirror.setName(name);
+            EnvironmentTable left = tableMirror.getEnvironmentTable(Environment.LEFT);
+            left.setName(name);
+            left.setExists(Boolean.TRUE);
+            String location = location(plan, database, name, t);
+            boolean partitioned = plan.partitionCounts[t] > 0;
+            left.setDefinition(definition(plan.kinds[t], name, location, partitioned));
+            if (partitioned) {
+                Map<String, String> parts = new LinkedHashMap<>();
+                for (int p = 0; p < plan.partitionCounts[t]; p++) {
+                    String spec = partitionSpec(p);
+                    parts.put(spec, location + "/" + spec);
+                }
+                left.setPartitions(parts);
+            }
+            // Nothing on the RIGHT yet.
+            tableMirror.getEnvironmentTable(Environment.RIGHT);
+            tableMirrors.put(name, tableMirror);
+        }
+        dbMirror.setTableMirrors(tableMirrors);
+        return dbMirror;
+    }
+
+    private String location(Plan plan, String database, String table, int t) {
+        if (plan.offWarehouse[t]) {
+            return plan.namespaceOf[t] + "/data/" + database + "/" + table;
+        }
+        String dir = plan.kinds[t] == TableKind.ACID || plan.kinds[t] == TableKind.LEGACY_MANAGED ? MANAGED_DIR : EXTERNAL_DIR;
+        return plan.namespaceOf[t] + dir + "/" + database + ".db/" + table;
+    }
+
+    /*
+    Hourly partitions, starting at 2020-01-01.
+     */
+    static String partitionSpec(int p) {
+        int day = p / 24;
+        return String.format("dt=%04d-%02d-%02d/hr=%d", 2020 + day / 336, 1 + (day / 28) % 12, 1 + day % 28, p % 24);
+    }
+
+    /*
+    The 'SHOW CREATE TABLE' output for the table.
+     */
+    static List<String> definition(TableKind kind, String name, String location, boolean partitioned) {
+        List<String> rtn = new ArrayList<>();
+        boolean external = kind == TableKind.EXTERNAL || kind == TableKind.EXTERNAL_PURGE;
+        rtn.add((external ? "CREATE EXTERNAL TABLE `" : "CREATE TABLE `") + name + "`(");
+        rtn.add("`id` bigint,");
+        rtn.add("`name` string,");
+        rtn.add("`amount` decimal(10,2),");
+        rtn.add("`updated` timestamp)");
+        if (partitioned) {
+            rtn.add("PARTITIONED BY (");
+            rtn.add("`dt` string,");
+            rtn.add("`hr` int)");
+        }
+        if (kind == TableKind.ACID) {
+            rtn.add("CLUSTERED BY (");
+            rtn.add("id)");
+            rtn.add("INTO 2 BUCKETS");
+        }
+        rtn.add("ROW FORMAT SERDE");
+        if (external) {
+            rtn.add("'org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe'");
+            rtn.add("STORED AS INPUTFORMAT");
+            rtn.add("'org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat'");
+            rtn.add("OUTPUTFORMAT");
+            rtn.add("'org.apache.hadoop.hive.ql.io.parquet.MapredParquetOutputFormat'");
+        } else {
+            rtn.add("'org.apache.hadoop.hive.ql.io.orc.OrcSerde'");
+            rtn.add("STORED AS INPUTFORMAT");
+            rtn.add("'org.apache.hadoop.hive.ql.io.orc.OrcInputFormat'");
+            rtn.add("OUTPUTFORMAT");
+            rtn.add("'org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat'");
+        }
+        rtn.add("LOCATION");
+        rtn.add("'" + location + "'");
+        rtn.add("TBLPROPERTIES (");
+        rtn.add("'bucketing_version'='2',");
+        switch (kind) {
+            case ACID:
+                rtn.add("'transactional'='true',");
+                rtn.add("'transactional_properties'='default',");
+                break;
+            case EXTERNAL_PURGE:
+                rtn.add("'external.table.purge'='true',");
+                break;
+            default:
+        }
+        rtn.add("'transient_lastDdlTime'='1685371171')");
+        return rtn;
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.scale;
+
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.util.NamespaceUtils;
+import com.cloudera.utils.hms.util.TableUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyntheticConversionGeneratorTest {
+
+    private static SyntheticConversionGenerator generator() {
+        SyntheticConversionGenerator generator = new SyntheticConversionGenerator();
+        generator.setDatabases(4);
+        generator.setTables(400);
+        generator.setPartitions(20_000);
+        return generator;
+    }
+
+    private static List<EnvironmentTable> leftTables(Conversion conversion) {
+        List<EnvironmentTable> rtn = new ArrayList<>();
+        for (DBMirror dbMirror : conversion.getDatabases().values()) {
+            for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+                rtn.add(tableMirror.getEnvironmentTable(Environment.LEFT));
+            }
+        }
+        return rtn;
+    }
+
+    @Test
+    public void generate_sizesAndMix() {
+        Conversion conversion = generator().generate();
+        assertEquals(4, conversion.getDatabases().size());
+        List<EnvironmentTable> tables = leftTables(conversion);
+        assertEquals(400, tables.size());
+
+        int acid = 0;
+        int external = 0;
+        int purge = 0;
+        long partitions = 0;
+        int maxPartitions = 0;
+        Set<String> namespaces = new TreeSet<>();
+        for (EnvironmentTable table : tables) {
+            acid += TableUtils.isACID(table) ? 1 : 0;
+            external += TableUtils.isExternal(table) ? 1 : 0;
+            purge += TableUtils.isExternalPurge(table) ? 1 : 0;
+            assertEquals(!table.getPartitions().isEmpty(), TableUtils.isPartitioned(table), table.getName());
+            partitions += table.getPartitions().size();
+            maxPartitions = Math.max(maxPartitions, table.getPartitions().size());
+            String location = TableUtils.getLocation(table.getName(), table.getDefinition());
+            assertTrue(location.endsWith("/" + table.getName()), location);
+            namespaces.add(NamespaceUtils.getNamespace(location));
+            for (String partitionLocation : table.getPartitions().values()) {
+                assertTrue(partitionLocation.startsWith(location + "/dt="), partitionLocation);
+            }
+        }
+        assertTrue(acid > 80 && acid < 160, "acid: " + acid);
+        assertTrue(external > 180, "external: " + external);
+        assertTrue(purge > 0 && purge < external, "purge: " + purge);
+        // Rounding moves the total a little.
+        assertTrue(Math.abs(partitions - 20_000) < 200, "partitions: " + partitions);
+        // Skewed, the biggest table has a lot more than an even share.
+        assertTrue(maxPartitions > 10 * (20_000 / 160), "max partitions: " + maxPartitions);
+        assertTrue(namespaces.size() > 1, namespaces.toString());
+    }
+
+    @Test
+    public void generate_sameSeedSameConversion() {
+        Conversion one = generator().generate();
+        Conversion two = generator().generate();
+        List<EnvironmentTable> oneTables = leftTables(one);
+        List<EnvironmentTable> twoTables = leftTables(two);
+        for (int i = 0; i < oneTables.size(); i++) {
+            assertEquals(oneTables.get(i).getDefinition(), twoTables.get(i).getDefinition());
+            assertEquals(oneTables.get(i).getPartitions(), twoTables.get(i).getPartitions());
+        }
+    }
+
+    @Test
+    public void write_loadsLikeTestData(@TempDir Path dir) throws IOException {
+        SyntheticConversionGenerator generator = generator();
+        File file = dir.resolve("conversion.yaml").toFile();
+        generator.write(file);
+
+        String yaml = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Conversion loaded = new ObjectMapper(new YAMLFactory()).readerFor(Conversion.class).readValue(yaml);
+        Conversion generated = generator.generate();
+        assertEquals(generated.getDatabases().keySet(), loaded.getDatabases().keySet());
+        List<EnvironmentTable> loadedTables = leftTables(loaded);
+        List<EnvironmentTable> generatedTables = leftTables(generated);
+        assertEquals(generatedTables.size(), loadedTables.size());
+        for (int i = 0; i < generatedTables.size(); i++) {
+            assertEquals(generatedTables.get(i).getDefinition(), loadedTables.get(i).getDefinition());
+            assertEquals(generatedTables.get(i).getPartitions(), loadedTables.get(i).getPartitions());
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.scale.SyntheticConversionGenerator;
+import com.cloudera.utils.hms.mirror.util.SerializationUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversionLoaderServiceTest {
+
+    private final ConversionLoaderService conversionLoaderService = new ConversionLoaderService(
+            new SerializationUtils().YAMLMapper(104857600));
+
+    private static SyntheticConversionGenerator generator() {
+        SyntheticConversionGenerator generator = new SyntheticConversionGenerator();
+        generator.setDatabases(3);
+        generator.setTables(90);
+        generator.setPartitions(900);
+        return generator;
+    }
+
+    private static void assertSameTables(Conversion expected, Conversion actual) {
+        assertEquals(expected.getDatabases().keySet(), actual.getDatabases().keySet());
+        for (DBMirror dbMirror : expected.getDatabases().values()) {
+            DBMirror loaded = actual.getDatabase(dbMirror.getName());
+            assertEquals(dbMirror.getTableMirrors().keySet(), loaded.getTableMirrors().keySet());
+            for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+                TableMirror loadedTable = loaded.getTableMirrors().get(tableMirror.getName());
+                assertSame(loaded, loadedTable.getParent());
+                EnvironmentTable left = tableMirror.getEnvironmentTable(Environment.LEFT);
+                EnvironmentTable loadedLeft = loadedTable.getEnvironmentTable(Environment.LEFT);
+                assertEquals(left.getDefinition(), loadedLeft.getDefinition());
+                assertEquals(left.getPartitions(), loadedLeft.getPartitions());
+            }
+        }
+    }
+
+    @Test
+    public void load_conversionYaml_aDatabaseAtATime(@TempDir Path dir) throws IOException {
+        SyntheticConversionGenerator generator = generator();
+        File file = dir.resolve("conversion.yaml").toFile();
+        generator.write(file);
+
+        List<String> seen = new ArrayList<>();
+        Conversion loaded = conversionLoaderService.load(file.getAbsolutePath(), dbMirror -> {
+            // Each database is complete when it's handed over.
+            assertEquals(30, dbMirror.getTableMirrors().size());
+            seen.add(dbMirror.getName());
+        });
+        assertEquals(new ArrayList<>(loaded.getDatabases().keySet()), seen);
+        assertSameTables(generator.generate(), loaded);
+    }
+
+    @Test
+    public void load_consumerTrimsTables(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("conversion.yaml").toFile();
+        generator().write(file);
+
+        Conversion loaded = conversionLoaderService.load(file.getAbsolutePath(),
+                dbMirror -> dbMirror.getTableMirrors().keySet().removeIf(name -> !name.endsWith("0")));
+        for (DBMirror dbMirror : loaded.getDatabases().values()) {
+            assertFalse(dbMirror.getTableMirrors().isEmpty());
+            dbMirror.getTableMirrors().keySet().forEach(name -> assertTrue(name.endsWith("0"), name));
+        }
+    }
+
+    @Test
+    public void load_classpathTestData() throws IOException {
+        Conversion expected = new ObjectMapper(new YAMLFactory()).readerFor(Conversion.class)
+                .readValue(getClass().getResource("/test_data/assorted_tbls_01.yaml"));
+        Conversion loaded = conversionLoaderService.load("/test_data/assorted_tbls_01.yaml", null);
+        assertSameTables(expected, loaded);
+    }
+
+    @Test
+    public void writeLines_roundTrip(@TempDir Path dir) throws IOException {
+        Conversion generated = generator().generate();
+        for (String name : new String[]{"replay.jsonl", "replay.ndjson.gz"}) {
+            File file = dir.resolve(name).toFile();
+            conversionLoaderService.writeLines(generated, file);
+            assertSameTables(generated, conversionLoaderService.load(file.getAbsolutePath(), null));
+        }
+    }
+
+    @Test
+    public void load_reportDirectory_stripsWork(@TempDir Path dir) throws IOException {
+        Conversion generated = generator().generate();
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        for (DBMirror dbMirror : generated.getDatabases().values()) {
+            DBMirror copy = mapper.readValue(mapper.writeValueAsString(dbMirror), DBMirror.class);
+            for (TableMirror tableMirror : copy.getTableMirrors().values()) {
+                tableMirror.getEnvironmentTable(Environment.RIGHT).setName(tableMirror.getName());
+            }
+            mapper.writeValue(dir.resolve(dbMirror.getName() + ConversionLoaderService.REPORT_DB_SUFFIX).toFile(), copy);
+        }
+
+        Conversion loaded = conversionLoaderService.load(dir.toString(), null);
+        assertSameTables(generated, loaded);
+        for (DBMirror dbMirror : loaded.getDatabases().values()) {
+            for (TableMirror tableMirror : dbMirror.getTableMirrors().values()) {
+                assertFalse(tableMirror.getEnvironments().containsKey(Environment.RIGHT));
+            }
+        }
+    }
+
+    @Test
+    public void load_missingFile() {
+        assertThrows(FileNotFoundException.class, () -> conversionLoaderService.load("/no/such/conversion.yaml", null));
+    }
+
+}
@@ -2,6 +2,9 @@ package com.cloudera.utils.hms.mirror.service;
 
 import com.cloudera.utils.hms.mirror.domain.DBMirror;
 import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.MigrateACID;
+import com.cloudera.utils.hms.mirror.domain.support.Conversion;
+import com.cloudera.utils.hms.mirror.domain.support.DataStrategyEnum;
 import com.cloudera.utils.hms.mirror.domain.support.Environment;
 import com.cloudera.utils.hms.mirror.domain.support.ExecuteSession;
 import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
@@ -12,12 +15,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static com.cloudera.utils.hms.mirror.MirrorConf.SHOW_DATABASES;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -56,7 +63,7 @@ public class DatabaseServiceTest {
     @BeforeEach
     public void setUp() {
         databaseService = new DatabaseService(configService, executeSessionService, connectionPoolService, queryDefinitionsService,
-                warehouseService);
+                warehouseService, new SyncTaskExecutor());
         when(executeSessionService.getSession()).thenReturn(executeSession);
         when(executeSession.getConfig()).thenReturn(config);
         when(executeSession.getRunStatus()).thenReturn(runStatus);
@@ -195,4 +202,34 @@ public class DatabaseServiceTest {
 //            fail("No other exception expected.");
 //        }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBuildAndExecuteEachDatabase() {
+        Conversion conversion = new Conversion();
+        Set<String> databases = new TreeSet<>(Arrays.asList("db_01", "db_02", "db_03"));
+        databases.forEach(conversion::addDatabase);
+        when(executeSession.getConversion()).thenReturn(conversion);
+        when(config.getDatabases()).thenReturn(databases);
+        when(config.getMigrateACID()).thenReturn(new MigrateACID());
+        when(config.getDataStrategy()).thenReturn(DataStrategyEnum.STORAGE_MIGRATION);
+
+        DatabaseService service = spy(databaseService);
+        doReturn(true).when(service).buildDBStatements(any(DBMirror.class));
+        assertThat(service.build()).isTrue();
+        verify(service, times(3)).buildDBStatements(any(DBMirror.class));
+
+        // Any database failing fails the build, not just the last one.
+        doReturn(false).when(service).buildDBStatements(conversion.getDatabase("db_01"));
+        assertThat(service.build()).isFalse();
+
+        doReturn(true).when(service).runDatabaseSql(any(DBMirror.class), eq(Environment.LEFT));
+        assertThat(service.execute()).isTrue();
+        verify(service, times(3)).runDatabaseSql(any(DBMirror.class), eq(Environment.LEFT));
+
+        // The databases that haven't started are skipped once a database fails.
+        clearInvocations(service);
+        doReturn(false).when(service).runDatabaseSql(conversion.getDatabase("db_01"), Environment.LEFT);
+        assertThat(service.execute()).isFalse();
+        verify(service, times(1)).runDatabaseSql(any(DBMirror.class), eq(Environment.LEFT));
+    }
+}
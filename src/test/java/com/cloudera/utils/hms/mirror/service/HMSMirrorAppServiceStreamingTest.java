@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.MessageCode;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.*;
+import com.cloudera.utils.hms.stage.ReturnStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class HMSMirrorAppServiceStreamingTest {
+
+    private ExecuteSession session;
+    private DatabaseService databaseService;
+    private TableService tableService;
+    private TransferService transferService;
+    private HMSMirrorAppService service;
+
+    private static CompletableFuture<ReturnStatus> success(TableMirror tableMirror) {
+        ReturnStatus rtn = new ReturnStatus();
+        rtn.setStatus(ReturnStatus.Status.SUCCESS);
+        rtn.setTableMirror(tableMirror);
+        return CompletableFuture.completedFuture(rtn);
+    }
+
+    @BeforeEach
+    public void setup() {
+        HmsMirrorConfig config = new HmsMirrorConfig();
+        config.setExecute(true);
+        session = new ExecuteSession();
+        session.setConfig(config);
+        session.setRunStatus(new RunStatus());
+        Conversion conversion = new Conversion();
+        DBMirror dbMirror = conversion.addDatabase("sales");
+        dbMirror.addTable("orders");
+        dbMirror.addTable("customers");
+        session.setConversion(conversion);
+
+        ExecuteSessionService executeSessionService = mock(ExecuteSessionService.class);
+        when(executeSessionService.getSession()).thenReturn(session);
+        databaseService = mock(DatabaseService.class);
+        tableService = mock(TableService.class);
+        transferService = mock(TransferService.class);
+        when(tableService.getTableMetadata(any())).thenAnswer(i -> success(i.getArgument(0)));
+        when(transferService.build(any())).thenAnswer(i -> success(i.getArgument(0)));
+        when(transferService.execute(any())).thenAnswer(i -> success(i.getArgument(0)));
+        when(databaseService.executeAsync(any())).thenReturn(CompletableFuture.completedFuture(Boolean.TRUE));
+
+        service = new HMSMirrorAppService(executeSessionService, null, databaseService, null, tableService,
+                null, transferService, null, null, mock(RunJournalService.class), mock(TableDeltaService.class),
+                null, true, false);
+    }
+
+    @Test
+    public void setsAreValidatedBeforeExecution() {
+        when(databaseService.checkSqlStatements(any())).thenReturn(Boolean.TRUE);
+
+        assertTrue(service.streamTables(Boolean.TRUE));
+
+        InOrder inOrder = inOrder(transferService, databaseService);
+        inOrder.verify(transferService, times(2)).build(any());
+        inOrder.verify(databaseService).checkSqlStatements(any());
+        inOrder.verify(databaseService).executeAsync(any());
+        inOrder.verify(transferService, times(2)).execute(any());
+        assertEquals(CollectionEnum.COMPLETED, session.getRunStatus().getStage(StageEnum.VALIDATING_ENVIRONMENT_SETS));
+        assertEquals(CollectionEnum.COMPLETED, session.getRunStatus().getStage(StageEnum.PROCESSING_TABLES));
+    }
+
+    @Test
+    public void failedSetsStopExecution() {
+        when(databaseService.checkSqlStatements(any())).thenReturn(Boolean.FALSE);
+
+        assertFalse(service.streamTables(Boolean.TRUE));
+
+        verify(transferService, times(2)).build(any());
+        verify(databaseService, never()).executeAsync(any());
+        verify(transferService, never()).execute(any());
+        RunStatus runStatus = session.getRunStatus();
+        assertEquals(CollectionEnum.ERRORED, runStatus.getStage(StageEnum.VALIDATING_ENVIRONMENT_SETS));
+        assertTrue(runStatus.hasErrors());
+        assertNotNull(runStatus.getErrorMessage(MessageCode.VALIDATE_SQL_STATEMENT_ISSUE));
+    }
+
+}
@@ -108,6 +108,7 @@ public class QueryDefinitionsServiceTest {
         assertNotNull(result.getQueryDefinition("part_locations"), "Loaded YAML content must have valid query for: 'part_locations'");
         assertNotNull(result.getQueryDefinition("database_partition_locations"), "Loaded YAML content must have valid query for: 'database_partition_locations'");
         assertNotNull(result.getQueryDefinition("database_table_locations"), "Loaded YAML content must have valid query for: 'database_table_locations'");
+        assertNotNull(result.getQueryDefinition("database_table_change_markers"), "Loaded YAML content must have valid query for: 'database_table_change_markers'");
     }
 
     @Test
@@ -140,6 +141,7 @@ public class QueryDefinitionsServiceTest {
         assertNotNull(result.getQueryDefinition("part_locations"), "Loaded YAML content must have valid query for: 'part_locations'");
         assertNotNull(result.getQueryDefinition("database_partition_locations"), "Loaded YAML content must have valid query for: 'database_partition_locations'");
         assertNotNull(result.getQueryDefinition("database_table_locations"), "Loaded YAML content must have valid query for: 'database_table_locations'");
+        assertNotNull(result.getQueryDefinition("database_table_change_markers"), "Loaded YAML content must have valid query for: 'database_table_change_markers'");
     }
 
     @Test
@@ -172,6 +174,7 @@ public class QueryDefinitionsServiceTest {
         assertNotNull(result.getQueryDefinition("part_locations"), "Loaded YAML content must have valid query for: 'part_locations'");
         assertNotNull(result.getQueryDefinition("database_partition_locations"), "Loaded YAML content must have valid query for: 'database_partition_locations'");
         assertNotNull(result.getQueryDefinition("database_table_locations"), "Loaded YAML content must have valid query for: 'database_table_locations'");
+        assertNotNull(result.getQueryDefinition("database_table_change_markers"), "Loaded YAML content must have valid query for: 'database_table_change_markers'");
     }
 
     /**
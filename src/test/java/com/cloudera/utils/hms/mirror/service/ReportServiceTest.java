@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.ReportIndex;
+import com.cloudera.utils.hms.mirror.util.SerializationUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReportServiceTest {
+
+    private static final String SESSION = "2024-01-01_00-00-00";
+
+    private final ObjectMapper yamlMapper = new SerializationUtils().YAMLMapper(104857600);
+
+    @TempDir
+    Path reportDir;
+
+    private ReportService reportService;
+    private File yamlFile;
+
+    private DBMirror database(String prefix, int tables) {
+        DBMirror dbMirror = new DBMirror();
+        dbMirror.setName("sales");
+        for (int i = 0; i < tables; i++) {
+            TableMirror tableMirror = dbMirror.addTable(String.format("%s_%02d", prefix, i));
+            tableMirror.setPhaseState(i % 4 == 0 ? PhaseState.ERROR : PhaseState.PROCESSED);
+            if (i % 4 == 0) {
+                tableMirror.addError(Environment.LEFT, "Failed on " + tableMirror.getName());
+            }
+        }
+        dbMirror.getFilteredOut().put("tmp_load", "Filtered out");
+        return dbMirror;
+    }
+
+    @BeforeEach
+    public void setup() throws IOException {
+        ExecuteSessionService executeSessionService = mock(ExecuteSessionService.class);
+        when(executeSessionService.getReportOutputDirectory()).thenReturn(reportDir.toString());
+        reportService = new ReportService(mock(DomainService.class), executeSessionService, yamlMapper);
+        File sessionDir = reportDir.resolve(SESSION).toFile();
+        assertTrue(sessionDir.mkdirs());
+        yamlFile = new File(sessionDir, "sales_hms-mirror.yaml");
+        yamlMapper.writeValue(yamlFile, database("tbl", 12));
+    }
+
+    @Test
+    public void pagesAreReadFromTheIndex() throws IOException {
+        File indexFile = ReportIndex.indexFile(yamlFile);
+        assertFalse(indexFile.exists());
+
+        ReportIndex index = reportService.getReportIndex(SESSION, "sales");
+        assertTrue(indexFile.exists());
+        assertEquals(12, index.getTables().size());
+        assertEquals(3, index.getPhases().get(PhaseState.ERROR));
+
+        ReportIndex.Page page = reportService.getTables(SESSION, "sales", null, false, 1, 5);
+        assertEquals(12, page.getTotal());
+        assertEquals(3, page.getPages());
+        DBMirror dbMirror = reportService.getDBMirror(SESSION, "sales", index, page);
+        assertEquals("sales", dbMirror.getName());
+        assertEquals("Filtered out", dbMirror.getFilteredOut().get("tmp_load"));
+        assertEquals(Arrays.asList("tbl_05", "tbl_06", "tbl_07", "tbl_08", "tbl_09"),
+                new ArrayList<>(dbMirror.getTableMirrors().keySet()));
+        assertSame(dbMirror, dbMirror.getTableMirrors().get("tbl_08").getParent());
+
+        page = index.find(PhaseState.ERROR, true, 0, 5);
+        dbMirror = reportService.getDBMirror(SESSION, "sales", index, page);
+        assertEquals(Arrays.asList("tbl_00", "tbl_04", "tbl_08"), new ArrayList<>(dbMirror.getTableMirrors().keySet()));
+        assertEquals(1, dbMirror.getTableMirrors().get("tbl_04").getErrors(Environment.LEFT).size());
+    }
+
+    @Test
+    public void aChangedReportIsIndexedAgain() throws IOException {
+        ReportIndex index = reportService.getReportIndex(SESSION, "sales");
+
+        // Same length, only the time tells.
+        yamlMapper.writeValue(yamlFile, database("new", 12));
+        assertTrue(yamlFile.setLastModified(index.getFileModified() + 5000));
+        assertEquals("new_00", reportService.getReportIndex(SESSION, "sales").getTables().get(0).getName());
+
+        // An index that claims to be current but doesn't line up.
+        index.write(ReportIndex.indexFile(yamlFile));
+        assertTrue(yamlFile.setLastModified(index.getFileModified()));
+        ReportIndex stale = reportService.getReportIndex(SESSION, "sales");
+        assertEquals("tbl_00", stale.getTables().get(0).getName());
+        assertThrows(ReportIndex.MismatchException.class,
+                () -> reportService.getDBMirror(SESSION, "sales", stale, stale.find(null, false, 0, 5)));
+        ReportIndex rebuilt = reportService.rebuildReportIndex(SESSION, "sales");
+        assertEquals(5, reportService.getDBMirror(SESSION, "sales", rebuilt, rebuilt.find(null, false, 0, 5))
+                .getTableMirrors().size());
+
+        // A single table rebuilds it on its own.
+        index.write(ReportIndex.indexFile(yamlFile));
+        assertTrue(yamlFile.setLastModified(index.getFileModified()));
+        assertNull(reportService.getTableMirror(SESSION, "sales", "tbl_03"));
+        assertEquals("new_00", ReportIndex.read(ReportIndex.indexFile(yamlFile)).getTables().get(0).getName());
+        assertEquals("new_03", reportService.getTableMirror(SESSION, "sales", "new_03").getName());
+    }
+
+    @Test
+    public void reportsAreZippedAsTheyAreStreamed() throws IOException {
+        File sessionDir = yamlFile.getParentFile();
+        Files.write(new File(sessionDir, "session-config.yaml").toPath(), "config: true\n".getBytes(StandardCharsets.UTF_8));
+        reportService.getReportIndex(SESSION, "sales");
+
+        HttpEntity<StreamingResponseBody> entity = reportService.getZippedReport(SESSION);
+        assertEquals("attachment; filename=" + SESSION + ".zip",
+                entity.getHeaders().getFirst("Content-Disposition"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.getBody().writeTo(out);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipIn.getNextEntry()) != null) {
+                names.add(entry.getName());
+                byte[] expected = Files.readAllBytes(new File(sessionDir, entry.getName()).toPath());
+                assertArrayEquals(expected, zipIn.readAllBytes(), entry.getName());
+            }
+        }
+        assertEquals(Arrays.asList("sales" + ReportIndex.SUFFIX, "sales_hms-mirror.yaml", "session-config.yaml"), names);
+
+        assertThrows(IOException.class, () -> reportService.getZippedReport("missing"));
+    }
+
+}
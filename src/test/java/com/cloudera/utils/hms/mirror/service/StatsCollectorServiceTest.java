@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hms.mirror.domain.support.MetastoreTableDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsCollectorServiceTest {
+
+    @TempDir
+    Path warehouse;
+
+    private StatsCollectorService statsCollectorService;
+
+    @BeforeEach
+    void setUp() {
+        statsCollectorService = new StatsCollectorService(null, new EnvironmentService(),
+                new SimpleAsyncTaskExecutor("stats-test-"), 2);
+    }
+
+    private String table(String name, int files, int bytesPerFile) throws IOException {
+        Path table = Files.createDirectories(warehouse.resolve(name));
+        for (int i = 0; i < files; i++) {
+            Path partition = Files.createDirectories(table.resolve("dt=" + (i % 2)));
+            Files.write(partition.resolve("00000" + i + "_0"), new byte[bytesPerFile]);
+        }
+        return table.toUri().toString();
+    }
+
+    @Test
+    public void getContentStats_fromFileSystem() throws IOException {
+        String location = table("tbl_01", 4, 100);
+
+        StatsCollectorService.ContentStats stats = statsCollectorService.getContentStats(location);
+        assertNotNull(stats);
+        // The table directory and the two partitions.
+        assertEquals(3L, stats.getDirectoryCount());
+        assertEquals(4L, stats.getFileCount());
+        assertEquals(400L, stats.getLength());
+
+        // Cached for the run.
+        assertSame(stats, statsCollectorService.getContentStats(location));
+        statsCollectorService.clear();
+        assertNotSame(stats, statsCollectorService.getContentStats(location));
+    }
+
+    @Test
+    public void prefetch_collectsInBackground() throws IOException {
+        List<String> locations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            locations.add(table("tbl_" + i, i, 10));
+        }
+        statsCollectorService.prefetch(locations);
+        assertEquals(10, statsCollectorService.getCache().size());
+        for (int i = 0; i < 10; i++) {
+            StatsCollectorService.ContentStats stats = statsCollectorService.getContentStats(locations.get(i));
+            assertEquals(i, stats.getFileCount());
+            assertEquals(i * 10L, stats.getLength());
+        }
+    }
+
+    @Test
+    public void prefetch_countsInlineWhenRejected() throws IOException {
+        StatsCollectorService rejecting = new StatsCollectorService(null, new EnvironmentService(), task -> {
+            throw new RejectedExecutionException("Full");
+        }, 2);
+        String location = table("tbl_rejected", 3, 10);
+        rejecting.prefetch(Arrays.asList(location, location));
+
+        CompletableFuture<StatsCollectorService.ContentStats> future = rejecting.getCache().get(location);
+        assertTrue(future.isDone());
+        assertEquals(3L, future.join().getFileCount());
+        assertSame(future.join(), rejecting.getContentStats(location));
+    }
+
+    @Test
+    public void fromTableParameters_onlyWhenAccurate() {
+        MetastoreTableDefinition definition = new MetastoreTableDefinition("tbl_01");
+        definition.getTableParameters().put("numFiles", "12");
+        definition.getTableParameters().put("totalSize", "1200");
+        assertNull(StatsCollectorService.fromTableParameters(definition));
+
+        definition.getTableParameters().put("COLUMN_STATS_ACCURATE", "{\"BASIC_STATS\":\"true\",\"COLUMN_STATS\":{\"id\":\"true\"}}");
+        StatsCollectorService.ContentStats stats = StatsCollectorService.fromTableParameters(definition);
+        assertNotNull(stats);
+        assertNull(stats.getDirectoryCount());
+        assertEquals(12L, stats.getFileCount());
+        assertEquals(1200L, stats.getLength());
+
+        // The table parameters don't cover the partitions.
+        definition.addPartitionKey("dt", "string", null);
+        assertNull(StatsCollectorService.fromTableParameters(definition));
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.service;
+
+import com.cloudera.utils.hive.config.DBStore;
+import com.cloudera.utils.hms.mirror.domain.Cluster;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.ExecuteSession;
+import com.cloudera.utils.hms.mirror.domain.support.RunStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TableServicePartitionsDirectTest {
+
+    private static final int FETCH_SIZE = 5000;
+
+    private final Connection conn = mock(Connection.class);
+    private final PreparedStatement countStatement = mock(PreparedStatement.class);
+    private final PreparedStatement partitionStatement = mock(PreparedStatement.class);
+
+    private static ResultSet rows(Object[]... rows) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        int[] at = {-1};
+        when(resultSet.next()).thenAnswer(i -> ++at[0] < rows.length);
+        when(resultSet.getString(anyInt())).thenAnswer(i -> String.valueOf(rows[at[0]][(int) i.getArgument(0) - 1]));
+        when(resultSet.getInt(anyInt())).thenAnswer(i -> (Integer) rows[at[0]][(int) i.getArgument(0) - 1]);
+        return resultSet;
+    }
+
+    private TableService tableService(DBStore.DB_TYPE dbType, int partLimit) throws SQLException {
+        DBStore metastoreDirect = mock(DBStore.class);
+        when(metastoreDirect.getType()).thenReturn(dbType);
+        Cluster cluster = new Cluster();
+        cluster.setMetastoreDirect(metastoreDirect);
+        HmsMirrorConfig config = new HmsMirrorConfig();
+        config.getClusters().put(Environment.LEFT, cluster);
+        config.getFilter().setTblPartitionLimit(partLimit);
+        ExecuteSession session = new ExecuteSession();
+        session.setConfig(config);
+        session.setRunStatus(new RunStatus());
+        ExecuteSessionService executeSessionService = mock(ExecuteSessionService.class);
+        when(executeSessionService.getSession()).thenReturn(session);
+
+        ConfigService configService = mock(ConfigService.class);
+        when(configService.isMetastoreDirectConfigured(any(), eq(Environment.LEFT))).thenReturn(Boolean.TRUE);
+        ConnectionPoolService connectionPoolService = mock(ConnectionPoolService.class);
+        when(connectionPoolService.getMetastoreDirectEnvironmentConnection(Environment.LEFT)).thenReturn(conn);
+
+        when(conn.getAutoCommit()).thenReturn(Boolean.TRUE);
+        when(conn.prepareStatement(anyString())).thenReturn(countStatement);
+        when(conn.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(partitionStatement);
+        ResultSet counts = rows(new Object[]{"orders", 2}, new Object[]{"huge", 500});
+        when(countStatement.executeQuery()).thenReturn(counts);
+        ResultSet partitions = rows(
+                new Object[]{"orders", "dt=1", "hdfs://HOME90/sales.db/orders/dt=1"},
+                new Object[]{"orders", "dt=2", "hdfs://HOME90/sales.db/orders/dt=2"},
+                // Filtered out, not held.
+                new Object[]{"tmp_load", "dt=1", "hdfs://HOME90/sales.db/tmp_load/dt=1"});
+        when(partitionStatement.executeQuery()).thenReturn(partitions);
+
+        return new TableService(configService, executeSessionService, connectionPoolService,
+                new QueryDefinitionsService(executeSessionService), null, null, null, null, null,
+                false, FETCH_SIZE, new SyncTaskExecutor(), new SyncTaskExecutor());
+    }
+
+    private static DBMirror database() {
+        DBMirror dbMirror = new DBMirror();
+        dbMirror.setName("sales");
+        dbMirror.addTable("orders");
+        dbMirror.addTable("huge");
+        return dbMirror;
+    }
+
+    @Test
+    public void loadPartitionsDirect_mysqlStreamsTablesWithinLimit() throws SQLException {
+        TableService tableService = tableService(DBStore.DB_TYPE.MYSQL, 100);
+        DBMirror dbMirror = database();
+
+        tableService.loadPartitionsDirect(dbMirror, Environment.LEFT);
+
+        Map<String, String> orders = dbMirror.getTableMirrors().get("orders")
+                .getEnvironmentTable(Environment.LEFT).getPartitions();
+        assertEquals(2, orders.size());
+        assertEquals("hdfs://HOME90/sales.db/orders/dt=2", orders.get("dt=2"));
+        assertTrue(dbMirror.getTableMirrors().get("huge").getEnvironmentTable(Environment.LEFT).getPartitions().isEmpty());
+        assertEquals(500, dbMirror.getMetastorePartitionCounts().get(Environment.LEFT).get("huge"));
+
+        // The counts in the limit only cover the tables of the database.
+        ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+        verify(conn).prepareStatement(query.capture(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        assertTrue(query.getValue().contains("DC.NAME = ?"));
+        verify(partitionStatement).setString(1, "sales");
+        verify(partitionStatement).setString(2, "sales");
+        verify(partitionStatement).setInt(3, 100);
+
+        // MySQL only streams with Integer.MIN_VALUE and doesn't need a transaction for it.
+        verify(partitionStatement).setFetchSize(Integer.MIN_VALUE);
+        verify(conn, never()).setAutoCommit(anyBoolean());
+    }
+
+    @Test
+    public void streamPartitions_postgresUsesACursor() throws SQLException {
+        TableService tableService = tableService(DBStore.DB_TYPE.POSTGRES, -1);
+        List<String> seen = new ArrayList<>();
+
+        long rows = tableService.streamPartitions(conn, "SELECT", "sales", null, DBStore.DB_TYPE.POSTGRES,
+                (table, partName, location) -> seen.add(table + "/" + partName));
+
+        assertEquals(3, rows);
+        assertEquals("orders/dt=1", seen.get(0));
+        verify(partitionStatement).setFetchSize(FETCH_SIZE);
+        verify(partitionStatement).setString(1, "sales");
+        verify(partitionStatement, never()).setInt(anyInt(), anyInt());
+        // The cursor only works outside of auto-commit, which is put back after.
+        InOrder inOrder = inOrder(conn, partitionStatement);
+        inOrder.verify(conn).setAutoCommit(false);
+        inOrder.verify(partitionStatement).executeQuery();
+        inOrder.verify(conn).rollback();
+        inOrder.verify(conn).setAutoCommit(true);
+    }
+
+    @Test
+    public void loadPartitionsDirect_withoutLimitLoadsAll() throws SQLException {
+        TableService tableService = tableService(DBStore.DB_TYPE.POSTGRES, -1);
+        DBMirror dbMirror = database();
+
+        tableService.loadPartitionsDirect(dbMirror, Environment.LEFT);
+
+        ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+        verify(conn).prepareStatement(query.capture(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        assertFalse(query.getValue().contains("HAVING"));
+        assertEquals(2, dbMirror.getTableMirrors().get("orders").getEnvironmentTable(Environment.LEFT)
+                .getPartitions().size());
+        verify(partitionStatement).setFetchSize(FETCH_SIZE);
+    }
+
+}
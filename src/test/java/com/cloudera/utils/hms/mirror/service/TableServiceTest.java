@@ -8,6 +8,7 @@ import com.cloudera.utils.hms.mirror.service.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.core.task.SyncTaskExecutor;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -39,7 +40,14 @@ class TableServiceTest extends ServiceTestBase {
                 connectionPoolService,
                 queryDefinitionsService,
                 translatorService,
-                statsCalculatorService
+                statsCalculatorService,
+                new RunJournalService(executeSessionService, false),
+                new StatsCollectorService(executeSessionService, environmentService, new SyncTaskExecutor(), 8),
+                new TableDeltaService(executeSessionService, new RunJournalService(executeSessionService, false), false),
+                true,
+                10000,
+                new SyncTaskExecutor(),
+                new SyncTaskExecutor()
         );
     }
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadTaskExecutorTest {
+
+    @Test
+    public void boundsConcurrentTasks() throws InterruptedException {
+        assumeTrue(VirtualThreadTaskExecutor.isSupported(), "Virtual threads need JDK 21+");
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("test-", 4, 10);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+            assertTrue(executor.getActiveCount() <= 14);
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(4, maxRunning.get());
+    }
+
+    @Test
+    public void unsupported_failsFast() {
+        assumeTrue(!VirtualThreadTaskExecutor.isSupported());
+        assertThrows(IllegalStateException.class, () -> new VirtualThreadTaskExecutor("test-", 4, 10));
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.utils;
+
+import com.cloudera.utils.hms.mirror.CopySpec;
+import com.cloudera.utils.hms.mirror.datastrategy.SchemaOnlyDataStrategy;
+import com.cloudera.utils.hms.mirror.domain.Cluster;
+import com.cloudera.utils.hms.mirror.domain.DBMirror;
+import com.cloudera.utils.hms.mirror.domain.EnvironmentTable;
+import com.cloudera.utils.hms.mirror.domain.HmsMirrorConfig;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.Environment;
+import com.cloudera.utils.hms.mirror.domain.support.ExecuteSession;
+import com.cloudera.utils.hms.mirror.exceptions.RequiredConfigurationException;
+import com.cloudera.utils.hms.mirror.service.ConfigService;
+import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
+import com.cloudera.utils.hms.mirror.service.StatsCalculatorService;
+import com.cloudera.utils.hms.mirror.service.TableService;
+import com.cloudera.utils.hms.mirror.service.TranslatorService;
+import com.cloudera.utils.hms.util.TableDefinitionIndex;
+import com.cloudera.utils.hms.util.TableDefinitionLines;
+import com.cloudera.utils.hms.util.TableUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.cloudera.utils.hms.mirror.TablePropertyVars.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TableDefinitionIndexTest {
+
+    private static List<String> managedAcid() {
+        return new ArrayList<>(Arrays.asList(
+                "CREATE TABLE `sales`.`orders`(",
+                "  `id` bigint, ",
+                "  `amount` decimal(10,2))",
+                "PARTITIONED BY ( ",
+                "  `dt` string)",
+                "CLUSTERED BY ( ",
+                "  id) ",
+                "INTO 4 BUCKETS",
+                "ROW FORMAT SERDE ",
+                "  'org.apache.hadoop.hive.ql.io.orc.OrcSerde' ",
+                "STORED AS INPUTFORMAT ",
+                "  'org.apache.hadoop.hive.ql.io.orc.OrcInputFormat' ",
+                "OUTPUTFORMAT ",
+                "  'org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat'",
+                "LOCATION",
+                "  'hdfs://HOME90/warehouse/tablespace/managed/hive/sales.db/orders'",
+                "TBLPROPERTIES (",
+                "  'bucketing_version'='2', ",
+                "  'transactional'='true', ",
+                "  'transactional_properties'='default', ",
+                "  'transient_lastDdlTime'='1606919548')"));
+    }
+
+    @Test
+    public void index_matchesLineScans() {
+        List<String> lines = managedAcid();
+        TableDefinitionIndex index = TableDefinitionIndex.of(lines);
+
+        assertTrue(index.isManaged());
+        assertFalse(index.isExternal());
+        assertFalse(index.isView());
+        assertTrue(index.isPartitioned());
+        assertTrue(index.isHiveNative());
+        assertFalse(index.isAvroSchemaBased());
+        assertEquals(0, index.getCreateLine());
+        assertEquals("INTO 4 BUCKETS", index.getBucketsLine());
+        assertEquals(lines.indexOf(TableUtils.LOCATION), index.indexOf(TableUtils.LOCATION));
+        assertEquals(-1, index.indexOf("missing"));
+        assertEquals("hdfs://HOME90/warehouse/tablespace/managed/hive/sales.db/orders",
+                index.valueAfter(TableUtils.LOCATION));
+        assertEquals(18, index.tblPropertyLine(TRANSACTIONAL));
+        assertEquals(18, index.tblPropertyLine("TRANSACTIONAL"));
+        assertEquals(-1, index.tblPropertyLine(EXTERNAL_TABLE_PURGE));
+        assertEquals("true", index.propertyValue(index.firstLineStartingWith("'" + TRANSACTIONAL)).orElse(null));
+        assertEquals("1606919548", index.propertyValue(20).orElse(null));
+    }
+
+    @Test
+    public void lines_dropCachedIndexOnChange() {
+        TableDefinitionLines lines = new TableDefinitionLines(managedAcid());
+        TableDefinitionIndex index = lines.index();
+        assertSame(index, lines.index());
+
+        lines.set(0, "CREATE EXTERNAL TABLE `sales`.`orders`(");
+        assertNotSame(index, lines.index());
+        assertTrue(lines.index().isExternal());
+        assertFalse(lines.index().isManaged());
+
+        index = lines.index();
+        int location = lines.indexOf(TableUtils.LOCATION);
+        lines.remove(location + 1);
+        lines.remove(location);
+        assertNotSame(index, lines.index());
+        assertEquals(-1, lines.index().indexOf(TableUtils.LOCATION));
+        assertFalse(lines.index().isHiveNative());
+        assertEquals(lines.indexOf(TableUtils.TBL_PROPERTIES), lines.index().indexOf(TableUtils.TBL_PROPERTIES));
+
+        lines.add(0, "");
+        assertEquals(1, lines.index().getCreateLine());
+
+        // A 'set' isn't a structural change, iterating on after one is fine.
+        index = lines.index();
+        for (String line : lines) {
+            if (line.startsWith("INTO")) {
+                lines.set(lines.indexOf(line), "INTO 8 BUCKETS");
+            }
+        }
+        assertNotSame(index, lines.index());
+        assertEquals("INTO 8 BUCKETS", lines.index().getBucketsLine());
+    }
+
+    @Test
+    public void environmentTable_mutationsSeenByPredicates() {
+        EnvironmentTable envTable = new EnvironmentTable(null);
+        envTable.setName("orders");
+        envTable.setDefinition(managedAcid());
+        assertTrue(envTable.getDefinition() instanceof TableDefinitionLines);
+
+        assertTrue(TableUtils.isManaged(envTable));
+        assertTrue(TableUtils.isACID(envTable));
+        assertEquals(4, TableUtils.numOfBuckets(envTable));
+
+        TableUtils.makeExternal(envTable);
+        assertFalse(TableUtils.isManaged(envTable));
+        assertTrue(TableUtils.isExternal(envTable));
+        assertFalse(TableUtils.isACID(envTable));
+        assertNull(TableUtils.getTblProperty(TRANSACTIONAL, envTable));
+
+        TableUtils.upsertTblProperty(EXTERNAL_TABLE_PURGE, "true", envTable);
+        assertTrue(TableUtils.isExternalPurge(envTable));
+        TableUtils.replaceTblProperty(EXTERNAL_TABLE_PURGE, "false", envTable);
+        assertFalse(TableUtils.isExternalPurge(envTable));
+
+        TableUtils.changeTableName(envTable, "orders_v2");
+        assertEquals("orders_v2", TableUtils.getTableNameFromDefinition(envTable.getDefinition()));
+        TableUtils.stripDatabase(envTable);
+        assertEquals("CREATE EXTERNAL TABLE `orders_v2`(", envTable.getDefinition().get(0));
+
+        TableUtils.updateTableLocation(envTable, "hdfs://HOME91/data/orders");
+        assertEquals("hdfs://HOME91/data/orders", TableUtils.getLocation("orders", envTable.getDefinition()));
+        TableUtils.stripLocation("orders", envTable.getDefinition());
+        assertNull(TableUtils.getLocation("orders", envTable.getDefinition()));
+    }
+
+    @Test
+    public void dataStrategy_convertsManagedToExternal() throws RequiredConfigurationException {
+        HmsMirrorConfig config = new HmsMirrorConfig();
+        config.getClusters().put(Environment.LEFT, new Cluster());
+        config.getClusters().put(Environment.RIGHT, new Cluster());
+        ExecuteSession session = new ExecuteSession();
+        session.setConfig(config);
+        ExecuteSessionService executeSessionService = mock(ExecuteSessionService.class);
+        when(executeSessionService.getSession()).thenReturn(session);
+        SchemaOnlyDataStrategy strategy = new SchemaOnlyDataStrategy(mock(StatsCalculatorService.class),
+                executeSessionService, mock(TranslatorService.class), mock(ConfigService.class),
+                mock(TableService.class));
+
+        DBMirror dbMirror = new DBMirror();
+        dbMirror.setName("sales");
+        TableMirror tableMirror = dbMirror.addTable("orders");
+        EnvironmentTable source = tableMirror.getEnvironmentTable(Environment.LEFT);
+        source.setName("orders");
+        source.setExists(Boolean.TRUE);
+        source.setDefinition(managedAcid());
+
+        CopySpec copySpec = new CopySpec(tableMirror, Environment.LEFT, Environment.RIGHT);
+        copySpec.setMakeExternal(Boolean.TRUE);
+        assertTrue(strategy.buildTableSchema(copySpec));
+
+        EnvironmentTable target = tableMirror.getEnvironmentTable(Environment.RIGHT);
+        assertTrue(TableUtils.isExternal(target));
+        assertFalse(TableUtils.isManaged(target));
+        assertFalse(TableUtils.isACID(target));
+        assertTrue(target.getDefinition().get(0).startsWith("CREATE EXTERNAL TABLE"));
+        // The source is left as it was.
+        assertTrue(TableUtils.isManaged(source));
+        assertTrue(TableUtils.isACID(source));
+    }
+
+}
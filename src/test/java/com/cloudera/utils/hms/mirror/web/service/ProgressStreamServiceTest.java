@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2024. Cloudera, Inc. All Rights Reserved
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.cloudera.utils.hms.mirror.web.service;
+
+import com.cloudera.utils.hms.mirror.MessageCode;
+import com.cloudera.utils.hms.mirror.PhaseState;
+import com.cloudera.utils.hms.mirror.domain.TableMirror;
+import com.cloudera.utils.hms.mirror.domain.support.*;
+import com.cloudera.utils.hms.mirror.service.ExecuteSessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProgressStreamServiceTest {
+
+    private ExecuteSession session;
+    private ExecuteSessionService executeSessionService;
+    private ProgressStreamService service;
+
+    private static ExecuteSession newSession(String sessionId) {
+        ExecuteSession session = new ExecuteSession();
+        session.setSessionId(sessionId);
+        session.setRunStatus(new RunStatus());
+        session.setConversion(new Conversion());
+        return session;
+    }
+
+    @BeforeEach
+    public void setup() {
+        session = newSession("one");
+        executeSessionService = mock(ExecuteSessionService.class);
+        when(executeSessionService.getSession()).thenAnswer(i -> session);
+        service = new ProgressStreamService(executeSessionService, 500, 4, 60000);
+    }
+
+    @Test
+    public void changesAreCoalesced() {
+        List<ProgressEvent> events = service.poll();
+        assertEquals(1, events.size());
+        assertEquals(ProgressEvent.SNAPSHOT, events.get(0).getType());
+        assertTrue(service.poll().isEmpty());
+
+        TableMirror orders = session.getConversion().addDatabase("sales").addTable("orders");
+        TableMirror customers = session.getConversion().getDatabase("sales").addTable("customers");
+        session.getRunStatus().setProgress(ProgressEnum.IN_PROGRESS);
+        session.getRunStatus().setStage(StageEnum.VALIDATING_CONFIG, CollectionEnum.IN_PROGRESS);
+        session.getRunStatus().setStage(StageEnum.VALIDATING_CONFIG, CollectionEnum.COMPLETED);
+        session.getRunStatus().setStage(StageEnum.CONNECTION, CollectionEnum.IN_PROGRESS);
+        orders.setPhaseState(PhaseState.CALCULATING_SQL);
+        customers.setPhaseState(PhaseState.CALCULATING_SQL);
+        customers.setPhaseState(PhaseState.CALCULATED_SQL);
+
+        events = service.poll();
+        assertEquals(4, events.size());
+        assertEquals(ProgressEvent.PROGRESS, events.get(0).getType());
+        assertEquals(ProgressEvent.STAGE, events.get(1).getType());
+        Map<?, ?> stages = (Map<?, ?>) events.get(1).getData().get("stages");
+        assertEquals(2, stages.size());
+        assertEquals(CollectionEnum.COMPLETED, stages.get(StageEnum.VALIDATING_CONFIG));
+        assertEquals(ProgressEvent.PHASES, events.get(2).getType());
+        assertEquals(2, events.get(2).getData().get("tableCount"));
+        // The table that went in and out between two reads isn't there.
+        assertEquals(ProgressEvent.TABLES, events.get(3).getType());
+        Map<?, ?> started = (Map<?, ?>) events.get(3).getData().get("started");
+        assertEquals(1, started.size());
+        assertEquals(PhaseState.CALCULATING_SQL, started.get("sales.orders"));
+
+        orders.setPhaseState(PhaseState.CALCULATED_SQL);
+        session.getRunStatus().addError(MessageCode.ACID_DOWNGRADE_SCHEMA_ONLY);
+        events = service.poll();
+        assertEquals(3, events.size());
+        assertEquals(ProgressEvent.TABLES, events.get(1).getType());
+        assertEquals(1, ((List<?>) events.get(1).getData().get("finished")).size());
+        assertEquals(ProgressEvent.ERRORS, events.get(2).getType());
+        assertEquals(1, ((List<?>) events.get(2).getData().get("added")).size());
+
+        // Ids go up by one.
+        for (int i = 1; i < events.size(); i++) {
+            assertEquals(events.get(i - 1).getId() + 1, events.get(i).getId());
+        }
+    }
+
+    @Test
+    public void resetAndNewSessionStartOver() {
+        service.poll();
+        session.getRunStatus().addWarning(MessageCode.ALIGN_LOCATIONS_WARNING);
+        assertEquals(ProgressEvent.WARNINGS, service.poll().get(0).getType());
+
+        session.getRunStatus().reset();
+        List<ProgressEvent> events = service.poll();
+        assertEquals(1, events.size());
+        assertEquals(ProgressEvent.SNAPSHOT, events.get(0).getType());
+
+        session = newSession("two");
+        events = service.poll();
+        assertEquals(ProgressEvent.SNAPSHOT, events.get(0).getType());
+        assertEquals("two", events.get(0).getData().get("sessionId"));
+    }
+
+    @Test
+    public void catchUpReplaysOrSnapshots() {
+        service.poll();
+        for (StageEnum stage : new StageEnum[]{StageEnum.VALIDATING_CONFIG, StageEnum.VALIDATE_CONNECTION_CONFIG,
+                StageEnum.CONNECTION, StageEnum.GATHERING_DATABASES}) {
+            session.getRunStatus().setStage(stage, CollectionEnum.COMPLETED);
+            service.poll();
+        }
+        // Ids 1 (snapshot) to 5, the buffer keeps the last 4.
+        List<ProgressEvent> events = service.catchUp(3L);
+        assertEquals(2, events.size());
+        assertEquals(4, events.get(0).getId());
+        assertTrue(service.catchUp(5L).isEmpty());
+
+        // Too far back, or from another run.
+        for (Long lastEventId : new Long[]{null, 0L, 99L}) {
+            events = service.catchUp(lastEventId);
+            assertEquals(1, events.size());
+            assertEquals(ProgressEvent.SNAPSHOT, events.get(0).getType());
+            assertEquals(5, events.get(0).getId());
+            Map<?, ?> stages = (Map<?, ?>) events.get(0).getData().get("stages");
+            assertEquals(CollectionEnum.COMPLETED, stages.get(StageEnum.GATHERING_DATABASES));
+        }
+        events = service.catchUp(1L);
+        assertEquals(4, events.size());
+    }
+
+    @Test
+    public void stageSummariesAreSent() {
+        service.poll();
+        StageProgress metadata = session.getRunStatus().getStageProgress(StageEnum.LOAD_TABLE_METADATA);
+        metadata.submit();
+        metadata.submit();
+        metadata.complete(false);
+
+        List<ProgressEvent> events = service.poll();
+        assertEquals(1, events.size());
+        assertEquals(ProgressEvent.STAGE, events.get(0).getType());
+        assertTrue(((Map<?, ?>) events.get(0).getData().get("stages")).isEmpty());
+        Map<?, ?> summaries = (Map<?, ?>) events.get(0).getData().get("summaries");
+        assertEquals("1/2", summaries.get(StageEnum.LOAD_TABLE_METADATA));
+    }
+
+    @Test
+    public void readsOnlyWhileSubscribed() {
+        assertFalse(service.isReading());
+        SseEmitter first = service.subscribe(null);
+        SseEmitter second = service.subscribe(null);
+        assertTrue(service.isReading());
+        assertEquals(2, service.getSubscriberCount());
+
+        service.unsubscribe(first);
+        assertTrue(service.isReading());
+        service.unsubscribe(second);
+        assertFalse(service.isReading());
+        assertEquals(0, service.getSubscriberCount());
+
+        // Started again with the next one.
+        service.subscribe(null);
+        assertTrue(service.isReading());
+        service.shutdown();
+        assertFalse(service.isReading());
+    }
+
+}